@@ -0,0 +1,84 @@
+package com.sisal.transaction.server.benchmark;
+
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.service.BalanceRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance check and update of a withdrawal: the previous boxed {@code Double} entity fields vs. primitive minor units.
+ * <p>
+ * Allocation per operation is reported by the JMH GC profiler ({@code -prof gc}).
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BalanceCheckBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BalanceCheckBenchmark {
+
+    private static final TransactionEntity.TransactionType WITHDRAWAL = TransactionEntity.TransactionType.WITHDRAWAL;
+
+    private OffsetDateTime createdAt;
+
+    private Double boxedBalance;
+    private Double boxedAmount;
+
+    private long balance;
+    private long amount;
+
+    @Setup
+    public void setUp() {
+        createdAt = OffsetDateTime.now().minusDays(30);
+        // Boxed values outside of the Double cache, as loaded by Hibernate
+        boxedBalance = 1_000_000.0;
+        boxedAmount = 0.01;
+        balance = 1_000_000_00L;
+        amount = 1L;
+    }
+
+    @Benchmark
+    public Double boxedDouble() {
+        return BoxedBalanceRules.applyTransaction(boxedBalance, boxedAmount, WITHDRAWAL, createdAt);
+    }
+
+    @Benchmark
+    public long minorUnits() {
+        return BalanceRules.applyTransaction(balance, amount, WITHDRAWAL, createdAt);
+    }
+
+    /**
+     * Previous implementation, operating on the boxed entity fields.
+     */
+    private static final class BoxedBalanceRules {
+
+        static Double applyTransaction(Double balance, Double amount,
+                                       TransactionEntity.TransactionType type, OffsetDateTime createdAt) {
+            if (type == TransactionEntity.TransactionType.DEPOSIT) {
+                return balance + amount;
+            }
+            if (balance < amount) {
+                throw new IllegalStateException("Insufficient funds");
+            }
+            Double newBalance = balance - amount;
+            if (!BalanceRules.isNewAccount(createdAt) && newBalance < 100.0) {
+                throw new IllegalStateException("Balance cannot drop below $100 for existing accounts");
+            }
+            return newBalance;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.sisal.transaction.server.benchmark;
+
+import com.sisal.transaction.server.config.auth.HmacAuthenticationToken;
+import com.sisal.transaction.server.util.AuthUtil;
+import com.sisal.transaction.server.util.HmacEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request signature verification cost: per-request {@code Mac} setup vs. the cached per-thread engines,
+ * and String concatenation vs. streaming the request components into the engine.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=HmacBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class HmacBenchmark {
+
+    private static final String SECRET_KEY = "bK7dF9qW2pR5vT8xL4mN3jH6cU9wY1aE";
+    private static final String BODY = "{\"accountNumber\":\"TEST1K60161331926819\",\"amount\":100.50,\"transactionType\":\"DEPOSIT\"}";
+
+    private HmacEngine hmacEngine;
+    private String timestamp;
+    private HmacAuthenticationToken.RequestDetails requestDetails;
+    private String signature;
+
+    @Setup
+    public void setUp() {
+        hmacEngine = new HmacEngine(SECRET_KEY);
+        timestamp = String.valueOf(System.currentTimeMillis());
+        requestDetails = new HmacAuthenticationToken.RequestDetails(
+                "POST", "/api/transactions", null, BODY.getBytes(StandardCharsets.UTF_8), timestamp);
+        signature = AuthUtil.calculateHmac(requestDetails, hmacEngine);
+    }
+
+    /**
+     * Previous implementation: provider lookup and key initialization on every request.
+     */
+    @Benchmark
+    public String perRequestMac() throws Exception {
+        String dataToSign = "POST:/api/transactions::" + timestamp + ":" + BODY;
+        Mac hmac = Mac.getInstance(HmacEngine.ALGORITHM);
+        hmac.init(new SecretKeySpec(SECRET_KEY.getBytes(StandardCharsets.UTF_8), HmacEngine.ALGORITHM));
+        return Base64.getEncoder().encodeToString(hmac.doFinal(dataToSign.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    public String cachedMac() {
+        return AuthUtil.calculateHmac("POST", "/api/transactions", "", BODY, timestamp, hmacEngine);
+    }
+
+    /**
+     * Server side verification: components streamed into the cached engine, body as the raw received bytes.
+     */
+    @Benchmark
+    public boolean streamingVerify() {
+        return AuthUtil.verifyHmac(requestDetails, hmacEngine, signature);
+    }
+}
@@ -0,0 +1,129 @@
+package com.sisal.transaction.server.benchmark;
+
+import com.sisal.transaction.server.util.GlobalMaskingLogConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Per-line log masking cost: the previous five regular expression passes vs. the single pass scanner.
+ * <p>
+ * At 10k lines/s, the CPU time spent masking per second is the score (ns/line) times 10,000.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=MaskingBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MaskingBenchmark {
+
+    /**
+     * CLEAN: nothing to mask, REQUEST / RESPONSE: audit log lines of a transaction call.
+     */
+    @Param({"CLEAN", "REQUEST", "RESPONSE"})
+    private String line;
+
+    private String message;
+
+    @Setup
+    public void setUp() {
+        switch (line) {
+            case "REQUEST":
+                message = "Transaction Server Request Log: TraceID: 0b6f5a43-8c1e-4a57-9d0e-2f1c3b4a5d6e | "
+                        + "Timestamp: 2024-01-01T10:00:00Z | Method: POST | URI: /api/transactions | "
+                        + "API-Key: 8x7HHSG2J5ns9LzN3k4m6P5Q | HMAC-Signature: c2lnbmF0dXJlLXZhbHVlLWZvci1iZW5jaG1hcms= | "
+                        + "Timestamp-Header: 1704103200000 | Content-Type: application/json | "
+                        + "Request-Body: {\"accountNumber\":\"GB29NWBK60161331926819\",\"amount\":200.0,\"transactionType\":\"DEPOSIT\"}";
+                break;
+            case "RESPONSE":
+                message = "Transaction Server Response Log: TraceID: 0b6f5a43-8c1e-4a57-9d0e-2f1c3b4a5d6e | "
+                        + "Timestamp: 2024-01-01T10:00:00Z | Status: 201 | Content-Type: application/json | "
+                        + "Request-Body: {\"transactionId\":\"3f1c2b7e-1a2b-4c3d-8e9f-0a1b2c3d4e5f\","
+                        + "\"accountNumber\":\"GB29NWBK60161331926819\",\"amount\":200.0,\"status\":\"COMPLETED\"}";
+                break;
+            default:
+                message = "Started group commit with window PT0.002S and max batch size 256, "
+                        + "HikariPool-1 - Added connection ConnectionID:1 ClientConnectionId: 7e3f2a1b-5c4d-4e6f-8a9b-0c1d2e3f4a5b";
+        }
+    }
+
+    @Benchmark
+    public String regexPasses() {
+        return RegexMasking.mask(message);
+    }
+
+    @Benchmark
+    public String singlePass() {
+        return GlobalMaskingLogConverter.mask(message);
+    }
+
+    /**
+     * Previous implementation, one regular expression pass per sensitive key.
+     */
+    private static final class RegexMasking {
+
+        private static final Pattern[] PATTERNS = {
+                Pattern.compile("(?i)(\"accountNumber\"\\s*:\\s*\")([^\"]*)(\")"),
+                Pattern.compile("(?i)(\"transactionId\"\\s*:\\s*\")([^\"]*)(\")"),
+                Pattern.compile("(?i)(X-API-Key:?\\s*)([^,\\n]*)"),
+                Pattern.compile("(?i)(X-HMAC-Signature:?\\s*)([^,\\n]*)"),
+                Pattern.compile("(accountNumber=)([A-Z0-9]{10,34})")
+        };
+
+        static String mask(String message) {
+            for (Pattern pattern : PATTERNS) {
+                Matcher matcher = pattern.matcher(message);
+                StringBuffer sb = new StringBuffer();
+                while (matcher.find()) {
+                    String maskedValue = maskValue(matcher.group(2));
+                    String replacement = matcher.groupCount() == 3
+                            ? matcher.group(1) + maskedValue + matcher.group(3)
+                            : matcher.group(1) + maskedValue;
+                    matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+                }
+                matcher.appendTail(sb);
+                message = sb.toString();
+            }
+            return message;
+        }
+
+        private static String maskValue(String value) {
+            if (!StringUtils.hasText(value)) {
+                return value;
+            }
+            int length = value.length();
+            if (length < 3) {
+                return stars(length);
+            }
+            if (length <= 8) {
+                int showChars = length / 2;
+                return value.substring(0, showChars) + stars(length - showChars);
+            }
+            return value.substring(0, 4) + stars(length - 8) + value.substring(length - 4);
+        }
+
+        private static String stars(int count) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                sb.append('*');
+            }
+            return sb.toString();
+        }
+    }
+}
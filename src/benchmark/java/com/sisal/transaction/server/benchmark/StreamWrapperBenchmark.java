@@ -0,0 +1,118 @@
+package com.sisal.transaction.server.benchmark;
+
+import com.sisal.transaction.server.util.filter.CustomRequestWrapper;
+import com.sisal.transaction.server.util.filter.ServletOutputStreamWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request / response body copy through the filter wrappers: one call per byte vs. bulk array transfers.
+ * <p>
+ * The per-byte variants reproduce the previous wrappers, which only implemented {@code read()}
+ * and {@code write(int)} and teed into a synchronized {@code ByteArrayOutputStream}.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=StreamWrapperBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StreamWrapperBenchmark {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({"1024", "16384", "262144"})
+    private int payloadSize;
+
+    private byte[] payload;
+    private CustomRequestWrapper requestWrapper;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+
+    @Setup
+    public void setUp() {
+        payload = new byte[payloadSize];
+        for (int i = 0; i < payloadSize; i++) {
+            payload[i] = (byte) ('a' + i % 26);
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transactions");
+        request.setContent(payload);
+        requestWrapper = new CustomRequestWrapper(request);
+    }
+
+    @Benchmark
+    public int readPerByte() throws IOException {
+        ServletInputStream inputStream = requestWrapper.getInputStream();
+        int sum = 0;
+        int b;
+        while ((b = inputStream.read()) != -1) {
+            sum += b;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int readBulk() throws IOException {
+        ServletInputStream inputStream = requestWrapper.getInputStream();
+        int total = 0;
+        int count;
+        while ((count = inputStream.read(chunk, 0, CHUNK_SIZE)) != -1) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Previous response tee: a virtual call and a synchronized copy per byte.
+     */
+    @Benchmark
+    public int writePerByte() throws IOException {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        for (byte b : payload) {
+            SINK.write(b);
+            copy.write(b);
+        }
+        return copy.toByteArray().length;
+    }
+
+    @Benchmark
+    public int writeBulk() throws IOException {
+        ServletOutputStreamWrapper outputStream = new ServletOutputStreamWrapper(SINK);
+        for (int offset = 0; offset < payloadSize; offset += CHUNK_SIZE) {
+            outputStream.write(payload, offset, Math.min(CHUNK_SIZE, payloadSize - offset));
+        }
+        int length = outputStream.getCopy().length;
+        outputStream.release();
+        return length;
+    }
+
+    /**
+     * Stands in for the container stream, so only the tee is measured.
+     */
+    private static final OutputStream SINK = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+}
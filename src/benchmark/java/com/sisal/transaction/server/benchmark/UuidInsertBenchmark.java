@@ -0,0 +1,103 @@
+package com.sisal.transaction.server.benchmark;
+
+import com.sisal.transaction.server.util.TimeOrderedUuidGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Insert throughput into a large table keyed by random (v4) vs. time-ordered UUIDs.
+ * <p>
+ * The table is prefilled with {@code rows} keys of the same generator, then batches of inserts are committed
+ * against it. The H2 file database runs with a page cache much smaller than the table, like a production
+ * table outgrowing the buffer pool. H2 compares UUIDs from their first byte, so the time-ordered case uses
+ * the v7 layout; the SQL_SERVER layout applies the same ordering to SQL Server's byte comparison order.
+ * <p>
+ * Run with: {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=UuidInsertBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"RANDOM", "TIME_ORDERED"})
+    public String generator;
+
+    @Param({"2000000"})
+    public int rows;
+
+    private Path directory;
+    private Connection connection;
+    private PreparedStatement insert;
+    private Supplier<UUID> ids;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        TimeOrderedUuidGenerator timeOrdered = new TimeOrderedUuidGenerator(TimeOrderedUuidGenerator.Layout.UUID_V7);
+        ids = "RANDOM".equals(generator) ? UUID::randomUUID : timeOrdered::generate;
+
+        directory = Files.createTempDirectory("uuid-insert-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("db") + ";CACHE_SIZE=16384", "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE transactions (transaction_id UUID PRIMARY KEY, account_id BIGINT, amount DOUBLE)");
+        }
+        insert = connection.prepareStatement("INSERT INTO transactions VALUES (?, ?, ?)");
+        for (int inserted = 0; inserted < rows; inserted += BATCH_SIZE) {
+            insertBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, SQLException {
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Score is inserted rows per second.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertBatch() throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insert.setObject(1, ids.get());
+            insert.setLong(2, i);
+            insert.setDouble(3, 100.0);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+}
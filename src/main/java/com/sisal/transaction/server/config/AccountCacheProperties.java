@@ -0,0 +1,59 @@
+package com.sisal.transaction.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.Min;
+import java.time.Duration;
+
+/**
+ * Account state cache config.
+ * <p>
+ * The state of recently used accounts (id, balance, creation time, version) is kept in memory, so the
+ * OPTIMISTIC balance update does not read the account row for every transaction. Stale entries are
+ * detected by the version check of the balance update and reloaded.
+ * <p>
+ * Disabled by default, the OPTIMISTIC balance update then reads the account row for every transaction.
+ */
+@ConfigurationProperties(prefix = "transaction.account-cache")
+@Component
+public class AccountCacheProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Maximum number of cached accounts, the least recently used ones are evicted first.
+     */
+    @Min(value = 1, message = "Account cache size must be at least 1")
+    private int maxSize = 10000;
+
+    /**
+     * How long a cached account is used before it is read again, bounds how long writes of other
+     * server instances stay unnoticed by the balance checks.
+     */
+    private Duration ttl = Duration.ofSeconds(60);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
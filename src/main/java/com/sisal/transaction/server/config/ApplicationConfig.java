@@ -6,6 +6,16 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.sisal.transaction.server.filter.LoggingFilter;
+import com.sisal.transaction.server.filter.RequestBodyCachingFilter;
+import com.sisal.transaction.server.repository.TransactionRepository;
+import com.sisal.transaction.server.service.DatabaseRateLimiter;
+import com.sisal.transaction.server.service.InMemoryRateLimiter;
+import com.sisal.transaction.server.service.TransactionRateLimiter;
+import com.sisal.transaction.server.util.audit.AsyncAuditLogger;
+import com.sisal.transaction.server.util.audit.AuditLogger;
+import com.sisal.transaction.server.util.audit.SyncAuditLogger;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -23,8 +33,19 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public LoggingFilter loggingFilter() {
-        return new LoggingFilter();
+    public LoggingFilter loggingFilter(AuditLogger auditLogger) {
+        return new LoggingFilter(auditLogger);
+    }
+
+    /**
+     * Request / response audit logger selected by {@code transaction.audit-log.mode}.
+     */
+    @Bean
+    public AuditLogger auditLogger(AuditLogProperties auditLogProperties, MeterRegistry meterRegistry) {
+        if (auditLogProperties.getMode() == AuditLogProperties.AuditLogMode.SYNC) {
+            return new SyncAuditLogger();
+        }
+        return new AsyncAuditLogger(auditLogProperties, meterRegistry);
     }
 
     /**
@@ -38,4 +59,30 @@ public class ApplicationConfig {
         registrationBean.setOrder(2);
         return registrationBean;
     }
+
+    /**
+     * Buffers the request body once, ahead of the security chain, for the authentication and logging filters.
+     */
+    @Bean
+    public FilterRegistrationBean<RequestBodyCachingFilter> requestBodyCachingFilterRegistration(RequestBodyProperties requestBodyProperties,
+                                                                                                 ObjectMapper objectMapper,
+                                                                                                 MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestBodyCachingFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new RequestBodyCachingFilter(requestBodyProperties, objectMapper, meterRegistry));
+        registrationBean.addUrlPatterns("/api/*");
+        registrationBean.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registrationBean;
+    }
+
+    /**
+     * Transaction rate limiter selected by {@code transaction.rate-limiting.mode}.
+     */
+    @Bean
+    public TransactionRateLimiter transactionRateLimiter(RateLimitProperties rateLimitProperties,
+                                                         TransactionRepository transactionRepository) {
+        if (rateLimitProperties.getMode() == RateLimitProperties.RateLimitMode.DATABASE) {
+            return new DatabaseRateLimiter(rateLimitProperties, transactionRepository);
+        }
+        return new InMemoryRateLimiter(rateLimitProperties);
+    }
 }
@@ -0,0 +1,77 @@
+package com.sisal.transaction.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Request / response audit logging config, used by {@code LoggingFilter}.
+ */
+@ConfigurationProperties(prefix = "transaction.audit-log")
+@Component
+public class AuditLogProperties {
+
+    private AuditLogMode mode = AuditLogMode.ASYNC;
+
+    /**
+     * Number of preallocated events in the ring buffer, rounded up to a power of two.
+     */
+    @Min(value = 2, message = "Audit log buffer size must be at least 2")
+    private int bufferSize = 4096;
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+    public AuditLogMode getMode() {
+        return mode;
+    }
+
+    public void setMode(AuditLogMode mode) {
+        this.mode = mode;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Where audit log entries are formatted, masked and written.
+     */
+    public enum AuditLogMode {
+        /**
+         * On the request thread, before the request proceeds.
+         */
+        SYNC,
+        /**
+         * Captured into a preallocated ring buffer slot on the request thread,
+         * formatted, masked and written by a single consumer thread.
+         */
+        ASYNC
+    }
+
+    /**
+     * What the request thread does when the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The entry is discarded and counted, the request is never slowed down by logging.
+         */
+        DROP,
+        /**
+         * The request thread waits for a free slot, no entry is lost.
+         */
+        BLOCK
+    }
+}
@@ -0,0 +1,57 @@
+package com.sisal.transaction.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.Min;
+import java.time.Duration;
+
+/**
+ * Idempotency-Key handling config.
+ * <p>
+ * Responses of requests carrying an {@code Idempotency-Key} header are kept in a bounded in-memory cache
+ * and in the {@code idempotency_keys} table, so retries are answered without executing the transaction again.
+ */
+@ConfigurationProperties(prefix = "transaction.idempotency")
+@Component
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of keys kept in memory, older keys are still answered from the database.
+     */
+    @Min(value = 1, message = "Idempotency cache size must be at least 1")
+    private int cacheSize = 10000;
+
+    /**
+     * How long a key stays reserved (IN_PROGRESS) by a request that never completed it, e.g. the server stopped
+     * after the transaction. A retry after that takes the key over and executes the transaction. Must be longer
+     * than any transaction takes, retries meanwhile are rejected with 409.
+     */
+    private Duration reservationTimeout = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public Duration getReservationTimeout() {
+        return reservationTimeout;
+    }
+
+    public void setReservationTimeout(Duration reservationTimeout) {
+        this.reservationTimeout = reservationTimeout;
+    }
+}
@@ -16,6 +16,8 @@ public class RateLimitProperties {
     @Max(value = 1000, message = "Max transactions per minute cannot exceed 1000")
     private int maxPerMinute = 60;   // default value
 
+    private RateLimitMode mode = RateLimitMode.IN_MEMORY;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -31,4 +33,26 @@ public class RateLimitProperties {
     public void setMaxPerMinute(int maxPerMinute) {
         this.maxPerMinute = maxPerMinute;
     }
+
+    public RateLimitMode getMode() {
+        return mode;
+    }
+
+    public void setMode(RateLimitMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Where the transactions of the last minute are counted.
+     */
+    public enum RateLimitMode {
+        /**
+         * Sliding window counters kept in memory, per server instance.
+         */
+        IN_MEMORY,
+        /**
+         * COUNT query over the transactions table, shared by all server instances.
+         */
+        DATABASE
+    }
 }
@@ -0,0 +1,26 @@
+package com.sisal.transaction.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Request body buffering config.
+ * <p>
+ * The request body is buffered once in memory and shared by authentication, logging and JSON parsing,
+ * bodies above the maximum size are rejected before they are buffered.
+ */
+@ConfigurationProperties(prefix = "transaction.request-body")
+@Component
+public class RequestBodyProperties {
+
+    private DataSize maxSize = DataSize.ofMegabytes(1);
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,485 @@
+package com.sisal.transaction.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.validation.constraints.Min;
+import java.time.Duration;
+
+/**
+ * Transaction engine config.
+ * <p>
+ * Selects how {@code TransactionApiService} executes incoming transactions, so that the different
+ * execution models can be compared (A/B) against each other under load.
+ */
+@ConfigurationProperties(prefix = "transaction.engine")
+@Component
+public class TransactionEngineProperties {
+
+    private ExecutionMode execution = ExecutionMode.DIRECT;
+
+    private RequestThreads requestThreads = RequestThreads.PLATFORM;
+
+    private BalanceUpdateMode balanceUpdate = BalanceUpdateMode.OPTIMISTIC;
+
+    @Min(value = 1, message = "Number of account lanes must be at least 1")
+    private int lanes = Runtime.getRuntime().availableProcessors();
+
+    @Min(value = 1, message = "Lane queue capacity must be at least 1")
+    private int laneQueueCapacity = 10000;
+
+    private final GroupCommit groupCommit = new GroupCommit();
+
+    private final Batch batch = new Batch();
+
+    private final Journal journal = new Journal();
+
+    private final Ledger ledger = new Ledger();
+
+    private final OptimisticRetry optimisticRetry = new OptimisticRetry();
+
+    private final Pessimistic pessimistic = new Pessimistic();
+
+    private final FailureLog failureLog = new FailureLog();
+
+    public ExecutionMode getExecution() {
+        return execution;
+    }
+
+    public void setExecution(ExecutionMode execution) {
+        this.execution = execution;
+    }
+
+    public RequestThreads getRequestThreads() {
+        return requestThreads;
+    }
+
+    public void setRequestThreads(RequestThreads requestThreads) {
+        this.requestThreads = requestThreads;
+    }
+
+    public BalanceUpdateMode getBalanceUpdate() {
+        return balanceUpdate;
+    }
+
+    public void setBalanceUpdate(BalanceUpdateMode balanceUpdate) {
+        this.balanceUpdate = balanceUpdate;
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    public void setLanes(int lanes) {
+        this.lanes = lanes;
+    }
+
+    public int getLaneQueueCapacity() {
+        return laneQueueCapacity;
+    }
+
+    public void setLaneQueueCapacity(int laneQueueCapacity) {
+        this.laneQueueCapacity = laneQueueCapacity;
+    }
+
+    public GroupCommit getGroupCommit() {
+        return groupCommit;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    public OptimisticRetry getOptimisticRetry() {
+        return optimisticRetry;
+    }
+
+    public Pessimistic getPessimistic() {
+        return pessimistic;
+    }
+
+    public FailureLog getFailureLog() {
+        return failureLog;
+    }
+
+    /**
+     * Group-commit batching settings, used by {@link ExecutionMode#GROUP_COMMIT}.
+     */
+    public static class GroupCommit {
+
+        /**
+         * How long the first request of a batch waits for other requests to join.
+         */
+        private Duration window = Duration.ofMillis(2);
+
+        @Min(value = 1, message = "Group commit batch size must be at least 1")
+        private int maxBatchSize = 256;
+
+        @Min(value = 1, message = "Group commit queue capacity must be at least 1")
+        private int queueCapacity = 10000;
+
+        /**
+         * Longest wait of a request for its commit, a backstop should the committer never answer it.
+         */
+        private Duration resultTimeout = Duration.ofSeconds(30);
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getResultTimeout() {
+            return resultTimeout;
+        }
+
+        public void setResultTimeout(Duration resultTimeout) {
+            this.resultTimeout = resultTimeout;
+        }
+    }
+
+    /**
+     * Settings of the batch endpoint ({@code POST /api/transactions/batch}).
+     */
+    public static class Batch {
+
+        /**
+         * Upper bound of items persisted with one commit, the items of one account are never split across commits.
+         */
+        @Min(value = 1, message = "Batch chunk size must be at least 1")
+        private int chunkSize = 500;
+
+        /**
+         * Longest accepted line of the NDJSON stream endpoint, longer lines are rejected without being buffered.
+         */
+        private DataSize maxLineLength = DataSize.ofKilobytes(4);
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public DataSize getMaxLineLength() {
+            return maxLineLength;
+        }
+
+        public void setMaxLineLength(DataSize maxLineLength) {
+            this.maxLineLength = maxLineLength;
+        }
+    }
+
+    /**
+     * Write-ahead journal settings, used by {@link ExecutionMode#JOURNAL}.
+     */
+    public static class Journal {
+
+        /**
+         * Directory of the journal segment files, on a local disk.
+         */
+        private String directory = "journal";
+
+        /**
+         * Size of one memory-mapped segment file, fully projected segments are deleted.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Maximum number of journal entries projected into the database with one commit.
+         */
+        @Min(value = 1, message = "Journal projection batch size must be at least 1")
+        private int projectionBatchSize = 500;
+
+        /**
+         * How long the projector sleeps when it has caught up with the journal.
+         */
+        private Duration projectionInterval = Duration.ofMillis(10);
+
+        /**
+         * How long the projector waits before retrying a failed projection.
+         */
+        private Duration projectionRetryInterval = Duration.ofSeconds(1);
+
+        /**
+         * Maximum number of accounts kept in memory, above it accounts whose entries are all projected are evicted
+         * and loaded again from the database on their next transaction.
+         */
+        @Min(value = 1, message = "Journal max accounts must be at least 1")
+        private int maxAccounts = 100_000;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public int getProjectionBatchSize() {
+            return projectionBatchSize;
+        }
+
+        public void setProjectionBatchSize(int projectionBatchSize) {
+            this.projectionBatchSize = projectionBatchSize;
+        }
+
+        public Duration getProjectionInterval() {
+            return projectionInterval;
+        }
+
+        public void setProjectionInterval(Duration projectionInterval) {
+            this.projectionInterval = projectionInterval;
+        }
+
+        public Duration getProjectionRetryInterval() {
+            return projectionRetryInterval;
+        }
+
+        public void setProjectionRetryInterval(Duration projectionRetryInterval) {
+            this.projectionRetryInterval = projectionRetryInterval;
+        }
+
+        public int getMaxAccounts() {
+            return maxAccounts;
+        }
+
+        public void setMaxAccounts(int maxAccounts) {
+            this.maxAccounts = maxAccounts;
+        }
+    }
+
+    /**
+     * Event-sourced account ledger settings, used by {@link BalanceUpdateMode#EVENT_SOURCED}.
+     */
+    public static class Ledger {
+
+        /**
+         * A balance snapshot is appended every N events of an account, bounding the events read to rebuild it.
+         */
+        @Min(value = 1, message = "Ledger snapshot interval must be at least 1")
+        private int snapshotInterval = 100;
+
+        /**
+         * How often an append is attempted when another writer appended the same account sequence first.
+         */
+        @Min(value = 1, message = "Ledger append attempts must be at least 1")
+        private int appendAttempts = 3;
+
+        public int getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(int snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+
+        public int getAppendAttempts() {
+            return appendAttempts;
+        }
+
+        public void setAppendAttempts(int appendAttempts) {
+            this.appendAttempts = appendAttempts;
+        }
+    }
+
+    /**
+     * Retry of a balance update that lost a version conflict, used by {@link BalanceUpdateMode#OPTIMISTIC}.
+     * <p>
+     * The n-th retry waits a random time between zero and {@code initialBackoff * 2^(n-1)}, capped by
+     * {@code maxBackoff}, so the writers of a contended account do not collide again in lockstep.
+     */
+    public static class OptimisticRetry {
+
+        /**
+         * How often the update is attempted in total, 1 disables retries.
+         */
+        @Min(value = 1, message = "Optimistic retry attempts must be at least 1")
+        private int maxAttempts = 5;
+
+        private Duration initialBackoff = Duration.ofMillis(2);
+
+        private Duration maxBackoff = Duration.ofMillis(50);
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    /**
+     * Row lock settings, used by {@link BalanceUpdateMode#PESSIMISTIC}.
+     */
+    public static class Pessimistic {
+
+        /**
+         * Longest wait for the account row lock, the transaction fails once it is exceeded.
+         */
+        private Duration lockTimeout = Duration.ofSeconds(2);
+
+        public Duration getLockTimeout() {
+            return lockTimeout;
+        }
+
+        public void setLockTimeout(Duration lockTimeout) {
+            this.lockTimeout = lockTimeout;
+        }
+    }
+
+    /**
+     * Settings of the failed transaction log, written off the request thread by {@code TransactionFailureRecorder}.
+     */
+    public static class FailureLog {
+
+        /**
+         * Failures waiting to be written, further failures are dropped and counted while the queue is full.
+         */
+        @Min(value = 1, message = "Failure log queue capacity must be at least 1")
+        private int queueCapacity = 10000;
+
+        /**
+         * Maximum number of failures written with one commit.
+         */
+        @Min(value = 1, message = "Failure log batch size must be at least 1")
+        private int maxBatchSize = 100;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+    }
+
+    /**
+     * Where a transaction request gets executed.
+     */
+    public enum ExecutionMode {
+        /**
+         * Executed on the calling (Tomcat) thread, account races are resolved by optimistic locking.
+         */
+        DIRECT,
+        /**
+         * Each account number is hashed to one of N single-threaded lanes,
+         * so all mutations of one account are serialized in memory.
+         */
+        ACCOUNT_LANES,
+        /**
+         * Requests arriving within a short window are applied together and persisted with one commit.
+         */
+        GROUP_COMMIT,
+        /**
+         * Acknowledged once appended to the local write-ahead journal and forced to disk,
+         * the database tables are updated asynchronously by projecting the journal.
+         */
+        JOURNAL
+    }
+
+    /**
+     * Threads the Tomcat requests, and with them the DIRECT execution, run on.
+     */
+    public enum RequestThreads {
+        /**
+         * Tomcat's own pool of platform threads, sized by {@code server.tomcat.threads.*}.
+         */
+        PLATFORM,
+        /**
+         * A new virtual thread per request, blocked requests release their carrier thread.
+         * Requires a Java 21 runtime, the database concurrency is bounded by the connection pool only.
+         */
+        VIRTUAL
+    }
+
+    /**
+     * How the account balance is updated by the DIRECT and ACCOUNT_LANES execution modes.
+     */
+    public enum BalanceUpdateMode {
+        /**
+         * The account entity is loaded, updated in Java and saved, conflicts are detected by its version.
+         */
+        OPTIMISTIC,
+        /**
+         * The account row is locked when it is loaded ({@code PESSIMISTIC_WRITE}), concurrent writers of the
+         * account wait for the lock, up to the lock timeout, instead of failing on the version check.
+         */
+        PESSIMISTIC,
+        /**
+         * The balance is changed by a single conditional UPDATE enforcing the balance rules in its WHERE clause.
+         */
+        CONDITIONAL_UPDATE,
+        /**
+         * The balance is derived from the append-only transaction events of the account and its latest snapshot,
+         * the balance column of the account is not written.
+         */
+        EVENT_SOURCED,
+        /**
+         * Rate limit, balance rules, transaction insert and balance update are executed by a stored procedure,
+         * in one round trip to the database.
+         */
+        STORED_PROCEDURE
+    }
+}
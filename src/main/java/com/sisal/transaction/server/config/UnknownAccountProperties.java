@@ -0,0 +1,116 @@
+package com.sisal.transaction.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import java.time.Duration;
+
+/**
+ * Unknown account rejection config.
+ * <p>
+ * Transactions for account numbers that do not exist are rejected without a database lookup, by a Bloom filter
+ * of the existing account numbers and a short-lived cache of account numbers recently not found.
+ * <p>
+ * Disabled by default: with several server instances, or accounts inserted directly in the database, a new account
+ * is rejected with 404 until the next refresh, and for up to the miss TTL once it was recorded as not found.
+ */
+@ConfigurationProperties(prefix = "transaction.unknown-accounts")
+@Component
+public class UnknownAccountProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Number of accounts the Bloom filter is sized for, more accounts raise its false positive rate.
+     */
+    @Min(value = 1, message = "Expected number of accounts must be at least 1")
+    private long expectedAccounts = 1_000_000;
+
+    /**
+     * Share of unknown account numbers passing the Bloom filter, those are looked up in the database.
+     */
+    @DecimalMin(value = "0.0001", message = "Bloom filter false positive rate must be at least 0.0001")
+    @DecimalMax(value = "0.5", message = "Bloom filter false positive rate must be at most 0.5")
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * Minimum time between two reads of the accounts created since the previous read,
+     * accounts created by other server instances are rejected for at most this long.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(1);
+
+    /**
+     * How far back each refresh reads, covers account inserts committed after their creation time.
+     */
+    private Duration commitGrace = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of account numbers remembered as not found.
+     */
+    @Min(value = 1, message = "Unknown account cache size must be at least 1")
+    private int missCacheSize = 10000;
+
+    /**
+     * How long an account number not found is rejected without looking it up again.
+     */
+    private Duration missTtl = Duration.ofSeconds(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getExpectedAccounts() {
+        return expectedAccounts;
+    }
+
+    public void setExpectedAccounts(long expectedAccounts) {
+        this.expectedAccounts = expectedAccounts;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getCommitGrace() {
+        return commitGrace;
+    }
+
+    public void setCommitGrace(Duration commitGrace) {
+        this.commitGrace = commitGrace;
+    }
+
+    public int getMissCacheSize() {
+        return missCacheSize;
+    }
+
+    public void setMissCacheSize(int missCacheSize) {
+        this.missCacheSize = missCacheSize;
+    }
+
+    public Duration getMissTtl() {
+        return missTtl;
+    }
+
+    public void setMissTtl(Duration missTtl) {
+        this.missTtl = missTtl;
+    }
+}
@@ -0,0 +1,42 @@
+package com.sisal.transaction.server.config;
+
+import com.sisal.transaction.server.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs the Tomcat requests on virtual threads, active with {@code transaction.engine.request-threads=VIRTUAL}.
+ * <p>
+ * A request blocked on JDBC, the journal force or a lock releases its carrier thread, so the number of requests
+ * in flight is bounded by {@code server.tomcat.max-connections} and the connection pool rather than by the
+ * thread pool. Startup fails on a runtime without virtual threads.
+ *
+ * @see TransactionEngineProperties.RequestThreads#VIRTUAL
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "transaction.engine", name = "request-threads", havingValue = "VIRTUAL")
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    /**
+     * One new virtual thread per request, shut down with the context (Tomcat does not stop an executor it was given).
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestExecutor() {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("http-virtual-");
+        logger.info("Tomcat requests run on virtual threads, server.tomcat.threads.* are not used");
+        return executor;
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService requestExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor);
+    }
+}
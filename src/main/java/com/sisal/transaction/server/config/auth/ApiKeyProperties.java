@@ -1,19 +1,30 @@
 package com.sisal.transaction.server.config.auth;
 
+import com.sisal.transaction.server.util.HmacEngine;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Auth property config.
+ * <p>
+ * Keeps an immutable index from API key to a precomputed {@link ClientRecord}. The index is rebuilt and swapped
+ * in one step whenever the client list is (re)bound, so lookups on the authentication path are a single hash lookup.
  */
 
 @Component
 @ConfigurationProperties(prefix = "api.security")
 public class ApiKeyProperties {
     private List<ApiClient> clients = new ArrayList<>();
+    private volatile Map<String, ClientRecord> clientIndex = Collections.emptyMap();
 
     public List<ApiClient> getClients() {
         return clients;
@@ -21,13 +32,31 @@ public class ApiKeyProperties {
 
     public void setClients(List<ApiClient> clients) {
         this.clients = clients;
+        this.clientIndex = buildIndex(clients);
     }
 
     public ApiClient getClientByApiKey(String apiKey) {
-        return clients.stream()
-                .filter(client -> client.getApiKey().equals(apiKey))
-                .findFirst()
-                .orElse(null);
+        ClientRecord record = getClientRecord(apiKey);
+        return record != null ? record.client : null;
+    }
+
+    /**
+     * Precomputed client details used to authenticate a request.
+     *
+     * @return client record, null if the API key is unknown
+     */
+    public ClientRecord getClientRecord(String apiKey) {
+        return apiKey != null ? clientIndex.get(apiKey) : null;
+    }
+
+    private static Map<String, ClientRecord> buildIndex(List<ApiClient> clients) {
+        Map<String, ClientRecord> index = new HashMap<>();
+        for (ApiClient client : clients) {
+            if (client.getApiKey() != null && client.getSecretKey() != null) {
+                index.putIfAbsent(client.getApiKey(), new ClientRecord(client));// First definition wins
+            }
+        }
+        return Collections.unmodifiableMap(index);
     }
 
     // Inner class to map properties
@@ -70,4 +99,53 @@ public class ApiKeyProperties {
             this.roles = roles;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Immutable snapshot of a client, with everything authentication needs computed upfront.
+     */
+    public static final class ClientRecord {
+        private final ApiClient client;
+        private final String name;
+        private final String apiKey;
+        private final byte[] secretKey;
+        private final List<GrantedAuthority> authorities;
+        private final HmacEngine hmacEngine;
+
+        private ClientRecord(ApiClient client) {
+            this.client = client;
+            this.name = client.getName();
+            this.apiKey = client.getApiKey();
+            this.secretKey = client.getSecretKey().getBytes(StandardCharsets.UTF_8);
+
+            List<GrantedAuthority> grantedAuthorities = new ArrayList<>(client.getRoles().size());
+            for (String role : client.getRoles()) {
+                grantedAuthorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+            }
+            this.authorities = Collections.unmodifiableList(grantedAuthorities);
+            this.hmacEngine = new HmacEngine(secretKey);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getApiKey() {
+            return apiKey;
+        }
+
+        public byte[] getSecretKey() {
+            return secretKey.clone();
+        }
+
+        public List<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        /**
+         * Pool of pre-initialized {@link javax.crypto.Mac} instances of this client, borrowed per signature and handed back.
+         */
+        public HmacEngine getHmacEngine() {
+            return hmacEngine;
+        }
+    }
+}
@@ -5,13 +5,8 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @Component
 public class HmacAuthenticationProvider implements AuthenticationProvider {
 
@@ -27,27 +22,23 @@ public class HmacAuthenticationProvider implements AuthenticationProvider {
 
         HmacAuthenticationToken token = (HmacAuthenticationToken) authentication;
 
-            ApiKeyProperties.ApiClient client = apiKeyProperties.getClientByApiKey(token.getPrincipal().toString());
+            ApiKeyProperties.ClientRecord client = apiKeyProperties.getClientRecord(token.getPrincipal().toString());
             if (client == null) {
                 throw new BadCredentialsException("Authentication failed: Invalid API key");
             }
 
-            String calculatedHmac = AuthUtil.calculateHmac(
+            boolean validSignature = AuthUtil.verifyHmac(
                     token.getRequestDetails(),  // Contains method, path, body, etc.
-                    client.getSecretKey()
+                    client.getHmacEngine(),
+                    token.getCredentials().toString()
             );
 
-            if (!token.getCredentials().equals(calculatedHmac)) {
+            if (!validSignature) {
                 throw new BadCredentialsException("Authentication failed: Invalid HMAC signature");
             }
 
-            // Authentication successful, set security context
-            List<GrantedAuthority> authorities = client.getRoles().stream()
-                    .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                    .collect(Collectors.toList());
-
-            // Return authenticated token
-            return new HmacAuthenticationToken(client.getApiKey(), authorities);
+            // Return authenticated token, authorities are prebuilt per client
+            return new HmacAuthenticationToken(client.getApiKey(), client.getHmacEngine(), client.getAuthorities());
 
     }
 
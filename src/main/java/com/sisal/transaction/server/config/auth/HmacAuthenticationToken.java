@@ -1,5 +1,6 @@
 package com.sisal.transaction.server.config.auth;
 
+import com.sisal.transaction.server.util.HmacEngine;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 
@@ -9,6 +10,7 @@ public class HmacAuthenticationToken extends AbstractAuthenticationToken {
     private final String apiKey;
     private final String hmacSignature;
     private final RequestDetails requestDetails;  // Contains everything needed for HMAC
+    private final HmacEngine hmacEngine;  // Engines of the authenticated client, to verify a streamed body
 
     /**
      * Identifies authenticity (like a password would)
@@ -30,10 +32,13 @@ public class HmacAuthenticationToken extends AbstractAuthenticationToken {
         private final String method;
         private final String path;
         private final String queryString;
-        private final String body;
+        private final byte[] body;
         private final String timestamp;
 
-        public RequestDetails(String method, String path, String queryString, String body, String timestamp) {
+        /**
+         * @param body raw request body bytes, signed as received without any decoding
+         */
+        public RequestDetails(String method, String path, String queryString, byte[] body, String timestamp) {
             this.method = method;
             this.path = path;
             this.queryString = queryString;
@@ -53,7 +58,7 @@ public class HmacAuthenticationToken extends AbstractAuthenticationToken {
             return queryString;
         }
 
-        public String getBody() {
+        public byte[] getBody() {
             return body;
         }
 
@@ -70,16 +75,19 @@ public class HmacAuthenticationToken extends AbstractAuthenticationToken {
         this.apiKey = apiKey;
         this.hmacSignature = hmacSignature;
         this.requestDetails = requestDetails;
+        this.hmacEngine = null;
         setAuthenticated(false);
     }
 
     // Authenticated token constructor
     public HmacAuthenticationToken(String apiKey,
+                                   HmacEngine hmacEngine,
                                    Collection<? extends GrantedAuthority> authorities) {
         super(authorities);
         this.apiKey = apiKey;
         this.hmacSignature = null;
         this.requestDetails = null;
+        this.hmacEngine = hmacEngine;
         setAuthenticated(true);
     }
 
@@ -87,4 +95,8 @@ public class HmacAuthenticationToken extends AbstractAuthenticationToken {
         return requestDetails;
     }
 
+    public HmacEngine getHmacEngine() {
+        return hmacEngine;
+    }
+
 }
\ No newline at end of file
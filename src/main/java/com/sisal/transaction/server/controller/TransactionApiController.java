@@ -6,19 +6,29 @@
 package com.sisal.transaction.server.controller;
 
 import com.sisal.transaction.server.delegate.TransactionApiDelegate;
+import com.sisal.transaction.server.delegate.TransactionStreamDelegate;
 import com.sisal.transaction.server.model.rest.ErrorResponse;
+import com.sisal.transaction.server.model.rest.TransactionBatchRequest;
+import com.sisal.transaction.server.model.rest.TransactionBatchResponse;
 import com.sisal.transaction.server.model.rest.TransactionRequest;
 import com.sisal.transaction.server.model.rest.TransactionResponse;
+import com.sisal.transaction.server.util.StreamSignatureVerifier;
 import io.swagger.annotations.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
+import springfox.documentation.annotations.ApiIgnore;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Size;
+import java.io.IOException;
 
 @javax.annotation.Generated(value = "com.glic.GentiSpringCodegen", date = "2025-02-20T13:46:50.094+01:00")
 
@@ -27,10 +37,12 @@ import javax.validation.Valid;
 @Api(value = "transactionApi", description = "Group of APIs providing transaction operations.", tags = {"Transactions"})
 public class TransactionApiController {
     private final TransactionApiDelegate transactionApiDelegate;
+    private final TransactionStreamDelegate transactionStreamDelegate;
 
     @Autowired
-    public TransactionApiController(TransactionApiDelegate apiDelegate) {
+    public TransactionApiController(TransactionApiDelegate apiDelegate, TransactionStreamDelegate streamDelegate) {
         this.transactionApiDelegate = apiDelegate;
+        this.transactionStreamDelegate = streamDelegate;
     }
 
     @ApiOperation(value = "Create a new transaction", nickname = "createTransaction", notes = "API will handle the creation of financial transactions, enforce specific business rules, and implement a custom authentication mechanism ", response = TransactionResponse.class, authorizations = {
@@ -42,14 +54,52 @@ public class TransactionApiController {
             @ApiResponse(code = 401, message = "Unauthorized - Authentication failed.", response = ErrorResponse.class),
             @ApiResponse(code = 403, message = "Forbidden request - Server refuses to fulfill the request.", response = ErrorResponse.class),
             @ApiResponse(code = 404, message = "The specified resource was not found.", response = ErrorResponse.class),
+            @ApiResponse(code = 409, message = "Conflict - A request with the same Idempotency-Key is still being processed.", response = ErrorResponse.class),
+            @ApiResponse(code = 422, message = "Unprocessable - The Idempotency-Key was already used with a different request.", response = ErrorResponse.class),
             @ApiResponse(code = 500, message = "Server errors.", response = ErrorResponse.class),
             @ApiResponse(code = 503, message = "Service Unavailable.", response = ErrorResponse.class)})
     @RequestMapping(value = "/api/transactions",
             produces = {"application/json"},
             consumes = {"application/json"},
             method = RequestMethod.POST)
-    public ResponseEntity<TransactionResponse> createTransaction(@ApiParam(value = "Transaction object that needs to be created.", required = true) @Valid @RequestBody TransactionRequest transactionRequest) {
-        return transactionApiDelegate.createTransaction(transactionRequest);
+    public ResponseEntity<TransactionResponse> createTransaction(@ApiParam(value = "Transaction object that needs to be created.", required = true) @Valid @RequestBody TransactionRequest transactionRequest, @ApiParam(value = "Client generated key (e.g. a UUID) identifying the transaction across retries. Repeated requests with the same key are answered with the response of the first one, without executing the transaction again.") @RequestHeader(value = "Idempotency-Key", required = false) @Size(max = 100) String idempotencyKey) {
+        return transactionApiDelegate.createTransaction(transactionRequest, idempotencyKey);
+    }
+
+    @ApiOperation(value = "Create a batch of transactions", nickname = "createTransactionBatch", notes = "Applies up to 5000 transactions under a single request signature. Items are grouped by account and applied in request order, every item gets its own outcome, so a rejected item does not fail the rest of the batch. ", response = TransactionBatchResponse.class, authorizations = {
+            @Authorization(value = "HmacAuth")
+    }, tags = {"Transactions",})
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Batch processed, check the status of each item.", response = TransactionBatchResponse.class),
+            @ApiResponse(code = 400, message = "Bad request from client, check request body for errors.", response = ErrorResponse.class),
+            @ApiResponse(code = 401, message = "Unauthorized - Authentication failed.", response = ErrorResponse.class),
+            @ApiResponse(code = 403, message = "Forbidden request - Server refuses to fulfill the request.", response = ErrorResponse.class),
+            @ApiResponse(code = 500, message = "Server errors.", response = ErrorResponse.class),
+            @ApiResponse(code = 503, message = "Service Unavailable.", response = ErrorResponse.class)})
+    @RequestMapping(value = "/api/transactions/batch",
+            produces = {"application/json"},
+            consumes = {"application/json"},
+            method = RequestMethod.POST)
+    public ResponseEntity<TransactionBatchResponse> createTransactionBatch(@ApiParam(value = "Transactions that need to be created.", required = true) @Valid @RequestBody TransactionBatchRequest transactionBatch) {
+        return transactionApiDelegate.createTransactionBatch(transactionBatch);
+    }
+
+    @ApiOperation(value = "Stream transactions as NDJSON", nickname = "createTransactionStream", notes = "Consumes one TransactionRequest JSON object per line and answers with one TransactionBatchItemResult JSON object per line, written while the upload is still arriving. The request HMAC signature of this endpoint is computed over an empty body, the lines are signed by chained signature lines. ", authorizations = {
+            @Authorization(value = "HmacAuth")
+    }, tags = {"Transactions",})
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stream processed, one result line per transaction line."),
+            @ApiResponse(code = 401, message = "Unauthorized - Authentication failed.", response = ErrorResponse.class),
+            @ApiResponse(code = 403, message = "Forbidden request - Server refuses to fulfill the request.", response = ErrorResponse.class),
+            @ApiResponse(code = 500, message = "Server errors.", response = ErrorResponse.class),
+            @ApiResponse(code = 503, message = "Service Unavailable.", response = ErrorResponse.class)})
+    @RequestMapping(value = "/api/transactions/stream",
+            produces = {"application/x-ndjson"},
+            consumes = {"application/x-ndjson"},
+            method = RequestMethod.POST)
+    public void createTransactionStream(@ApiIgnore HttpServletRequest request, @ApiIgnore HttpServletResponse response) throws IOException {
+        transactionStreamDelegate.createTransactionStream(request.getInputStream(),
+                (StreamSignatureVerifier) request.getAttribute(StreamSignatureVerifier.REQUEST_ATTRIBUTE), response);
     }
 
 }
@@ -1,39 +1,143 @@
 package com.sisal.transaction.server.delegate;
 
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.exception.AppServerBaseException;
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import com.sisal.transaction.server.exception.TransactionRateLimitException;
 import com.sisal.transaction.server.model.api.TransactionAPIRequest;
 import com.sisal.transaction.server.model.api.TransactionAPIResponse;
+import com.sisal.transaction.server.model.rest.ErrorResponse;
+import com.sisal.transaction.server.model.rest.TransactionBatchItemResult;
+import com.sisal.transaction.server.model.rest.TransactionBatchRequest;
+import com.sisal.transaction.server.model.rest.TransactionBatchResponse;
 import com.sisal.transaction.server.model.rest.TransactionRequest;
 import com.sisal.transaction.server.model.rest.TransactionResponse;
+import com.sisal.transaction.server.service.IdempotencyService;
 import com.sisal.transaction.server.service.TransactionApiService;
+import com.sisal.transaction.server.service.TransactionBatchService;
+import com.sisal.transaction.server.util.ErrorCode;
 import com.sisal.transaction.server.util.TransactionMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
 
 @Component
 public class TransactionApiDelegate {
 
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String ANONYMOUS_CLIENT = "anonymous";
+
     private final TransactionApiService transactionApiService;
     private final TransactionMapper transactionMapper;
+    private final IdempotencyService idempotencyService;
+    private final TransactionBatchService transactionBatchService;
 
     @Autowired
-    public TransactionApiDelegate(TransactionApiService transactionApiService, TransactionMapper transactionMapper) {
+    public TransactionApiDelegate(TransactionApiService transactionApiService,
+                                  TransactionMapper transactionMapper,
+                                  IdempotencyService idempotencyService,
+                                  TransactionBatchService transactionBatchService) {
         // Add debug logging
         System.out.println("Mapper class: " + transactionMapper.getClass().getName());
         this.transactionApiService = transactionApiService;
         this.transactionMapper = transactionMapper;
+        this.idempotencyService = idempotencyService;
+        this.transactionBatchService = transactionBatchService;
     }
 
-    public ResponseEntity<TransactionResponse> createTransaction(TransactionRequest restRequest) {
+    /**
+     * Requests carrying an idempotency key are executed at most once, repeats get the first response replayed.
+     */
+    public ResponseEntity<TransactionResponse> createTransaction(TransactionRequest restRequest, String idempotencyKey) {
 
         TransactionAPIRequest apiRequest = transactionMapper.fromRestToAPIRequest(restRequest);
 
-        TransactionAPIResponse apiResponse = transactionApiService.createTransaction(apiRequest);
+        if (!StringUtils.hasText(idempotencyKey) || !idempotencyService.isEnabled()) {
+            TransactionAPIResponse apiResponse = transactionApiService.createTransaction(apiRequest);
+            return new ResponseEntity<>(transactionMapper.fromAPIToRestResponse(apiResponse), HttpStatus.CREATED);
+        }
+
+        IdempotencyService.Result result = idempotencyService.execute(clientId(), idempotencyKey, apiRequest,
+                () -> transactionApiService.createTransaction(apiRequest));
+
+        TransactionResponse restResponse = transactionMapper.fromAPIToRestResponse(result.getResponse());
+
+        HttpHeaders headers = new HttpHeaders();
+        if (result.isReplayed()) {
+            headers.set(IDEMPOTENT_REPLAYED_HEADER, Boolean.TRUE.toString());
+        }
+        return new ResponseEntity<>(restResponse, headers, HttpStatus.CREATED);
+    }
+
+    /**
+     * Rejected items are reported in the body with the same error codes as the single transaction API,
+     * the batch itself always completes with 200.
+     */
+    public ResponseEntity<TransactionBatchResponse> createTransactionBatch(TransactionBatchRequest restRequest) {
 
-        TransactionResponse restResponse = transactionMapper.fromAPIToRestResponse(apiResponse);
+        List<TransactionAPIRequest> apiRequests = transactionMapper.fromRestToAPIRequests(restRequest.getTransactions());
+        List<TransactionBatchService.ItemResult> itemResults = transactionBatchService.createTransactions(apiRequests);
+
+        TransactionBatchResponse restResponse = new TransactionBatchResponse();
+        int completed = 0;
+        for (int i = 0; i < itemResults.size(); i++) {
+            TransactionBatchService.ItemResult itemResult = itemResults.get(i);
+            TransactionBatchItemResult restItem = new TransactionBatchItemResult().index(i);
+            if (itemResult.isSuccess()) {
+                completed++;
+                restItem.status(TransactionBatchItemResult.StatusEnum.COMPLETED)
+                        .transaction(transactionMapper.fromAPIToRestResponse(itemResult.getResponse()));
+            } else {
+                restItem.status(TransactionBatchItemResult.StatusEnum.FAILED)
+                        .error(toErrorResponse(itemResult.getError()));
+            }
+            restResponse.addResultsItem(restItem);
+        }
+        restResponse.completed(completed).failed(itemResults.size() - completed);
+
+        return new ResponseEntity<>(restResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Same status and error code mapping as {@code GlobalExceptionHandler} applies to the single transaction API.
+     */
+    static ErrorResponse toErrorResponse(RuntimeException error) {
+
+        ErrorResponse errorResponse = new ErrorResponse().errorMessage(error.getMessage());
+        if (error instanceof AccountNotFoundException) {
+            return errorResponse.httpErrorCode(HttpStatus.NOT_FOUND.toString())
+                    .errorCode(((AccountNotFoundException) error).getErrorCode().getCode());
+        }
+        if (error instanceof AppServerBaseException) {
+            HttpStatus status = error instanceof TransactionRateLimitException ? HttpStatus.TOO_MANY_REQUESTS
+                    : error instanceof InsufficientBalanceException ? HttpStatus.CONFLICT
+                    : HttpStatus.BAD_REQUEST;
+            return errorResponse.httpErrorCode(status.toString())
+                    .errorCode(((AppServerBaseException) error).getErrorCode().getCode());
+        }
+        if (error instanceof DataAccessException) {
+            return errorResponse.httpErrorCode(HttpStatus.CONFLICT.toString())
+                    .errorCode(ErrorCode.CONCURRENT_MODIFICATION.getCode())
+                    .errorMessage("Account was modified concurrently, the item can be retried.");
+        }
+        return errorResponse.httpErrorCode(HttpStatus.INTERNAL_SERVER_ERROR.toString())
+                .errorCode(ErrorCode.UNKOWN_ERROR.getCode());
+    }
 
-        return new ResponseEntity<>(restResponse, HttpStatus.CREATED);
+    /**
+     * Idempotency keys are scoped per authenticated client.
+     */
+    private String clientId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : ANONYMOUS_CLIENT;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,293 @@
+package com.sisal.transaction.server.delegate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.model.api.TransactionAPIRequest;
+import com.sisal.transaction.server.model.rest.ErrorResponse;
+import com.sisal.transaction.server.model.rest.TransactionBatchItemResult;
+import com.sisal.transaction.server.model.rest.TransactionRequest;
+import com.sisal.transaction.server.service.TransactionBatchService;
+import com.sisal.transaction.server.util.ErrorCode;
+import com.sisal.transaction.server.util.NdjsonLineReader;
+import com.sisal.transaction.server.util.StreamSignatureVerifier;
+import com.sisal.transaction.server.util.TransactionMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams NDJSON transaction uploads through {@link TransactionBatchService}.
+ *
+ * <p>The upload is read line by line, every line is parsed on its own with Jackson's streaming parser
+ * and validated like a single transaction request. Once a chunk of {@code transaction.engine.batch.chunk-size}
+ * lines is gathered it is applied, its results are written back as NDJSON and flushed before the next
+ * lines are read. Reading stops while a chunk is being applied, so a fast uploader is held back by TCP flow
+ * control, and memory is bounded by one chunk whatever the size of the upload.</p>
+ *
+ * <p>A malformed, oversized or invalid line fails on its own, the rest of the stream is still processed.</p>
+ *
+ * <p>The lines are authenticated by the signature lines of the stream ({@link StreamSignatureVerifier}): lines
+ * are held until the signature closing their segment is verified and only then join a chunk. A segment may hold
+ * up to chunk-size lines. The stream stops at the first signature mismatch, or at a segment exceeding that size,
+ * the lines held at that point and the lines not closed by a signature at the end of the stream fail unapplied.</p>
+ */
+@Component
+public class TransactionStreamDelegate {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionStreamDelegate.class);
+
+    private static final String SIGNATURE_FIELD = "signature";
+
+    private final TransactionBatchService transactionBatchService;
+    private final TransactionMapper transactionMapper;
+    private final TransactionEngineProperties engineProperties;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+
+    @Autowired
+    public TransactionStreamDelegate(TransactionBatchService transactionBatchService,
+                                     TransactionMapper transactionMapper,
+                                     TransactionEngineProperties engineProperties,
+                                     Validator validator,
+                                     ObjectMapper objectMapper) {
+        this.transactionBatchService = transactionBatchService;
+        this.transactionMapper = transactionMapper;
+        this.engineProperties = engineProperties;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(TransactionRequest.class);
+        // Results are flushed once per chunk, not per line
+        this.resultWriter = objectMapper.writerFor(TransactionBatchItemResult.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Applies every signed line of the upload and writes one result line per transaction, in upload order.
+     * Blank lines and signature lines are ignored and do not take an index.
+     *
+     * @param signatureVerifier verifier of the authenticated request, see {@code AuthenticationFilter}
+     */
+    public void createTransactionStream(InputStream requestBody,
+                                        StreamSignatureVerifier signatureVerifier,
+                                        HttpServletResponse response) throws IOException {
+
+        if (signatureVerifier == null) {
+            throw new IllegalStateException("Transaction stream without signature verifier, the request was not authenticated");
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        TransactionEngineProperties.Batch settings = engineProperties.getBatch();
+        NdjsonLineReader lineReader = new NdjsonLineReader(requestBody, (int) settings.getMaxLineLength().toBytes());
+        Chunk chunk = new Chunk(settings.getChunkSize());
+        List<Line> unsigned = new ArrayList<>();
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+
+            String rejection = "Line is not followed by a stream signature.";
+            int index = 0;
+            int length;
+            while ((length = lineReader.next()) != NdjsonLineReader.END_OF_STREAM) {
+                if (length != NdjsonLineReader.TOO_LONG && lineReader.isBlank(length)) {
+                    continue;
+                }
+                byte[] signature = length == NdjsonLineReader.TOO_LONG ? null : readSignature(lineReader, length);
+                if (signature == null) {
+                    if (length == NdjsonLineReader.TOO_LONG) {
+                        signatureVerifier.breakSegment();
+                    } else {
+                        signatureVerifier.update(lineReader.line(), length);
+                    }
+                    unsigned.add(readLine(lineReader, length, index++));
+                    if (unsigned.size() > settings.getChunkSize()) {
+                        rejection = "More than " + settings.getChunkSize() + " lines without a stream signature.";
+                        break;
+                    }
+                    continue;
+                }
+                if (!signatureVerifier.verify(signature)) {
+                    logger.warn("Transaction stream stopped on a signature mismatch after {} lines", index);
+                    rejection = "Stream signature mismatch, the stream was stopped.";
+                    break;
+                }
+                chunk.addAll(unsigned);
+                unsigned.clear();
+                if (chunk.isFull()) {
+                    writeChunk(chunk, generator);
+                }
+            }
+            writeChunk(chunk, generator);
+            for (Line line : unsigned) {
+                resultWriter.writeValue(generator, failed(line.index, new ErrorResponse()
+                        .httpErrorCode(HttpStatus.UNAUTHORIZED.toString())
+                        .errorCode(ErrorCode.AUTH_BAD_CREDENTIALS.getCode())
+                        .errorMessage(rejection)));
+            }
+            if (index > 0) {
+                generator.writeRaw('\n');
+            }
+            logger.debug("Transaction stream of {} lines completed", index);
+        }
+    }
+
+    /**
+     * Signature carried by a signature line ({@code {"signature":"<Base64>"}}), null for any other line.
+     * An invalid Base64 value yields an empty signature, which fails verification.
+     */
+    private byte[] readSignature(NdjsonLineReader lineReader, int length) {
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(lineReader.line(), 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT || parser.nextToken() != JsonToken.FIELD_NAME
+                    || !SIGNATURE_FIELD.equals(parser.getCurrentName()) || parser.nextToken() != JsonToken.VALUE_STRING) {
+                return null;
+            }
+            try {
+                return parser.getBinaryValue();
+            } catch (JsonProcessingException invalidBase64) {
+                return new byte[0];
+            }
+        } catch (IOException notSignature) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses and validates a line, a rejected line gets its result right away.
+     */
+    private Line readLine(NdjsonLineReader lineReader, int length, int index) {
+
+        if (length == NdjsonLineReader.TOO_LONG) {
+            return Line.failed(index, error(ErrorCode.INVALID_REQUEST, "Line exceeds the maximum length."));
+        }
+
+        TransactionRequest request;
+        try {
+            request = requestReader.readValue(lineReader.line(), 0, length);
+        } catch (IOException parseFailure) {
+            logger.debug("Malformed transaction stream line {}: {}", index,
+                    parseFailure instanceof JsonProcessingException ? ((JsonProcessingException) parseFailure).getOriginalMessage() : parseFailure.getMessage());
+            return Line.failed(index, error(ErrorCode.MALFORMED_JSON, "Reading line failed, it is not a valid transaction JSON object."));
+        }
+
+        if (request == null || !validator.validate(request).isEmpty()) {
+            return Line.failed(index, error(ErrorCode.INVALID_REQUEST, "Schema validation failures on line."));
+        }
+        return Line.accepted(index, transactionMapper.fromRestToAPIRequest(request));
+    }
+
+    private void writeChunk(Chunk chunk, JsonGenerator generator) throws IOException {
+
+        if (chunk.lines.isEmpty()) {
+            return;
+        }
+
+        List<TransactionBatchService.ItemResult> applied = transactionBatchService.createTransactions(chunk.accepted);
+        int next = 0;
+        for (Line line : chunk.lines) {
+            TransactionBatchItemResult result = line.result;
+            if (result == null) {
+                TransactionBatchService.ItemResult itemResult = applied.get(next++);
+                result = itemResult.isSuccess()
+                        ? new TransactionBatchItemResult().index(line.index)
+                        .status(TransactionBatchItemResult.StatusEnum.COMPLETED)
+                        .transaction(transactionMapper.fromAPIToRestResponse(itemResult.getResponse()))
+                        : failed(line.index, TransactionApiDelegate.toErrorResponse(itemResult.getError()));
+            }
+            resultWriter.writeValue(generator, result);
+        }
+        generator.flush();
+        chunk.clear();
+    }
+
+    private static ErrorResponse error(ErrorCode errorCode, String message) {
+        return new ErrorResponse()
+                .httpErrorCode(HttpStatus.BAD_REQUEST.toString())
+                .errorCode(errorCode.getCode())
+                .errorMessage(message);
+    }
+
+    private static TransactionBatchItemResult failed(int index, ErrorResponse error) {
+        return new TransactionBatchItemResult()
+                .index(index)
+                .status(TransactionBatchItemResult.StatusEnum.FAILED)
+                .error(error);
+    }
+
+    /**
+     * Verified lines since the last chunk was written, the accepted requests are kept in line order.
+     */
+    private static final class Chunk {
+        private final int size;
+        private final List<Line> lines;
+        private final List<TransactionAPIRequest> accepted;
+
+        private Chunk(int size) {
+            this.size = size;
+            this.lines = new ArrayList<>(size);
+            this.accepted = new ArrayList<>(size);
+        }
+
+        private void addAll(List<Line> verified) {
+            for (Line line : verified) {
+                lines.add(line);
+                if (line.request != null) {
+                    accepted.add(line.request);
+                }
+            }
+        }
+
+        private boolean isFull() {
+            return lines.size() >= size;
+        }
+
+        private void clear() {
+            lines.clear();
+            accepted.clear();
+        }
+    }
+
+    /**
+     * A line is either accepted for the service or already rejected with its result.
+     */
+    private static final class Line {
+        private final int index;
+        private final TransactionAPIRequest request;
+        private final TransactionBatchItemResult result;
+
+        private Line(int index, TransactionAPIRequest request, TransactionBatchItemResult result) {
+            this.index = index;
+            this.request = request;
+            this.result = result;
+        }
+
+        private static Line accepted(int index, TransactionAPIRequest request) {
+            return new Line(index, request, null);
+        }
+
+        private static Line failed(int index, ErrorResponse error) {
+            return new Line(index, null, TransactionStreamDelegate.failed(index, error));
+        }
+    }
+}
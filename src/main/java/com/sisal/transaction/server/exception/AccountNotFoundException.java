@@ -2,11 +2,15 @@ package com.sisal.transaction.server.exception;
 
 import com.sisal.transaction.server.util.ErrorCode;
 
+/**
+ * Thrown for unknown account numbers, an expected outcome that can be triggered at a high rate,
+ * so no stack trace is captured.
+ */
 public class AccountNotFoundException extends RuntimeException {
     private final ErrorCode errorCode = ErrorCode.ACCOUNT_NOT_FOUND;
 
     public AccountNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ErrorCode getErrorCode() {
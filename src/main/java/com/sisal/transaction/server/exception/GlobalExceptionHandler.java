@@ -8,6 +8,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -20,6 +21,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
@@ -64,6 +66,78 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(InvalidAmountException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidAmount(InvalidAmountException amountException) {
+
+        ErrorResponse errorResponse = new ErrorResponse()
+                .httpErrorCode(HttpStatus.BAD_REQUEST.toString())
+                .errorCode(amountException.getErrorCode().getCode())
+                .errorMessage(amountException.getMessage());
+
+        logger.error("Invalid amount: {}", amountException.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException inProgressException) {
+
+        ErrorResponse errorResponse = new ErrorResponse()
+                .httpErrorCode(HttpStatus.CONFLICT.toString())
+                .errorCode(inProgressException.getErrorCode().getCode())
+                .errorMessage(inProgressException.getMessage());
+
+        logger.error("Idempotent request in progress: {}", inProgressException.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReused(IdempotencyKeyReusedException reusedException) {
+
+        ErrorResponse errorResponse = new ErrorResponse()
+                .httpErrorCode(HttpStatus.UNPROCESSABLE_ENTITY.toString())
+                .errorCode(reusedException.getErrorCode().getCode())
+                .errorMessage(reusedException.getMessage());
+
+        logger.error("Idempotency key reused: {}", reusedException.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    /**
+     * Work queues of the transaction engine are bounded, a full queue is reported as a temporary overload.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecution(RejectedExecutionException rejectedException) {
+
+        ErrorResponse errorResponse = new ErrorResponse()
+                .httpErrorCode(HttpStatus.SERVICE_UNAVAILABLE.toString())
+                .errorCode(ErrorCode.SERVICE_BUSY.getCode())
+                .errorMessage("Server is busy processing transactions, please retry later.");
+
+        logger.error("Transaction queue is full: {}", rejectedException.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Version conflicts are retried by the service, a conflict left after the last retry is reported as retryable.
+     * So is a row lock that was not granted within the lock timeout.
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrentModification(ConcurrencyFailureException conflictException) {
+
+        ErrorResponse errorResponse = new ErrorResponse()
+                .httpErrorCode(HttpStatus.CONFLICT.toString())
+                .errorCode(ErrorCode.CONCURRENT_MODIFICATION.getCode())
+                .errorMessage("Account was modified concurrently, the transaction can be retried.");
+
+        logger.error("Concurrent account modification: {}", conflictException.getMessage());
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception exception) {
 
@@ -0,0 +1,16 @@
+package com.sisal.transaction.server.exception;
+
+import com.sisal.transaction.server.util.ErrorCode;
+
+public class IdempotencyKeyReusedException extends AppServerBaseException {
+    private final ErrorCode errorCode = ErrorCode.IDEMPOTENCY_KEY_REUSED;
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+}
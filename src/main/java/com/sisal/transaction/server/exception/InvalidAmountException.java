@@ -0,0 +1,16 @@
+package com.sisal.transaction.server.exception;
+
+import com.sisal.transaction.server.util.ErrorCode;
+
+public class InvalidAmountException extends AppServerBaseException {
+    private final ErrorCode errorCode = ErrorCode.INVALID_TRANSACTION;
+
+    public InvalidAmountException(String message) {
+        super(message);
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.sisal.transaction.server.exception;
+
+import com.sisal.transaction.server.util.ErrorCode;
+
+public class RequestBodyTooLargeException extends AppServerBaseException {
+    private final ErrorCode errorCode = ErrorCode.PAYLOAD_TOO_LARGE;
+
+    public RequestBodyTooLargeException(String message) {
+        super(message);
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+}
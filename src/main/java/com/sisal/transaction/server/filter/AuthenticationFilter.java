@@ -9,6 +9,7 @@ import com.sisal.transaction.server.exception.AuthTimestampExpiredException;
 import com.sisal.transaction.server.model.rest.ErrorResponse;
 import com.sisal.transaction.server.util.AuthUtil;
 import com.sisal.transaction.server.util.ErrorCode;
+import com.sisal.transaction.server.util.StreamSignatureVerifier;
 import com.sisal.transaction.server.util.filter.CustomRequestWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +28,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Base64;
 
 /**
  * Authentication filter implementation based on Hash-based Message Authentication Code.
@@ -56,8 +58,8 @@ public class AuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws IOException {
         try {
 
-            // Create a wrapper to allow reading the request body multiple times
-            CustomRequestWrapper requestWrapper = new CustomRequestWrapper(request);
+            // Reuse the body buffered at the edge of the chain, it is read again by logging and Jackson
+            CustomRequestWrapper requestWrapper = CustomRequestWrapper.of(request);
 
             //Validate headers
             String apiKey = requestWrapper.getHeader(API_KEY_HEADER);
@@ -72,12 +74,12 @@ public class AuthenticationFilter extends OncePerRequestFilter {
 
             AuthUtil.validateTimestamp(timestamp, MAX_TIMESTAMP_DIFF);
 
-            //Create request details
+            //Create request details, the body of a streamed request is signed line by line (StreamSignatureVerifier)
             HmacAuthenticationToken.RequestDetails details = new HmacAuthenticationToken.RequestDetails(
                     requestWrapper.getMethod(),
                     requestWrapper.getRequestURI(),
                     requestWrapper.getQueryString(),
-                    AuthUtil.extractRequestBody(requestWrapper),
+                    requestWrapper.getBody(),
                     timestamp
             );
 
@@ -87,7 +89,12 @@ public class AuthenticationFilter extends OncePerRequestFilter {
 
             SecurityContextHolder.getContext().setAuthentication(result);
 
-            filterChain.doFilter(requestWrapper, response);
+            if (requestWrapper.isStreamed()) {
+                requestWrapper.setAttribute(StreamSignatureVerifier.REQUEST_ATTRIBUTE, new StreamSignatureVerifier(
+                        ((HmacAuthenticationToken) result).getHmacEngine(), Base64.getDecoder().decode(providedHmac)));
+            }
+
+            filterChain.doFilter(requestWrapper.chainRequest(request), response);
 
         } catch (AuthMissingHeaderException | AuthInvalidTimestampException | AuthTimestampExpiredException |
                  AuthException e) {
@@ -0,0 +1,110 @@
+package com.sisal.transaction.server.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sisal.transaction.server.config.RequestBodyProperties;
+import com.sisal.transaction.server.exception.RequestBodyTooLargeException;
+import com.sisal.transaction.server.model.rest.ErrorResponse;
+import com.sisal.transaction.server.util.filter.CustomRequestWrapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers the request body once, at the edge of the filter chain.
+ * <p>
+ * The {@link CustomRequestWrapper} created here is reused by the authentication filter, the logging filter
+ * and Jackson, so the body is held in memory a single time per request. Bodies bigger than the configured
+ * maximum are rejected with 413 before being buffered.
+ * <p>
+ * Streamed requests ({@code application/x-ndjson}) are passed on unbuffered and are not subject to the maximum,
+ * their endpoint consumes the body record by record.
+ * <p>
+ * Memory accounting:
+ * <ul>
+ *   <li>{@code http.server.requests.body.size}: buffered body size per request</li>
+ *   <li>{@code http.server.requests.body.buffered}: bytes currently buffered by in-flight requests</li>
+ * </ul>
+ */
+public class RequestBodyCachingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestBodyCachingFilter.class);
+
+    private final RequestBodyProperties requestBodyProperties;
+    private final ObjectMapper objectMapper;
+    private final DistributionSummary bodySizes;
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    public RequestBodyCachingFilter(RequestBodyProperties requestBodyProperties,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry) {
+        this.requestBodyProperties = requestBodyProperties;
+        this.objectMapper = objectMapper;
+        this.bodySizes = DistributionSummary.builder("http.server.requests.body.size")
+                .description("Buffered request body size")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.body.buffered", bufferedBytes, AtomicLong::get)
+                .description("Request body bytes buffered by in-flight requests")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        if (CustomRequestWrapper.isStreamed(request)) {
+            filterChain.doFilter(CustomRequestWrapper.streaming(request), response);
+            return;
+        }
+
+        CustomRequestWrapper requestWrapper;
+        try {
+            requestWrapper = new CustomRequestWrapper(request, requestBodyProperties.getMaxSize().toBytes());
+        } catch (RequestBodyTooLargeException e) {
+            logger.warn(e.getMessage());
+            sendErrorResponse(response, e);
+            return;
+        }
+
+        long size = requestWrapper.getBody().length;
+        bodySizes.record(size);
+        bufferedBytes.addAndGet(size);
+        try {
+            filterChain.doFilter(requestWrapper, response);
+        } finally {
+            bufferedBytes.addAndGet(-size);
+        }
+    }
+
+    /**
+     * The body stays unread, the connection is closed afterwards instead of draining it.
+     */
+    private void sendErrorResponse(HttpServletResponse response, RequestBodyTooLargeException exception) throws IOException {
+
+        HttpStatus status = HttpStatus.PAYLOAD_TOO_LARGE;
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader("Connection", "close");
+
+        ErrorResponse errorResponse = new ErrorResponse()
+                .httpErrorCode(status.toString())
+                .errorCode(exception.getErrorCode().getCode())
+                .errorMessage(exception.getMessage());
+
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    }
+}
@@ -1,5 +1,6 @@
 package com.sisal.transaction.server.model.db;
 
+import com.sisal.transaction.server.util.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -7,7 +8,6 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
 import javax.persistence.*;
-import javax.validation.constraints.NotNull;
 import java.time.OffsetDateTime;
 
 /**
@@ -35,9 +35,11 @@ public class AccountEntity {
     @Column(name = "last_name", nullable = false)
     private String lastName;
 
-    @NotNull
-    @Column(name = "balance", nullable = false)
-    private Double balance;
+    /**
+     * Balance in minor units, see {@link Money}.
+     */
+    @Column(name = "balance_minor", nullable = false)
+    private long balanceMinor;
 
     @CreationTimestamp
     @Column(name = "created_at", updatable = false, nullable = false)
@@ -0,0 +1,53 @@
+package com.sisal.transaction.server.model.db;
+
+import com.sisal.transaction.server.util.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Account Snapshot Entity - Database Model
+ * <p>
+ * Balance of an event-sourced account after the transaction with the given account sequence.
+ * Snapshots are only appended, the latest one is the starting point for rebuilding the balance.
+ */
+@Entity
+@Table(name = "account_snapshots", schema = "transaction_system",
+        indexes = @Index(name = "UX_Snapshot_Account_Sequence", columnList = "account_id, account_sequence", unique = true))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSnapshotEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "account_sequence", nullable = false)
+    private long accountSequence;
+
+    /**
+     * Balance in minor units, see {@link Money}.
+     */
+    @Column(name = "balance_minor", nullable = false)
+    private long balanceMinor;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = OffsetDateTime.now();
+        }
+    }
+}
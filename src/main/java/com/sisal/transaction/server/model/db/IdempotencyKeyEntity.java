@@ -0,0 +1,82 @@
+package com.sisal.transaction.server.model.db;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.OffsetDateTime;
+
+/**
+ * Idempotency Key Entity - Database Model
+ * <p>
+ * The row is reserved (IN_PROGRESS) before the transaction is executed and completed with the response,
+ * its primary key makes concurrent requests with the same key mutually exclusive across server instances.
+ */
+@Entity
+@Table(name = "idempotency_keys", schema = "transaction_system")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKeyEntity implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 200)
+    private String idempotencyKey;
+
+    @NotNull
+    @Column(name = "request_hash", length = 64, nullable = false)
+    private String requestHash;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private IdempotencyStatus status;
+
+    @Column(name = "response_body", length = 2000)
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    /**
+     * Reservations are always inserted, a duplicate key must fail instead of being merged.
+     */
+    @Transient
+    @Builder.Default
+    private boolean newEntity = true;
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markNotNew() {
+        newEntity = false;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = OffsetDateTime.now();
+        }
+    }
+
+    /**
+     * Processing state of the request owning the key.
+     */
+    public enum IdempotencyStatus {
+        IN_PROGRESS, COMPLETED
+    }
+}
@@ -0,0 +1,34 @@
+package com.sisal.transaction.server.model.db;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Journal Checkpoint Entity - Database Model
+ * <p>
+ * Sequence of the last journal entry projected into the tables. It is written by the projection in the same
+ * DB transaction as the projected rows, so replayed journal entries at or below it are skipped.
+ */
+@Entity
+@Table(name = "journal_checkpoints", schema = "transaction_system")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalCheckpointEntity {
+
+    @Id
+    @Column(name = "journal_name", length = 100)
+    private String journalName;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
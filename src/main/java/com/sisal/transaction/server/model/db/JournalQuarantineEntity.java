@@ -0,0 +1,61 @@
+package com.sisal.transaction.server.model.db;
+
+import com.sisal.transaction.server.util.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Journal Quarantine Entity - Database Model
+ * <p>
+ * Journal entry that could not be projected into the tables, e.g. its account was deleted after it was journaled.
+ * It is written by the projection in the same DB transaction as the checkpoint passing it, so the projection
+ * carries on with the next entries. Quarantined entries are reviewed and settled manually.
+ */
+@Entity
+@Table(name = "journal_quarantine", schema = "transaction_system")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalQuarantineEntity {
+
+    /**
+     * Maximum length of the stored reason.
+     */
+    public static final int REASON_LENGTH = 500;
+
+    @Id
+    @Column(name = "journal_sequence")
+    private long journalSequence;
+
+    @Column(name = "transaction_id", nullable = false)
+    private UUID transactionId;
+
+    @Column(name = "account_id", nullable = false)
+    private long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionEntity.TransactionType transactionType;
+
+    /**
+     * Amount in minor units, see {@link Money}.
+     */
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor;
+
+    @Column(name = "journaled_at", nullable = false)
+    private OffsetDateTime journaledAt;
+
+    @Column(name = "reason", nullable = false, length = REASON_LENGTH)
+    private String reason;
+
+    @Column(name = "quarantined_at", nullable = false)
+    private OffsetDateTime quarantinedAt;
+}
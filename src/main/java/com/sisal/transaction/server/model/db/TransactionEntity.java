@@ -1,14 +1,17 @@
 package com.sisal.transaction.server.model.db;
 
+import com.sisal.transaction.server.util.Money;
+import com.sisal.transaction.server.util.TimeOrderedUuidGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
-import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.NotNull;
 import java.time.OffsetDateTime;
 import java.util.UUID;
@@ -24,11 +27,15 @@ import java.util.UUID;
 @AllArgsConstructor
 public class TransactionEntity {
 
+    /**
+     * Time-ordered, so inserts append to the end of the clustered primary key.
+     */
     @Id
-    @GeneratedValue(generator = "UUID")
+    @GeneratedValue(generator = "TIME_ORDERED_UUID")
     @GenericGenerator(
-            name = "UUID",
-            strategy = "org.hibernate.id.UUIDGenerator"
+            name = "TIME_ORDERED_UUID",
+            strategy = "com.sisal.transaction.server.util.TimeOrderedUuidGenerator",
+            parameters = @Parameter(name = TimeOrderedUuidGenerator.LAYOUT_PARAMETER, value = "SQL_SERVER")
     )
     @Column(name = "transaction_id")
     private UUID transactionId;
@@ -42,10 +49,19 @@ public class TransactionEntity {
     @Column(name = "transaction_type", nullable = false)
     private TransactionType transactionType;
 
-    @NotNull
-    @DecimalMax("10000.00")
-    @Column(name = "amount", nullable = false)
-    private Double amount;
+    /**
+     * Amount in minor units, see {@link Money}.
+     */
+    @Max(10000_00)
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor;
+
+    /**
+     * Position of the transaction in the event stream of its account, only set by the EVENT_SOURCED
+     * balance update mode. Unique per account, so concurrent appends of the same position conflict.
+     */
+    @Column(name = "account_sequence")
+    private Long accountSequence;
 
     @CreationTimestamp
     @Column(name = "timestamp", nullable = false, updatable = false)
@@ -0,0 +1,64 @@
+package com.sisal.transaction.server.model.db;
+
+import com.sisal.transaction.server.util.Money;
+import com.sisal.transaction.server.util.TimeOrderedUuidGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Transaction Failure Entity - Database Model
+ * <p>
+ * Transaction that could not be persisted. Its transaction record and balance update were rolled back together,
+ * the failure is written afterwards, off the request thread.
+ */
+@Entity
+@Table(name = "transaction_failures", schema = "transaction_system",
+        indexes = @Index(name = "IX_Failure_FailedAt", columnList = "failed_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionFailureEntity {
+
+    /**
+     * Maximum length of the stored reason, longer exception messages are cut.
+     */
+    public static final int REASON_LENGTH = 500;
+
+    @Id
+    @GeneratedValue(generator = "TIME_ORDERED_UUID")
+    @GenericGenerator(
+            name = "TIME_ORDERED_UUID",
+            strategy = "com.sisal.transaction.server.util.TimeOrderedUuidGenerator",
+            parameters = @Parameter(name = TimeOrderedUuidGenerator.LAYOUT_PARAMETER, value = "SQL_SERVER")
+    )
+    @Column(name = "failure_id")
+    private UUID failureId;
+
+    @Column(name = "account_number", nullable = false)
+    private String accountNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionEntity.TransactionType transactionType;
+
+    /**
+     * Amount in minor units, see {@link Money}.
+     */
+    @Column(name = "amount_minor", nullable = false)
+    private long amountMinor;
+
+    @Column(name = "reason", nullable = false, length = REASON_LENGTH)
+    private String reason;
+
+    @Column(name = "failed_at", nullable = false)
+    private OffsetDateTime failedAt;
+}
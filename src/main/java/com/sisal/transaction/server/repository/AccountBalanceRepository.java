@@ -0,0 +1,62 @@
+package com.sisal.transaction.server.repository;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+/**
+ * Custom {@link AccountRepository} fragment applying balance changes as a single conditional UPDATE.
+ * <p>
+ * The balance rules are part of the WHERE clause, so the account row is neither read nor hydrated
+ * beforehand and concurrent writers queue on the row lock instead of failing on the version check.
+ * <p>
+ * Amounts and balances are in minor units, see {@link com.sisal.transaction.server.util.Money}.
+ */
+public interface AccountBalanceRepository {
+
+    /**
+     * Adds the amount to the account balance.
+     *
+     * @param accountNumber bank account number
+     * @param amount        deposited amount
+     * @return the updated balance, empty if the account does not exist
+     */
+    Optional<BalanceUpdate> applyDeposit(String accountNumber, long amount);
+
+    /**
+     * Subtracts the amount from the account balance, if the balance rules allow it.
+     * <p>
+     * The withdrawal is applied only if the balance covers the amount and the resulting balance stays
+     * at or above the minimum balance, unless the account was created after the new-account cutoff.
+     *
+     * @param accountNumber    bank account number
+     * @param amount           withdrawn amount
+     * @param minimumBalance   minimum balance an existing account has to keep
+     * @param newAccountCutoff accounts created after this time are exempt from the minimum balance
+     * @return the updated balance, empty if the account does not exist or the balance rules are violated
+     */
+    Optional<BalanceUpdate> applyWithdrawal(String accountNumber,
+                                            long amount,
+                                            long minimumBalance,
+                                            OffsetDateTime newAccountCutoff);
+
+    /**
+     * Account row state returned by a successful conditional update.
+     */
+    final class BalanceUpdate {
+        private final Long accountId;
+        private final long balance;
+
+        public BalanceUpdate(Long accountId, long balance) {
+            this.accountId = accountId;
+            this.balance = balance;
+        }
+
+        public Long getAccountId() {
+            return accountId;
+        }
+
+        public long getBalance() {
+            return balance;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.sisal.transaction.server.repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Native SQL implementation of {@link AccountBalanceRepository}.
+ * <p>
+ * The new balance is returned by the UPDATE statement itself where the database supports it:
+ * <ul>
+ *   <li>SQL Server: {@code UPDATE ... OUTPUT inserted.*}</li>
+ *   <li>H2: {@code SELECT ... FROM FINAL TABLE (UPDATE ...)}</li>
+ * </ul>
+ * Other databases fall back to reading the row back by its account number, the row is still locked by the update.
+ * <p>
+ * The version column is incremented as well, so JPA writers on the same account keep detecting the change.
+ */
+public class AccountBalanceRepositoryImpl implements AccountBalanceRepository {
+
+    private static final String SET_BALANCE =
+            "SET balance_minor = balance_minor + :delta, version = COALESCE(version, 0) + 1, last_modified_at = :now ";
+
+    private static final String WHERE_ACCOUNT = "WHERE account_number = :accountNumber";
+
+    private static final String WITHDRAWAL_RULES =
+            " AND balance_minor + :delta >= 0" +
+                    " AND (balance_minor + :delta >= :minimumBalance OR created_at > :newAccountCutoff)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile SqlFlavor sqlFlavor;
+
+    @Override
+    public Optional<BalanceUpdate> applyDeposit(String accountNumber, long amount) {
+        return applyConditionally(WHERE_ACCOUNT, accountNumber, amount, null, null);
+    }
+
+    @Override
+    public Optional<BalanceUpdate> applyWithdrawal(String accountNumber,
+                                                   long amount,
+                                                   long minimumBalance,
+                                                   OffsetDateTime newAccountCutoff) {
+        return applyConditionally(WHERE_ACCOUNT + WITHDRAWAL_RULES, accountNumber, -amount, minimumBalance, newAccountCutoff);
+    }
+
+    private Optional<BalanceUpdate> applyConditionally(String whereClause,
+                                                       String accountNumber,
+                                                       long delta,
+                                                       Long minimumBalance,
+                                                       OffsetDateTime newAccountCutoff) {
+
+        SqlFlavor flavor = sqlFlavor();
+        String update = "UPDATE transaction_system.accounts " + SET_BALANCE;
+        String sql;
+        switch (flavor) {
+            case SQL_SERVER:
+                sql = update + "OUTPUT inserted.account_id, inserted.balance_minor " + whereClause;
+                break;
+            case H2:
+                sql = "SELECT account_id, balance_minor FROM FINAL TABLE (" + update + whereClause + ")";
+                break;
+            default:
+                sql = update + whereClause;
+        }
+
+        Query query = entityManager.createNativeQuery(sql)
+                .setParameter("delta", delta)
+                .setParameter("now", Timestamp.from(OffsetDateTime.now().toInstant()))
+                .setParameter("accountNumber", accountNumber);
+        if (minimumBalance != null) {
+            query.setParameter("minimumBalance", minimumBalance)
+                    .setParameter("newAccountCutoff", Timestamp.from(newAccountCutoff.toInstant()));
+        }
+
+        if (flavor == SqlFlavor.GENERIC) {
+            if (query.executeUpdate() == 0) {
+                return Optional.empty();
+            }
+            query = entityManager.createNativeQuery(
+                            "SELECT account_id, balance_minor FROM transaction_system.accounts " + WHERE_ACCOUNT)
+                    .setParameter("accountNumber", accountNumber);
+        }
+        return toBalanceUpdate(query.getResultList());
+    }
+
+    private static Optional<BalanceUpdate> toBalanceUpdate(List<?> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.get(0);
+        return Optional.of(new BalanceUpdate(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+    }
+
+    private SqlFlavor sqlFlavor() {
+        SqlFlavor flavor = sqlFlavor;
+        if (flavor == null) {
+            flavor = SqlFlavor.of(entityManager);
+            sqlFlavor = flavor;
+        }
+        return flavor;
+    }
+}
@@ -0,0 +1,26 @@
+package com.sisal.transaction.server.repository;
+
+import com.sisal.transaction.server.model.db.AccountEntity;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Custom {@link AccountRepository} fragment loading accounts under a row lock.
+ * <p>
+ * The lock is held until the surrounding transaction ends, so concurrent writers of the same account
+ * are serialized by the database instead of conflicting on the version check.
+ */
+public interface AccountLockRepository {
+
+    /**
+     * Loads the account with a {@code PESSIMISTIC_WRITE} lock, {@code UPDLOCK, ROWLOCK} on SQL Server.
+     * Has to be called within a transaction.
+     *
+     * @param accountNumber bank account number
+     * @param lockTimeout   longest wait for the row lock
+     * @return the locked account, empty if the account does not exist
+     * @throws org.springframework.dao.PessimisticLockingFailureException if the lock was not granted in time
+     */
+    Optional<AccountEntity> findByAccountNumberForUpdate(String accountNumber, Duration lockTimeout);
+}
@@ -0,0 +1,100 @@
+package com.sisal.transaction.server.repository;
+
+import com.sisal.transaction.server.model.db.AccountEntity;
+import org.hibernate.cfg.AvailableSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JPA implementation of {@link AccountLockRepository}.
+ * <p>
+ * The lock timeout is passed as JPA lock timeout, used by dialects with a lock wait limit per statement
+ * ({@code FOR UPDATE WAIT n}). SQL Server and H2 have none, the timeout is set for the session instead
+ * ({@code SET LOCK_TIMEOUT}) right before the row is locked, and set back to the session default right after:
+ * the setting would otherwise stay on the pooled connection and bound the lock waits of every later user.
+ * The session default is {@code -1} (no limit) on SQL Server, it is read once on H2.
+ * <p>
+ * A JDBC query timeout is deliberately not used, the connection pool discards a connection whose statement timed out.
+ */
+public class AccountLockRepositoryImpl implements AccountLockRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountLockRepositoryImpl.class);
+
+    private static final String SELECT_BY_ACCOUNT_NUMBER =
+            "SELECT a FROM AccountEntity a WHERE a.accountNumber = :accountNumber";
+
+    private static final int SQL_SERVER_DEFAULT_LOCK_TIMEOUT = -1;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile SqlFlavor sqlFlavor;
+    private volatile Integer defaultLockTimeout;
+
+    @Override
+    public Optional<AccountEntity> findByAccountNumberForUpdate(String accountNumber, Duration lockTimeout) {
+
+        int timeoutMillis = (int) Math.min(Integer.MAX_VALUE, lockTimeout.toMillis());
+        if (sqlFlavor() == SqlFlavor.GENERIC) {
+            return selectForUpdate(accountNumber, timeoutMillis);
+        }
+        int sessionTimeout = defaultLockTimeout();
+        setLockTimeout(timeoutMillis);
+        try {
+            return selectForUpdate(accountNumber, timeoutMillis);
+        } finally {
+            resetLockTimeout(sessionTimeout);
+        }
+    }
+
+    private Optional<AccountEntity> selectForUpdate(String accountNumber, int timeoutMillis) {
+        List<AccountEntity> accounts = entityManager.createQuery(SELECT_BY_ACCOUNT_NUMBER, AccountEntity.class)
+                .setParameter("accountNumber", accountNumber)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setHint(AvailableSettings.JPA_LOCK_TIMEOUT, timeoutMillis)
+                .getResultList();
+        return accounts.stream().findFirst();
+    }
+
+    private void setLockTimeout(int timeoutMillis) {
+        entityManager.createNativeQuery("SET LOCK_TIMEOUT " + timeoutMillis).executeUpdate();
+    }
+
+    /**
+     * A failed reset must not hide the outcome of the lock, the connection then keeps the timeout of this call.
+     */
+    private void resetLockTimeout(int sessionTimeout) {
+        try {
+            setLockTimeout(sessionTimeout);
+        } catch (RuntimeException resetFailure) {
+            logger.warn("Could not reset the lock timeout of the session to {}", sessionTimeout, resetFailure);
+        }
+    }
+
+    private int defaultLockTimeout() {
+        Integer timeout = defaultLockTimeout;
+        if (timeout == null) {
+            timeout = sqlFlavor() == SqlFlavor.SQL_SERVER
+                    ? SQL_SERVER_DEFAULT_LOCK_TIMEOUT
+                    : ((Number) entityManager.createNativeQuery("CALL LOCK_TIMEOUT()").getSingleResult()).intValue();
+            defaultLockTimeout = timeout;
+        }
+        return timeout;
+    }
+
+    private SqlFlavor sqlFlavor() {
+        SqlFlavor flavor = sqlFlavor;
+        if (flavor == null) {
+            flavor = SqlFlavor.of(entityManager);
+            sqlFlavor = flavor;
+        }
+        return flavor;
+    }
+}
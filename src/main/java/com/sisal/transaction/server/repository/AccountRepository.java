@@ -2,16 +2,32 @@ package com.sisal.transaction.server.repository;
 
 import com.sisal.transaction.server.model.db.AccountEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.Optional;
 
 @Repository
-public interface AccountRepository extends JpaRepository<AccountEntity, String> {
+public interface AccountRepository extends JpaRepository<AccountEntity, String>, AccountBalanceRepository, AccountLockRepository {
 
     @Query("SELECT a FROM AccountEntity a WHERE a.accountNumber = :accountNumber")
     Optional<AccountEntity> findByAccountNumber(@Param("accountNumber") String accountNumber);
 
+    /**
+     * Sets the balance if the account still has the expected version, incrementing the version.
+     *
+     * @return 1 if updated, 0 if the account was changed since the expected version was read
+     */
+    @Modifying
+    @Query("UPDATE AccountEntity a " +
+            "SET a.balanceMinor = :balance, a.version = COALESCE(a.version, 0) + 1, a.lastModifiedAt = :now " +
+            "WHERE a.accountId = :accountId AND COALESCE(a.version, 0) = :version")
+    int updateBalanceIfVersion(@Param("accountId") Long accountId,
+                               @Param("version") long version,
+                               @Param("balance") long balance,
+                               @Param("now") OffsetDateTime now);
+
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.sisal.transaction.server.repository;
+
+import com.sisal.transaction.server.model.db.AccountSnapshotEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AccountSnapshotRepository extends JpaRepository<AccountSnapshotEntity, Long> {
+
+    Optional<AccountSnapshotEntity> findFirstByAccountIdOrderByAccountSequenceDesc(Long accountId);
+}
@@ -0,0 +1,119 @@
+package com.sisal.transaction.server.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * H2 equivalent of the SQL Server procedure {@code sp_CreateTransaction} (DBSetup.md), so the STORED_PROCEDURE
+ * balance update runs against the in-memory test database.
+ * <p>
+ * Registered as Java function:
+ * {@code CREATE ALIAS transaction_system.CREATE_TRANSACTION FOR 'com.sisal.transaction.server.repository.H2TransactionProcedure.createTransaction'}.
+ * It runs on the calling session, within the statement calling it, and follows the procedure step by step.
+ */
+public final class H2TransactionProcedure {
+
+    /**
+     * URL of the connection H2 passes when it only needs the result columns, while the statement is prepared.
+     */
+    private static final String COLUMN_LIST_URL = "jdbc:columnlist:connection";
+
+    private static final String RESULT_ROW = "SELECT CAST(? AS VARCHAR(30)) AS outcome, CAST(? AS BIGINT) AS account_id";
+
+    private H2TransactionProcedure() {
+    }
+
+    /**
+     * @return one row: outcome ({@link TransactionProcedureRepository.Outcome}) and account id
+     */
+    public static ResultSet createTransaction(Connection connection,
+                                              byte[] transactionId,
+                                              String accountNumber,
+                                              String transactionType,
+                                              long amount,
+                                              Timestamp now,
+                                              int maxPerMinute,
+                                              long minimumBalance,
+                                              Timestamp newAccountCutoff) throws SQLException {
+
+        if (COLUMN_LIST_URL.equals(connection.getMetaData().getURL())) {
+            return result(connection, TransactionProcedureRepository.Outcome.COMPLETED, null);
+        }
+
+        Long accountId = null;
+        long balance = 0;
+        Timestamp createdAt = null;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT account_id, balance_minor, created_at FROM transaction_system.accounts WHERE account_number = ? FOR UPDATE")) {
+            select.setString(1, accountNumber);
+            try (ResultSet account = select.executeQuery()) {
+                if (account.next()) {
+                    accountId = account.getLong(1);
+                    balance = account.getLong(2);
+                    createdAt = account.getTimestamp(3);
+                }
+            }
+        }
+        if (accountId == null) {
+            return result(connection, TransactionProcedureRepository.Outcome.ACCOUNT_NOT_FOUND, null);
+        }
+
+        if (maxPerMinute > 0 && countSince(connection, accountId,
+                new Timestamp(now.getTime() - TimeUnit.MINUTES.toMillis(1))) >= maxPerMinute) {
+            return result(connection, TransactionProcedureRepository.Outcome.RATE_LIMITED, accountId);
+        }
+
+        boolean deposit = "DEPOSIT".equals(transactionType);
+        if (!deposit && balance < amount) {
+            return result(connection, TransactionProcedureRepository.Outcome.INSUFFICIENT_FUNDS, accountId);
+        }
+        if (!deposit && balance - amount < minimumBalance && !createdAt.after(newAccountCutoff)) {
+            return result(connection, TransactionProcedureRepository.Outcome.MINIMUM_BALANCE, accountId);
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO transaction_system.transactions (transaction_id, account_id, transaction_type, amount_minor, timestamp, status, version) " +
+                        "VALUES (?, ?, ?, ?, ?, 'COMPLETED', 0)")) {
+            insert.setBytes(1, transactionId);
+            insert.setLong(2, accountId);
+            insert.setString(3, transactionType);
+            insert.setLong(4, amount);
+            insert.setTimestamp(5, now);
+            insert.executeUpdate();
+        }
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE transaction_system.accounts SET balance_minor = ?, version = COALESCE(version, 0) + 1, last_modified_at = ? " +
+                        "WHERE account_id = ?")) {
+            update.setLong(1, deposit ? balance + amount : balance - amount);
+            update.setTimestamp(2, now);
+            update.setLong(3, accountId);
+            update.executeUpdate();
+        }
+        return result(connection, TransactionProcedureRepository.Outcome.COMPLETED, accountId);
+    }
+
+    private static long countSince(Connection connection, long accountId, Timestamp since) throws SQLException {
+        try (PreparedStatement count = connection.prepareStatement(
+                "SELECT COUNT(*) FROM transaction_system.transactions WHERE account_id = ? AND timestamp >= ?")) {
+            count.setLong(1, accountId);
+            count.setTimestamp(2, since);
+            try (ResultSet result = count.executeQuery()) {
+                result.next();
+                return result.getLong(1);
+            }
+        }
+    }
+
+    private static ResultSet result(Connection connection,
+                                    TransactionProcedureRepository.Outcome outcome,
+                                    Long accountId) throws SQLException {
+        PreparedStatement row = connection.prepareStatement(RESULT_ROW);
+        row.setString(1, outcome.name());
+        row.setObject(2, accountId);
+        return row.executeQuery();
+    }
+}
@@ -0,0 +1,29 @@
+package com.sisal.transaction.server.repository;
+
+import com.sisal.transaction.server.model.db.IdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+
+    /**
+     * Renews the reservation of a key still IN_PROGRESS since before the cutoff, its request never completed.
+     *
+     * @return 1 if taken over, 0 if the key was completed, released or taken over by another request meanwhile
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKeyEntity k SET k.createdAt = :now " +
+            "WHERE k.idempotencyKey = :idempotencyKey AND k.status = :status AND k.createdAt < :cutoff")
+    int takeOverReservation(@Param("idempotencyKey") String idempotencyKey,
+                            @Param("status") IdempotencyKeyEntity.IdempotencyStatus status,
+                            @Param("cutoff") OffsetDateTime cutoff,
+                            @Param("now") OffsetDateTime now);
+}
@@ -0,0 +1,29 @@
+package com.sisal.transaction.server.repository;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.SQLServerDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Database specific SQL used by the native repository fragments, resolved from the Hibernate dialect.
+ */
+enum SqlFlavor {
+    SQL_SERVER, H2, GENERIC;
+
+    static SqlFlavor of(EntityManager entityManager) {
+        Dialect dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+        if (dialect instanceof SQLServerDialect) {
+            return SQL_SERVER;
+        }
+        if (dialect instanceof H2Dialect) {
+            return H2;
+        }
+        return GENERIC;
+    }
+}
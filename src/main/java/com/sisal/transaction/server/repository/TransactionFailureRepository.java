@@ -0,0 +1,14 @@
+package com.sisal.transaction.server.repository;
+
+import com.sisal.transaction.server.model.db.TransactionFailureEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TransactionFailureRepository extends JpaRepository<TransactionFailureEntity, UUID> {
+
+    List<TransactionFailureEntity> findByAccountNumber(String accountNumber);
+}
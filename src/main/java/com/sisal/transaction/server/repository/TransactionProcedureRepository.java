@@ -0,0 +1,68 @@
+package com.sisal.transaction.server.repository;
+
+import com.sisal.transaction.server.model.db.TransactionEntity;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Custom {@link TransactionRepository} fragment creating a transaction with a single stored procedure call.
+ * <p>
+ * The procedure locks the account row, counts the transactions of the last minute, checks the balance rules,
+ * inserts the transaction and updates the balance, committing once. A rejected transaction writes nothing,
+ * the rejection is returned as {@link Outcome}.
+ * <p>
+ * Amounts and balances are in minor units, see {@link com.sisal.transaction.server.util.Money}.
+ */
+public interface TransactionProcedureRepository {
+
+    /**
+     * Calls the transaction procedure.
+     *
+     * @param transactionId    id of the inserted transaction
+     * @param accountNumber    bank account number
+     * @param amount           transaction amount
+     * @param type             type of transaction to be applied (deposit/withdrawal)
+     * @param now              transaction timestamp, the rate limit counts the minute before it
+     * @param maxPerMinute     maximum transactions of the account within the last minute, 0 disables the check
+     * @param minimumBalance   minimum balance an existing account has to keep after a withdrawal
+     * @param newAccountCutoff accounts created after this time are exempt from the minimum balance
+     * @return outcome of the call and the account id, if the account exists
+     */
+    ProcedureResult createTransactionByProcedure(UUID transactionId,
+                                                 String accountNumber,
+                                                 long amount,
+                                                 TransactionEntity.TransactionType type,
+                                                 OffsetDateTime now,
+                                                 int maxPerMinute,
+                                                 long minimumBalance,
+                                                 OffsetDateTime newAccountCutoff);
+
+    /**
+     * Result of the procedure, only {@link #COMPLETED} wrote the transaction.
+     */
+    enum Outcome {
+        COMPLETED, ACCOUNT_NOT_FOUND, RATE_LIMITED, INSUFFICIENT_FUNDS, MINIMUM_BALANCE
+    }
+
+    /**
+     * Row returned by the procedure.
+     */
+    final class ProcedureResult {
+        private final Outcome outcome;
+        private final Long accountId;
+
+        public ProcedureResult(Outcome outcome, Long accountId) {
+            this.outcome = outcome;
+            this.accountId = accountId;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public Long getAccountId() {
+            return accountId;
+        }
+    }
+}
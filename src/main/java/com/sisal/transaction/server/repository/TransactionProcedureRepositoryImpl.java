@@ -0,0 +1,82 @@
+package com.sisal.transaction.server.repository;
+
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.service.TransactionBatchWriter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Native SQL implementation of {@link TransactionProcedureRepository}.
+ * <p>
+ * The procedure is called outside a JPA transaction, it commits on its own:
+ * <ul>
+ *   <li>SQL Server: {@code EXEC transaction_system.sp_CreateTransaction}, see DBSetup.md</li>
+ *   <li>H2: {@code CALL transaction_system.CREATE_TRANSACTION}, the Java function {@link H2TransactionProcedure}</li>
+ * </ul>
+ * Other databases are not supported.
+ * <p>
+ * The transaction id is bound as the 16 bytes Hibernate stores for {@link TransactionEntity#getTransactionId()}.
+ * A string would be converted by SQL Server to a UNIQUEIDENTIFIER with the first three groups byte-swapped.
+ */
+public class TransactionProcedureRepositoryImpl implements TransactionProcedureRepository {
+
+    private static final String PARAMETERS =
+            ":transactionId, :accountNumber, :transactionType, :amount, :now, :maxPerMinute, :minimumBalance, :newAccountCutoff";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile SqlFlavor sqlFlavor;
+
+    @Override
+    public ProcedureResult createTransactionByProcedure(UUID transactionId,
+                                                        String accountNumber,
+                                                        long amount,
+                                                        TransactionEntity.TransactionType type,
+                                                        OffsetDateTime now,
+                                                        int maxPerMinute,
+                                                        long minimumBalance,
+                                                        OffsetDateTime newAccountCutoff) {
+
+        String sql;
+        switch (sqlFlavor()) {
+            case SQL_SERVER:
+                sql = "EXEC transaction_system.sp_CreateTransaction " + PARAMETERS;
+                break;
+            case H2:
+                sql = "CALL transaction_system.CREATE_TRANSACTION(" + PARAMETERS + ")";
+                break;
+            default:
+                throw new UnsupportedOperationException("The transaction procedure is only available on SQL Server and H2");
+        }
+
+        List<?> rows = entityManager.createNativeQuery(sql)
+                .setParameter("transactionId", TransactionBatchWriter.toBytes(transactionId))
+                .setParameter("accountNumber", accountNumber)
+                .setParameter("transactionType", type.name())
+                .setParameter("amount", amount)
+                .setParameter("now", Timestamp.from(now.toInstant()))
+                .setParameter("maxPerMinute", maxPerMinute)
+                .setParameter("minimumBalance", minimumBalance)
+                .setParameter("newAccountCutoff", Timestamp.from(newAccountCutoff.toInstant()))
+                .getResultList();
+
+        Object[] row = (Object[]) rows.get(0);
+        return new ProcedureResult(Outcome.valueOf(row[0].toString()),
+                row[1] == null ? null : ((Number) row[1]).longValue());
+    }
+
+    private SqlFlavor sqlFlavor() {
+        SqlFlavor flavor = sqlFlavor;
+        if (flavor == null) {
+            flavor = SqlFlavor.of(entityManager);
+            sqlFlavor = flavor;
+        }
+        return flavor;
+    }
+}
@@ -12,7 +12,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<TransactionEntity, UUID> {
+public interface TransactionRepository extends JpaRepository<TransactionEntity, UUID>, TransactionProcedureRepository {
 
     @Query("SELECT t FROM TransactionEntity t WHERE t.transactionId = :transactionId")
     Optional<TransactionEntity> findByTransactionId(@Param("transactionId") UUID transactionId);
@@ -23,6 +23,18 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
     long countRecentTransactions(@Param("accountId") Long accountId,
                                  @Param("cutoffTime") OffsetDateTime cutoffTime);
 
+    /**
+     * Ledger events of the account after the given account sequence, in sequence order.
+     */
+    @Query("SELECT t FROM TransactionEntity t " +
+            "WHERE t.accountId = :accountId " +
+            "AND t.accountSequence > :afterSequence " +
+            "AND t.status = :status " +
+            "ORDER BY t.accountSequence")
+    List<TransactionEntity> findLedgerEvents(@Param("accountId") Long accountId,
+                                             @Param("afterSequence") long afterSequence,
+                                             @Param("status") TransactionEntity.TransactionStatus status);
+
     List<TransactionEntity> findByTimestampBetween(
             OffsetDateTime startTime,
             OffsetDateTime endTime
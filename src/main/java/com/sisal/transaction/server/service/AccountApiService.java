@@ -2,6 +2,7 @@ package com.sisal.transaction.server.service;
 
 import com.sisal.transaction.server.model.db.AccountEntity;
 import com.sisal.transaction.server.repository.AccountRepository;
+import com.sisal.transaction.server.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -11,10 +12,12 @@ import java.time.OffsetDateTime;
 public class AccountApiService {
 
     private final AccountRepository accountRepository;
+    private final UnknownAccountFilter unknownAccountFilter;
 
     @Autowired
-    public AccountApiService(AccountRepository accountRepository) {
+    public AccountApiService(AccountRepository accountRepository, UnknownAccountFilter unknownAccountFilter) {
         this.accountRepository = accountRepository;
+        this.unknownAccountFilter = unknownAccountFilter;
     }
 
     public AccountEntity createAccount(Long accountId, String firstName, String lastName, String accountNumber, Double initialBalance) {
@@ -23,10 +26,12 @@ public class AccountApiService {
         account.setLastName(lastName);
         account.setAccountNumber(accountNumber);
         account.setAccountId(accountId);
-        account.setBalance(initialBalance);
+        account.setBalanceMinor(Money.toMinorUnits(initialBalance));
         account.setCreatedAt(OffsetDateTime.now());
         account.setLastModifiedAt(OffsetDateTime.now());
 
-        return accountRepository.save(account);
+        AccountEntity savedAccount = accountRepository.save(account);
+        unknownAccountFilter.recordCreated(savedAccount.getAccountNumber());
+        return savedAccount;
     }
 }
@@ -0,0 +1,136 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer execution engine keyed by account number.
+ *
+ * <p>Every account number is hashed to one of N single-threaded lanes. All work for one account
+ * is therefore executed sequentially on the same thread, so concurrent requests for a hot account
+ * queue up in memory instead of racing on {@code AccountEntity.version}.
+ * Distinct accounts are spread over the lanes and still run in parallel.</p>
+ *
+ * <p>NOTE: Serialization is only guaranteed within one server instance.
+ * Optimistic locking remains in place for writers outside this JVM.</p>
+ *
+ * @see TransactionEngineProperties.ExecutionMode#ACCOUNT_LANES
+ */
+@Component
+public class AccountLaneExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountLaneExecutor.class);
+
+    private final TransactionEngineProperties engineProperties;
+
+    private volatile Lane[] lanes;
+
+    @Autowired
+    public AccountLaneExecutor(TransactionEngineProperties engineProperties) {
+        this.engineProperties = engineProperties;
+    }
+
+    /**
+     * Runs the task on the lane owning the account and waits for its result.
+     *
+     * @param accountNumber bank account number used as the lane key
+     * @param task          work to be executed for the account
+     * @return task result
+     * @throws java.util.concurrent.RejectedExecutionException if the lane queue is full
+     */
+    public <T> T execute(String accountNumber, Supplier<T> task) {
+
+        Lane lane = laneFor(accountNumber);
+
+        // Re-entrant call from the owning lane, running it inline avoids a self-deadlock.
+        if (Thread.currentThread() == lane.thread) {
+            return task.get();
+        }
+
+        Future<T> future = lane.executor.submit(task::get);
+        return FutureResults.await(future, "account lane " + lane.index);
+    }
+
+    /**
+     * Maps an account number to its lane index.
+     */
+    int laneIndex(String accountNumber, int laneCount) {
+        int hash = accountNumber.hashCode();
+        hash ^= (hash >>> 16);// Spread the high bits, account numbers share long common prefixes
+        return Math.floorMod(hash, laneCount);
+    }
+
+    private Lane laneFor(String accountNumber) {
+        Lane[] current = lanes;
+        if (current == null) {
+            current = startLanes();
+        }
+        return current[laneIndex(accountNumber, current.length)];
+    }
+
+    /**
+     * Lanes are started lazily, so no threads are allocated when another execution mode is active.
+     */
+    private synchronized Lane[] startLanes() {
+        if (lanes == null) {
+            int laneCount = engineProperties.getLanes();
+            Lane[] created = new Lane[laneCount];
+            for (int i = 0; i < laneCount; i++) {
+                created[i] = new Lane(i, engineProperties.getLaneQueueCapacity());
+            }
+            lanes = created;
+            logger.info("Started {} account lanes with queue capacity {}", laneCount, engineProperties.getLaneQueueCapacity());
+        }
+        return lanes;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (lanes != null) {
+            for (Lane lane : lanes) {
+                lane.executor.shutdown();
+            }
+            for (Lane lane : lanes) {
+                try {
+                    lane.executor.awaitTermination(5, TimeUnit.SECONDS);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            lanes = null;
+        }
+    }
+
+    /**
+     * Single-threaded executor with a bounded queue, the thread reference is kept for re-entrancy checks.
+     */
+    private static final class Lane {
+        private final int index;
+        private final ExecutorService executor;
+        private volatile Thread thread;
+
+        private Lane(int index, int queueCapacity) {
+            this.index = index;
+            this.executor = new ThreadPoolExecutor(1, 1,
+                    0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread laneThread = new Thread(runnable, "account-lane-" + index);
+                        laneThread.setDaemon(true);
+                        thread = laneThread;
+                        return laneThread;
+                    });
+        }
+    }
+}
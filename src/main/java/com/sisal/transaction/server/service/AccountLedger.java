@@ -0,0 +1,187 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.RateLimitProperties;
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.exception.TransactionRateLimitException;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.AccountSnapshotEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.repository.AccountRepository;
+import com.sisal.transaction.server.repository.AccountSnapshotRepository;
+import com.sisal.transaction.server.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Event-sourced account ledger, used by the EVENT_SOURCED balance update mode.
+ *
+ * <p>The balance of an account is not stored in an updatable column. Every accepted transaction is appended
+ * as a {@link TransactionEntity} event carrying the next sequence of its account, and the balance is rebuilt
+ * from the latest {@link AccountSnapshotEntity} plus the events after it. A snapshot is appended every
+ * {@code snapshotInterval} events, so at most that many events are read per rebuild.</p>
+ *
+ * <p>Writers only insert rows. Two writers appending the same account sequence conflict on the unique
+ * {@code (account_id, account_sequence)} index: the loser rolls back, rebuilds the balance including the
+ * winner's event and appends again, up to {@code appendAttempts} times.</p>
+ *
+ * <p>The {@code balance_minor} column of the account is the opening balance (sequence 0) and is never written
+ * by the ledger. Transactions persisted by the other balance update modes carry no sequence and are not part
+ * of the ledger, so the modes are not meant to be switched on existing accounts.</p>
+ *
+ * @see TransactionEngineProperties.BalanceUpdateMode#EVENT_SOURCED
+ */
+@Component
+public class AccountLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountLedger.class);
+
+    private final TransactionEngineProperties engineProperties;
+    private final RateLimitProperties rateLimitProperties;
+    private final TransactionRateLimiter rateLimiter;
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountSnapshotRepository snapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public AccountLedger(TransactionEngineProperties engineProperties,
+                         RateLimitProperties rateLimitProperties,
+                         TransactionRateLimiter rateLimiter,
+                         AccountRepository accountRepository,
+                         TransactionRepository transactionRepository,
+                         AccountSnapshotRepository snapshotRepository,
+                         TransactionTemplate transactionTemplate) {
+        this.engineProperties = engineProperties;
+        this.rateLimitProperties = rateLimitProperties;
+        this.rateLimiter = rateLimiter;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Appends the transaction to the event stream of the account, if the balance rules allow it.
+     * The rate permit is handed back if the transaction is not appended.
+     *
+     * @param accountNumber bank account number
+     * @param amount        transaction amount applied on the account, in minor units
+     * @param type          type of transaction to be applied (deposit/withdrawal)
+     * @return Transaction db record, carrying its account sequence
+     * @throws DataIntegrityViolationException if the append still conflicted after the configured attempts
+     */
+    public TransactionEntity append(String accountNumber, long amount, TransactionEntity.TransactionType type) {
+
+        AccountEntity account = accountRepository
+                .findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found for accountNumber=" + accountNumber));
+
+        if (rateLimitProperties.isEnabled() && !rateLimiter.tryAcquire(account.getAccountId(), 0)) {
+            throw new TransactionRateLimitException(
+                    "Rate limit exceeded: Maximum " + rateLimitProperties.getMaxPerMinute() +
+                            " transactions per minute allowed");
+        }
+
+        try {
+            return appendWithRetry(account, amount, type);
+        } catch (RuntimeException notAppended) {
+            if (rateLimitProperties.isEnabled()) {
+                rateLimiter.release(account.getAccountId());
+            }
+            throw notAppended;
+        }
+    }
+
+    private TransactionEntity appendWithRetry(AccountEntity account, long amount, TransactionEntity.TransactionType type) {
+
+        int attempts = engineProperties.getLedger().getAppendAttempts();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> appendEvent(account, amount, type));
+            } catch (DataIntegrityViolationException conflict) {
+                if (attempt >= attempts) {
+                    throw conflict;
+                }
+                logger.debug("Ledger append on account {} conflicted, attempt {} of {}", account.getAccountId(), attempt, attempts);
+            }
+        }
+    }
+
+    /**
+     * Current balance of the account, rebuilt from its latest snapshot and the events after it.
+     *
+     * @param accountNumber bank account number
+     * @return balance in minor units
+     */
+    public long getBalance(String accountNumber) {
+
+        AccountEntity account = accountRepository
+                .findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found for accountNumber=" + accountNumber));
+        return rebuild(account).balance;
+    }
+
+    private TransactionEntity appendEvent(AccountEntity account, long amount, TransactionEntity.TransactionType type) {
+
+        LedgerState state = rebuild(account);
+        long newBalance = BalanceRules.applyTransaction(state.balance, amount, type, account.getCreatedAt());
+        long sequence = state.sequence + 1;
+
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setAccountId(account.getAccountId());
+        transaction.setAccountSequence(sequence);
+        transaction.setAmountMinor(amount);
+        transaction.setTransactionType(type);
+        transaction.setStatus(TransactionEntity.TransactionStatus.COMPLETED);
+        // Flushed here, so a conflicting sequence fails this attempt instead of the commit
+        TransactionEntity savedTransaction = transactionRepository.saveAndFlush(transaction);
+
+        if (sequence % engineProperties.getLedger().getSnapshotInterval() == 0) {
+            snapshotRepository.save(AccountSnapshotEntity.builder()
+                    .accountId(account.getAccountId())
+                    .accountSequence(sequence)
+                    .balanceMinor(newBalance)
+                    .build());
+        }
+        logger.debug("Transaction {} appended to account {} at sequence {}",
+                savedTransaction.getTransactionId(), account.getAccountId(), sequence);
+        return savedTransaction;
+    }
+
+    private LedgerState rebuild(AccountEntity account) {
+
+        LedgerState state = snapshotRepository.findFirstByAccountIdOrderByAccountSequenceDesc(account.getAccountId())
+                .map(snapshot -> new LedgerState(snapshot.getAccountSequence(), snapshot.getBalanceMinor()))
+                .orElseGet(() -> new LedgerState(0, account.getBalanceMinor()));
+
+        List<TransactionEntity> events = transactionRepository.findLedgerEvents(
+                account.getAccountId(), state.sequence, TransactionEntity.TransactionStatus.COMPLETED);
+        for (TransactionEntity event : events) {
+            state.balance += event.getTransactionType() == TransactionEntity.TransactionType.DEPOSIT
+                    ? event.getAmountMinor()
+                    : -event.getAmountMinor();
+            state.sequence = event.getAccountSequence();
+        }
+        return state;
+    }
+
+    /**
+     * Balance of an account after the event with the given sequence.
+     */
+    private static final class LedgerState {
+        private long sequence;
+        private long balance;
+
+        LedgerState(long sequence, long balance) {
+            this.sequence = sequence;
+            this.balance = balance;
+        }
+    }
+}
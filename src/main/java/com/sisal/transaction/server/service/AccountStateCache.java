@@ -0,0 +1,280 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.AccountCacheProperties;
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.repository.AccountRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory cache of account state, keyed by account number.
+ *
+ * <p>Misses and expired entries are read from the {@code accounts} table. Writers keep the cache coherent by
+ * writing their committed state through ({@link #put(AccountState)}), and by invalidating the account when
+ * their versioned update finds a different version, i.e. the account was changed by another writer.</p>
+ *
+ * <p>Entries expire after the configured TTL. Expired and invalidated accounts are removed, on their next lookup
+ * or when they reach the least recently used end. Once the maximum size is exceeded the least recently used
+ * accounts are evicted first, so the hot accounts stay cached whatever the number of cold ones read meanwhile.</p>
+ *
+ * <p>The entries are kept in access order under one lock. It is held for the map operation only, never while
+ * the database is read.</p>
+ *
+ * <p>Metrics ({@code cache=accounts}):</p>
+ * <ul>
+ *   <li>{@code cache.gets}: lookups, tagged {@code result=hit|miss}</li>
+ *   <li>{@code cache.evictions}: accounts evicted by the size bound</li>
+ *   <li>{@code cache.size}: cached accounts</li>
+ * </ul>
+ */
+@Component
+public class AccountStateCache {
+
+    private static final String CACHE_NAME = "accounts";
+
+    private final AccountCacheProperties cacheProperties;
+    private final Function<String, Optional<AccountEntity>> loader;
+    private final LongSupplier nanoClock;
+
+    private final LinkedHashMap<String, AccountState> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public AccountStateCache(AccountCacheProperties cacheProperties,
+                             AccountRepository accountRepository,
+                             MeterRegistry meterRegistry) {
+        this(cacheProperties, accountRepository::findByAccountNumber, System::nanoTime);
+
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "hit")
+                .description("Account lookups answered from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tags("cache", CACHE_NAME, "result", "miss")
+                .description("Account lookups read from the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tags("cache", CACHE_NAME)
+                .description("Accounts evicted from the cache by its size bound")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, AccountStateCache::size)
+                .tags("cache", CACHE_NAME)
+                .description("Accounts in the cache")
+                .register(meterRegistry);
+    }
+
+    AccountStateCache(AccountCacheProperties cacheProperties,
+                      Function<String, Optional<AccountEntity>> loader,
+                      LongSupplier nanoClock) {
+        this.cacheProperties = cacheProperties;
+        this.loader = loader;
+        this.nanoClock = nanoClock;
+    }
+
+    public boolean isEnabled() {
+        return cacheProperties.isEnabled();
+    }
+
+    /**
+     * Cached state of the account, read from the database if it is not cached or expired.
+     *
+     * @param accountNumber bank account number
+     * @throws AccountNotFoundException if the account does not exist
+     */
+    public AccountState get(String accountNumber) {
+
+        AccountState cached = lookup(accountNumber);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        return load(accountNumber);
+    }
+
+    /**
+     * Reads the account from the database, replacing the cached state.
+     *
+     * @throws AccountNotFoundException if the account does not exist
+     */
+    public AccountState reload(String accountNumber) {
+        invalidate(accountNumber);
+        return load(accountNumber);
+    }
+
+    /**
+     * Write-through of committed account state, an older version never replaces a newer one.
+     */
+    public void put(AccountState state) {
+
+        long now = nanoClock.getAsLong();
+        AccountState fresh = state.expiringAt(now + cacheProperties.getTtl().toNanos());
+        lock.lock();
+        try {
+            AccountState previous = entries.get(fresh.accountNumber);
+            if (previous != null && previous.isUsable(now) && previous.version > fresh.version) {
+                return;
+            }
+            entries.put(fresh.accountNumber, fresh);
+            if (previous == null) {
+                evict(now);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the account, its next lookup reads it from the database.
+     */
+    public void invalidate(String accountNumber) {
+        lock.lock();
+        try {
+            entries.remove(accountNumber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of cached accounts, expired ones included until they are removed.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Usable cached state, marked as the most recently used. An expired entry is removed.
+     */
+    private AccountState lookup(String accountNumber) {
+        lock.lock();
+        try {
+            AccountState cached = entries.get(accountNumber);
+            if (cached == null || cached.isUsable(nanoClock.getAsLong())) {
+                return cached;
+            }
+            entries.remove(accountNumber);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AccountState load(String accountNumber) {
+
+        AccountEntity entity = loader.apply(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found for accountNumber=" + accountNumber));
+        AccountState loaded = AccountState.of(entity);
+        put(loaded);
+        return loaded;
+    }
+
+    /**
+     * Keeps the cache bounded, called with the lock held after an account was added. Walks from the least recently
+     * used end: evicts while the size bound is exceeded, then removes the expired accounts up to the first usable one.
+     */
+    private void evict(long now) {
+        Iterator<AccountState> leastRecentlyUsed = entries.values().iterator();
+        while (leastRecentlyUsed.hasNext()) {
+            AccountState state = leastRecentlyUsed.next();
+            if (entries.size() > cacheProperties.getMaxSize()) {
+                leastRecentlyUsed.remove();
+                evictions.incrementAndGet();
+            } else if (!state.isUsable(now)) {
+                leastRecentlyUsed.remove();
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Immutable account state as committed with {@link #getVersion()}.
+     */
+    public static final class AccountState {
+
+        private static final long INVALIDATED = Long.MIN_VALUE;
+
+        private final String accountNumber;
+        private final Long accountId;
+        private final long balance;
+        private final OffsetDateTime createdAt;
+        private final long version;
+        private final long expiresAtNanos;
+
+        private AccountState(String accountNumber, Long accountId, long balance, OffsetDateTime createdAt,
+                             long version, long expiresAtNanos) {
+            this.accountNumber = accountNumber;
+            this.accountId = accountId;
+            this.balance = balance;
+            this.createdAt = createdAt;
+            this.version = version;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        static AccountState of(AccountEntity entity) {
+            long version = entity.getVersion() == null ? 0 : entity.getVersion();
+            return new AccountState(entity.getAccountNumber(), entity.getAccountId(), entity.getBalanceMinor(),
+                    entity.getCreatedAt(), version, INVALIDATED);
+        }
+
+        /**
+         * State after a balance update, which increments the version.
+         */
+        public AccountState withBalance(long newBalance) {
+            return new AccountState(accountNumber, accountId, newBalance, createdAt, version + 1, INVALIDATED);
+        }
+
+        private boolean isUsable(long now) {
+            return expiresAtNanos != INVALIDATED && expiresAtNanos - now > 0;
+        }
+
+        private AccountState expiringAt(long expiresAt) {
+            return new AccountState(accountNumber, accountId, balance, createdAt, version, expiresAt);
+        }
+
+        public String getAccountNumber() {
+            return accountNumber;
+        }
+
+        public Long getAccountId() {
+            return accountId;
+        }
+
+        /**
+         * Balance in minor units.
+         */
+        public long getBalance() {
+            return balance;
+        }
+
+        public OffsetDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+}
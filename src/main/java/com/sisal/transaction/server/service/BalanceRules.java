@@ -0,0 +1,83 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.util.Money;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Account balance business rules shared by all transaction execution paths.
+ * <p>
+ * Business rules enforced as the following:
+ * Withdrawals cannot exceed the available balance
+ * Enforce the $100 minimum rule (skip if it's a new account)
+ * <p>
+ * Balances and amounts are in minor units ({@link Money}), the checks are primitive integer arithmetic.
+ */
+public final class BalanceRules {
+
+    /**
+     * Minimum balance an existing account has to keep after a withdrawal, in minor units.
+     */
+    public static final long MINIMUM_BALANCE = Money.ofUnits(100);
+
+    /**
+     * Accounts opened within this number of days are exempt from the minimum balance rule.
+     */
+    public static final long NEW_ACCOUNT_DAYS = 10;
+
+    private BalanceRules() {
+    }
+
+    /**
+     * Applies the transaction amount on the balance.
+     *
+     * @param balance   current account balance, in minor units
+     * @param amount    transaction amount, in minor units
+     * @param type      type of transaction to be applied (deposit/withdrawal)
+     * @param createdAt account creation time
+     * @return new account balance, in minor units
+     * @throws InsufficientBalanceException if balance rules are violated
+     */
+    public static long applyTransaction(long balance,
+                                        long amount,
+                                        TransactionEntity.TransactionType type,
+                                        OffsetDateTime createdAt) {
+
+        if (type == TransactionEntity.TransactionType.DEPOSIT) {
+            return balance + amount;
+        }
+        // Check if an account has sufficient funds
+        if (balance < amount) {
+            throw new InsufficientBalanceException("Insufficient funds");
+        }
+        long newBalance = balance - amount;
+
+        //Enforce the $100 minimum rule (skip if it's a new account), the account age is only resolved when needed
+        if (newBalance < MINIMUM_BALANCE && !isNewAccount(createdAt)) {
+            throw new InsufficientBalanceException("Balance cannot drop below $100 for existing accounts");
+        }
+        return newBalance;
+    }
+
+    /**
+     * Determines if the account is considered 'new'.
+     * <p>
+     * The Account is considered new if it is opened at least 10 days before.
+     */
+    public static boolean isNewAccount(OffsetDateTime createdAt) {
+        return Duration.between(createdAt, OffsetDateTime.now()).toDays() <= NEW_ACCOUNT_DAYS;
+    }
+
+    /**
+     * Accounts created after the returned time are considered 'new', same as {@link #isNewAccount(OffsetDateTime)}.
+     * <p>
+     * Used by the conditional balance update, where the rule is evaluated by the database.
+     */
+    public static OffsetDateTime newAccountCutoff(OffsetDateTime now) {
+        // toDays() truncates, so an account stays new until its 11th day is completed
+        return now.minusDays(NEW_ACCOUNT_DAYS + 1);
+    }
+}
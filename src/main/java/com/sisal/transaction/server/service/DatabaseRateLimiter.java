@@ -0,0 +1,41 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.RateLimitProperties;
+import com.sisal.transaction.server.repository.TransactionRepository;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Rate limiter counting the committed transactions of the last minute in the database.
+ * <p>
+ * Costs one COUNT query per check, kept as fallback for deployments running several server instances
+ * against the same database, where an in-process counter only sees its own share of the traffic.
+ */
+public class DatabaseRateLimiter implements TransactionRateLimiter {
+
+    private final RateLimitProperties rateLimitProperties;
+    private final TransactionRepository transactionRepository;
+
+    public DatabaseRateLimiter(RateLimitProperties rateLimitProperties, TransactionRepository transactionRepository) {
+        this.rateLimitProperties = rateLimitProperties;
+        this.transactionRepository = transactionRepository;
+    }
+
+    @Override
+    public boolean tryAcquire(Long accountId, int pending) {
+
+        OffsetDateTime oneMinuteAgo = OffsetDateTime.now().minusMinutes(1);
+        long recentTransactions = transactionRepository
+                .countRecentTransactions(accountId, oneMinuteAgo);
+
+        return recentTransactions + pending < rateLimitProperties.getMaxPerMinute();
+    }
+
+    /**
+     * Nothing to hand back, a transaction that is not committed is not counted.
+     */
+    @Override
+    public void release(Long accountId) {
+        // No permit is held
+    }
+}
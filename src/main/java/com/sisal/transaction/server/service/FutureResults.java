@@ -0,0 +1,66 @@
+package com.sisal.transaction.server.service;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Waits on results of work handed over to engine threads.
+ * <p>
+ * Runtime exceptions thrown on the engine thread are re-thrown to the caller untouched,
+ * so the exception handling of the calling layer stays the same as in direct execution.
+ */
+final class FutureResults {
+
+    private FutureResults() {
+    }
+
+    static <T> T await(Future<T> future, String description) {
+        try {
+            return future.get();
+        } catch (InterruptedException interruptedException) {
+            throw interrupted(future, description, interruptedException);
+        } catch (ExecutionException executionException) {
+            throw failed(description, executionException);
+        }
+    }
+
+    /**
+     * Waits at most the timeout, a backstop for an engine thread that never completes the future.
+     * The outcome of the work is unknown when the wait times out, it may still be applied.
+     *
+     * @throws IllegalStateException if the timeout elapsed
+     */
+    static <T> T await(Future<T> future, String description, Duration timeout) {
+        try {
+            return future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException timeoutException) {
+            future.cancel(false);
+            throw new IllegalStateException("Timed out after " + timeout + " waiting on " + description
+                    + ", its outcome is unknown", timeoutException);
+        } catch (InterruptedException interruptedException) {
+            throw interrupted(future, description, interruptedException);
+        } catch (ExecutionException executionException) {
+            throw failed(description, executionException);
+        }
+    }
+
+    private static IllegalStateException interrupted(Future<?> future, String description, InterruptedException interruptedException) {
+        future.cancel(false);
+        Thread.currentThread().interrupt();
+        return new IllegalStateException("Interrupted while waiting on " + description, interruptedException);
+    }
+
+    private static RuntimeException failed(String description, ExecutionException executionException) {
+        Throwable cause = executionException.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IllegalStateException(description + " failed", cause);
+    }
+}
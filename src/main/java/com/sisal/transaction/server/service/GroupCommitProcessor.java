@@ -0,0 +1,212 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit pipeline for transaction requests.
+ *
+ * <p>Request threads enqueue their transaction and wait. A single committer thread gathers the requests
+ * arriving within a short window (or until the batch size cap is reached) and hands them to
+ * {@link TransactionBatchWriter}, so the commit cost is shared by the whole batch instead of being
+ * paid twice per request. Each caller is then completed with its own result or error.</p>
+ *
+ * <p>Every request taken from the queue is completed, whatever happens to its batch: a failed batch,
+ * including an {@link Error}, fails its callers and the committer carries on, requests gathered when the
+ * committer is stopped fail as rejected. Callers wait at most {@code result-timeout} as a backstop.</p>
+ *
+ * @see TransactionEngineProperties.ExecutionMode#GROUP_COMMIT
+ */
+@Component
+public class GroupCommitProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitProcessor.class);
+
+    private final TransactionEngineProperties engineProperties;
+    private final TransactionBatchWriter batchWriter;
+
+    private volatile BlockingQueue<PendingTransaction> queue;
+    private volatile Thread committer;
+
+    @Autowired
+    public GroupCommitProcessor(TransactionEngineProperties engineProperties, TransactionBatchWriter batchWriter) {
+        this.engineProperties = engineProperties;
+        this.batchWriter = batchWriter;
+    }
+
+    /**
+     * Enqueues the transaction for the next group commit and waits for its outcome.
+     *
+     * @param accountNumber bank account number
+     * @param amount        transaction amount applied on the account, in minor units
+     * @param type          type of transaction to be applied (deposit/withdrawal)
+     * @return Transaction db record
+     * @throws RejectedExecutionException if the group commit queue is full
+     */
+    public TransactionEntity submit(String accountNumber, long amount, TransactionEntity.TransactionType type) {
+
+        PendingTransaction pending = new PendingTransaction(new TransactionBatchWriter.Item(accountNumber, amount, type));
+        if (!queue().offer(pending)) {
+            throw new RejectedExecutionException("Group commit queue is full");
+        }
+        return FutureResults.await(pending.result, "group commit", engineProperties.getGroupCommit().getResultTimeout());
+    }
+
+    private BlockingQueue<PendingTransaction> queue() {
+        BlockingQueue<PendingTransaction> current = queue;
+        if (current == null) {
+            current = start();
+        }
+        return current;
+    }
+
+    /**
+     * The committer thread is started lazily, so no thread is allocated when another execution mode is active.
+     */
+    private synchronized BlockingQueue<PendingTransaction> start() {
+        if (queue == null) {
+            TransactionEngineProperties.GroupCommit settings = engineProperties.getGroupCommit();
+            BlockingQueue<PendingTransaction> created = new LinkedBlockingQueue<>(settings.getQueueCapacity());
+
+            committer = new Thread(() -> runCommitter(created), "group-commit");
+            committer.setDaemon(true);
+            committer.start();
+            queue = created;
+            logger.info("Started group commit with window {} and max batch size {}", settings.getWindow(), settings.getMaxBatchSize());
+        }
+        return queue;
+    }
+
+    private void runCommitter(BlockingQueue<PendingTransaction> pendingQueue) {
+
+        TransactionEngineProperties.GroupCommit settings = engineProperties.getGroupCommit();
+        int maxBatchSize = settings.getMaxBatchSize();
+        long windowNanos = settings.getWindow().toNanos();
+        List<PendingTransaction> batch = new ArrayList<>(maxBatchSize);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(pendingQueue.take());
+
+                // Gather whatever arrives within the window, bounded by the batch size cap
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (pendingQueue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingTransaction next = pendingQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                commit(batch);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                fail(batch, new RejectedExecutionException("Group commit is shutting down"));
+            } catch (Throwable committerFailure) {
+                logger.error("Group commit of {} transactions failed", batch.size(), committerFailure);
+                fail(batch, committerFailure);
+            } finally {
+                batch.clear();
+            }
+        }
+        failPending(pendingQueue);
+    }
+
+    /**
+     * Writes the batch and completes every caller with its own outcome.
+     */
+    void commit(List<PendingTransaction> batch) {
+
+        List<TransactionBatchWriter.Item> items = new ArrayList<>(batch.size());
+        for (PendingTransaction pending : batch) {
+            items.add(pending.item);
+        }
+
+        List<TransactionBatchWriter.Result> results;
+        try {
+            results = batchWriter.write(items);
+            logger.debug("Group commit of {} transactions completed", batch.size());
+        } catch (RuntimeException batchFailure) {
+            logger.error("Group commit of {} transactions failed", batch.size(), batchFailure);
+            fail(batch, batchFailure);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            TransactionBatchWriter.Result result = results.get(i);
+            if (result.isSuccess()) {
+                batch.get(i).result.complete(result.getTransaction());
+            } else {
+                batch.get(i).result.completeExceptionally(result.getError());
+            }
+        }
+    }
+
+    /**
+     * Fails the callers of the batch not completed yet.
+     */
+    private static void fail(List<PendingTransaction> batch, Throwable failure) {
+        for (PendingTransaction pending : batch) {
+            pending.result.completeExceptionally(failure);
+        }
+    }
+
+    private void failPending(BlockingQueue<PendingTransaction> pendingQueue) {
+        PendingTransaction pending;
+        while ((pending = pendingQueue.poll()) != null) {
+            pending.result.completeExceptionally(new RejectedExecutionException("Group commit is shutting down"));
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (committer != null) {
+            committer.interrupt();
+            try {
+                committer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            committer = null;
+        }
+        if (queue != null) {
+            failPending(queue);
+        }
+    }
+
+    /**
+     * Transaction waiting in the queue together with the future its caller is blocked on.
+     */
+    static final class PendingTransaction {
+        private final TransactionBatchWriter.Item item;
+        private final CompletableFuture<TransactionEntity> result = new CompletableFuture<>();
+
+        PendingTransaction(TransactionBatchWriter.Item item) {
+            this.item = item;
+        }
+
+        CompletableFuture<TransactionEntity> getResult() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.sisal.transaction.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sisal.transaction.server.config.IdempotencyProperties;
+import com.sisal.transaction.server.exception.IdempotencyKeyInProgressException;
+import com.sisal.transaction.server.exception.IdempotencyKeyReusedException;
+import com.sisal.transaction.server.model.api.TransactionAPIRequest;
+import com.sisal.transaction.server.model.api.TransactionAPIResponse;
+import com.sisal.transaction.server.model.db.IdempotencyKeyEntity;
+import com.sisal.transaction.server.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executes a transaction request at most once per {@code Idempotency-Key}.
+ *
+ * <p>The first request with a key executes the transaction, its response is kept in a bounded in-memory
+ * cache and in the {@code idempotency_keys} table. Repeated requests are answered with that response:</p>
+ * <ul>
+ *   <li>while the first request is still running on this instance, duplicates wait on its result</li>
+ *   <li>once it has completed, duplicates get the cached response, or the stored one after a restart / eviction</li>
+ *   <li>while it is running on another instance, duplicates are rejected with 409 and may retry</li>
+ * </ul>
+ *
+ * <p>Failed requests leave no trace, so a retry executes the transaction again.
+ * Reusing a key for a different request is rejected with 422.</p>
+ *
+ * <p>The reservation, the transaction and the stored response are separate commits. A key left IN_PROGRESS,
+ * because the server stopped or the response could not be stored, is taken over by a retry once it is older
+ * than the reservation timeout. The transaction is then executed again, even if the first attempt had committed.</p>
+ */
+@Component
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyProperties idempotencyProperties;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<String, InFlight> cache = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<InFlight> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger tracked = new AtomicInteger();
+
+    @Autowired
+    public IdempotencyService(IdempotencyProperties idempotencyProperties,
+                              IdempotencyKeyRepository idempotencyKeyRepository,
+                              ObjectMapper objectMapper) {
+        this.idempotencyProperties = idempotencyProperties;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        // Stored responses are replayed exactly, including the offset of their timestamp
+        this.objectMapper = objectMapper.copy()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+    }
+
+    /**
+     * Executes the transaction, unless the key has already been used by the client.
+     *
+     * @param clientId       authenticated client, keys are scoped per client
+     * @param idempotencyKey client generated key
+     * @param apiRequest     transaction request
+     * @param transaction    executes the transaction
+     * @return response of the first request with the key
+     * @throws IdempotencyKeyReusedException     if the key was used for a different request
+     * @throws IdempotencyKeyInProgressException if the key is being processed by another server instance
+     */
+    public Result execute(String clientId,
+                          String idempotencyKey,
+                          TransactionAPIRequest apiRequest,
+                          Supplier<TransactionAPIResponse> transaction) {
+
+        String key = clientId + ':' + idempotencyKey;
+        String requestHash = requestHash(apiRequest);
+
+        InFlight created = new InFlight(key, requestHash);
+        InFlight existing = cache.putIfAbsent(key, created);
+        if (existing != null) {
+            verifySameRequest(existing.requestHash, requestHash, idempotencyKey);
+            logger.debug("Replaying idempotent request {}", idempotencyKey);
+            return new Result(FutureResults.await(existing.response, "idempotent request " + idempotencyKey), true);
+        }
+        track(created);
+
+        try {
+            Result result = executeOnce(key, requestHash, idempotencyKey, transaction);
+            created.response.complete(result.getResponse());
+            return result;
+        } catch (RuntimeException failure) {
+            cache.remove(key, created);
+            created.response.completeExceptionally(failure);
+            throw failure;
+        }
+    }
+
+    public boolean isEnabled() {
+        return idempotencyProperties.isEnabled();
+    }
+
+    /**
+     * Reserves the key in the database, executes the transaction and stores its response.
+     */
+    private Result executeOnce(String key, String requestHash, String idempotencyKey, Supplier<TransactionAPIResponse> transaction) {
+
+        IdempotencyKeyEntity reservation;
+        Optional<IdempotencyKeyEntity> stored = idempotencyKeyRepository.findById(key);
+        if (stored.isPresent()) {
+            reservation = stored.get();
+            if (!takeOverAbandoned(reservation, requestHash, idempotencyKey)) {
+                return new Result(replay(reservation, requestHash, idempotencyKey), true);
+            }
+        } else {
+            reservation = IdempotencyKeyEntity.builder()
+                    .idempotencyKey(key)
+                    .requestHash(requestHash)
+                    .status(IdempotencyKeyEntity.IdempotencyStatus.IN_PROGRESS)
+                    .build();
+            try {
+                reservation = idempotencyKeyRepository.saveAndFlush(reservation);
+            } catch (DataIntegrityViolationException duplicateKey) {
+                // Reserved concurrently by another server instance
+                IdempotencyKeyEntity concurrent = idempotencyKeyRepository.findById(key)
+                        .orElseThrow(() -> duplicateKey);
+                return new Result(replay(concurrent, requestHash, idempotencyKey), true);
+            }
+        }
+
+        TransactionAPIResponse response;
+        try {
+            response = transaction.get();
+        } catch (RuntimeException failure) {
+            idempotencyKeyRepository.delete(reservation);
+            throw failure;
+        }
+
+        reservation.setStatus(IdempotencyKeyEntity.IdempotencyStatus.COMPLETED);
+        reservation.setResponseBody(writeResponse(response));
+        idempotencyKeyRepository.save(reservation);
+        return new Result(response, false);
+    }
+
+    /**
+     * Takes over a reservation older than the reservation timeout, its request never completed the key.
+     * Only one of concurrent retries renews the reservation, the others get 409.
+     *
+     * @return whether this request now owns the reservation
+     */
+    private boolean takeOverAbandoned(IdempotencyKeyEntity stored, String requestHash, String idempotencyKey) {
+        verifySameRequest(stored.getRequestHash(), requestHash, idempotencyKey);
+        if (stored.getStatus() != IdempotencyKeyEntity.IdempotencyStatus.IN_PROGRESS) {
+            return false;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime cutoff = now.minus(idempotencyProperties.getReservationTimeout());
+        if (stored.getCreatedAt().isAfter(cutoff)
+                || idempotencyKeyRepository.takeOverReservation(stored.getIdempotencyKey(),
+                IdempotencyKeyEntity.IdempotencyStatus.IN_PROGRESS, cutoff, now) == 0) {
+            return false;
+        }
+        logger.warn("Taking over Idempotency-Key {} reserved at {}, its request never completed", idempotencyKey, stored.getCreatedAt());
+        return true;
+    }
+
+    private TransactionAPIResponse replay(IdempotencyKeyEntity stored, String requestHash, String idempotencyKey) {
+        verifySameRequest(stored.getRequestHash(), requestHash, idempotencyKey);
+        if (stored.getStatus() != IdempotencyKeyEntity.IdempotencyStatus.COMPLETED) {
+            throw new IdempotencyKeyInProgressException("Request with Idempotency-Key " + idempotencyKey + " is still being processed");
+        }
+        logger.debug("Replaying stored idempotent request {}", idempotencyKey);
+        try {
+            return objectMapper.readValue(stored.getResponseBody(), TransactionAPIResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response of Idempotency-Key " + idempotencyKey + " is unreadable", e);
+        }
+    }
+
+    private void verifySameRequest(String expectedHash, String requestHash, String idempotencyKey) {
+        if (!expectedHash.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key " + idempotencyKey + " was already used for a different request");
+        }
+    }
+
+    private String writeResponse(TransactionAPIResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Transaction response cannot be stored", e);
+        }
+    }
+
+    /**
+     * Keeps the cache bounded, the oldest completed keys are evicted first.
+     * Keys still in flight are skipped, their duplicates must keep finding them. An entry of a failed request
+     * was already removed, it is dropped without evicting a later request that reused its key.
+     */
+    private void track(InFlight entry) {
+        insertionOrder.add(entry);
+        tracked.incrementAndGet();
+        while (tracked.get() > idempotencyProperties.getCacheSize()) {
+            InFlight oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            if (!oldest.response.isDone() && cache.get(oldest.key) == oldest) {
+                insertionOrder.add(oldest);
+                return;
+            }
+            cache.remove(oldest.key, oldest);
+            tracked.decrementAndGet();
+        }
+    }
+
+    /**
+     * Hash identifying the request a key was first used with.
+     */
+    static String requestHash(TransactionAPIRequest apiRequest) {
+        String canonical = apiRequest.getaccountNumber() + '|' + apiRequest.getTransactionType() + '|' + apiRequest.getAmount();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    int cachedKeys() {
+        return cache.size();
+    }
+
+    /**
+     * Response for an idempotent request.
+     */
+    public static final class Result {
+        private final TransactionAPIResponse response;
+        private final boolean replayed;
+
+        Result(TransactionAPIResponse response, boolean replayed) {
+            this.response = response;
+            this.replayed = replayed;
+        }
+
+        public TransactionAPIResponse getResponse() {
+            return response;
+        }
+
+        /**
+         * Whether the response comes from an earlier request with the same key.
+         */
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    private static final class InFlight {
+        private final String key;
+        private final String requestHash;
+        private final CompletableFuture<TransactionAPIResponse> response = new CompletableFuture<>();
+
+        private InFlight(String key, String requestHash) {
+            this.key = key;
+            this.requestHash = requestHash;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.RateLimitProperties;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process sliding window rate limiter keyed by account id.
+ *
+ * <p>Each account keeps a ring of per-second buckets covering the last minute. A bucket packs the second it
+ * belongs to and its counter into one long, so it is reset and incremented with a single CAS and the check
+ * needs neither locks nor DB I/O.</p>
+ *
+ * <p>A permit is taken optimistically and handed back if the window turns out to be full, so concurrent
+ * requests never exceed the limit (they may be rejected early while a competing permit is handed back).
+ * A permit is also handed back ({@link #release(Long)}) when its transaction is rejected or rolled back.</p>
+ *
+ * <p>Accounts without activity for a whole window are evicted by a sweep piggybacking on
+ * {@link #tryAcquire(Long, int)}, at most once per window. A permit racing with the eviction of its idle
+ * window may get lost, which can let one extra transaction through.</p>
+ *
+ * <p>NOTE: Counters are local to this server instance, use the DATABASE mode when several instances share the load.</p>
+ */
+public class InMemoryRateLimiter implements TransactionRateLimiter {
+
+    private static final int BUCKETS = 60;
+    private static final long BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(1) / BUCKETS;
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final RateLimitProperties rateLimitProperties;
+    private final LongSupplier clockMillis;
+
+    private final ConcurrentMap<Long, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepSecond = new AtomicLong();
+
+    public InMemoryRateLimiter(RateLimitProperties rateLimitProperties) {
+        this(rateLimitProperties, System::currentTimeMillis);
+    }
+
+    InMemoryRateLimiter(RateLimitProperties rateLimitProperties, LongSupplier clockMillis) {
+        this.rateLimitProperties = rateLimitProperties;
+        this.clockMillis = clockMillis;
+        this.lastSweepSecond.set(currentSecond());
+    }
+
+    /**
+     * Permits taken through this limiter are already counted, the pending count is not needed.
+     */
+    @Override
+    public boolean tryAcquire(Long accountId, int pending) {
+
+        long second = currentSecond();
+        sweepIdleWindows(second);
+
+        Window window = windows.get(accountId);
+        if (window == null) {
+            window = windows.computeIfAbsent(accountId, id -> new Window());
+        }
+
+        window.increment(second, 1);
+        if (window.count(second) > rateLimitProperties.getMaxPerMinute()) {
+            window.increment(second, -1);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Takes the permit back from the latest non-empty bucket of the window. Permits are released shortly after they
+     * were taken, so this is almost always the bucket the permit was counted in.
+     */
+    @Override
+    public void release(Long accountId) {
+
+        Window window = windows.get(accountId);
+        if (window != null) {
+            window.decrementLatest(currentSecond());
+        }
+    }
+
+    /**
+     * Number of accounts currently tracked.
+     */
+    int trackedAccounts() {
+        return windows.size();
+    }
+
+    private long currentSecond() {
+        return clockMillis.getAsLong() / BUCKET_MILLIS;
+    }
+
+    private void sweepIdleWindows(long second) {
+
+        long lastSweep = lastSweepSecond.get();
+        if (second - lastSweep < BUCKETS || !lastSweepSecond.compareAndSet(lastSweep, second)) {
+            return;
+        }
+        Iterator<Window> iterator = windows.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isIdle(second)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Ring of buckets, each holding {@code second << COUNT_BITS | count}.
+     */
+    private static final class Window {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private volatile long lastSecond;
+
+        void increment(long second, int delta) {
+            int index = (int) (second % BUCKETS);
+            while (true) {
+                long current = buckets.get(index);
+                long count = (current >>> COUNT_BITS) == second ? current & COUNT_MASK : 0;
+                long updated = (second << COUNT_BITS) | Math.max(0, count + delta);
+                if (buckets.compareAndSet(index, current, updated)) {
+                    break;
+                }
+            }
+            lastSecond = second;
+        }
+
+        void decrementLatest(long second) {
+            for (long bucketSecond = second; second - bucketSecond < BUCKETS; bucketSecond--) {
+                int index = (int) (bucketSecond % BUCKETS);
+                while (true) {
+                    long current = buckets.get(index);
+                    if ((current >>> COUNT_BITS) != bucketSecond || (current & COUNT_MASK) == 0) {
+                        break;
+                    }
+                    if (buckets.compareAndSet(index, current, current - 1)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        long count(long second) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                long bucket = buckets.get(i);
+                if (second - (bucket >>> COUNT_BITS) < BUCKETS) {
+                    total += bucket & COUNT_MASK;
+                }
+            }
+            return total;
+        }
+
+        boolean isIdle(long second) {
+            return second - lastSecond >= BUCKETS;
+        }
+    }
+}
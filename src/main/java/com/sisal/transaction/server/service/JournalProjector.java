@@ -0,0 +1,262 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.model.db.JournalCheckpointEntity;
+import com.sisal.transaction.server.model.db.JournalQuarantineEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.util.journal.JournalEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Projects journal entries into the {@code transactions} and {@code accounts} tables.
+ *
+ * <p>A batch of entries is written inside one DB transaction: one JDBC batch insert of the transaction rows,
+ * one balance increment per account and the journal checkpoint. The balance rules were already enforced
+ * when the entries were journaled, so the update applies the deltas unconditionally.</p>
+ *
+ * <p>The checkpoint ({@link JournalCheckpointEntity}) holds the sequence of the last projected entry and
+ * commits together with the rows, so entries replayed after a restart that were already projected are skipped.</p>
+ *
+ * <p>Entries whose account no longer exists can never be projected, retrying them would block the projection
+ * for good. They are moved to the quarantine table ({@link JournalQuarantineEntity}) in the same DB transaction
+ * and the checkpoint passes them.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *   <li>{@code transaction.journal.quarantined}: journal entries moved to the quarantine table</li>
+ * </ul>
+ *
+ * @see JournalTransactionProcessor
+ */
+@Component
+public class JournalProjector {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalProjector.class);
+
+    static final String JOURNAL_NAME = "transactions";
+
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private static final String SELECT_CHECKPOINT =
+            "SELECT last_sequence FROM transaction_system.journal_checkpoints WHERE journal_name = ?";
+
+    private static final String UPDATE_CHECKPOINT =
+            "UPDATE transaction_system.journal_checkpoints SET last_sequence = ?, updated_at = ? WHERE journal_name = ?";
+
+    private static final String INSERT_CHECKPOINT =
+            "INSERT INTO transaction_system.journal_checkpoints (last_sequence, updated_at, journal_name) VALUES (?, ?, ?)";
+
+    private static final String SELECT_ACCOUNT_IDS =
+            "SELECT account_id FROM transaction_system.accounts WHERE account_id IN (";
+
+    private static final String INSERT_QUARANTINE =
+            "INSERT INTO transaction_system.journal_quarantine " +
+                    "(journal_sequence, transaction_id, account_id, transaction_type, amount_minor, journaled_at, reason, quarantined_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INCREMENT_BALANCE =
+            "UPDATE transaction_system.accounts " +
+                    "SET balance_minor = balance_minor + ?, version = COALESCE(version, 0) + 1, last_modified_at = ? " +
+                    "WHERE account_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter quarantined;
+
+    @Autowired
+    public JournalProjector(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.quarantined = Counter.builder("transaction.journal.quarantined")
+                .description("Journal entries that could not be projected and were moved to the quarantine table")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the entries after the checkpoint with one commit, entries of missing accounts are quarantined.
+     *
+     * @param entries journal entries, in journal order
+     * @return number of entries written, quarantined entries excluded
+     * @throws org.springframework.dao.DataAccessException if the entries could not be persisted
+     */
+    public int project(List<JournalEntry> entries) {
+
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        List<JournalEntry> quarantinedEntries = new ArrayList<>();
+        Integer projected = transactionTemplate.execute(status -> {
+            quarantinedEntries.clear();
+            List<JournalEntry> pending = afterCheckpoint(entries, getLastProjectedSequence());
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            Timestamp now = Timestamp.from(Instant.now());
+            List<JournalEntry> projectable = withoutMissingAccounts(pending, quarantinedEntries);
+            if (!quarantinedEntries.isEmpty()) {
+                insertQuarantine(quarantinedEntries, now);
+            }
+            if (!projectable.isEmpty()) {
+                insertTransactions(projectable);
+                incrementBalances(projectable, now);
+            }
+            saveCheckpoint(pending.get(pending.size() - 1).getSequence(), now);
+            return projectable.size();
+        });
+        for (JournalEntry entry : quarantinedEntries) {
+            logger.error("Journal entry {} (transaction {}) quarantined, account {} no longer exists",
+                    entry.getSequence(), entry.getTransactionId(), entry.getAccountId());
+        }
+        quarantined.increment(quarantinedEntries.size());
+        return projected == null ? 0 : projected;
+    }
+
+    /**
+     * Sequence of the last projected journal entry, 0 if nothing was projected yet.
+     */
+    public long getLastProjectedSequence() {
+        List<Long> sequences = jdbcTemplate.queryForList(SELECT_CHECKPOINT, Long.class, JOURNAL_NAME);
+        return sequences.isEmpty() ? 0 : sequences.get(0);
+    }
+
+    private static List<JournalEntry> afterCheckpoint(List<JournalEntry> entries, long lastProjectedSequence) {
+        int first = 0;
+        while (first < entries.size() && entries.get(first).getSequence() <= lastProjectedSequence) {
+            first++;
+        }
+        return entries.subList(first, entries.size());
+    }
+
+    /**
+     * @param missing receives the entries whose account does not exist
+     * @return the entries whose account exists
+     */
+    private List<JournalEntry> withoutMissingAccounts(List<JournalEntry> entries, List<JournalEntry> missing) {
+
+        Set<Long> uniqueAccountIds = new HashSet<>();
+        for (JournalEntry entry : entries) {
+            uniqueAccountIds.add(entry.getAccountId());
+        }
+        List<Long> accountIds = new ArrayList<>(uniqueAccountIds);
+
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < accountIds.size(); from += MAX_IN_CLAUSE_SIZE) {
+            List<Long> chunk = accountIds.subList(from, Math.min(from + MAX_IN_CLAUSE_SIZE, accountIds.size()));
+            String sql = SELECT_ACCOUNT_IDS + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            existing.addAll(jdbcTemplate.queryForList(sql, Long.class, chunk.toArray()));
+        }
+        if (existing.size() == accountIds.size()) {
+            return entries;
+        }
+
+        List<JournalEntry> projectable = new ArrayList<>(entries.size());
+        for (JournalEntry entry : entries) {
+            if (existing.contains(entry.getAccountId())) {
+                projectable.add(entry);
+            } else {
+                missing.add(entry);
+            }
+        }
+        return projectable;
+    }
+
+    private void insertQuarantine(List<JournalEntry> entries, Timestamp now) {
+
+        jdbcTemplate.batchUpdate(INSERT_QUARANTINE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int index) throws SQLException {
+                JournalEntry entry = entries.get(index);
+                statement.setLong(1, entry.getSequence());
+                statement.setBytes(2, TransactionBatchWriter.toBytes(entry.getTransactionId()));
+                statement.setLong(3, entry.getAccountId());
+                statement.setString(4, entry.getType().name());
+                statement.setLong(5, entry.getAmount());
+                statement.setTimestamp(6, new Timestamp(entry.getTimestampMillis()));
+                statement.setString(7, "Account " + entry.getAccountId() + " no longer exists");
+                statement.setTimestamp(8, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    private void saveCheckpoint(long lastSequence, Timestamp now) {
+        if (jdbcTemplate.update(UPDATE_CHECKPOINT, lastSequence, now, JOURNAL_NAME) == 0) {
+            jdbcTemplate.update(INSERT_CHECKPOINT, lastSequence, now, JOURNAL_NAME);
+        }
+    }
+
+    private void insertTransactions(List<JournalEntry> entries) {
+
+        jdbcTemplate.batchUpdate(TransactionBatchWriter.INSERT_TRANSACTION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int index) throws SQLException {
+                JournalEntry entry = entries.get(index);
+                statement.setBytes(1, TransactionBatchWriter.toBytes(entry.getTransactionId()));
+                statement.setLong(2, entry.getAccountId());
+                statement.setString(3, entry.getType().name());
+                statement.setLong(4, entry.getAmount());
+                statement.setTimestamp(5, new Timestamp(entry.getTimestampMillis()));
+                statement.setString(6, TransactionEntity.TransactionStatus.COMPLETED.name());
+                statement.setLong(7, 0L);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    private void incrementBalances(List<JournalEntry> entries, Timestamp lastModifiedAt) {
+
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        for (JournalEntry entry : entries) {
+            deltas.merge(entry.getAccountId(), entry.getDelta(), Long::sum);
+        }
+        List<Map.Entry<Long, Long>> accountDeltas = new ArrayList<>(deltas.entrySet());
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(INCREMENT_BALANCE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int index) throws SQLException {
+                Map.Entry<Long, Long> accountDelta = accountDeltas.get(index);
+                statement.setLong(1, accountDelta.getValue());
+                statement.setTimestamp(2, lastModifiedAt);
+                statement.setLong(3, accountDelta.getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return accountDeltas.size();
+            }
+        });
+
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                throw new IllegalStateException("Account " + accountDeltas.get(i).getKey() + " of journaled transactions no longer exists");
+            }
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.RateLimitProperties;
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.exception.AppServerBaseException;
+import com.sisal.transaction.server.exception.TransactionRateLimitException;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.repository.AccountRepository;
+import com.sisal.transaction.server.util.TimeOrderedUuidGenerator;
+import com.sisal.transaction.server.util.journal.JournalEntry;
+import com.sisal.transaction.server.util.journal.TransactionJournal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-ahead journal execution of transaction requests.
+ *
+ * <p>The balance rules are checked against an in-memory copy of the account, the accepted transaction is
+ * appended to the local {@link TransactionJournal} and the caller is answered once the journal has been
+ * forced to disk. A background projector thread then writes the journal into the database with
+ * {@link JournalProjector}, so the database latency is no longer part of the request.</p>
+ *
+ * <p>Accounts are loaded from the database on first use. From then on the in-memory balance already includes
+ * the entries the projector has not written yet, which holds as long as this instance is the only writer of
+ * the accounts. Above {@code max-accounts} loaded accounts, accounts whose entries are all projected are evicted.</p>
+ *
+ * <p>Recovery: on startup every entry left in the journal is replayed into the database before requests are
+ * accepted, entries at or below the projection checkpoint were projected before the restart and are skipped.</p>
+ *
+ * <p>A failing journal force stops the journal, every following request fails until the server is restarted
+ * and the journal recovered. A failing projection is retried, the journal keeps growing meanwhile. Entries of
+ * deleted accounts are quarantined by the projector instead.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *   <li>{@code transaction.journal.unprojected}: journal bytes not projected into the database yet</li>
+ * </ul>
+ *
+ * @see TransactionEngineProperties.ExecutionMode#JOURNAL
+ */
+@Component
+public class JournalTransactionProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalTransactionProcessor.class);
+
+    private final TransactionEngineProperties engineProperties;
+    private final RateLimitProperties rateLimitProperties;
+    private final TransactionRateLimiter rateLimiter;
+    private final AccountRepository accountRepository;
+    private final JournalProjector projector;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, JournalAccount> accounts = new ConcurrentHashMap<>();
+
+    private volatile TransactionJournal journal;
+    private volatile long projectedPosition;
+    private volatile Thread projectorThread;
+
+    @Autowired
+    public JournalTransactionProcessor(TransactionEngineProperties engineProperties,
+                                       RateLimitProperties rateLimitProperties,
+                                       TransactionRateLimiter rateLimiter,
+                                       AccountRepository accountRepository,
+                                       JournalProjector projector,
+                                       MeterRegistry meterRegistry) {
+        this.engineProperties = engineProperties;
+        this.rateLimitProperties = rateLimitProperties;
+        this.rateLimiter = rateLimiter;
+        this.accountRepository = accountRepository;
+        this.projector = projector;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Opens and recovers the journal when the JOURNAL execution mode is active, before the server accepts requests.
+     */
+    @PostConstruct
+    public synchronized void start() {
+
+        if (engineProperties.getExecution() != TransactionEngineProperties.ExecutionMode.JOURNAL || journal != null) {
+            return;
+        }
+        TransactionEngineProperties.Journal settings = engineProperties.getJournal();
+        TransactionJournal opened;
+        try {
+            opened = TransactionJournal.open(Paths.get(settings.getDirectory()), (int) settings.getSegmentSize().toBytes(),
+                    projector.getLastProjectedSequence() + 1);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException("Could not open the transaction journal in " + settings.getDirectory(), ioException);
+        }
+
+        try {
+            projectedPosition = replay(opened);
+        } catch (RuntimeException recoveryFailure) {
+            opened.close();
+            throw recoveryFailure;
+        }
+        journal = opened;
+
+        Gauge.builder("transaction.journal.unprojected", this, JournalTransactionProcessor::getUnprojectedBytes)
+                .description("Journal bytes not projected into the database yet")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        projectorThread = new Thread(this::runProjector, "journal-projector");
+        projectorThread.setDaemon(true);
+        projectorThread.start();
+    }
+
+    /**
+     * Applies the transaction to the in-memory account and journals it.
+     *
+     * @param accountNumber bank account number
+     * @param amount        transaction amount applied on the account, in minor units
+     * @param type          type of transaction to be applied (deposit/withdrawal)
+     * @return Transaction record, durable in the journal
+     * @throws IllegalStateException if the journal is not open or failed
+     */
+    public TransactionEntity submit(String accountNumber, long amount, TransactionEntity.TransactionType type) {
+
+        TransactionJournal current = journal();
+        JournalAccount account = lockAccount(accountNumber);
+        JournalEntry entry;
+        long position;
+        try {
+            entry = newEntry(account, amount, type);
+            position = append(current, account, entry);
+        } finally {
+            account.lock.unlock();
+        }
+        current.awaitDurable(position);
+        return toTransaction(entry);
+    }
+
+    /**
+     * Applies and journals the items in order, the caller is answered with a single journal force.
+     *
+     * @return one result per item, in the same order as the items
+     */
+    public List<TransactionBatchWriter.Result> write(List<TransactionBatchWriter.Item> items) {
+
+        TransactionJournal current = journal();
+        List<TransactionBatchWriter.Result> results = new ArrayList<>(items.size());
+        long lastPosition = 0;
+        for (TransactionBatchWriter.Item item : items) {
+            try {
+                JournalAccount account = lockAccount(item.getAccountNumber());
+                JournalEntry entry;
+                try {
+                    entry = newEntry(account, item.getAmount(), item.getType());
+                    lastPosition = append(current, account, entry);
+                } finally {
+                    account.lock.unlock();
+                }
+                results.add(TransactionBatchWriter.Result.success(toTransaction(entry)));
+            } catch (AccountNotFoundException | AppServerBaseException businessException) {
+                results.add(TransactionBatchWriter.Result.failure(businessException));
+            }
+        }
+        current.awaitDurable(lastPosition);
+        return results;
+    }
+
+    /**
+     * Balance rules and journal append are done under the account lock, held by the caller, so the journal order
+     * of an account is the order its balance checks were made in. The rate permit is handed back if the entry is
+     * not appended.
+     *
+     * @return journal position after the entry
+     */
+    private long append(TransactionJournal current, JournalAccount account, JournalEntry entry) {
+
+        if (rateLimitProperties.isEnabled() && !rateLimiter.tryAcquire(account.accountId, 0)) {
+            throw new TransactionRateLimitException(
+                    "Rate limit exceeded: Maximum " + rateLimitProperties.getMaxPerMinute() +
+                            " transactions per minute allowed");
+        }
+        long position;
+        long newBalance;
+        try {
+            newBalance = BalanceRules.applyTransaction(account.balance, entry.getAmount(), entry.getType(), account.createdAt);
+            position = current.append(entry);
+        } catch (RuntimeException notJournaled) {
+            if (rateLimitProperties.isEnabled()) {
+                rateLimiter.release(account.accountId);
+            }
+            throw notJournaled;
+        }
+        account.balance = newBalance;
+        account.lastPosition = position;
+        return position;
+    }
+
+    private static JournalEntry newEntry(JournalAccount account, long amount, TransactionEntity.TransactionType type) {
+        return new JournalEntry(0, TimeOrderedUuidGenerator.next(), account.accountId, type, amount, System.currentTimeMillis());
+    }
+
+    /**
+     * Loaded account, locked by the calling thread. An account evicted while the caller waited for its lock is
+     * loaded again.
+     */
+    private JournalAccount lockAccount(String accountNumber) {
+
+        while (true) {
+            JournalAccount account = account(accountNumber);
+            account.lock.lock();
+            if (!account.evicted) {
+                return account;
+            }
+            account.lock.unlock();
+        }
+    }
+
+    private JournalAccount account(String accountNumber) {
+
+        JournalAccount account = accounts.get(accountNumber);
+        if (account == null) {
+            // No unprojected entries exist for an account that is not loaded, so the table holds its current balance
+            AccountEntity entity = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found for accountNumber=" + accountNumber));
+            JournalAccount loaded = new JournalAccount(entity.getAccountId(), entity.getBalanceMinor(), entity.getCreatedAt());
+            JournalAccount concurrentlyLoaded = accounts.putIfAbsent(accountNumber, loaded);
+            account = concurrentlyLoaded != null ? concurrentlyLoaded : loaded;
+        }
+        return account;
+    }
+
+    private TransactionJournal journal() {
+        TransactionJournal current = journal;
+        if (current == null) {
+            throw new IllegalStateException("Transaction journal is not open, the JOURNAL execution mode is not active");
+        }
+        return current;
+    }
+
+    /**
+     * Projects every entry left in the journal.
+     *
+     * @return position after the last replayed entry
+     */
+    private long replay(TransactionJournal opened) {
+
+        int batchSize = engineProperties.getJournal().getProjectionBatchSize();
+        List<JournalEntry> entries = new ArrayList<>(batchSize);
+        long position = opened.getFirstPosition();
+        int replayed = 0;
+
+        while (position < opened.getDurablePosition()) {
+            entries.clear();
+            long next = opened.read(position, batchSize, entries);
+            replayed += projector.project(entries);
+            position = next;
+            opened.release(position);
+        }
+        logger.info("Journal recovery projected {} transactions", replayed);
+        return position;
+    }
+
+    private void runProjector() {
+
+        TransactionEngineProperties.Journal settings = engineProperties.getJournal();
+        List<JournalEntry> entries = new ArrayList<>(settings.getProjectionBatchSize());
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                entries.clear();
+                long next = journal.read(projectedPosition, settings.getProjectionBatchSize(), entries);
+                if (entries.isEmpty()) {
+                    projectedPosition = next;
+                    evictProjectedAccounts(settings.getMaxAccounts());
+                    TimeUnit.NANOSECONDS.sleep(settings.getProjectionInterval().toNanos());
+                    continue;
+                }
+                try {
+                    projector.project(entries);
+                } catch (RuntimeException projectionFailure) {
+                    logger.error("Projection of {} journal entries failed, retrying", entries.size(), projectionFailure);
+                    TimeUnit.NANOSECONDS.sleep(settings.getProjectionRetryInterval().toNanos());
+                    continue;
+                }
+                projectedPosition = next;
+                journal.release(next);
+                evictProjectedAccounts(settings.getMaxAccounts());
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Evicts accounts above the limit, only accounts whose entries are all projected: the table holds their balance.
+     * Accounts with unprojected entries stay loaded, so the limit can be exceeded while the projection lags behind.
+     * An account locked by a request is skipped.
+     */
+    private void evictProjectedAccounts(int maxAccounts) {
+
+        if (accounts.size() <= maxAccounts) {
+            return;
+        }
+        long projected = projectedPosition;
+        Iterator<Map.Entry<String, JournalAccount>> iterator = accounts.entrySet().iterator();
+        while (accounts.size() > maxAccounts && iterator.hasNext()) {
+            JournalAccount account = iterator.next().getValue();
+            if (!account.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (account.lastPosition <= projected) {
+                    account.evicted = true;
+                    iterator.remove();
+                }
+            } finally {
+                account.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Number of accounts currently loaded.
+     */
+    int loadedAccounts() {
+        return accounts.size();
+    }
+
+    long getUnprojectedBytes() {
+        TransactionJournal current = journal;
+        return current == null ? 0 : Math.max(0, current.getDurablePosition() - projectedPosition);
+    }
+
+    /**
+     * Stops projecting, the entries not projected yet are replayed by the next start.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (projectorThread != null) {
+            projectorThread.interrupt();
+            try {
+                projectorThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            projectorThread = null;
+        }
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        accounts.clear();
+    }
+
+    private static TransactionEntity toTransaction(JournalEntry entry) {
+
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setTransactionId(entry.getTransactionId());
+        transaction.setAccountId(entry.getAccountId());
+        transaction.setAmountMinor(entry.getAmount());
+        transaction.setTransactionType(entry.getType());
+        transaction.setStatus(TransactionEntity.TransactionStatus.COMPLETED);
+        transaction.setTimestamp(OffsetDateTime.ofInstant(Instant.ofEpochMilli(entry.getTimestampMillis()), ZoneId.systemDefault()));
+        transaction.setVersion(0L);
+        return transaction;
+    }
+
+    /**
+     * In-memory account state, guarded by its lock. The lock is held across the rate limiter query,
+     * a monitor there would pin a virtual thread to its carrier for the database round trip.
+     */
+    private static final class JournalAccount {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long accountId;
+        private final OffsetDateTime createdAt;
+        private long balance;
+        /**
+         * Journal position after the last entry of the account.
+         */
+        private long lastPosition;
+        /**
+         * Removed from the loaded accounts, its state must no longer be changed.
+         */
+        private boolean evicted;
+
+        JournalAccount(long accountId, long balance, OffsetDateTime createdAt) {
+            this.accountId = accountId;
+            this.balance = balance;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+
+/**
+ * Retries an account mutation that lost a version conflict, used by the OPTIMISTIC balance update.
+ *
+ * <p>Each attempt re-reads the account and re-applies the balance rules, so a retry sees the balance committed
+ * by the winner of the conflict. Retries wait a jittered, exponentially growing backoff
+ * ({@link TransactionEngineProperties.OptimisticRetry}), the conflict is rethrown once the attempts are spent.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *   <li>{@code transaction.optimistic.attempts}: attempted account mutations</li>
+ *   <li>{@code transaction.optimistic.conflicts}: attempts that lost a version conflict, tagged
+ *   {@code outcome=retried|exhausted}. Divided by the attempts it gives the conflict rate</li>
+ *   <li>{@code transaction.optimistic.retries}: histogram of the retries one transaction needed</li>
+ * </ul>
+ *
+ * <p>The metrics are not tagged by account, which would create one time series per account. Conflicting
+ * accounts are logged at debug level.</p>
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+    private final TransactionEngineProperties.OptimisticRetry retryProperties;
+    private final LongConsumer backoffSleeper;
+
+    private final Counter attempts;
+    private final Counter retriedConflicts;
+    private final Counter exhaustedConflicts;
+    private final DistributionSummary retries;
+
+    @Autowired
+    public OptimisticRetryExecutor(TransactionEngineProperties engineProperties, MeterRegistry meterRegistry) {
+        this(engineProperties, meterRegistry, LockSupport::parkNanos);
+    }
+
+    OptimisticRetryExecutor(TransactionEngineProperties engineProperties,
+                            MeterRegistry meterRegistry,
+                            LongConsumer backoffSleeper) {
+        this.retryProperties = engineProperties.getOptimisticRetry();
+        this.backoffSleeper = backoffSleeper;
+
+        this.attempts = Counter.builder("transaction.optimistic.attempts")
+                .description("Attempted optimistic account mutations")
+                .register(meterRegistry);
+        this.retriedConflicts = Counter.builder("transaction.optimistic.conflicts")
+                .tags("outcome", "retried")
+                .description("Optimistic account mutations that lost a version conflict")
+                .register(meterRegistry);
+        this.exhaustedConflicts = Counter.builder("transaction.optimistic.conflicts")
+                .tags("outcome", "exhausted")
+                .description("Optimistic account mutations that lost a version conflict")
+                .register(meterRegistry);
+        this.retries = DistributionSummary.builder("transaction.optimistic.retries")
+                .description("Retries one transaction needed until it was applied or gave up")
+                .publishPercentileHistogram()
+                .maximumExpectedValue((double) retryProperties.getMaxAttempts())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the mutation until it does not lose a version conflict, or the attempts are spent.
+     *
+     * @param accountId unique account identifier, only logged
+     * @param mutation  account mutation, called with the attempt number starting at 0
+     * @return result of the attempt that succeeded
+     * @throws ObjectOptimisticLockingFailureException if the last attempt still conflicted
+     */
+    public <T> T execute(Long accountId, IntFunction<T> mutation) {
+
+        int maxAttempts = retryProperties.getMaxAttempts();
+        for (int attempt = 0; ; attempt++) {
+            attempts.increment();
+            try {
+                T result = mutation.apply(attempt);
+                retries.record(attempt);
+                return result;
+            } catch (ObjectOptimisticLockingFailureException conflict) {
+                if (attempt + 1 >= maxAttempts) {
+                    exhaustedConflicts.increment();
+                    retries.record(attempt);
+                    logger.warn("Account {} still conflicted after {} attempts", accountId, maxAttempts);
+                    throw conflict;
+                }
+                retriedConflicts.increment();
+                logger.debug("Account {} conflicted, attempt {} of {}", accountId, attempt + 1, maxAttempts);
+                backoffSleeper.accept(backoffNanos(attempt + 1));
+            }
+        }
+    }
+
+    /**
+     * Full jitter: uniform between zero and the exponential backoff of the retry.
+     */
+    private long backoffNanos(int retry) {
+
+        long initial = retryProperties.getInitialBackoff().toNanos();
+        long max = retryProperties.getMaxBackoff().toNanos();
+        long bound = retry >= Long.numberOfLeadingZeros(Math.max(1, initial)) ? max : Math.min(max, initial << (retry - 1));
+        return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+}
@@ -0,0 +1,44 @@
+package com.sisal.transaction.server.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands rate limit permits back when the transaction they were taken for is not persisted.
+ * <p>
+ * A permit is taken before the balance rules run and before the commit, so the limit holds for concurrent requests.
+ * A rejected, conflicted or rolled back transaction gives its permit back, the limit then counts the persisted
+ * transactions only.
+ */
+final class RatePermits {
+
+    private RatePermits() {
+    }
+
+    /**
+     * Releases the permits if the current database transaction does not commit.
+     * Without transaction synchronization (no transaction manager) the permits are kept.
+     *
+     * @param permits number of permits taken for the account within the current transaction
+     */
+    static void releaseOnRollback(TransactionRateLimiter rateLimiter, Long accountId, int permits) {
+
+        if (permits == 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(rateLimiter, accountId, permits);
+                }
+            }
+        });
+    }
+
+    static void release(TransactionRateLimiter rateLimiter, Long accountId, int permits) {
+        for (int i = 0; i < permits; i++) {
+            rateLimiter.release(accountId);
+        }
+    }
+}
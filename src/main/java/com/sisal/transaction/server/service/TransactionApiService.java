@@ -2,25 +2,31 @@ package com.sisal.transaction.server.service;
 
 
 import com.sisal.transaction.server.config.RateLimitProperties;
+import com.sisal.transaction.server.config.TransactionEngineProperties;
 import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.exception.AppServerBaseException;
 import com.sisal.transaction.server.exception.InsufficientBalanceException;
 import com.sisal.transaction.server.exception.TransactionRateLimitException;
 import com.sisal.transaction.server.model.api.TransactionAPIRequest;
 import com.sisal.transaction.server.model.api.TransactionAPIResponse;
 import com.sisal.transaction.server.model.db.AccountEntity;
 import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.repository.AccountBalanceRepository;
 import com.sisal.transaction.server.repository.AccountRepository;
+import com.sisal.transaction.server.repository.TransactionProcedureRepository;
 import com.sisal.transaction.server.repository.TransactionRepository;
+import com.sisal.transaction.server.util.Money;
+import com.sisal.transaction.server.util.TimeOrderedUuidGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.persistence.EntityNotFoundException;
-import javax.persistence.PersistenceException;
-import javax.transaction.Transactional;
-import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -35,7 +41,8 @@ import java.util.UUID;
  *   <li>Rate limiting (5 transactions/minute)</li>
  *   <li>Balance validation rules</li>
  *   <li>New account handling</li>
- *   <li>Transaction failure recovery</li>
+ *   <li>Unknown accounts rejected without a database lookup ({@link UnknownAccountFilter})</li>
+ *   <li>Failed transactions recorded off the request thread ({@link TransactionFailureRecorder})</li>
  * </ul>
  *
  * <p>Business Rules:</p>
@@ -46,20 +53,42 @@ import java.util.UUID;
  *   <li>Insufficient funds validation</li>
  * </ul>
  *
+ * <p>Amounts are converted to minor units ({@link Money}) once, when the request enters the service.</p>
+ *
+ * <p>Execution Modes ({@link TransactionEngineProperties}):</p>
+ * <ul>
+ *   <li>DIRECT: executed on the request thread</li>
+ *   <li>ACCOUNT_LANES: serialized per account on a single-writer lane ({@link AccountLaneExecutor})</li>
+ *   <li>GROUP_COMMIT: batched with concurrent requests into a single commit ({@link GroupCommitProcessor})</li>
+ *   <li>JOURNAL: acknowledged from the local write-ahead journal, projected asynchronously ({@link JournalTransactionProcessor})</li>
+ * </ul>
+ *
+ * <p>Balance Update Modes (DIRECT and ACCOUNT_LANES):</p>
+ * <ul>
+ *   <li>OPTIMISTIC: account read-modify-write, conflicts detected by its version and retried on the re-read
+ *   account ({@link OptimisticRetryExecutor}). With the account cache enabled the account is read from
+ *   {@link AccountStateCache} and the new state is written through</li>
+ *   <li>PESSIMISTIC: account read-modify-write under a row lock, concurrent writers wait for the lock</li>
+ *   <li>CONDITIONAL_UPDATE: single UPDATE statement enforcing the balance rules ({@link AccountBalanceRepository})</li>
+ *   <li>EVENT_SOURCED: append-only transaction events, balance rebuilt from the latest snapshot ({@link AccountLedger})</li>
+ *   <li>STORED_PROCEDURE: rate limit, balance rules, insert and update in one stored procedure call
+ *   ({@link TransactionProcedureRepository})</li>
+ * </ul>
+ *
  * <p>Transaction Management:</p>
  * <ul>
- *   <li>Main transaction for account updates</li>
- *   <li>Separate transaction for initial transaction record (REQUIRES_NEW)</li>
- *   <li>Independent transaction for failure status updates</li>
+ *   <li>The transaction record and the balance update are committed together, in one database transaction
+ *   ({@link TransactionTemplate})</li>
+ *   <li>A failure rolls back both, it is then recorded asynchronously in the failure log
+ *   ({@link TransactionFailureRecorder}). Rejections by the business rules are not recorded</li>
  * </ul>
  *
  * @throws AccountNotFoundException if an account doesn't exist
  * @throws TransactionRateLimitException if rate limit exceeded
  * @throws InsufficientBalanceException if balance rules violated
- * @throws PersistenceException if database operations fail
+ * @throws DataAccessException if database operations fail
  * @see TransactionEntity
  * @see AccountEntity
- * @see Transactional
  */
 @Service
 public class TransactionApiService {
@@ -67,14 +96,49 @@ public class TransactionApiService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionApiService.class);
 
     private final RateLimitProperties rateLimitProperties;
+    private final TransactionEngineProperties engineProperties;
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final AccountLaneExecutor accountLaneExecutor;
+    private final GroupCommitProcessor groupCommitProcessor;
+    private final JournalTransactionProcessor journalProcessor;
+    private final AccountLedger accountLedger;
+    private final AccountStateCache accountStateCache;
+    private final UnknownAccountFilter unknownAccountFilter;
+    private final OptimisticRetryExecutor optimisticRetry;
+    private final TransactionFailureRecorder failureRecorder;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionRateLimiter rateLimiter;
 
     @Autowired
-    public TransactionApiService(RateLimitProperties rateLimitProperties, AccountRepository accountRepository, TransactionRepository transactionRepository) {
+    public TransactionApiService(RateLimitProperties rateLimitProperties,
+                                 TransactionEngineProperties engineProperties,
+                                 AccountRepository accountRepository,
+                                 TransactionRepository transactionRepository,
+                                 AccountLaneExecutor accountLaneExecutor,
+                                 GroupCommitProcessor groupCommitProcessor,
+                                 JournalTransactionProcessor journalProcessor,
+                                 AccountLedger accountLedger,
+                                 AccountStateCache accountStateCache,
+                                 UnknownAccountFilter unknownAccountFilter,
+                                 OptimisticRetryExecutor optimisticRetry,
+                                 TransactionFailureRecorder failureRecorder,
+                                 TransactionTemplate transactionTemplate,
+                                 TransactionRateLimiter rateLimiter) {
         this.rateLimitProperties = rateLimitProperties;
+        this.engineProperties = engineProperties;
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.accountLaneExecutor = accountLaneExecutor;
+        this.groupCommitProcessor = groupCommitProcessor;
+        this.journalProcessor = journalProcessor;
+        this.accountLedger = accountLedger;
+        this.accountStateCache = accountStateCache;
+        this.unknownAccountFilter = unknownAccountFilter;
+        this.optimisticRetry = optimisticRetry;
+        this.failureRecorder = failureRecorder;
+        this.transactionTemplate = transactionTemplate;
+        this.rateLimiter = rateLimiter;
     }
 
 
@@ -82,20 +146,94 @@ public class TransactionApiService {
 
         TransactionEntity.TransactionType transactionType = TransactionEntity.TransactionType.valueOf(transactionAPIRequest.getTransactionType().toString());
 
-        TransactionEntity transactionEntity = createTransaction(transactionAPIRequest.getaccountNumber(), transactionAPIRequest.getAmount(), transactionType);
+        // Converted once, the execution paths only deal with minor units
+        long amount = Money.toMinorUnits(transactionAPIRequest.getAmount());
+
+        String accountNumber = transactionAPIRequest.getaccountNumber();
+        unknownAccountFilter.checkKnown(accountNumber);
+
+        TransactionEntity transactionEntity;
+        try {
+            transactionEntity = executeTransaction(accountNumber, amount, transactionType);
+        } catch (AccountNotFoundException notFound) {
+            unknownAccountFilter.recordMiss(accountNumber);
+            throw notFound;
+        }
+
+        return toAPIResponse(accountNumber, transactionEntity);
+    }
+
+    static TransactionAPIResponse toAPIResponse(String accountNumber, TransactionEntity transactionEntity) {
 
         TransactionAPIResponse.StatusEnum statusEnum = TransactionAPIResponse.StatusEnum.fromValue(transactionEntity.getStatus().toString());
         TransactionAPIResponse.TransactionTypeEnum tranType = TransactionAPIResponse.TransactionTypeEnum.fromValue(transactionEntity.getTransactionType().toString());
 
         return new TransactionAPIResponse()
                 .transactionType(tranType)
-                .accountNumber(transactionEntity.getAccount().getAccountNumber())
-                .amount(transactionEntity.getAmount())
+                .accountNumber(accountNumber)
+                .amount(Money.toDecimal(transactionEntity.getAmountMinor()))
                 .status(statusEnum)
                 .timestamp(transactionEntity.getTimestamp())
                 .transactionId(transactionEntity.getTransactionId());
     }
 
+    /**
+     * Dispatches the transaction to the configured execution mode.
+     */
+    private TransactionEntity executeTransaction(String accountNumber,
+                                                 long amount,
+                                                 TransactionEntity.TransactionType type) {
+
+        switch (engineProperties.getExecution()) {
+            case ACCOUNT_LANES:
+                return accountLaneExecutor.execute(accountNumber, () -> applyTransaction(accountNumber, amount, type));
+            case GROUP_COMMIT:
+                return groupCommitProcessor.submit(accountNumber, amount, type);
+            case JOURNAL:
+                return journalProcessor.submit(accountNumber, amount, type);
+            default:
+                return applyTransaction(accountNumber, amount, type);
+        }
+    }
+
+    /**
+     * Applies a single transaction with the configured balance update mode.
+     * A failure other than a business rule rejection is recorded in the failure log.
+     */
+    private TransactionEntity applyTransaction(String accountNumber,
+                                               long amount,
+                                               TransactionEntity.TransactionType type) {
+
+        try {
+            return applyBalanceUpdate(accountNumber, amount, type);
+        } catch (AppServerBaseException | AccountNotFoundException rejected) {
+            throw rejected;
+        } catch (RuntimeException failure) {
+            failureRecorder.record(accountNumber, amount, type, failure);
+            throw failure;
+        }
+    }
+
+    private TransactionEntity applyBalanceUpdate(String accountNumber,
+                                                 long amount,
+                                                 TransactionEntity.TransactionType type) {
+
+        switch (engineProperties.getBalanceUpdate()) {
+            case PESSIMISTIC:
+                return createTransactionWithAccountLock(accountNumber, amount, type);
+            case CONDITIONAL_UPDATE:
+                return createTransactionWithConditionalUpdate(accountNumber, amount, type);
+            case EVENT_SOURCED:
+                return accountLedger.append(accountNumber, amount, type);
+            case STORED_PROCEDURE:
+                return createTransactionWithStoredProcedure(accountNumber, amount, type);
+            default:
+                return accountStateCache.isEnabled()
+                        ? createTransactionWithCachedAccount(accountNumber, amount, type)
+                        : createTransaction(accountNumber, amount, type);
+        }
+    }
+
     /**
      * Creates a transaction record and updates the account record.
      * <p>
@@ -103,21 +241,22 @@ public class TransactionApiService {
      * Enforce 5 transaction/minute limit
      * Enforce the $100 minimum rule (skip if it's a new account)
      * <p>
-     * Transactional tag ensures db records are committed only at the end of the method call.
+     * The transaction record is inserted and the account updated in one database transaction, so a failure
+     * rolls back both. An account update losing a version conflict rolls back its attempt, the account is then
+     * read again and the transaction re-applied ({@link OptimisticRetryExecutor}). The rate limit is only checked once,
+     * its permit is handed back if the transaction is rejected or not committed.
      *
      * @param accountNumber bank account number
-     * @param amount        transaction amount applied on the account
+     * @param amount        transaction amount applied on the account, in minor units
      * @param type          type of transaction to be applied (deposit/withdrawal)
      * @return Transaction db record
+     * @throws ObjectOptimisticLockingFailureException if the account update still conflicted after the last retry
      */
-    @Transactional
     public TransactionEntity createTransaction(String accountNumber,
-                                               Double amount,
+                                               long amount,
                                                TransactionEntity.TransactionType type) {
 
-        AccountEntity account = accountRepository
-                .findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found for accountNumber=" + accountNumber));
+        AccountEntity account = findAccount(accountNumber);
 
         if (isRateLimitExceeded(account.getAccountId())) {
             throw new TransactionRateLimitException(
@@ -125,57 +264,288 @@ public class TransactionApiService {
                             " transactions per minute allowed");
         }
 
+        try {
+            return optimisticRetry.execute(account.getAccountId(), attempt -> transactionTemplate.execute(status ->
+                    applyOnAccount(attempt == 0 ? account : findAccount(accountNumber), amount, type)));
+        } catch (RuntimeException notPersisted) {
+            releaseRatePermit(account.getAccountId());
+            throw notPersisted;
+        }
+    }
+
+    private AccountEntity findAccount(String accountNumber) {
+        return accountRepository
+                .findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found for accountNumber=" + accountNumber));
+    }
+
+    private TransactionEntity applyOnAccount(AccountEntity account,
+                                             long amount,
+                                             TransactionEntity.TransactionType type) {
+
+        // Adjust account balance
+        account.setBalanceMinor(BalanceRules.applyTransaction(account.getBalanceMinor(), amount, type, account.getCreatedAt()));
+
         TransactionEntity transaction = new TransactionEntity();
         transaction.setAccount(account);
         transaction.setAccountId(account.getAccountId());
-        transaction.setAmount(amount);
+        transaction.setAmountMinor(amount);
         transaction.setTransactionType(type);
-        transaction.setStatus(TransactionEntity.TransactionStatus.COMPLETED);//We handle failure before rollback below
+        transaction.setStatus(TransactionEntity.TransactionStatus.COMPLETED);
 
-        // Adjust account balance
-        if (type == TransactionEntity.TransactionType.DEPOSIT) {
-            account.setBalance(account.getBalance() + amount);
-        } else {
-            // Check if an account has sufficient funds
-            if (account.getBalance() < amount) {
-                throw new InsufficientBalanceException("Insufficient funds");
-            }
-            double newBalance = account.getBalance() - amount;
+        // Both flushed with the commit, a version conflict of the account fails the commit and rolls back the insert
+        TransactionEntity savedTransaction = transactionRepository.save(transaction);
+        accountRepository.save(account);
+        logger.debug("Transaction {} applied on account {}", savedTransaction.getTransactionId(), account.getAccountId());
+        return savedTransaction;
+    }
 
-            //Enforce the $100 minimum rule (skip if it's a new account)
-            if (!isNewAccount(account) && newBalance < 100.0) {
-                throw new InsufficientBalanceException("Balance cannot drop below $100 for existing accounts");
-            }
-            account.setBalance(newBalance);
+    /**
+     * Creates a transaction record and updates the account balance, the account is read from the cache.
+     * <p>
+     * The balance rules are checked against the cached state, the balance is then set by an UPDATE expecting
+     * the cached version. A different version means the account was changed by another writer: the cached
+     * account is invalidated and the update fails like a JPA version conflict. A rejection by the balance
+     * rules is re-checked once against the database, the cached balance may be behind.
+     * <p>
+     * The transaction record and the balance update are committed together, the committed state is then
+     * written through to the cache. A conflicting update rolls both back and is retried on the reloaded
+     * account ({@link OptimisticRetryExecutor}), the rate limit is only checked once and its permit is handed back
+     * if the transaction is rejected or not committed.
+     *
+     * @param accountNumber bank account number
+     * @param amount        transaction amount applied on the account, in minor units
+     * @param type          type of transaction to be applied (deposit/withdrawal)
+     * @return Transaction db record
+     * @throws ObjectOptimisticLockingFailureException if the account still changed concurrently on the last retry
+     */
+    public TransactionEntity createTransactionWithCachedAccount(String accountNumber,
+                                                                long amount,
+                                                                TransactionEntity.TransactionType type) {
+
+        AccountStateCache.AccountState cached = accountStateCache.get(accountNumber);
+
+        if (isRateLimitExceeded(cached.getAccountId())) {
+            throw new TransactionRateLimitException(
+                    "Rate limit exceeded: Maximum " + rateLimitProperties.getMaxPerMinute() +
+                            " transactions per minute allowed");
         }
 
-        // Commit the transaction create immediately to ensure it exists
-        TransactionEntity savedTransaction;
         try {
+            return optimisticRetry.execute(cached.getAccountId(), attempt -> applyOnCachedAccount(
+                    attempt == 0 ? cached : accountStateCache.get(accountNumber), amount, type));
+        } catch (RuntimeException notPersisted) {
+            releaseRatePermit(cached.getAccountId());
+            throw notPersisted;
+        }
+    }
 
-            savedTransaction = commitAndStartNewTransaction(transaction);
-            logger.debug("Initial transaction created with ID: {}", savedTransaction.getTransactionId());
-        } catch (Exception exception) {
+    private TransactionEntity applyOnCachedAccount(AccountStateCache.AccountState account,
+                                                   long amount,
+                                                   TransactionEntity.TransactionType type) {
 
-            logger.error("Failed to create initial transaction", exception);
-            throw new PersistenceException("Could not create transaction record", exception);
+        String accountNumber = account.getAccountNumber();
+        long newBalance;
+        try {
+            newBalance = BalanceRules.applyTransaction(account.getBalance(), amount, type, account.getCreatedAt());
+        } catch (InsufficientBalanceException rejected) {
+            AccountStateCache.AccountState current = accountStateCache.reload(accountNumber);
+            if (current.getVersion() == account.getVersion()) {
+                throw rejected;
+            }
+            account = current;
+            newBalance = BalanceRules.applyTransaction(account.getBalance(), amount, type, account.getCreatedAt());
         }
 
-        try {
+        AccountStateCache.AccountState checkedAccount = account;
+        long checkedBalance = newBalance;
+        TransactionEntity savedTransaction = transactionTemplate.execute(status -> {
+
+            TransactionEntity transaction = new TransactionEntity();
+            transaction.setAccountId(checkedAccount.getAccountId());
+            transaction.setAmountMinor(amount);
+            transaction.setTransactionType(type);
+            transaction.setStatus(TransactionEntity.TransactionStatus.COMPLETED);
+            TransactionEntity saved = transactionRepository.save(transaction);
+
+            if (accountRepository.updateBalanceIfVersion(checkedAccount.getAccountId(), checkedAccount.getVersion(),
+                    checkedBalance, OffsetDateTime.now()) == 0) {
+                accountStateCache.invalidate(accountNumber);
+                throw new ObjectOptimisticLockingFailureException(AccountEntity.class, checkedAccount.getAccountId());
+            }
+            return saved;
+        });
+
+        accountStateCache.put(checkedAccount.withBalance(checkedBalance));
+        logger.debug("Transaction {} applied on cached account {}", savedTransaction.getTransactionId(), checkedAccount.getAccountId());
+        return savedTransaction;
+    }
+
+    /**
+     * Creates a transaction record and updates the account, which is locked while it is read.
+     * <p>
+     * Concurrent requests on the same account queue on the row lock, so the balance rules are checked against
+     * the latest committed balance and the update never loses a version conflict. A request waiting longer than
+     * the configured lock timeout fails. The transaction record and the account update are committed together.
+     *
+     * @param accountNumber bank account number
+     * @param amount        transaction amount applied on the account, in minor units
+     * @param type          type of transaction to be applied (deposit/withdrawal)
+     * @return Transaction db record
+     */
+    public TransactionEntity createTransactionWithAccountLock(String accountNumber,
+                                                              long amount,
+                                                              TransactionEntity.TransactionType type) {
 
-            accountRepository.save(account);
-            logger.debug("Account update successful for transaction: {}", savedTransaction.getTransactionId());
+        return transactionTemplate.execute(status -> {
 
-        } catch (Exception exception) {
+            AccountEntity account = accountRepository
+                    .findByAccountNumberForUpdate(accountNumber, engineProperties.getPessimistic().getLockTimeout())
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found for accountNumber=" + accountNumber));
 
-            updateFailedStatus(transaction.getTransactionId());
-            logger.debug("Transaction {} marked as failed", savedTransaction.getTransactionId());
-            throw new PersistenceException("Failed to persist account update record to DB. " +
-                    "Transaction persisted with a failed status.", exception);
+            if (isRateLimitExceeded(account.getAccountId())) {
+                throw new TransactionRateLimitException(
+                        "Rate limit exceeded: Maximum " + rateLimitProperties.getMaxPerMinute() +
+                                " transactions per minute allowed");
+            }
+            releaseRatePermitOnRollback(account.getAccountId());
+
+            // Flushed with the commit, the lock keeps the version unchanged until then
+            account.setBalanceMinor(BalanceRules.applyTransaction(account.getBalanceMinor(), amount, type, account.getCreatedAt()));
+
+            TransactionEntity transaction = new TransactionEntity();
+            transaction.setAccountId(account.getAccountId());
+            transaction.setAmountMinor(amount);
+            transaction.setTransactionType(type);
+            transaction.setStatus(TransactionEntity.TransactionStatus.COMPLETED);
+
+            TransactionEntity savedTransaction = transactionRepository.save(transaction);
+            logger.debug("Transaction {} applied on locked account {}", savedTransaction.getTransactionId(), account.getAccountId());
+            return savedTransaction;
+        });
+    }
+
+    /**
+     * Creates a transaction record, the account balance is changed by a single conditional UPDATE.
+     * <p>
+     * The balance rules are evaluated by the database as part of the update, so the account is not loaded
+     * and concurrent requests on the same account wait on the row lock instead of failing on the version check.
+     * The account is only read when the update is rejected, to report the violated rule.
+     * <p>
+     * The rate limit is checked after the update (the account id is returned by it), exceeding it rolls back the update.
+     *
+     * @param accountNumber bank account number
+     * @param amount        transaction amount applied on the account, in minor units
+     * @param type          type of transaction to be applied (deposit/withdrawal)
+     * @return Transaction db record
+     */
+    public TransactionEntity createTransactionWithConditionalUpdate(String accountNumber,
+                                                                    long amount,
+                                                                    TransactionEntity.TransactionType type) {
+
+        return transactionTemplate.execute(status -> {
+
+            Optional<AccountBalanceRepository.BalanceUpdate> balanceUpdate =
+                    type == TransactionEntity.TransactionType.DEPOSIT
+                            ? accountRepository.applyDeposit(accountNumber, amount)
+                            : accountRepository.applyWithdrawal(accountNumber, amount,
+                            BalanceRules.MINIMUM_BALANCE, BalanceRules.newAccountCutoff(OffsetDateTime.now()));
+
+            Long accountId = balanceUpdate
+                    .orElseThrow(() -> rejectedUpdateException(accountNumber, amount, type))
+                    .getAccountId();
+
+            if (isRateLimitExceeded(accountId)) {
+                throw new TransactionRateLimitException(
+                        "Rate limit exceeded: Maximum " + rateLimitProperties.getMaxPerMinute() +
+                                " transactions per minute allowed");
+            }
+            releaseRatePermitOnRollback(accountId);
+
+            TransactionEntity transaction = new TransactionEntity();
+            transaction.setAccountId(accountId);
+            transaction.setAmountMinor(amount);
+            transaction.setTransactionType(type);
+            transaction.setStatus(TransactionEntity.TransactionStatus.COMPLETED);
+
+            TransactionEntity savedTransaction = transactionRepository.save(transaction);
+            logger.debug("Transaction {} applied with conditional update", savedTransaction.getTransactionId());
+            return savedTransaction;
+        });
+    }
+
+    /**
+     * Creates a transaction record and updates the account balance with one stored procedure call.
+     * <p>
+     * The procedure locks the account row, so concurrent requests on the same account queue on the lock. It checks
+     * the rate limit by counting the transactions of the last minute in the database, whatever the configured rate
+     * limit mode, then the balance rules, and commits the transaction record together with the balance update.
+     * A rejection writes nothing and is reported like in the other balance update modes.
+     *
+     * @param accountNumber bank account number
+     * @param amount        transaction amount applied on the account, in minor units
+     * @param type          type of transaction to be applied (deposit/withdrawal)
+     * @return Transaction db record
+     */
+    public TransactionEntity createTransactionWithStoredProcedure(String accountNumber,
+                                                                  long amount,
+                                                                  TransactionEntity.TransactionType type) {
+
+        UUID transactionId = TimeOrderedUuidGenerator.next();
+        OffsetDateTime now = OffsetDateTime.now();
+        int maxPerMinute = rateLimitProperties.isEnabled() ? rateLimitProperties.getMaxPerMinute() : 0;
+
+        TransactionProcedureRepository.ProcedureResult result = transactionRepository.createTransactionByProcedure(
+                transactionId, accountNumber, amount, type, now, maxPerMinute,
+                BalanceRules.MINIMUM_BALANCE, BalanceRules.newAccountCutoff(now));
+
+        switch (result.getOutcome()) {
+            case ACCOUNT_NOT_FOUND:
+                throw new AccountNotFoundException("Account not found for accountNumber=" + accountNumber);
+            case RATE_LIMITED:
+                throw new TransactionRateLimitException(
+                        "Rate limit exceeded: Maximum " + rateLimitProperties.getMaxPerMinute() +
+                                " transactions per minute allowed");
+            case INSUFFICIENT_FUNDS:
+                throw new InsufficientBalanceException("Insufficient funds");
+            case MINIMUM_BALANCE:
+                throw new InsufficientBalanceException("Balance cannot drop below $100 for existing accounts");
+            default:
+                break;
         }
+
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setTransactionId(transactionId);
+        transaction.setAccountId(result.getAccountId());
+        transaction.setAmountMinor(amount);
+        transaction.setTransactionType(type);
+        transaction.setTimestamp(now);
+        transaction.setStatus(TransactionEntity.TransactionStatus.COMPLETED);
+        transaction.setVersion(0L);
+        logger.debug("Transaction {} applied by stored procedure", transactionId);
         return transaction;
     }
 
+    /**
+     * Resolves why a conditional update matched no row.
+     */
+    private RuntimeException rejectedUpdateException(String accountNumber,
+                                                     long amount,
+                                                     TransactionEntity.TransactionType type) {
+
+        AccountEntity account = accountRepository.findByAccountNumber(accountNumber).orElse(null);
+        if (account == null) {
+            return new AccountNotFoundException("Account not found for accountNumber=" + accountNumber);
+        }
+        try {
+            BalanceRules.applyTransaction(account.getBalanceMinor(), amount, type, account.getCreatedAt());
+        } catch (InsufficientBalanceException balanceException) {
+            return balanceException;
+        }
+        // Balance changed concurrently between the update and this read
+        return new InsufficientBalanceException("Insufficient funds");
+    }
+
     /**
      * Enforces the maximum number of transactions per minute that can be applied to db.
      *
@@ -188,44 +558,26 @@ public class TransactionApiService {
             return false;  // Skip rate limiting if disabled
         }
 
-        OffsetDateTime oneMinuteAgo = OffsetDateTime.now().minusMinutes(1);
-        long recentTransactions = transactionRepository
-                .countRecentTransactions(accountId, oneMinuteAgo);
-
-        return recentTransactions >= rateLimitProperties.getMaxPerMinute();
+        return !rateLimiter.tryAcquire(accountId, 0);
     }
 
     /**
-     * Determines if the account is considered 'new'.
-     * <p>
-     * The Account is considered new if it is opened at least 10 days before.
+     * Hands back the permit of a transaction that was rejected or not committed.
      */
-    private boolean isNewAccount(AccountEntity account) {
-        return Duration.between(account.getCreatedAt(), OffsetDateTime.now()).toDays() <= 10;
-    }
+    private void releaseRatePermit(Long accountId) {
 
-    /**
-     * Commit first transaction create record to DB.
-     */
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
-    public TransactionEntity commitAndStartNewTransaction(TransactionEntity transaction) {
-        return transactionRepository.save(transaction);
+        if (rateLimitProperties.isEnabled()) {
+            rateLimiter.release(accountId);
+        }
     }
 
     /**
-     * Mark the original transaction as failed in case of account update failure.
+     * Hands back the permit if the current database transaction rolls back.
      */
-    @Transactional(Transactional.TxType.REQUIRES_NEW)
-    public void updateFailedStatus(UUID transactionId) {
-        try {
-            TransactionEntity transaction = transactionRepository
-                    .findByTransactionId(transactionId)
-                    .orElseThrow(() -> new EntityNotFoundException("Transaction not found"));
-
-            transaction.setStatus(TransactionEntity.TransactionStatus.FAILED);
-            transactionRepository.save(transaction);
-        } catch (Exception rollbackFailure) {
-            logger.error("Failed to update transaction status to FAILED", rollbackFailure);
+    private void releaseRatePermitOnRollback(Long accountId) {
+
+        if (rateLimitProperties.isEnabled()) {
+            RatePermits.releaseOnRollback(rateLimiter, accountId, 1);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.exception.InvalidAmountException;
+import com.sisal.transaction.server.model.api.TransactionAPIRequest;
+import com.sisal.transaction.server.model.api.TransactionAPIResponse;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the transactions of the batch endpoint.
+ *
+ * <p>Items are grouped by account and the groups are packed into chunks of about
+ * {@code transaction.engine.batch.chunk-size} items. Each chunk is handed to {@link TransactionBatchWriter},
+ * which applies its items in request order and persists them with batched JDBC statements and one commit.
+ * All items of one account end up in the same chunk, so their order and balance checks are never split
+ * across commits.</p>
+ *
+ * <p>Every item gets its own outcome. A chunk failing to persist (e.g. an account modified concurrently)
+ * fails only the items of that chunk, chunks committed before it stay committed.</p>
+ *
+ * @see TransactionBatchWriter
+ */
+@Service
+public class TransactionBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionBatchService.class);
+
+    private final TransactionEngineProperties engineProperties;
+    private final TransactionBatchWriter batchWriter;
+    private final JournalTransactionProcessor journalProcessor;
+
+    @Autowired
+    public TransactionBatchService(TransactionEngineProperties engineProperties,
+                                   TransactionBatchWriter batchWriter,
+                                   JournalTransactionProcessor journalProcessor) {
+        this.engineProperties = engineProperties;
+        this.batchWriter = batchWriter;
+        this.journalProcessor = journalProcessor;
+    }
+
+    /**
+     * Applies all requested transactions.
+     *
+     * @param requests transactions to be applied, in order
+     * @return one result per request, in the same order as the requests
+     */
+    public List<ItemResult> createTransactions(List<TransactionAPIRequest> requests) {
+
+        ItemResult[] results = new ItemResult[requests.size()];
+        for (List<Integer> chunk : chunkByAccount(requests, engineProperties.getBatch().getChunkSize())) {
+            writeChunk(requests, chunk, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Groups the request indexes by account, preserving request order within each account,
+     * and packs whole groups into chunks. A group larger than the chunk size becomes a chunk of its own.
+     */
+    static List<List<Integer>> chunkByAccount(List<TransactionAPIRequest> requests, int chunkSize) {
+
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            groups.computeIfAbsent(requests.get(i).getaccountNumber(), accountNumber -> new ArrayList<>()).add(i);
+        }
+
+        List<List<Integer>> chunks = new ArrayList<>();
+        List<Integer> chunk = new ArrayList<>(chunkSize);
+        for (List<Integer> group : groups.values()) {
+            if (!chunk.isEmpty() && chunk.size() + group.size() > chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+            chunk.addAll(group);
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private void writeChunk(List<TransactionAPIRequest> requests, List<Integer> chunk, ItemResult[] results) {
+
+        List<TransactionBatchWriter.Item> items = new ArrayList<>(chunk.size());
+        List<Integer> itemIndexes = new ArrayList<>(chunk.size());
+        for (Integer index : chunk) {
+            TransactionAPIRequest request = requests.get(index);
+            try {
+                items.add(new TransactionBatchWriter.Item(request.getaccountNumber(), Money.toMinorUnits(request.getAmount()),
+                        TransactionEntity.TransactionType.valueOf(request.getTransactionType().toString())));
+                itemIndexes.add(index);
+            } catch (InvalidAmountException invalidAmount) {
+                results[index] = ItemResult.failure(invalidAmount);
+            }
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+
+        List<TransactionBatchWriter.Result> written;
+        try {
+            // The journal holds the account state in JOURNAL mode, the tables are only written by its projection
+            written = engineProperties.getExecution() == TransactionEngineProperties.ExecutionMode.JOURNAL
+                    ? journalProcessor.write(items)
+                    : batchWriter.write(items);
+        } catch (DataAccessException chunkFailure) {
+            logger.error("Batch chunk of {} transactions failed", items.size(), chunkFailure);
+            for (Integer index : itemIndexes) {
+                results[index] = ItemResult.failure(chunkFailure);
+            }
+            return;
+        }
+
+        for (int i = 0; i < itemIndexes.size(); i++) {
+            int index = itemIndexes.get(i);
+            TransactionBatchWriter.Result result = written.get(i);
+            results[index] = result.isSuccess()
+                    ? ItemResult.success(TransactionApiService.toAPIResponse(requests.get(index).getaccountNumber(), result.getTransaction()))
+                    : ItemResult.failure(result.getError());
+        }
+    }
+
+    /**
+     * Outcome of a single batch item, either the created transaction or the reason of its rejection.
+     */
+    public static class ItemResult {
+        private final TransactionAPIResponse response;
+        private final RuntimeException error;
+
+        private ItemResult(TransactionAPIResponse response, RuntimeException error) {
+            this.response = response;
+            this.error = error;
+        }
+
+        static ItemResult success(TransactionAPIResponse response) {
+            return new ItemResult(response, null);
+        }
+
+        static ItemResult failure(RuntimeException error) {
+            return new ItemResult(null, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public TransactionAPIResponse getResponse() {
+            return response;
+        }
+
+        public RuntimeException getError() {
+            return error;
+        }
+    }
+}
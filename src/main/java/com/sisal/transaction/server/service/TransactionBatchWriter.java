@@ -0,0 +1,365 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.RateLimitProperties;
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.exception.AppServerBaseException;
+import com.sisal.transaction.server.exception.TransactionRateLimitException;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.util.TimeOrderedUuidGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Applies a batch of transactions with a single database commit.
+ *
+ * <p>Items are applied in order against an in-memory copy of the affected accounts, so every item
+ * gets its own business rule outcome. All accepted transactions are then persisted inside one DB
+ * transaction:</p>
+ * <ul>
+ *   <li>One query loading all affected accounts</li>
+ *   <li>One JDBC batch insert for all transaction rows</li>
+ *   <li>One versioned balance update per account</li>
+ * </ul>
+ *
+ * <p>A version mismatch on any account rolls back the whole batch,
+ * in that case every item of the batch fails with the same exception.</p>
+ *
+ * <p>Rate limit permits of rejected items, and of every item of a rolled back batch, are handed back.</p>
+ */
+@Component
+public class TransactionBatchWriter {
+
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private static final String SELECT_ACCOUNTS =
+            "SELECT account_id, account_number, balance_minor, created_at, version " +
+                    "FROM transaction_system.accounts WHERE account_number IN (";
+
+    static final String INSERT_TRANSACTION =
+            "INSERT INTO transaction_system.transactions " +
+                    "(transaction_id, account_id, transaction_type, amount_minor, timestamp, status, version) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_BALANCE =
+            "UPDATE transaction_system.accounts " +
+                    "SET balance_minor = ?, version = COALESCE(version, 0) + 1, last_modified_at = ? " +
+                    "WHERE account_id = ? AND COALESCE(version, 0) = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RateLimitProperties rateLimitProperties;
+    private final TransactionRateLimiter rateLimiter;
+
+    @Autowired
+    public TransactionBatchWriter(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  RateLimitProperties rateLimitProperties,
+                                  TransactionRateLimiter rateLimiter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rateLimitProperties = rateLimitProperties;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Applies all items in order and commits the accepted ones at once.
+     *
+     * @param items transactions to be applied
+     * @return one result per item, in the same order as the items
+     * @throws org.springframework.dao.DataAccessException if the batch could not be persisted
+     */
+    public List<Result> write(List<Item> items) {
+        return transactionTemplate.execute(status -> applyAndPersist(items));
+    }
+
+    private List<Result> applyAndPersist(List<Item> items) {
+
+        OffsetDateTime now = OffsetDateTime.now();
+        Map<String, AccountState> accounts = loadAccounts(items);
+        List<Result> results = new ArrayList<>(items.size());
+        List<TransactionEntity> accepted = new ArrayList<>(items.size());
+
+        for (Item item : items) {
+            AccountState account = accounts.get(item.getAccountNumber());
+            try {
+                if (account == null) {
+                    throw new AccountNotFoundException("Account not found for accountNumber=" + item.getAccountNumber());
+                }
+                if (isRateLimitExceeded(account)) {
+                    throw new TransactionRateLimitException(
+                            "Rate limit exceeded: Maximum " + rateLimitProperties.getMaxPerMinute() +
+                                    " transactions per minute allowed");
+                }
+                account.balance = applyRateLimited(account, item);
+                account.accepted++;
+                account.dirty = true;
+
+                TransactionEntity transaction = newTransaction(account, item, now);
+                accepted.add(transaction);
+                results.add(Result.success(transaction));
+            } catch (AccountNotFoundException | AppServerBaseException businessException) {
+                results.add(Result.failure(businessException));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            releaseRatePermitsOnRollback(accounts.values());
+            insertTransactions(accepted);
+            updateBalances(accounts.values(), now);
+        }
+        return results;
+    }
+
+    private Map<String, AccountState> loadAccounts(List<Item> items) {
+
+        Set<String> uniqueAccountNumbers = new LinkedHashSet<>();
+        for (Item item : items) {
+            uniqueAccountNumbers.add(item.getAccountNumber());
+        }
+        List<String> accountNumbers = new ArrayList<>(uniqueAccountNumbers);
+
+        Map<String, AccountState> accounts = new HashMap<>();
+        for (int from = 0; from < accountNumbers.size(); from += MAX_IN_CLAUSE_SIZE) {
+            List<String> chunk = accountNumbers.subList(from, Math.min(from + MAX_IN_CLAUSE_SIZE, accountNumbers.size()));
+            String sql = SELECT_ACCOUNTS + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+
+            jdbcTemplate.query(sql, resultSet -> {
+                AccountState account = new AccountState();
+                account.accountId = resultSet.getLong("account_id");
+                account.accountNumber = resultSet.getString("account_number");
+                account.balance = resultSet.getLong("balance_minor");
+                account.createdAt = toOffsetDateTime(resultSet.getTimestamp("created_at"));
+                account.version = resultSet.getLong("version");
+                accounts.put(account.accountNumber, account);
+            }, chunk.toArray());
+        }
+        return accounts;
+    }
+
+    /**
+     * Transactions accepted earlier in this batch are not committed yet, they are passed as pending permits.
+     */
+    private boolean isRateLimitExceeded(AccountState account) {
+
+        if (!rateLimitProperties.isEnabled()) {
+            return false;
+        }
+        return !rateLimiter.tryAcquire(account.accountId, account.accepted);
+    }
+
+    /**
+     * Applies the balance rules, the rate permit of a rejected item is handed back.
+     *
+     * @return new balance of the account
+     */
+    private long applyRateLimited(AccountState account, Item item) {
+
+        try {
+            return BalanceRules.applyTransaction(account.balance, item.getAmount(), item.getType(), account.createdAt);
+        } catch (RuntimeException rejected) {
+            if (rateLimitProperties.isEnabled()) {
+                rateLimiter.release(account.accountId);
+            }
+            throw rejected;
+        }
+    }
+
+    /**
+     * The permits of the accepted items are handed back if the batch is not committed.
+     */
+    private void releaseRatePermitsOnRollback(Iterable<AccountState> accounts) {
+
+        if (!rateLimitProperties.isEnabled()) {
+            return;
+        }
+        for (AccountState account : accounts) {
+            RatePermits.releaseOnRollback(rateLimiter, account.accountId, account.accepted);
+        }
+    }
+
+    private TransactionEntity newTransaction(AccountState account, Item item, OffsetDateTime now) {
+
+        AccountEntity accountReference = new AccountEntity();
+        accountReference.setAccountId(account.accountId);
+        accountReference.setAccountNumber(account.accountNumber);
+
+        TransactionEntity transaction = new TransactionEntity();
+        transaction.setTransactionId(TimeOrderedUuidGenerator.next());
+        transaction.setAccountId(account.accountId);
+        transaction.setAccount(accountReference);
+        transaction.setAmountMinor(item.getAmount());
+        transaction.setTransactionType(item.getType());
+        transaction.setStatus(TransactionEntity.TransactionStatus.COMPLETED);
+        transaction.setTimestamp(now);
+        transaction.setVersion(0L);
+        return transaction;
+    }
+
+    private void insertTransactions(List<TransactionEntity> transactions) {
+
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int index) throws SQLException {
+                TransactionEntity transaction = transactions.get(index);
+                statement.setBytes(1, toBytes(transaction.getTransactionId()));
+                statement.setLong(2, transaction.getAccountId());
+                statement.setString(3, transaction.getTransactionType().name());
+                statement.setLong(4, transaction.getAmountMinor());
+                statement.setTimestamp(5, Timestamp.from(transaction.getTimestamp().toInstant()));
+                statement.setString(6, transaction.getStatus().name());
+                statement.setLong(7, transaction.getVersion());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return transactions.size();
+            }
+        });
+    }
+
+    private void updateBalances(Iterable<AccountState> accounts, OffsetDateTime now) {
+
+        List<AccountState> dirtyAccounts = new ArrayList<>();
+        for (AccountState account : accounts) {
+            if (account.dirty) {
+                dirtyAccounts.add(account);
+            }
+        }
+        Timestamp lastModifiedAt = Timestamp.from(now.toInstant());
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_BALANCE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int index) throws SQLException {
+                AccountState account = dirtyAccounts.get(index);
+                statement.setLong(1, account.balance);
+                statement.setTimestamp(2, lastModifiedAt);
+                statement.setLong(3, account.accountId);
+                statement.setLong(4, account.version);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return dirtyAccounts.size();
+            }
+        });
+
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0 || updateCounts[i] == Statement.EXECUTE_FAILED) {
+                // Account was modified outside this batch, rolls back all inserts as well.
+                throw new ObjectOptimisticLockingFailureException(AccountEntity.class, dirtyAccounts.get(i).accountId);
+            }
+        }
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Timestamp timestamp) {
+        return timestamp.toInstant().atZone(ZoneId.systemDefault()).toOffsetDateTime();
+    }
+
+    /**
+     * Same binary layout as Hibernate's UUIDBinaryType used by {@link TransactionEntity#getTransactionId()}.
+     * Every native write of a transaction id binds these bytes, so the row is found again by the same UUID.
+     */
+    public static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    /**
+     * Working copy of an account row for the duration of one batch.
+     */
+    private static final class AccountState {
+        private long accountId;
+        private String accountNumber;
+        private long balance;
+        private OffsetDateTime createdAt;
+        private long version;
+        private int accepted;
+        private boolean dirty;
+    }
+
+    /**
+     * Transaction to be applied as part of a batch.
+     */
+    public static class Item {
+        private final String accountNumber;
+        private final long amount;
+        private final TransactionEntity.TransactionType type;
+
+        public Item(String accountNumber, long amount, TransactionEntity.TransactionType type) {
+            this.accountNumber = accountNumber;
+            this.amount = amount;
+            this.type = type;
+        }
+
+        public String getAccountNumber() {
+            return accountNumber;
+        }
+
+        /**
+         * Amount in minor units.
+         */
+        public long getAmount() {
+            return amount;
+        }
+
+        public TransactionEntity.TransactionType getType() {
+            return type;
+        }
+    }
+
+    /**
+     * Outcome of a single item, either the persisted transaction or the business rule violation.
+     */
+    public static class Result {
+        private final TransactionEntity transaction;
+        private final RuntimeException error;
+
+        private Result(TransactionEntity transaction, RuntimeException error) {
+            this.transaction = transaction;
+            this.error = error;
+        }
+
+        public static Result success(TransactionEntity transaction) {
+            return new Result(transaction, null);
+        }
+
+        public static Result failure(RuntimeException error) {
+            return new Result(null, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        public TransactionEntity getTransaction() {
+            return transaction;
+        }
+
+        public RuntimeException getError() {
+            return error;
+        }
+    }
+}
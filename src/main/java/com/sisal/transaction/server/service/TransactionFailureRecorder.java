@@ -0,0 +1,175 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.model.db.TransactionFailureEntity;
+import com.sisal.transaction.server.repository.TransactionFailureRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes failed transactions to the {@code transaction_failures} table off the request thread.
+ *
+ * <p>A transaction record and its balance update are committed together, so a failure leaves nothing behind
+ * in the transactions table. The request thread only enqueues the failure, a single writer thread persists
+ * the queued failures in batches, one commit per batch. While the queue is full further failures are dropped
+ * and counted, the request has already failed and its error is logged either way.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *   <li>{@code transaction.failures.dropped}: failures not written because the queue was full or the write failed</li>
+ *   <li>{@code transaction.failures.pending}: failures waiting to be written</li>
+ * </ul>
+ *
+ * @see TransactionEngineProperties.FailureLog
+ */
+@Component
+public class TransactionFailureRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionFailureRecorder.class);
+
+    private final TransactionEngineProperties.FailureLog settings;
+    private final TransactionFailureRepository failureRepository;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile BlockingQueue<TransactionFailureEntity> queue;
+    private volatile Thread writer;
+
+    @Autowired
+    public TransactionFailureRecorder(TransactionEngineProperties engineProperties,
+                                      TransactionFailureRepository failureRepository,
+                                      MeterRegistry meterRegistry) {
+        this.settings = engineProperties.getFailureLog();
+        this.failureRepository = failureRepository;
+
+        FunctionCounter.builder("transaction.failures.dropped", dropped, AtomicLong::get)
+                .description("Failed transactions not written to the failure log")
+                .register(meterRegistry);
+        Gauge.builder("transaction.failures.pending", this, TransactionFailureRecorder::getPendingFailures)
+                .description("Failed transactions waiting to be written to the failure log")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueues the failure, never blocks.
+     *
+     * @param accountNumber bank account number
+     * @param amount        transaction amount, in minor units
+     * @param type          type of transaction (deposit/withdrawal)
+     * @param failure       exception the transaction failed with
+     */
+    public void record(String accountNumber, long amount, TransactionEntity.TransactionType type, Throwable failure) {
+
+        TransactionFailureEntity failureEntity = TransactionFailureEntity.builder()
+                .accountNumber(accountNumber)
+                .amountMinor(amount)
+                .transactionType(type)
+                .reason(reason(failure))
+                .failedAt(OffsetDateTime.now())
+                .build();
+
+        if (!queue().offer(failureEntity)) {
+            dropped.incrementAndGet();
+            logger.warn("Failure log queue is full, failure of account {} not recorded", accountNumber);
+        }
+    }
+
+    int getPendingFailures() {
+        BlockingQueue<TransactionFailureEntity> current = queue;
+        return current == null ? 0 : current.size();
+    }
+
+    private BlockingQueue<TransactionFailureEntity> queue() {
+        BlockingQueue<TransactionFailureEntity> current = queue;
+        if (current == null) {
+            current = start();
+        }
+        return current;
+    }
+
+    /**
+     * The writer thread is started with the first failure.
+     */
+    private synchronized BlockingQueue<TransactionFailureEntity> start() {
+        if (queue == null) {
+            BlockingQueue<TransactionFailureEntity> created = new LinkedBlockingQueue<>(settings.getQueueCapacity());
+
+            writer = new Thread(() -> runWriter(created), "transaction-failures");
+            writer.setDaemon(true);
+            writer.start();
+            queue = created;
+        }
+        return queue;
+    }
+
+    private void runWriter(BlockingQueue<TransactionFailureEntity> pendingQueue) {
+
+        int maxBatchSize = settings.getMaxBatchSize();
+        List<TransactionFailureEntity> batch = new ArrayList<>(maxBatchSize);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(pendingQueue.take());
+                pendingQueue.drainTo(batch, maxBatchSize - 1);
+                write(batch);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // Whatever was enqueued before the shutdown is still written, without the interrupt aborting the writes
+        Thread.interrupted();
+        while (pendingQueue.drainTo(batch, maxBatchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<TransactionFailureEntity> batch) {
+        try {
+            failureRepository.saveAll(batch);
+            logger.debug("Recorded {} failed transactions", batch.size());
+        } catch (RuntimeException writeFailure) {
+            dropped.addAndGet(batch.size());
+            logger.error("Failed to record {} failed transactions", batch.size(), writeFailure);
+        }
+    }
+
+    private static String reason(Throwable failure) {
+        String message = failure.getMessage();
+        String reason = message == null ? failure.getClass().getName() : failure.getClass().getSimpleName() + ": " + message;
+        return reason.length() > TransactionFailureEntity.REASON_LENGTH
+                ? reason.substring(0, TransactionFailureEntity.REASON_LENGTH)
+                : reason;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.sisal.transaction.server.service;
+
+/**
+ * Enforces the maximum number of transactions per minute of an account.
+ *
+ * @see com.sisal.transaction.server.config.RateLimitProperties.RateLimitMode
+ */
+public interface TransactionRateLimiter {
+
+    /**
+     * Takes a permit for one more transaction on the account.
+     *
+     * @param accountId unique account identifier
+     * @param pending   permits already taken by the caller for this account that are not committed yet
+     * @return false if the account reached its limit, no permit is taken in that case
+     */
+    boolean tryAcquire(Long accountId, int pending);
+
+    /**
+     * Hands back a permit taken by {@link #tryAcquire(Long, int)} for a transaction that was rejected or rolled back,
+     * only persisted transactions count against the limit.
+     *
+     * @param accountId unique account identifier
+     * @see RatePermits
+     */
+    void release(Long accountId);
+}
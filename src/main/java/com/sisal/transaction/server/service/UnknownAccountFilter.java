@@ -0,0 +1,252 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.UnknownAccountProperties;
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.util.BloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rejects transactions for unknown account numbers without a database lookup.
+ *
+ * <p>Two in-memory structures answer "this account does not exist":</p>
+ * <ul>
+ *   <li>a {@link BloomFilter} of all existing account numbers, loaded by a background thread once the application
+ *   is ready and kept up to date incrementally: accounts created through this instance are added directly,
+ *   accounts created elsewhere are read at most once per refresh interval, when the filter rejects an account
+ *   number</li>
+ *   <li>a short-lived cache of account numbers that passed the filter (false positives) but were not found
+ *   in the database</li>
+ * </ul>
+ *
+ * <p>Until the filter is loaded no account number is rejected by it, every transaction is looked up in the database.
+ * An account created by another instance is rejected until the next refresh, for at most the refresh interval.
+ * An account number recorded as not found is rejected for up to the miss TTL, even once another instance created it.
+ * For this reason the filter is disabled by default.</p>
+ *
+ * <p>Accounts are never deleted, so the filter only grows. {@link AccountNotFoundException} carries no stack
+ * trace, so a rejection costs a hash lookup and an exception allocation.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *   <li>{@code transaction.accounts.unknown.rejected}: rejections without lookup, tagged
+ *   {@code by=bloom_filter|miss_cache}</li>
+ * </ul>
+ */
+@Component
+public class UnknownAccountFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnknownAccountFilter.class);
+
+    private static final String SELECT_ACCOUNT_NUMBERS = "SELECT account_number FROM transaction_system.accounts";
+
+    private static final String SELECT_ACCOUNT_NUMBERS_CREATED_SINCE = SELECT_ACCOUNT_NUMBERS + " WHERE created_at >= ?";
+
+    private final UnknownAccountProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Long> misses = new ConcurrentHashMap<>();
+    private final AtomicLong nextRefreshNanos = new AtomicLong();
+    private final AtomicLong rejectedByFilter = new AtomicLong();
+    private final AtomicLong rejectedByMissCache = new AtomicLong();
+    private final AtomicBoolean loadStarted = new AtomicBoolean();
+
+    /**
+     * Null until loaded, the check is skipped meanwhile.
+     */
+    private volatile BloomFilter accountNumbers;
+    /**
+     * Filter being loaded, accounts created meanwhile are added to it as well.
+     */
+    private volatile BloomFilter loading;
+    private volatile Instant lastRefreshStart;
+
+    @Autowired
+    public UnknownAccountFilter(UnknownAccountProperties properties, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+
+        FunctionCounter.builder("transaction.accounts.unknown.rejected", rejectedByFilter, AtomicLong::get)
+                .tags("by", "bloom_filter")
+                .description("Unknown account numbers rejected without a database lookup")
+                .register(meterRegistry);
+        FunctionCounter.builder("transaction.accounts.unknown.rejected", rejectedByMissCache, AtomicLong::get)
+                .tags("by", "miss_cache")
+                .description("Unknown account numbers rejected without a database lookup")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws AccountNotFoundException if the account number is known not to exist
+     */
+    public void checkKnown(String accountNumber) {
+
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Long missExpiresAt = misses.get(accountNumber);
+        if (missExpiresAt != null) {
+            if (missExpiresAt - now > 0) {
+                rejectedByMissCache.incrementAndGet();
+                throw notFound(accountNumber);
+            }
+            misses.remove(accountNumber, missExpiresAt);
+        }
+
+        BloomFilter filter = accountNumbers;
+        if (filter == null || filter.mightContain(accountNumber)) {
+            return;
+        }
+        if (refreshIfDue(now) && filter.mightContain(accountNumber)) {
+            return;
+        }
+        rejectedByFilter.incrementAndGet();
+        throw notFound(accountNumber);
+    }
+
+    /**
+     * Remembers an account number the database lookup did not find.
+     */
+    public void recordMiss(String accountNumber) {
+
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (misses.size() >= properties.getMissCacheSize()) {
+            removeExpiredMisses(now);
+            if (misses.size() >= properties.getMissCacheSize()) {
+                return;
+            }
+        }
+        misses.put(accountNumber, now + properties.getMissTtl().toNanos());
+    }
+
+    /**
+     * Adds an account created through this instance, it is accepted right away.
+     */
+    public void recordCreated(String accountNumber) {
+
+        misses.remove(accountNumber);
+        // A load in progress may have read the accounts before this one was committed. The loaded filter is published
+        // before the loading one is cleared, so reading them in this order never misses both. If neither is set yet,
+        // the load reads the accounts after this one was committed.
+        BloomFilter inProgress = loading;
+        BloomFilter loaded = accountNumbers;
+        BloomFilter filter = loaded != null ? loaded : inProgress;
+        if (filter != null) {
+            filter.add(accountNumber);
+        }
+    }
+
+    /**
+     * Loads the filter off the request threads once the application is ready, the full table scan is not paid by
+     * the first request.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+
+        if (!properties.isEnabled() || !loadStarted.compareAndSet(false, true)) {
+            return;
+        }
+        Thread loader = new Thread(this::load, "account-filter-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Whether the filter is loaded, unknown account numbers are only rejected from then on.
+     */
+    public boolean isLoaded() {
+        return accountNumbers != null;
+    }
+
+    /**
+     * Reads all account numbers, a failed load is retried after the refresh interval.
+     */
+    private void load() {
+
+        while (accountNumbers == null) {
+            BloomFilter filter = new BloomFilter(properties.getExpectedAccounts(), properties.getFalsePositiveRate());
+            Instant loadStart = Instant.now();
+            loading = filter;
+            try {
+                jdbcTemplate.query(SELECT_ACCOUNT_NUMBERS, resultSet -> {
+                    filter.add(resultSet.getString(1));
+                });
+            } catch (DataAccessException loadFailure) {
+                logger.warn("Account number filter load failed, retried after the refresh interval", loadFailure);
+                try {
+                    TimeUnit.NANOSECONDS.sleep(properties.getRefreshInterval().toNanos());
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            lastRefreshStart = loadStart;
+            nextRefreshNanos.set(System.nanoTime() + properties.getRefreshInterval().toNanos());
+            accountNumbers = filter;
+            loading = null;
+            logger.info("Account number filter loaded, {} bits and {} hash functions", filter.getBitCount(), filter.getHashCount());
+        }
+    }
+
+    /**
+     * Adds the accounts created since the previous refresh, if the refresh interval has passed.
+     * Only one caller refreshes, the others keep using the filter as it is.
+     *
+     * @return whether this caller refreshed the filter
+     */
+    private boolean refreshIfDue(long now) {
+
+        long due = nextRefreshNanos.get();
+        if (now - due < 0 || !nextRefreshNanos.compareAndSet(due, now + properties.getRefreshInterval().toNanos())) {
+            return false;
+        }
+        Instant refreshStart = Instant.now();
+        Timestamp since = Timestamp.from(lastRefreshStart.minus(properties.getCommitGrace()));
+        BloomFilter filter = accountNumbers;
+        try {
+            jdbcTemplate.query(SELECT_ACCOUNT_NUMBERS_CREATED_SINCE, resultSet -> {
+                filter.add(resultSet.getString(1));
+            }, since);
+        } catch (DataAccessException refreshFailure) {
+            logger.warn("Account number filter refresh failed, retried after the refresh interval", refreshFailure);
+            return false;
+        }
+        lastRefreshStart = refreshStart;
+        return true;
+    }
+
+    private void removeExpiredMisses(long now) {
+        Iterator<Map.Entry<String, Long>> entries = misses.entrySet().iterator();
+        while (entries.hasNext()) {
+            if (entries.next().getValue() - now <= 0) {
+                entries.remove();
+            }
+        }
+    }
+
+    private static AccountNotFoundException notFound(String accountNumber) {
+        return new AccountNotFoundException("Account not found for accountNumber=" + accountNumber);
+    }
+}
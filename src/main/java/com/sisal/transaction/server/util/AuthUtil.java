@@ -3,22 +3,17 @@ package com.sisal.transaction.server.util;
 import com.sisal.transaction.server.config.auth.HmacAuthenticationToken;
 import com.sisal.transaction.server.exception.AuthInvalidTimestampException;
 import com.sisal.transaction.server.exception.AuthTimestampExpiredException;
-import com.sisal.transaction.server.util.filter.CustomRequestWrapper;
-import org.springframework.security.authentication.BadCredentialsException;
 
 import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.security.MessageDigest;
 import java.util.Base64;
-import java.util.stream.Collectors;
+import java.util.List;
 
 public class AuthUtil {
 
+    private static final byte SEPARATOR = ':';
+
     public static void validateTimestamp(String timestampStr, long MAX_TIMESTAMP_DIFF) throws AuthTimestampExpiredException {
         try {
             long timestamp = Long.parseLong(timestampStr);
@@ -39,40 +34,109 @@ public class AuthUtil {
     }
 
     public static String calculateHmac(HmacAuthenticationToken.RequestDetails requestDetails, String secretKey) {
+        return calculateHmac(requestDetails, new HmacEngine(secretKey));
+    }
+
+    public static String calculateHmac(HmacAuthenticationToken.RequestDetails requestDetails, HmacEngine hmacEngine) {
+        return Base64.getEncoder().encodeToString(sign(requestDetails, hmacEngine));
+    }
 
-        String queryString = requestDetails.getQueryString() != null ? requestDetails.getQueryString() : "";
+    /**
+     * Verifies the Base64 encoded signature provided by the client against the request.
+     * <p>
+     * The signatures are compared as raw bytes in constant time.
+     */
+    public static boolean verifyHmac(HmacAuthenticationToken.RequestDetails requestDetails, HmacEngine hmacEngine, String providedHmac) {
 
-        return calculateHmac(requestDetails.getMethod(),
-                requestDetails.getPath(),
-                queryString,
-                requestDetails.getBody(),
-                requestDetails.getTimestamp(),
-                secretKey);
+        byte[] providedBytes;
+        try {
+            providedBytes = Base64.getDecoder().decode(providedHmac);
+        } catch (IllegalArgumentException invalidBase64) {
+            return false;
+        }
+        return MessageDigest.isEqual(providedBytes, sign(requestDetails, hmacEngine));
+    }
+
+    /**
+     * Signature of a segment of a streamed body, see {@link StreamSignatureVerifier}.
+     *
+     * @param previousSignature Base64 signature of the previous segment, the request signature for the first one
+     * @param lines             non-blank lines of the segment, without terminator
+     * @return Base64 signature to send as {@code {"signature":"..."}} line after the segment
+     */
+    public static String calculateStreamSignature(String previousSignature, List<String> lines, HmacEngine hmacEngine) {
+
+        Mac mac = hmacEngine.borrow();
+        try {
+            mac.update(Base64.getDecoder().decode(previousSignature));
+            for (String line : lines) {
+                mac.update(line.getBytes(StandardCharsets.UTF_8));
+                mac.update((byte) '\n');
+            }
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } finally {
+            hmacEngine.release(mac);
+        }
     }
 
     public static String calculateHmac(String method, String path, String queryString, String body, String timestamp, String secretKey) {
+        return calculateHmac(method, path, queryString, body, timestamp, new HmacEngine(secretKey));
+    }
+
+    public static String calculateHmac(String method, String path, String queryString, String body, String timestamp, HmacEngine hmacEngine) {
 
-        // Construct the string to be signed
-        String dataToSign = method + ":" + path + ":" + queryString +
-                ":" + timestamp + ":" + body;
+        HmacAuthenticationToken.RequestDetails requestDetails = new HmacAuthenticationToken.RequestDetails(
+                method, path, queryString, body.getBytes(StandardCharsets.UTF_8), timestamp);
+        return calculateHmac(requestDetails, hmacEngine);
+    }
+
+    private static byte[] sign(HmacAuthenticationToken.RequestDetails requestDetails, HmacEngine hmacEngine) {
 
+        Mac mac = hmacEngine.borrow();
         try {
-            Mac hmac = Mac.getInstance("HmacSHA256");
-            SecretKeySpec keySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-            hmac.init(keySpec);
-            byte[] hmacBytes = hmac.doFinal(dataToSign.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(hmacBytes);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            throw new BadCredentialsException("Authentication failed: HMAC calculation failed", e);
+            return sign(requestDetails, mac);
+        } finally {
+            hmacEngine.release(mac);
         }
     }
 
-    public static String extractRequestBody(CustomRequestWrapper requestWrapper) throws IOException {
-        try (InputStreamReader inputStreamReader = new InputStreamReader(requestWrapper.getInputStream(), StandardCharsets.UTF_8);
-             BufferedReader bufferedReader = new BufferedReader(inputStreamReader)) {
+    /**
+     * Signs {@code method:path:queryString:timestamp:body}.
+     * <p>
+     * The components are fed into the engine one by one, the body as the raw bytes received,
+     * so the signed data is never assembled as a String and re-encoded.
+     * A missing query string is signed as an empty one.
+     */
+    private static byte[] sign(HmacAuthenticationToken.RequestDetails requestDetails, Mac mac) {
 
-            return bufferedReader.lines()
-                    .collect(Collectors.joining());
+        updateUtf8(mac, requestDetails.getMethod());
+        mac.update(SEPARATOR);
+        updateUtf8(mac, requestDetails.getPath());
+        mac.update(SEPARATOR);
+        updateUtf8(mac, requestDetails.getQueryString());
+        mac.update(SEPARATOR);
+        updateUtf8(mac, requestDetails.getTimestamp());
+        mac.update(SEPARATOR);
+        if (requestDetails.getBody() != null) {
+            mac.update(requestDetails.getBody());
+        }
+        return mac.doFinal();
+    }
+
+    /**
+     * Headers and request line are ASCII in practice, those are fed char by char without encoding them first.
+     */
+    private static void updateUtf8(Mac mac, String value) {
+
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                mac.update(value.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            mac.update((byte) value.charAt(i));
         }
     }
 }
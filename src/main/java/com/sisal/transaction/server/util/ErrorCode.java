@@ -5,17 +5,22 @@ public enum ErrorCode {
     RATE_LIMIT_EXCEEDED("TXN_001"),
     INSUFFICIENT_BALANCE("TXN_002"),
     INVALID_TRANSACTION("TXN_003"),
+    CONCURRENT_MODIFICATION("TXN_004"),
     ANNOTATED_SCHEMA_FAILURE("VAL_001"),
     INVALID_REQUEST("VAL_002"),
     INVALID_REQUEST_HEADERS("VAL_003"),
     MISSING_REQUIRED_PARAMETER("VAL_004"),
     UNSUPPORTED_MEDIA_TYPE("VAL_005"),
     MALFORMED_JSON("VAL_006"),
+    PAYLOAD_TOO_LARGE("VAL_007"),
+    IDEMPOTENCY_KEY_REUSED("VAL_008"),
+    IDEMPOTENCY_KEY_IN_PROGRESS("VAL_009"),
     AUTH_GENERIC("AUTH_001"),
     AUTH_MISSING_HEADER("AUTH_002"),
     AUTH_TIMESTAMP_EXPIRED("AUTH_003"),
     AUTH_TIMESTAMP_INVALID("AUTH_004"),
     AUTH_BAD_CREDENTIALS("AUTH_004"),
+    SERVICE_BUSY("SRV_001"),
     UNKOWN_ERROR("XXX_999");
 
 
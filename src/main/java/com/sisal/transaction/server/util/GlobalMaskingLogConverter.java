@@ -2,10 +2,6 @@ package com.sisal.transaction.server.util;
 
 import ch.qos.logback.classic.pattern.ClassicConverter;
 import ch.qos.logback.classic.spi.ILoggingEvent;
-import org.springframework.util.StringUtils;
-
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Advanced log masking implementation for sensitive data protection (PII/PCI compliance).
@@ -22,6 +18,13 @@ import java.util.regex.Pattern;
  * - HMAC signatures in HTTP headers
  * - Account numbers in error messages
  * <p>
+ * Detection (single pass over the message, leftmost match wins):
+ * - {@code "accountNumber": "..."} and {@code "transactionId": "..."}, keys case-insensitive
+ * - {@code X-API-Key: ...} and {@code X-HMAC-Signature: ...} up to the next comma or new line, case-insensitive
+ * - {@code accountNumber=} followed by 10 to 34 upper case letters / digits
+ * <p>
+ * Lines without sensitive data are returned as is, without any copy.
+ * <p>
  * Masking Strategy:
  * - Preserves first {@value #VISIBLE_FRONT} and last {@value #VISIBLE_BACK} characters
  * - Replaces middle characters with {@value #MASK}
@@ -44,26 +47,27 @@ import java.util.regex.Pattern;
  */
 public class GlobalMaskingLogConverter extends ClassicConverter {
 
-    private static final String MASK = "*";
+    private static final char MASK = '*';
     private static final int VISIBLE_FRONT = 4;
     private static final int VISIBLE_BACK = 4;
     private static final int MIN_LENGTH = 3;
 
-    // JSON field patterns (3 groups)
-    private static final Pattern ACCOUNT_NUMBER_PATTERN =
-            Pattern.compile("(?i)(\"accountNumber\"\\s*:\\s*\")([^\"]*)(\")");
-    private static final Pattern TRANSACTION_ID_PATTERN =
-            Pattern.compile("(?i)(\"transactionId\"\\s*:\\s*\")([^\"]*)(\")");
+    // JSON field keys, value enclosed in quotes
+    private static final String[] JSON_KEYS = {"accountNumber", "transactionId"};
+
+    // Header keys, value up to the next comma or new line
+    private static final String[] HEADER_KEYS = {"X-API-Key", "X-HMAC-Signature"};
 
-    // Header patterns (2 groups)
-    private static final Pattern API_KEY_PATTERN =
-            Pattern.compile("(?i)(X-API-Key:?\\s*)([^,\\n]*)");
-    private static final Pattern HMAC_PATTERN =
-            Pattern.compile("(?i)(X-HMAC-Signature:?\\s*)([^,\\n]*)");
+    // Error message key, value of 10 to 34 upper case letters / digits
+    private static final String ERROR_ACCOUNT_KEY = "accountNumber=";
+    private static final int ERROR_ACCOUNT_MIN = 10;
+    private static final int ERROR_ACCOUNT_MAX = 34;
 
-    // Error message pattern (2 groups)
-    private static final Pattern ERROR_ACCOUNT_PATTERN =
-            Pattern.compile("(accountNumber=)([A-Z0-9]{10,34})");
+    // Match results pack the value start (high 32 bits) and end (low 32 bits) offsets
+    private static final long NO_MATCH = -1L;
+
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(512));
 
     @Override
     public String convert(ILoggingEvent event) {
@@ -71,69 +75,184 @@ public class GlobalMaskingLogConverter extends ClassicConverter {
         if (message == null) {
             return null;
         }
+        return mask(message);
+    }
 
-        message = maskPattern(message, ACCOUNT_NUMBER_PATTERN);
-        message = maskPattern(message, TRANSACTION_ID_PATTERN);
-        message = maskPattern(message, API_KEY_PATTERN);
-        message = maskPattern(message, HMAC_PATTERN);
-        message = maskPattern(message, ERROR_ACCOUNT_PATTERN);
+    /**
+     * Masks all sensitive values of the message in one sweep.
+     *
+     * @return the masked message, or the message itself if it holds no sensitive value
+     */
+    public static String mask(String message) {
 
-        return message;
-    }
+        int length = message.length();
+        StringBuilder masked = null;
+        int copied = 0;
+        int i = 0;
 
-    private String maskPattern(String message, Pattern pattern) {
-        Matcher matcher = pattern.matcher(message);
-        StringBuffer sb = new StringBuffer();
+        while (i < length) {
+            char c = message.charAt(i);
+            long match = NO_MATCH;
+            if (c == '"') {
+                match = matchJsonField(message, i);
+            } else if (c == 'X' || c == 'x') {
+                match = matchHeader(message, i);
+            } else if (c == 'a') {
+                match = matchErrorAccount(message, i);
+            }
 
-        while (matcher.find()) {
-            String sensitiveData = matcher.group(2);
-            String maskedValue = maskValue(sensitiveData);
+            if (match == NO_MATCH) {
+                i++;
+                continue;
+            }
 
-            String replacement = matcher.groupCount() == 3
-                    ? matcher.group(1) + maskedValue + matcher.group(3)
-                    : matcher.group(1) + maskedValue;
+            int valueStart = (int) (match >>> 32);
+            int valueEnd = (int) match;
+            if (masked == null) {
+                masked = BUILDER.get();
+                masked.setLength(0);
+            }
+            masked.append(message, copied, valueStart);
+            appendMasked(masked, message, valueStart, valueEnd);
+            copied = valueEnd;
+            // The closing quote of a JSON value is part of the match
+            i = c == '"' ? valueEnd + 1 : valueEnd;
+        }
+
+        if (masked == null) {
+            return message;
+        }
+        masked.append(message, copied, length);
+        String result = masked.toString();
+        if (masked.capacity() > MAX_RETAINED_CAPACITY) {
+            BUILDER.remove();
+        }
+        return result;
+    }
+
+    private static long range(int start, int end) {
+        return ((long) start << 32) | end;
+    }
 
-            matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+    /**
+     * {@code "key" : "value"}, value being anything up to the closing quote.
+     */
+    private static long matchJsonField(String message, int quote) {
+        for (String key : JSON_KEYS) {
+            int keyEnd = quote + 1 + key.length();
+            if (keyEnd < message.length()
+                    && message.regionMatches(true, quote + 1, key, 0, key.length())
+                    && message.charAt(keyEnd) == '"') {
+                int j = skipWhitespace(message, keyEnd + 1);
+                if (j >= message.length() || message.charAt(j) != ':') {
+                    return NO_MATCH;
+                }
+                j = skipWhitespace(message, j + 1);
+                if (j >= message.length() || message.charAt(j) != '"') {
+                    return NO_MATCH;
+                }
+                int closingQuote = message.indexOf('"', j + 1);
+                return closingQuote < 0 ? NO_MATCH : range(j + 1, closingQuote);
+            }
         }
-        matcher.appendTail(sb);
+        return NO_MATCH;
+    }
 
-        return sb.toString();
+    /**
+     * {@code key[:] value}, value being anything up to the next comma or new line.
+     */
+    private static long matchHeader(String message, int start) {
+        for (String key : HEADER_KEYS) {
+            if (message.regionMatches(true, start, key, 0, key.length())) {
+                int j = start + key.length();
+                if (j < message.length() && message.charAt(j) == ':') {
+                    j++;
+                }
+                j = skipWhitespace(message, j);
+                int end = j;
+                while (end < message.length() && message.charAt(end) != ',' && message.charAt(end) != '\n') {
+                    end++;
+                }
+                return range(j, end);
+            }
+        }
+        return NO_MATCH;
     }
 
-    private String maskValue(String value) {
-        if (!StringUtils.hasText(value)) {
-            return value;
+    /**
+     * {@code accountNumber=} followed by an IBAN like value.
+     */
+    private static long matchErrorAccount(String message, int start) {
+        if (!message.startsWith(ERROR_ACCOUNT_KEY, start)) {
+            return NO_MATCH;
         }
+        int valueStart = start + ERROR_ACCOUNT_KEY.length();
+        int end = valueStart;
+        int limit = Math.min(message.length(), valueStart + ERROR_ACCOUNT_MAX);
+        while (end < limit && isUpperAlphanumeric(message.charAt(end))) {
+            end++;
+        }
+        return end - valueStart < ERROR_ACCOUNT_MIN ? NO_MATCH : range(valueStart, end);
+    }
 
-        int length = value.length();
+    private static void appendMasked(StringBuilder masked, String message, int start, int end) {
+
+        int length = end - start;
+        if (!hasText(message, start, end)) {
+            masked.append(message, start, end);
+            return;
+        }
 
         // Handle short values
         if (length < MIN_LENGTH) {
-            return repeatMask(length); // Mask everything if too short
+            appendMask(masked, length); // Mask everything if too short
+            return;
         }
 
         // Handle values shorter than desired visible portions
         if (length <= VISIBLE_FRONT + VISIBLE_BACK) {
             int showChars = length / 2;
-            return value.substring(0, showChars) +
-                    repeatMask(length - showChars);
+            masked.append(message, start, start + showChars);
+            appendMask(masked, length - showChars);
+            return;
         }
 
         // Normal case: enough length for full masking pattern
-        return value.substring(0, VISIBLE_FRONT) +
-                repeatMask(length - VISIBLE_FRONT - VISIBLE_BACK) +
-                value.substring(length - VISIBLE_BACK);
+        masked.append(message, start, start + VISIBLE_FRONT);
+        appendMask(masked, length - VISIBLE_FRONT - VISIBLE_BACK);
+        masked.append(message, end - VISIBLE_BACK, end);
     }
 
+    private static void appendMask(StringBuilder masked, int count) {
+        for (int i = 0; i < count; i++) {
+            masked.append(MASK);
+        }
+    }
 
-    private String repeatMask(int count) {
-        if (count <= 0) {
-            return "";
+    private static boolean hasText(String message, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(message.charAt(i))) {
+                return true;
+            }
         }
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < count; i++) {
-            sb.append(MASK);
+        return false;
+    }
+
+    /**
+     * Same set as the regex {@code \s}.
+     */
+    private static int skipWhitespace(String message, int index) {
+        while (index < message.length()) {
+            char c = message.charAt(index);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\u000B' && c != '\f' && c != '\r') {
+                break;
+            }
+            index++;
         }
-        return sb.toString();
+        return index;
+    }
+
+    private static boolean isUpperAlphanumeric(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
     }
 }
@@ -0,0 +1,68 @@
+package com.sisal.transaction.server.util;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pre-initialized HmacSHA256 engines of one client secret.
+ * <p>
+ * {@link Mac} is not thread-safe, so a request borrows an instance from the pool of the client and hands it back
+ * once signed. A new instance is only created and initialized with the key when the pool is empty, afterwards a
+ * signature only costs {@code update}/{@code doFinal}. Provider lookup and key setup are no longer paid per request.
+ * <p>
+ * The pool is not bound to threads: with a new virtual thread per request, a thread-local engine would be created
+ * for every request. It grows to the peak number of concurrent signatures of the client.
+ * <p>
+ * An engine is bound to one secret, a key change creates a new engine.
+ */
+public final class HmacEngine {
+
+    public static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec keySpec;
+    private final Queue<Mac> pool = new ConcurrentLinkedQueue<>();
+
+    public HmacEngine(String secretKey) {
+        this(secretKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public HmacEngine(byte[] secretKey) {
+        this.keySpec = new SecretKeySpec(secretKey, ALGORITHM);
+    }
+
+    /**
+     * Takes an initialized and reset engine from the pool, it has to be handed back with {@link #release(Mac)}.
+     */
+    public Mac borrow() {
+        Mac mac = pool.poll();
+        return mac != null ? mac : newMac();
+    }
+
+    /**
+     * Hands a borrowed engine back to the pool, reset in case it was left in the middle of a signature.
+     */
+    public void release(Mac mac) {
+        mac.reset();
+        pool.offer(mac);
+    }
+
+    /**
+     * Returns a new engine, not pooled, for a caller keeping it for a whole streamed request.
+     */
+    public Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(keySpec);
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new BadCredentialsException("Authentication failed: HMAC calculation failed", e);
+        }
+    }
+}
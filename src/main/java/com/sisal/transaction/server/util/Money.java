@@ -0,0 +1,57 @@
+package com.sisal.transaction.server.util;
+
+import com.sisal.transaction.server.exception.InvalidAmountException;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money representation of the ledger.
+ * <p>
+ * Balances and amounts are held as a primitive {@code long} count of minor units (cents), scaled by the
+ * exponent of the ledger currency. All ledger math (balance checks and updates) is plain integer arithmetic,
+ * it neither drifts like floating point nor allocates. Decimal values only exist at the API boundary,
+ * where they are converted exactly with {@link #toMinorUnits(double)} and {@link #toDecimal(long)}.
+ */
+public final class Money {
+
+    /**
+     * Currency exponent, number of fraction digits of the ledger currency.
+     */
+    public static final int FRACTION_DIGITS = 2;
+
+    public static final long MINOR_UNITS_PER_UNIT = 100L;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a decimal amount received by the API.
+     *
+     * @param amount decimal amount, as parsed from the request
+     * @return amount in minor units
+     * @throws InvalidAmountException if the amount has more fraction digits than the currency or is out of range
+     */
+    public static long toMinorUnits(double amount) {
+        try {
+            // valueOf uses the shortest decimal representation, i.e. the digits the client sent
+            return BigDecimal.valueOf(amount).movePointRight(FRACTION_DIGITS).longValueExact();
+        } catch (ArithmeticException | NumberFormatException invalidAmount) {
+            throw new InvalidAmountException("Amount " + amount + " cannot be represented with "
+                    + FRACTION_DIGITS + " fraction digits");
+        }
+    }
+
+    /**
+     * Converts minor units to the decimal value rendered by the API.
+     */
+    public static double toDecimal(long minorUnits) {
+        return (double) minorUnits / MINOR_UNITS_PER_UNIT;
+    }
+
+    /**
+     * Whole currency units to minor units, for constants.
+     */
+    public static long ofUnits(long units) {
+        return Math.multiplyExact(units, MINOR_UNITS_PER_UNIT);
+    }
+}
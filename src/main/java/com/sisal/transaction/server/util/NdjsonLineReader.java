@@ -0,0 +1,89 @@
+package com.sisal.transaction.server.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Splits a newline delimited stream into lines, holding at most one line in memory.
+ * <p>
+ * Both {@code \n} and {@code \r\n} terminate a line, the last line does not need a terminator.
+ * Lines longer than the maximum are skipped up to their end and reported as {@link #TOO_LONG},
+ * so one oversized record does not stop the rest of the stream.
+ */
+public final class NdjsonLineReader {
+
+    public static final int END_OF_STREAM = -1;
+    public static final int TOO_LONG = -2;
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final InputStream inputStream;
+    private final byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+    private final byte[] line;
+    private int position;
+    private int limit;
+
+    public NdjsonLineReader(InputStream inputStream, int maxLineLength) {
+        this.inputStream = inputStream;
+        this.line = new byte[maxLineLength];
+    }
+
+    /**
+     * Reads the next line into {@link #line()}.
+     *
+     * @return length of the line without its terminator, {@link #TOO_LONG} or {@link #END_OF_STREAM}
+     */
+    public int next() throws IOException {
+
+        int length = 0;
+        boolean started = false;
+        boolean overflow = false;
+        while (true) {
+            if (position == limit && !fill()) {
+                if (!started) {
+                    return END_OF_STREAM;
+                }
+                return overflow ? TOO_LONG : length;
+            }
+            started = true;
+            byte next = readBuffer[position++];
+            if (next == '\n') {
+                if (overflow) {
+                    return TOO_LONG;
+                }
+                return length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+            }
+            if (length < line.length) {
+                line[length++] = next;
+            } else {
+                overflow = true;
+            }
+        }
+    }
+
+    /**
+     * Line buffer, reused for every line, only the length returned by {@link #next()} is valid.
+     */
+    public byte[] line() {
+        return line;
+    }
+
+    /**
+     * Whether the first {@code length} bytes of the line are all whitespace.
+     */
+    public boolean isBlank(int length) {
+        for (int i = 0; i < length; i++) {
+            if (line[i] != ' ' && line[i] != '\t' && line[i] != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        int read = inputStream.read(readBuffer);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.sisal.transaction.server.util;
+
+import javax.crypto.Mac;
+import java.security.MessageDigest;
+
+/**
+ * Authenticates the body of a streamed request, which the request signature does not cover.
+ * <p>
+ * The body is split into segments by signature lines ({@code {"signature":"<Base64>"}}), each closing the lines
+ * before it. The signature of a segment is HmacSHA256, with the client secret, over the previous signature
+ * (raw bytes, the request signature {@code X-HMAC-SIGNATURE} for the first segment) followed by every non-blank
+ * line of the segment, without its terminator, each followed by {@code \n}. Chaining the signatures binds every
+ * segment to its request and position: segments can neither be altered, reordered nor replayed into another stream.
+ * <p>
+ * Lines are applied only once the signature closing their segment has been verified. The verifier belongs to one
+ * request and holds its own {@link Mac}, it is not thread-safe.
+ *
+ * @see AuthUtil#calculateStreamSignature
+ */
+public final class StreamSignatureVerifier {
+
+    /**
+     * Request attribute the verifier of an authenticated streamed request is stored under.
+     */
+    public static final String REQUEST_ATTRIBUTE = StreamSignatureVerifier.class.getName();
+
+    private static final byte LINE_TERMINATOR = '\n';
+
+    private final Mac mac;
+    private byte[] previousSignature;
+    private boolean segmentBroken;
+
+    /**
+     * @param hmacEngine       engines of the authenticated client
+     * @param requestSignature verified request signature, it opens the first segment
+     */
+    public StreamSignatureVerifier(HmacEngine hmacEngine, byte[] requestSignature) {
+        this.mac = hmacEngine.newMac();
+        this.previousSignature = requestSignature;
+        mac.update(requestSignature);
+    }
+
+    /**
+     * Adds a line of the current segment.
+     */
+    public void update(byte[] line, int length) {
+        mac.update(line, 0, length);
+        mac.update(LINE_TERMINATOR);
+    }
+
+    /**
+     * Marks the current segment as unverifiable, for a line that was not kept whole (oversized).
+     */
+    public void breakSegment() {
+        segmentBroken = true;
+    }
+
+    /**
+     * Verifies the signature closing the current segment, in constant time, and opens the next segment.
+     *
+     * @return whether the lines of the segment are authentic, no further segment verifies after a mismatch
+     */
+    public boolean verify(byte[] signature) {
+
+        byte[] expected = mac.doFinal();
+        boolean valid = !segmentBroken && previousSignature != null && MessageDigest.isEqual(expected, signature);
+        previousSignature = valid ? expected : null;
+        segmentBroken = false;
+        if (valid) {
+            mac.update(expected);
+        }
+        return valid;
+    }
+}
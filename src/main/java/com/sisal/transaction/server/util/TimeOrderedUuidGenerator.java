@@ -0,0 +1,127 @@
+package com.sisal.transaction.server.util;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUID generator, replacing the random (v4) {@code org.hibernate.id.UUIDGenerator}.
+ * <p>
+ * Random keys spread inserts over the whole clustered primary key index, time-ordered keys append them
+ * to its end, which avoids page splits and keeps the index compact.
+ * The order of the UUID bytes that matters depends on the database, see {@link Layout}.
+ * <p>
+ * Every id carries a millisecond timestamp and a 12 bit sequence drawn from one shared clock,
+ * ids of this JVM are therefore strictly increasing. The clock is advanced with a CAS loop, no lock is taken.
+ * When more than 4096 ids are requested within one millisecond the clock runs ahead of the wall clock
+ * until the load drops. The remaining (at least 62) bits are random, which keeps ids of different
+ * server instances unique.
+ * <p>
+ * Usage: {@code @GenericGenerator(name = "...", strategy = "com.sisal.transaction.server.util.TimeOrderedUuidGenerator",
+ * parameters = @Parameter(name = "layout", value = "SQL_SERVER"))}
+ */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+
+    public static final String LAYOUT_PARAMETER = "layout";
+
+    private static final int SEQUENCE_BITS = 12;
+
+    /**
+     * Last issued timestamp (milliseconds) and sequence, shared by all generator instances.
+     */
+    private static final AtomicLong CLOCK = new AtomicLong();
+
+    private Layout layout = Layout.SQL_SERVER;
+
+    public TimeOrderedUuidGenerator() {
+    }
+
+    public TimeOrderedUuidGenerator(Layout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Next id in the layout used for the transaction ids.
+     */
+    public static UUID next() {
+        return Layout.SQL_SERVER.create(tick(), ThreadLocalRandom.current());
+    }
+
+    public UUID generate() {
+        return layout.create(tick(), ThreadLocalRandom.current());
+    }
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        layout = Layout.valueOf(ConfigurationHelper.getString(LAYOUT_PARAMETER, params, Layout.SQL_SERVER.name()));
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return generate();
+    }
+
+    /**
+     * Advances the clock, returns {@code timestamp << 12 | sequence}.
+     */
+    static long tick() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        while (true) {
+            long last = CLOCK.get();
+            long next = now > last ? now : last + 1;
+            if (CLOCK.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Position of the timestamp within the 16 UUID bytes.
+     */
+    public enum Layout {
+        /**
+         * RFC 9562 version 8 (custom) UUID for SQL Server's {@code UNIQUEIDENTIFIER}, which compares
+         * bytes 10-15 first, then 8-9, then the rest. Timestamp in bytes 10-15, sequence in bytes 8-9,
+         * random bytes 0-7. Same principle as {@code NEWSEQUENTIALID()}.
+         */
+        SQL_SERVER {
+            @Override
+            UUID create(long tick, ThreadLocalRandom random) {
+                long timestamp = tick >>> SEQUENCE_BITS;
+                long sequence = tick & SEQUENCE_MASK;
+                long mostSigBits = (random.nextLong() & ~0xF000L) | 0x8000L;
+                long leastSigBits = VARIANT | (sequence << 48) | (timestamp & TIMESTAMP_MASK);
+                return new UUID(mostSigBits, leastSigBits);
+            }
+        },
+        /**
+         * RFC 9562 version 7 UUID, timestamp in the leading 48 bits followed by the sequence,
+         * for databases comparing UUIDs from their first byte (H2, PostgreSQL, binary columns).
+         */
+        UUID_V7 {
+            @Override
+            UUID create(long tick, ThreadLocalRandom random) {
+                long timestamp = tick >>> SEQUENCE_BITS;
+                long sequence = tick & SEQUENCE_MASK;
+                long mostSigBits = ((timestamp & TIMESTAMP_MASK) << 16) | 0x7000L | sequence;
+                long leastSigBits = VARIANT | (random.nextLong() & ~VARIANT_MASK);
+                return new UUID(mostSigBits, leastSigBits);
+            }
+        };
+
+        private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+        private static final long TIMESTAMP_MASK = (1L << 48) - 1;
+        private static final long VARIANT_MASK = 0xC000_0000_0000_0000L;
+        private static final long VARIANT = 0x8000_0000_0000_0000L;
+
+        abstract UUID create(long tick, ThreadLocalRandom random);
+    }
+}
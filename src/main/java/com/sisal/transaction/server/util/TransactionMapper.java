@@ -7,6 +7,8 @@ import com.sisal.transaction.server.model.rest.TransactionResponse;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring")
 public interface TransactionMapper {
 
@@ -16,6 +18,8 @@ public interface TransactionMapper {
     @Mapping(source = "amount", target = "amount")
     TransactionAPIRequest fromRestToAPIRequest(TransactionRequest restRequest);
 
+    List<TransactionAPIRequest> fromRestToAPIRequests(List<TransactionRequest> restRequests);
+
     @Mapping(source = "accountNumber", target = "accountNumber")
     @Mapping(source = "transactionType", target = "transactionType")
     @Mapping(source = "amount", target = "amount")
@@ -0,0 +1,87 @@
+package com.sisal.transaction.server.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of Java 21 from code compiled for an older release.
+ * <p>
+ * The API ({@code Thread.ofVirtual()}, {@code Executors.newThreadPerTaskExecutor}) is resolved by reflection once,
+ * on an older runtime {@link #isSupported()} is false and the factory methods fail fast.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builder.getMethod("name", String.class, long.class);
+            builderFactory = builder.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ClassNotFoundException | NoSuchMethodException olderRuntime) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether the runtime provides virtual threads (Java 21 or later).
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Factory of virtual threads named {@code namePrefix0}, {@code namePrefix1}, ...
+     *
+     * @throws IllegalStateException if the runtime has no virtual threads
+     */
+    public static ThreadFactory newThreadFactory(String namePrefix) {
+        if (!isSupported()) {
+            throw unsupported();
+        }
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (IllegalAccessException | InvocationTargetException reflectionFailure) {
+            throw new IllegalStateException("Could not create the virtual thread factory", reflectionFailure);
+        }
+    }
+
+    /**
+     * Executor starting a new virtual thread for each task, see {@link #newThreadFactory(String)} for the names.
+     *
+     * @throws IllegalStateException if the runtime has no virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        ThreadFactory threadFactory = newThreadFactory(namePrefix);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+        } catch (IllegalAccessException | InvocationTargetException reflectionFailure) {
+            throw new IllegalStateException("Could not create the virtual thread executor", reflectionFailure);
+        }
+    }
+
+    private static IllegalStateException unsupported() {
+        return new IllegalStateException("Virtual threads need Java 21 or later, running on Java "
+                + System.getProperty("java.specification.version"));
+    }
+}
@@ -0,0 +1,211 @@
+package com.sisal.transaction.server.util.audit;
+
+import com.sisal.transaction.server.config.AuditLogProperties;
+import com.sisal.transaction.server.util.filter.CustomRequestWrapper;
+import com.sisal.transaction.server.util.filter.CustomResponseWrapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Audit logger handing entries over to a single consumer thread through a bounded ring buffer.
+ *
+ * <p>The ring holds preallocated {@link AuditEvent} slots. A request thread claims the next sequence,
+ * copies the structured fields into its slot and publishes it. The consumer thread formats the entries
+ * in sequence order and writes them, so decoding, formatting and masking (done by the log encoder)
+ * no longer run on the request thread.</p>
+ *
+ * <p>When the consumer falls behind and the ring is full, the configured
+ * {@link AuditLogProperties.OverflowPolicy} applies: the entry is dropped and counted, or the request
+ * thread waits for a free slot.</p>
+ *
+ * <p>Metrics:</p>
+ * <ul>
+ *   <li>{@code audit.log.events.dropped}: entries discarded because the ring was full</li>
+ *   <li>{@code audit.log.events.pending}: entries waiting to be written</li>
+ * </ul>
+ *
+ * @see AuditLogProperties.AuditLogMode#ASYNC
+ */
+public class AsyncAuditLogger implements AuditLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncAuditLogger.class);
+
+    private static final int IDLE_SPINS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final AuditLogProperties.OverflowPolicy overflowPolicy;
+    private final Consumer<String> sink;
+
+    private final AuditEvent[] events;
+    private final int mask;
+    /**
+     * Sequence published in each slot, a slot is readable once it holds the consumer's next sequence.
+     */
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+    private volatile Thread consumer;
+
+    public AsyncAuditLogger(AuditLogProperties auditLogProperties, MeterRegistry meterRegistry) {
+        this(auditLogProperties.getBufferSize(), auditLogProperties.getOverflowPolicy(), LoggerFactory.getLogger(LOGGER_NAME)::info);
+
+        FunctionCounter.builder("audit.log.events.dropped", dropped, AtomicLong::get)
+                .description("Audit log entries dropped because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("audit.log.events.pending", this, AsyncAuditLogger::getPendingEvents)
+                .description("Audit log entries waiting to be written")
+                .register(meterRegistry);
+    }
+
+    AsyncAuditLogger(int bufferSize, AuditLogProperties.OverflowPolicy overflowPolicy, Consumer<String> sink) {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+        this.overflowPolicy = overflowPolicy;
+        this.sink = sink;
+        this.events = new AuditEvent[capacity];
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            events[i] = new AuditEvent();
+            published.set(i, -1);
+        }
+    }
+
+    @Override
+    public void logRequest(CustomRequestWrapper requestWrapper, String traceId) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            events[index(sequence)].captureRequest(requestWrapper, traceId, System.currentTimeMillis());
+            publish(sequence);
+        }
+    }
+
+    @Override
+    public void logResponse(CustomResponseWrapper responseWrapper, String traceId) {
+        long sequence = claim();
+        if (sequence >= 0) {
+            events[index(sequence)].captureResponse(responseWrapper, traceId, System.currentTimeMillis());
+            publish(sequence);
+        }
+    }
+
+    /**
+     * Number of entries dropped since startup.
+     */
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    public long getPendingEvents() {
+        return claimed.get() - consumed.get();
+    }
+
+    int capacity() {
+        return events.length;
+    }
+
+    /**
+     * Claims the next free slot.
+     *
+     * @return claimed sequence, -1 if the entry has been dropped
+     */
+    private long claim() {
+        if (consumer == null) {
+            start();
+        }
+        while (running) {
+            long sequence = claimed.get();
+            if (sequence - consumed.get() >= events.length) {
+                if (overflowPolicy == AuditLogProperties.OverflowPolicy.DROP) {
+                    dropped.incrementAndGet();
+                    return -1;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            } else if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+        dropped.incrementAndGet();
+        return -1;
+    }
+
+    private void publish(long sequence) {
+        published.lazySet(index(sequence), sequence);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    /**
+     * The consumer thread is started lazily, so no thread is allocated when another audit log mode is active.
+     */
+    private synchronized void start() {
+        if (consumer == null && running) {
+            Thread created = new Thread(this::runConsumer, "audit-log");
+            created.setDaemon(true);
+            created.start();
+            consumer = created;
+            logger.info("Started audit log consumer with buffer size {} and overflow policy {}", events.length, overflowPolicy);
+        }
+    }
+
+    private void runConsumer() {
+
+        StringBuilder message = new StringBuilder(1024);
+        long next = consumed.get();
+        int idle = 0;
+
+        while (true) {
+            int index = index(next);
+            if (published.get(index) == next) {
+                AuditEvent event = events[index];
+                try {
+                    message.setLength(0);
+                    event.format(message);
+                    sink.accept(message.toString());
+                } catch (RuntimeException writeFailure) {
+                    logger.error("Failed to write audit log entry", writeFailure);
+                } finally {
+                    event.clear();
+                }
+                consumed.lazySet(++next);
+                idle = 0;
+            } else if (!running && next == claimed.get()) {
+                return;// Stopped and drained
+            } else if (idle++ < IDLE_SPINS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting entries and writes the ones still in the buffer.
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        running = false;
+        if (consumer != null) {
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
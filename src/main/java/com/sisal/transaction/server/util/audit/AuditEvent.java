@@ -0,0 +1,140 @@
+package com.sisal.transaction.server.util.audit;
+
+import com.sisal.transaction.server.util.filter.CopyBufferPool;
+import com.sisal.transaction.server.util.filter.CustomRequestWrapper;
+import com.sisal.transaction.server.util.filter.CustomResponseWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Structured request / response audit entry.
+ * <p>
+ * Instances are reused: the request thread only copies field references into the event,
+ * formatting and body decoding happen later in {@link #format(StringBuilder)}.
+ * The request body array is shared with the request wrapper, the response copy buffer is
+ * handed over by the response wrapper and given back to the pool by {@link #clear()}.
+ */
+public final class AuditEvent {
+
+    private static final String NO_BODY = "No body";
+
+    private boolean response;
+    private String traceId;
+    private long timestamp;
+    private String method;
+    private String uri;
+    private String apiKey;
+    private String hmacSignature;
+    private String timestampHeader;
+    private String contentType;
+    private int status;
+    private byte[] body;
+    private int bodyLength;
+    private boolean pooledBody;
+
+    void captureRequest(CustomRequestWrapper requestWrapper, String traceId, long timestamp) {
+        this.response = false;
+        this.traceId = traceId;
+        this.timestamp = timestamp;
+        this.method = requestWrapper.getMethod();
+        this.uri = requestWrapper.getRequestURI();
+        this.apiKey = requestWrapper.getHeader("X-API-Key");
+        this.hmacSignature = requestWrapper.getHeader("X-HMAC-Signature");
+        this.timestampHeader = requestWrapper.getHeader("X-Timestamp");
+        this.contentType = requestWrapper.getContentType();
+        this.body = requestWrapper.getBody();
+        this.bodyLength = body.length;
+        this.pooledBody = false;
+    }
+
+    void captureResponse(CustomResponseWrapper responseWrapper, String traceId, long timestamp) {
+        this.response = true;
+        this.traceId = traceId;
+        this.timestamp = timestamp;
+        this.status = responseWrapper.getStatus();
+        this.contentType = responseWrapper.getContentType();
+        this.bodyLength = responseWrapper.getCopyLength();
+        this.body = responseWrapper.detachCopy();
+        this.pooledBody = body != null;
+    }
+
+    /**
+     * Appends the log line, the layout is the one historically written by {@code LoggingFilter}.
+     */
+    void format(StringBuilder message) {
+        if (response) {
+            message.append("Transaction Server Response Log: ")
+                    .append("TraceID: ").append(traceId).append(" | ")
+                    .append("Timestamp: ").append(Instant.ofEpochMilli(timestamp)).append(" | ")
+                    .append("Status: ").append(status).append(" | ")
+                    .append("Content-Type: ").append(contentType).append(" | ")
+                    .append("Request-Body: ");
+            int start = message.length();
+            if (bodyLength == 0) {
+                message.append(NO_BODY);
+            } else {
+                appendSingleLine(message);
+            }
+            trimWhitespace(message, start);
+        } else {
+            message.append("Transaction Server Request Log: ")
+                    .append("TraceID: ").append(traceId).append(" | ")
+                    .append("Timestamp: ").append(Instant.ofEpochMilli(timestamp)).append(" | ")
+                    .append("Method: ").append(method).append(" | ")
+                    .append("URI: ").append(uri).append(" | ")
+                    .append("API-Key: ").append(apiKey).append(" | ")
+                    .append("HMAC-Signature: ").append(hmacSignature).append(" | ")
+                    .append("Timestamp-Header: ").append(timestampHeader).append(" | ")
+                    .append("Content-Type: ").append(contentType).append(" | ")
+                    .append("Request-Body: ");
+            appendSingleLine(message);
+        }
+    }
+
+    /**
+     * Drops all references, giving the response copy buffer back to the pool.
+     */
+    void clear() {
+        if (pooledBody) {
+            CopyBufferPool.release(body);
+        }
+        traceId = null;
+        method = null;
+        uri = null;
+        apiKey = null;
+        hmacSignature = null;
+        timestampHeader = null;
+        contentType = null;
+        body = null;
+        bodyLength = 0;
+        pooledBody = false;
+    }
+
+    /**
+     * Decodes the body, replacing new lines with spaces.
+     */
+    private void appendSingleLine(StringBuilder message) {
+        if (bodyLength == 0) {
+            return;
+        }
+        String decoded = new String(body, 0, bodyLength, StandardCharsets.UTF_8);
+        for (int i = 0; i < decoded.length(); i++) {
+            char c = decoded.charAt(i);
+            message.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+    }
+
+    private static void trimWhitespace(StringBuilder message, int start) {
+        int end = message.length();
+        while (end > start && Character.isWhitespace(message.charAt(end - 1))) {
+            end--;
+        }
+        message.setLength(end);
+        int leading = start;
+        while (leading < end && Character.isWhitespace(message.charAt(leading))) {
+            leading++;
+        }
+        message.delete(start, leading);
+    }
+}
@@ -0,0 +1,24 @@
+package com.sisal.transaction.server.util.audit;
+
+import com.sisal.transaction.server.util.filter.CustomRequestWrapper;
+import com.sisal.transaction.server.util.filter.CustomResponseWrapper;
+
+/**
+ * Writes the request / response audit log entries of {@code LoggingFilter}.
+ *
+ * @see com.sisal.transaction.server.config.AuditLogProperties.AuditLogMode
+ */
+public interface AuditLogger {
+
+    /**
+     * Audit entries keep being written under the filter's logger, so existing logging config still applies.
+     */
+    String LOGGER_NAME = "com.sisal.transaction.server.filter.LoggingFilter";
+
+    void logRequest(CustomRequestWrapper requestWrapper, String traceId);
+
+    /**
+     * Takes over the response copy buffer of the wrapper.
+     */
+    void logResponse(CustomResponseWrapper responseWrapper, String traceId);
+}
@@ -0,0 +1,42 @@
+package com.sisal.transaction.server.util.audit;
+
+import com.sisal.transaction.server.util.filter.CustomRequestWrapper;
+import com.sisal.transaction.server.util.filter.CustomResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Formats and writes the audit log entries on the request thread.
+ *
+ * @see com.sisal.transaction.server.config.AuditLogProperties.AuditLogMode#SYNC
+ */
+public class SyncAuditLogger implements AuditLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(LOGGER_NAME);
+
+    @Override
+    public void logRequest(CustomRequestWrapper requestWrapper, String traceId) {
+        AuditEvent event = new AuditEvent();
+        event.captureRequest(requestWrapper, traceId, System.currentTimeMillis());
+        write(event);
+    }
+
+    @Override
+    public void logResponse(CustomResponseWrapper responseWrapper, String traceId) {
+        AuditEvent event = new AuditEvent();
+        event.captureResponse(responseWrapper, traceId, System.currentTimeMillis());
+        write(event);
+    }
+
+    private void write(AuditEvent event) {
+        try {
+            if (logger.isInfoEnabled()) {
+                StringBuilder message = new StringBuilder(256);
+                event.format(message);
+                logger.info(message.toString());
+            }
+        } finally {
+            event.clear();
+        }
+    }
+}
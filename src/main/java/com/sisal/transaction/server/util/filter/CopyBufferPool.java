@@ -0,0 +1,35 @@
+package com.sisal.transaction.server.util.filter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded pool of byte arrays used to tee the response body for logging.
+ * <p>
+ * Buffers are handed back once the response has been logged, so steady traffic reuses the same arrays
+ * instead of allocating a new copy buffer per request. Buffers grown beyond {@link #MAX_POOLED_SIZE}
+ * by large responses are left to the garbage collector, so the pool never pins more than
+ * {@code POOL_SIZE * MAX_POOLED_SIZE} bytes.
+ */
+public final class CopyBufferPool {
+
+    static final int INITIAL_SIZE = 4 * 1024;
+    static final int MAX_POOLED_SIZE = 64 * 1024;
+    private static final int POOL_SIZE = 256;
+
+    private static final BlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private CopyBufferPool() {
+    }
+
+    static byte[] acquire() {
+        byte[] buffer = POOL.poll();
+        return buffer != null ? buffer : new byte[INITIAL_SIZE];
+    }
+
+    public static void release(byte[] buffer) {
+        if (buffer != null && buffer.length <= MAX_POOLED_SIZE) {
+            POOL.offer(buffer);
+        }
+    }
+}
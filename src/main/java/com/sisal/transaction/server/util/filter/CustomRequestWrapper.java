@@ -1,26 +1,114 @@
 package com.sisal.transaction.server.util.filter;
 
-import org.apache.commons.io.IOUtils;
+import com.sisal.transaction.server.exception.RequestBodyTooLargeException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.util.WebUtils;
 
 import javax.servlet.ReadListener;
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 
+/**
+ * Request wrapper holding the request body in memory, so it can be read multiple times.
+ * <p>
+ * The body is buffered once at the edge of the filter chain ({@code RequestBodyCachingFilter}),
+ * filters further down reuse that buffer through {@link #of(HttpServletRequest)}.
+ * <p>
+ * Streamed requests ({@code application/x-ndjson}) are never buffered, see {@link #streaming(HttpServletRequest)}.
+ */
 public class CustomRequestWrapper extends HttpServletRequestWrapper {
+
+    private static final int CHUNK_SIZE = 8192;
+
     private byte[] body;
+    private final boolean streamed;
 
     public CustomRequestWrapper(HttpServletRequest request) {
         super(request);
+        this.streamed = false;
+        try {
+            body = readBody(request, -1);
+        } catch (IOException ex) {
+            body = new byte[0];
+        }
+    }
+
+    /**
+     * Buffers the body, unless it is bigger than the maximum size.
+     *
+     * @param maxBodySize maximum number of body bytes, negative for no limit
+     * @throws RequestBodyTooLargeException if the body exceeds the maximum size, it is not buffered in that case
+     */
+    public CustomRequestWrapper(HttpServletRequest request, long maxBodySize) {
+        super(request);
+        this.streamed = false;
         try {
-            body = IOUtils.toByteArray(request.getInputStream());
+            body = readBody(request, maxBodySize);
         } catch (IOException ex) {
             body = new byte[0];
         }
     }
 
+    private CustomRequestWrapper(HttpServletRequest request, boolean streamed) {
+        super(request);
+        this.body = new byte[0];
+        this.streamed = streamed;
+    }
+
+    /**
+     * Wrapper passing the body through unread, it is consumed incrementally by the endpoint.
+     * <p>
+     * {@link #getBody()} is empty for such a request, so it is neither part of the HMAC signature nor of the audit log.
+     */
+    public static CustomRequestWrapper streaming(HttpServletRequest request) {
+        return new CustomRequestWrapper(request, true);
+    }
+
+    /**
+     * Returns the wrapper already buffering this request's body, or buffers it now if there is none.
+     */
+    public static CustomRequestWrapper of(HttpServletRequest request) {
+        CustomRequestWrapper cached = WebUtils.getNativeRequest(request, CustomRequestWrapper.class);
+        if (cached != null) {
+            return cached;
+        }
+        return isStreamed(request) ? streaming(request) : new CustomRequestWrapper(request);
+    }
+
+    /**
+     * Whether the request body is a stream of records meant to be processed while it is being uploaded.
+     */
+    public static boolean isStreamed(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException invalidMediaType) {
+            return false;
+        }
+    }
+
+    public boolean isStreamed() {
+        return streamed;
+    }
+
+    /**
+     * Request to be passed down the filter chain.
+     * <p>
+     * A wrapper reused from upstream is already part of the current request,
+     * which is passed on as is to keep the wrappers added in between.
+     */
+    public HttpServletRequest chainRequest(HttpServletRequest current) {
+        return getRequest() == current ? this : current;
+    }
+
     public byte[] getBody() {
         return body;
     }
@@ -30,25 +118,116 @@ public class CustomRequestWrapper extends HttpServletRequestWrapper {
     }
 
     @Override
-    public ServletInputStream getInputStream() {
-        return new ServletInputStream() {
-            ByteArrayInputStream byteArray = new ByteArrayInputStream(body);
+    public ServletInputStream getInputStream() throws IOException {
+        return streamed ? super.getInputStream() : new BodyInputStream(body);
+    }
 
-            public boolean isFinished() {
-                return false;
-            }
+    /**
+     * Reads the body into an array of its exact size when the content length is known,
+     * otherwise in chunks, stopping as soon as the maximum size is exceeded.
+     * The chunks are read straight into a growing array, {@code ByteArrayOutputStream} synchronizes every write.
+     */
+    private static byte[] readBody(HttpServletRequest request, long maxBodySize) throws IOException {
 
-            public boolean isReady() {
-                return true;
+        long contentLength = request.getContentLengthLong();
+        if (maxBodySize >= 0 && contentLength > maxBodySize) {
+            throw tooLarge(maxBodySize);
+        }
+
+        InputStream inputStream = request.getInputStream();
+        if (contentLength == 0) {
+            return new byte[0];
+        }
+        if (contentLength > 0 && contentLength <= Integer.MAX_VALUE) {
+            byte[] content = new byte[(int) contentLength];
+            int offset = 0;
+            int read;
+            while (offset < content.length && (read = inputStream.read(content, offset, content.length - offset)) != -1) {
+                offset += read;
+            }
+            if (offset < content.length) {// Client sent less than announced
+                byte[] truncated = new byte[offset];
+                System.arraycopy(content, 0, truncated, 0, offset);
+                return truncated;
             }
+            return content;
+        }
 
-            public void setReadListener(ReadListener readListener) { //Do nothing
+        byte[] content = new byte[CHUNK_SIZE];
+        int size = 0;
+        int read;
+        while ((read = inputStream.read(content, size, Math.min(CHUNK_SIZE, content.length - size))) != -1) {
+            if (maxBodySize >= 0 && size + read > maxBodySize) {
+                throw tooLarge(maxBodySize);
+            }
+            size += read;
+            if (size == content.length) {
+                content = Arrays.copyOf(content, content.length * 2);
             }
+        }
+        return size == content.length ? content : Arrays.copyOf(content, size);
+    }
+
+    private static RequestBodyTooLargeException tooLarge(long maxBodySize) {
+        return new RequestBodyTooLargeException("Request body exceeds the maximum size of " + maxBodySize + " bytes");
+    }
+
+    /**
+     * Unsynchronized stream over the buffered body, supporting bulk reads.
+     */
+    private static final class BodyInputStream extends ServletInputStream {
+
+        private final byte[] content;
+        private int position;
+
+        private BodyInputStream(byte[] content) {
+            this.content = content;
+        }
 
-            @Override
-            public int read() {
-                return byteArray.read();
+        @Override
+        public boolean isFinished() {
+            return position >= content.length;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) { //Do nothing
+        }
+
+        @Override
+        public int read() {
+            return position < content.length ? content[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int remaining = content.length - position;
+            if (remaining <= 0) {
+                return -1;
             }
-        };
+            int count = Math.min(len, remaining);
+            System.arraycopy(content, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            long count = Math.max(0, Math.min(n, content.length - position));
+            position += (int) count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return content.length - position;
+        }
     }
-}
\ No newline at end of file
+}
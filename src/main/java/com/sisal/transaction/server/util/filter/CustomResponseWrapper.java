@@ -6,18 +6,31 @@ import javax.servlet.http.HttpServletResponseWrapper;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.Charset;
 
 public class CustomResponseWrapper extends HttpServletResponseWrapper {
+    private final boolean copyBody;
     private ServletOutputStream outputStream;
     private PrintWriter writer;
     private ServletOutputStreamWrapper copier;
 
     public CustomResponseWrapper(HttpServletResponse response) {
+        this(response, true);
+    }
+
+    /**
+     * @param copyBody false to pass the body through without keeping a copy, e.g. for streamed responses
+     */
+    public CustomResponseWrapper(HttpServletResponse response, boolean copyBody) {
         super(response);
+        this.copyBody = copyBody;
     }
 
     @Override
     public ServletOutputStream getOutputStream() throws IOException {
+        if (!copyBody) {
+            return super.getOutputStream();
+        }
         if (writer != null) {
             throw new IllegalStateException("getWriter() has already been called on this response.");
         }
@@ -30,6 +43,9 @@ public class CustomResponseWrapper extends HttpServletResponseWrapper {
 
     @Override
     public PrintWriter getWriter() throws IOException {
+        if (!copyBody) {
+            return super.getWriter();
+        }
         if (outputStream != null) {
             throw new IllegalStateException("getOutputStream() has already been called on this response.");
         }
@@ -42,7 +58,9 @@ public class CustomResponseWrapper extends HttpServletResponseWrapper {
 
     @Override
     public void flushBuffer() throws IOException {
-        if (writer != null) {
+        if (!copyBody) {
+            super.flushBuffer();
+        } else if (writer != null) {
             writer.flush();
         } else if (outputStream != null) {
             copier.flush();
@@ -56,4 +74,55 @@ public class CustomResponseWrapper extends HttpServletResponseWrapper {
             return new byte[0];
         }
     }
+
+    public String getContentAsString(Charset charset) {
+        if (copier != null) {
+            flushWriter();
+            return copier.getCopyAsString(charset);
+        } else {
+            return "";
+        }
+    }
+
+    /**
+     * Number of response bytes held in the copy buffer.
+     */
+    public int getCopyLength() {
+        if (copier != null) {
+            flushWriter();
+            return copier.getCopyLength();
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Hands over the copy buffer without copying it, only the first {@link #getCopyLength()} bytes are valid.
+     * The caller becomes responsible for giving it back through {@link CopyBufferPool#release(byte[])}.
+     *
+     * @return copy buffer, null if nothing was written
+     */
+    public byte[] detachCopy() {
+        if (copier != null) {
+            flushWriter();
+            return copier.detachCopy();
+        } else {
+            return null;
+        }
+    }
+
+    private void flushWriter() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Releases the response copy, to be called once the response has been logged.
+     */
+    public void release() {
+        if (copier != null) {
+            copier.release();
+        }
+    }
 }
\ No newline at end of file
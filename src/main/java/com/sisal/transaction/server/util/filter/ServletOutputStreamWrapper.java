@@ -2,19 +2,27 @@ package com.sisal.transaction.server.util.filter;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.WriteListener;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 
+/**
+ * Output stream writing through to the response while keeping a copy of the written bytes.
+ * <p>
+ * The copy goes into a buffer taken from {@link CopyBufferPool}, it is handed back by {@link #release()}.
+ * The stream belongs to a single request, so the copy buffer is not synchronized.
+ */
 public class ServletOutputStreamWrapper extends ServletOutputStream
 {
-    private OutputStream outputStream;
-    private ByteArrayOutputStream copy;
+    private final OutputStream outputStream;
+    private byte[] copy;
+    private int count;
 
     public ServletOutputStreamWrapper(OutputStream outputStream)
     {
         this.outputStream = outputStream;
-        this.copy = new ByteArrayOutputStream();
+        this.copy = CopyBufferPool.acquire();
     }
 
     @Override
@@ -30,15 +38,76 @@ public class ServletOutputStreamWrapper extends ServletOutputStream
 
     public byte[] getCopy()
     {
-        return copy.toByteArray();
+        return copy == null ? new byte[0] : Arrays.copyOf(copy, count);
+    }
+
+    /**
+     * Decodes the copy in place, without the intermediate array of {@link #getCopy()}.
+     */
+    public String getCopyAsString(Charset charset)
+    {
+        return copy == null ? "" : new String(copy, 0, count, charset);
+    }
+
+    public int getCopyLength()
+    {
+        return copy == null ? 0 : count;
+    }
+
+    /**
+     * Hands over the copy buffer, the copy is empty afterwards and further writes are no longer copied.
+     */
+    public byte[] detachCopy()
+    {
+        byte[] buffer = copy;
+        copy = null;
+        count = 0;
+        return buffer;
+    }
+
+    /**
+     * Hands the copy buffer back to the pool, the copy is empty afterwards.
+     */
+    public void release()
+    {
+        byte[] buffer = copy;
+        copy = null;
+        count = 0;
+        CopyBufferPool.release(buffer);
     }
 
     @Override
     public void write(int b) throws IOException
     {
         outputStream.write(b);
-        copy.write(b);
+        if (copy != null) {
+            ensureCapacity(count + 1);
+            copy[count++] = (byte) b;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        outputStream.write(b, off, len);
+        if (copy != null) {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, copy, count, len);
+            count += len;
+        }
+    }
 
+    @Override
+    public void flush() throws IOException
+    {
+        outputStream.flush();
+    }
+
+    private void ensureCapacity(int minCapacity)
+    {
+        if (minCapacity > copy.length) {
+            copy = Arrays.copyOf(copy, Math.max(copy.length << 1, minCapacity));
+        }
     }
 
-}
\ No newline at end of file
+}
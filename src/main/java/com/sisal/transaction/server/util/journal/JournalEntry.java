@@ -0,0 +1,109 @@
+package com.sisal.transaction.server.util.journal;
+
+import com.sisal.transaction.server.model.db.TransactionEntity;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Transaction accepted by the journal, one fixed-size record.
+ *
+ * <p>Payload layout (big endian):</p>
+ * <pre>
+ * sequence(8) | transactionId msb(8) | transactionId lsb(8) | accountId(8) | type(1) | amount(8) | timestamp(8)
+ * </pre>
+ */
+public final class JournalEntry {
+
+    /**
+     * Encoded payload length, without the record header.
+     */
+    static final int PAYLOAD_SIZE = 8 + 8 + 8 + 8 + 1 + 8 + 8;
+
+    private final long sequence;
+    private final UUID transactionId;
+    private final long accountId;
+    private final TransactionEntity.TransactionType type;
+    private final long amount;
+    private final long timestampMillis;
+
+    /**
+     * @param sequence        position of the entry in the journal, assigned by the appender
+     * @param transactionId   id of the transaction row created by the projection
+     * @param accountId       account the transaction is applied on
+     * @param type            type of transaction (deposit/withdrawal)
+     * @param amount          transaction amount, in minor units
+     * @param timestampMillis acceptance time, epoch milliseconds
+     */
+    public JournalEntry(long sequence,
+                        UUID transactionId,
+                        long accountId,
+                        TransactionEntity.TransactionType type,
+                        long amount,
+                        long timestampMillis) {
+        this.sequence = sequence;
+        this.transactionId = transactionId;
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.timestampMillis = timestampMillis;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public UUID getTransactionId() {
+        return transactionId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public TransactionEntity.TransactionType getType() {
+        return type;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Balance change applied by this entry, in minor units.
+     */
+    public long getDelta() {
+        return type == TransactionEntity.TransactionType.DEPOSIT ? amount : -amount;
+    }
+
+    /**
+     * Same entry with the sequence assigned by the appender.
+     */
+    JournalEntry withSequence(long assignedSequence) {
+        return new JournalEntry(assignedSequence, transactionId, accountId, type, amount, timestampMillis);
+    }
+
+    void writeTo(ByteBuffer buffer, int offset) {
+        buffer.putLong(offset, sequence);
+        buffer.putLong(offset + 8, transactionId.getMostSignificantBits());
+        buffer.putLong(offset + 16, transactionId.getLeastSignificantBits());
+        buffer.putLong(offset + 24, accountId);
+        buffer.put(offset + 32, (byte) type.ordinal());
+        buffer.putLong(offset + 33, amount);
+        buffer.putLong(offset + 41, timestampMillis);
+    }
+
+    static JournalEntry readFrom(ByteBuffer buffer, int offset) {
+        return new JournalEntry(
+                buffer.getLong(offset),
+                new UUID(buffer.getLong(offset + 8), buffer.getLong(offset + 16)),
+                buffer.getLong(offset + 24),
+                TransactionEntity.TransactionType.values()[buffer.get(offset + 32)],
+                buffer.getLong(offset + 33),
+                buffer.getLong(offset + 41));
+    }
+}
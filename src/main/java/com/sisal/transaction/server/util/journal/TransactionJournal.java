@@ -0,0 +1,531 @@
+package com.sisal.transaction.server.util.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of accepted transactions, stored in memory-mapped segment files.
+ *
+ * <p>Records are appended to the mapped segment under a short lock and are durable once the segment is forced.
+ * A single forcer thread forces whatever was appended since its previous force, so concurrent appenders
+ * share one {@code msync} (group commit). Callers wait in {@link #awaitDurable(long)} for their position.</p>
+ *
+ * <p>The locks are {@link ReentrantLock}s rather than monitors: a virtual thread waiting on a monitor pins
+ * its carrier thread for the whole force.</p>
+ *
+ * <p>Record layout: {@code length(4) | crc32(4) | payload}, see {@link JournalEntry} for the payload.
+ * A zero length marks the end of the written data, {@code -1} the end of a segment whose remaining space
+ * is too small for the next record.</p>
+ *
+ * <p>Positions are global: {@code segmentIndex * segmentSize + offset}. Segments are named after their index,
+ * segments entirely before the projected position are unmapped and deleted by {@link #release(long)}.</p>
+ *
+ * <p>Opening the journal recovers it: records are scanned in order and the journal is truncated at the first
+ * record that is incomplete or fails its CRC check, which can only be a record that was never reported durable.</p>
+ */
+public class TransactionJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionJournal.class);
+
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = HEADER_SIZE + JournalEntry.PAYLOAD_SIZE;
+
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int PREALLOCATION_CHUNK = 64 * 1024;
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException unavailable) {
+            logger.info("Released journal segments are unmapped by the garbage collector: {}", unavailable.toString());
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition appended = appendLock.newCondition();
+    private final byte[] payload = new byte[JournalEntry.PAYLOAD_SIZE];
+    private final ByteBuffer payloadBuffer = ByteBuffer.wrap(payload);
+    private final CRC32 appendCrc = new CRC32();
+    /**
+     * Guarded by {@link #appendLock}.
+     */
+    private long writePosition;
+    private long nextSequence;
+    private boolean forcerWaiting;
+
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition forced = durableLock.newCondition();
+    private volatile long durablePosition;
+    private volatile RuntimeException failure;
+    private volatile boolean open = true;
+    private final Thread forcer;
+
+    private TransactionJournal(Path directory, int segmentSize, long firstSequence) throws IOException {
+        if (segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal segment size must be at least " + RECORD_SIZE + " bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        Files.createDirectories(directory);
+        recover(firstSequence);
+
+        forcer = new Thread(this::runForcer, "journal-force");
+        forcer.setDaemon(true);
+        forcer.start();
+    }
+
+    /**
+     * Opens (and recovers) the journal stored in the directory, an empty journal is created if there is none.
+     *
+     * @param directory     directory of the segment files
+     * @param segmentSize   size of one segment file in bytes, has to stay the same for an existing journal
+     * @param firstSequence lowest sequence assigned to the next entry, keeps sequences increasing
+     *                      when all entries of the journal have been released
+     */
+    public static TransactionJournal open(Path directory, int segmentSize, long firstSequence) throws IOException {
+        return new TransactionJournal(directory, segmentSize, firstSequence);
+    }
+
+    /**
+     * Appends the entry, the assigned sequence replaces the sequence of the entry.
+     *
+     * @return journal position after the entry, the entry is durable once {@link #awaitDurable(long)} returns for it
+     * @throws IllegalStateException if the journal is closed or failed
+     */
+    public long append(JournalEntry entry) {
+
+        appendLock.lock();
+        try {
+            ensureWritable();
+
+            long index = writePosition / segmentSize;
+            int offset = (int) (writePosition % segmentSize);
+            MappedByteBuffer segment = segments.get(index);
+
+            if (offset + RECORD_SIZE > segmentSize) {
+                if (offset + 4 <= segmentSize) {
+                    segment.putInt(offset, END_OF_SEGMENT);
+                }
+                index++;
+                offset = 0;
+                try {
+                    segment = mapSegment(index);
+                } catch (IOException | RuntimeException segmentFailure) {
+                    throw fail(new IllegalStateException("Could not create journal segment " + index, segmentFailure));
+                }
+            }
+
+            entry.withSequence(nextSequence).writeTo(payloadBuffer, 0);
+            appendCrc.reset();
+            appendCrc.update(payload, 0, payload.length);
+
+            segment.position(offset + HEADER_SIZE);
+            segment.put(payload);
+            segment.putInt(offset + 4, (int) appendCrc.getValue());
+            segment.putInt(offset, JournalEntry.PAYLOAD_SIZE);
+
+            nextSequence++;
+            writePosition = index * segmentSize + offset + RECORD_SIZE;
+            if (forcerWaiting) {
+                appended.signal();
+            }
+            return writePosition;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until everything up to the position has been forced to disk.
+     *
+     * @throws IllegalStateException if the journal failed or got closed before the position became durable
+     */
+    public void awaitDurable(long position) {
+
+        if (durablePosition >= position) {
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durablePosition < position) {
+                if (failure != null) {
+                    throw new IllegalStateException("Transaction journal is unavailable", failure);
+                }
+                if (!open) {
+                    throw new IllegalStateException("Transaction journal is closed");
+                }
+                try {
+                    forced.await();
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting on the journal force", interruptedException);
+                }
+            }
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Reads durable entries in journal order.
+     *
+     * @param position   position to read from, {@link #getFirstPosition()} or a position returned by a previous read
+     * @param maxEntries maximum number of entries added to the list
+     * @param entries    receives the entries read
+     * @return position after the last entry read
+     */
+    public long read(long position, int maxEntries, List<JournalEntry> entries) {
+
+        long limit = durablePosition;
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[JournalEntry.PAYLOAD_SIZE];
+        int read = 0;
+
+        while (read < maxEntries && position < limit) {
+            long index = position / segmentSize;
+            int offset = (int) (position % segmentSize);
+            MappedByteBuffer segment = segments.get(index);
+            if (segment == null) {
+                throw new IllegalStateException("Journal segment " + index + " was already released");
+            }
+            if (offset + RECORD_SIZE > segmentSize || segment.getInt(offset) == END_OF_SEGMENT) {
+                position = (index + 1) * segmentSize;
+                continue;
+            }
+            JournalEntry entry = decode(segment, offset, buffer, crc);
+            if (entry == null) {
+                throw new IllegalStateException("Corrupted journal record at position " + position);
+            }
+            entries.add(entry);
+            read++;
+            position += RECORD_SIZE;
+        }
+        return position;
+    }
+
+    /**
+     * Unmaps and deletes the segments that end before the position, their entries are no longer needed.
+     * <p>
+     * A deleted file keeps its disk space while it is mapped, and a mapping is otherwise only released when its
+     * buffer is garbage collected. The caller must be the only reader of the released segments: touching an
+     * unmapped buffer crashes the JVM. Appends and forces only use segments at or after the durable position.
+     */
+    public void release(long position) {
+
+        long index = position / segmentSize;
+        for (Map.Entry<Long, MappedByteBuffer> segment : segments.headMap(index).entrySet()) {
+            segments.remove(segment.getKey());
+            unmap(segment.getValue());
+            try {
+                Files.deleteIfExists(segmentPath(segment.getKey()));
+            } catch (IOException deleteFailure) {
+                logger.warn("Could not delete journal segment {}", segment.getKey(), deleteFailure);
+            }
+        }
+    }
+
+    /**
+     * Position of the oldest entry still held by the journal.
+     */
+    public long getFirstPosition() {
+        return segments.firstKey() * segmentSize;
+    }
+
+    /**
+     * Position up to which the journal has been forced to disk.
+     */
+    public long getDurablePosition() {
+        return durablePosition;
+    }
+
+    /**
+     * Stops the forcer after forcing the entries appended so far.
+     */
+    @Override
+    public void close() {
+
+        appendLock.lock();
+        try {
+            if (!open) {
+                return;
+            }
+            open = false;
+            appended.signalAll();
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            forcer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        signalDurable();
+    }
+
+    private void runForcer() {
+
+        while (true) {
+            long target;
+            appendLock.lock();
+            try {
+                while (open && writePosition == durablePosition) {
+                    forcerWaiting = true;
+                    appended.await();
+                    forcerWaiting = false;
+                }
+                if (writePosition == durablePosition) {
+                    return;
+                }
+                target = writePosition;
+            } catch (InterruptedException interruptedException) {
+                return;
+            } finally {
+                appendLock.unlock();
+            }
+
+            try {
+                long lastIndex = (target - 1) / segmentSize;
+                for (long index = durablePosition / segmentSize; index <= lastIndex; index++) {
+                    MappedByteBuffer segment = segments.get(index);
+                    if (segment != null) {
+                        segment.force();
+                    }
+                }
+            } catch (RuntimeException forceFailure) {
+                logger.error("Journal force failed, the journal stops accepting transactions", forceFailure);
+                fail(forceFailure);
+                return;
+            }
+
+            durableLock.lock();
+            try {
+                durablePosition = target;
+                forced.signalAll();
+            } finally {
+                durableLock.unlock();
+            }
+        }
+    }
+
+    private RuntimeException fail(RuntimeException cause) {
+        failure = cause;
+        signalDurable();
+        return cause;
+    }
+
+    private void signalDurable() {
+        durableLock.lock();
+        try {
+            forced.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void ensureWritable() {
+        if (failure != null) {
+            throw new IllegalStateException("Transaction journal is unavailable", failure);
+        }
+        if (!open) {
+            throw new IllegalStateException("Transaction journal is closed");
+        }
+    }
+
+    /**
+     * Scans the existing segments and positions the writer after the last valid record.
+     */
+    private void recover(long firstSequence) throws IOException {
+
+        List<Long> indexes = segmentIndexes();
+        if (indexes.isEmpty()) {
+            mapSegment(0);
+            nextSequence = firstSequence;
+            return;
+        }
+
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[JournalEntry.PAYLOAD_SIZE];
+        long lastSequence = 0;
+        int recovered = 0;
+        boolean truncated = false;
+
+        for (int i = 0; i < indexes.size(); i++) {
+            long index = indexes.get(i);
+            if (truncated) {
+                // Appended after the truncation point, never reported durable
+                Files.deleteIfExists(segmentPath(index));
+                logger.warn("Deleted journal segment {} following the truncated record", index);
+                continue;
+            }
+            if (i > 0 && index != indexes.get(i - 1) + 1) {
+                throw new IllegalStateException("Journal segment " + (indexes.get(i - 1) + 1) + " is missing");
+            }
+
+            MappedByteBuffer segment = mapSegment(index);
+            int offset = 0;
+            while (offset + RECORD_SIZE <= segmentSize) {
+                int length = segment.getInt(offset);
+                if (length == END_OF_SEGMENT) {
+                    break;
+                }
+                JournalEntry entry = length == 0 ? null : decode(segment, offset, buffer, crc);
+                if (entry == null || (lastSequence != 0 && entry.getSequence() != lastSequence + 1)) {
+                    if (length != 0) {
+                        logger.warn("Journal truncated at segment {} offset {}: incomplete record", index, offset);
+                        zeroTail(segment, offset);
+                    }
+                    truncated = true;
+                    break;
+                }
+                lastSequence = entry.getSequence();
+                recovered++;
+                offset += RECORD_SIZE;
+            }
+            writePosition = index * segmentSize + offset;
+        }
+
+        for (MappedByteBuffer segment : segments.values()) {
+            segment.force();
+        }
+        durablePosition = writePosition;
+        nextSequence = Math.max(lastSequence + 1, firstSequence);
+        logger.info("Opened journal {} with {} entries in {} segments", directory, recovered, segments.size());
+    }
+
+    /**
+     * Clears the record slots of a torn tail, up to the first slot that was never written.
+     */
+    private void zeroTail(MappedByteBuffer segment, int offset) {
+        for (int slot = offset; slot + RECORD_SIZE <= segmentSize; slot += RECORD_SIZE) {
+            boolean written = false;
+            for (int i = slot; i < slot + RECORD_SIZE; i++) {
+                if (segment.get(i) != 0) {
+                    written = true;
+                    segment.put(i, (byte) 0);
+                }
+            }
+            if (!written) {
+                break;
+            }
+        }
+    }
+
+    private static JournalEntry decode(MappedByteBuffer segment, int offset, byte[] buffer, CRC32 crc) {
+
+        if (segment.getInt(offset) != JournalEntry.PAYLOAD_SIZE) {
+            return null;
+        }
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = segment.get(offset + HEADER_SIZE + i);
+        }
+        crc.reset();
+        crc.update(buffer, 0, buffer.length);
+        if ((int) crc.getValue() != segment.getInt(offset + 4)) {
+            return null;
+        }
+        return JournalEntry.readFrom(ByteBuffer.wrap(buffer), 0);
+    }
+
+    /**
+     * Unmaps the buffer right away through {@code sun.misc.Unsafe.invokeCleaner} (Java 9+), without it the mapping
+     * is left to the garbage collector.
+     */
+    private static void unmap(MappedByteBuffer segment) {
+
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, segment);
+        } catch (IllegalAccessException | InvocationTargetException unmapFailure) {
+            logger.warn("Could not unmap a released journal segment, its mapping is left to the garbage collector", unmapFailure);
+        }
+    }
+
+    private MappedByteBuffer mapSegment(long index) throws IOException {
+
+        Path path = segmentPath(index);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0) {
+                preallocate(channel);
+            } else if (size != segmentSize) {
+                throw new IllegalStateException("Journal segment " + path + " has " + size
+                        + " bytes, the configured segment size is " + segmentSize);
+            }
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segments.put(index, segment);
+            return segment;
+        }
+    }
+
+    /**
+     * Writes the whole file upfront, writing to a sparse mapping crashes the JVM when the disk is full.
+     */
+    private void preallocate(FileChannel channel) throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocate(PREALLOCATION_CHUNK);
+        long position = 0;
+        while (position < segmentSize) {
+            zeros.clear();
+            zeros.limit((int) Math.min(PREALLOCATION_CHUNK, segmentSize - position));
+            position += channel.write(zeros, position);
+        }
+        channel.force(true);
+    }
+
+    private List<Long> segmentIndexes() throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                indexes.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX));
+    }
+}
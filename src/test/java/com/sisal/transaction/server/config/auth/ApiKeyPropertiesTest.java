@@ -0,0 +1,63 @@
+package com.sisal.transaction.server.config.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for the API key index of ApiKeyProperties
+ *
+ * @see ApiKeyProperties
+ */
+class ApiKeyPropertiesTest {
+
+    @Test
+    void whenClientsAreBound_thenRecordsArePrecomputed() {
+        // Given
+        ApiKeyProperties properties = new ApiKeyProperties();
+
+        // When
+        properties.setClients(Arrays.asList(
+                client("AdminClient", "admin-key", "admin-secret", "USER", "ADMIN"),
+                client("UpStreamClient", "upstream-key", "upstream-secret", "USER")));
+
+        // Then
+        ApiKeyProperties.ClientRecord record = properties.getClientRecord("admin-key");
+        assertAll(
+                () -> assertEquals("AdminClient", record.getName()),
+                () -> assertArrayEquals("admin-secret".getBytes(), record.getSecretKey()),
+                () -> assertEquals("ROLE_USER", record.getAuthorities().get(0).getAuthority()),
+                () -> assertEquals("ROLE_ADMIN", record.getAuthorities().get(1).getAuthority()),
+                () -> assertNotNull(record.getHmacEngine()),
+                () -> assertSame(record, properties.getClientRecord("admin-key")),
+                () -> assertNull(properties.getClientRecord("unknown-key")),
+                () -> assertNull(properties.getClientRecord(null))
+        );
+    }
+
+    @Test
+    void whenClientsAreRebound_thenIndexIsReplaced() {
+        // Given
+        ApiKeyProperties properties = new ApiKeyProperties();
+        properties.setClients(Collections.singletonList(client("AdminClient", "admin-key", "admin-secret", "ADMIN")));
+
+        // When
+        properties.setClients(Collections.singletonList(client("AdminClient", "rotated-key", "rotated-secret", "ADMIN")));
+
+        // Then
+        assertNull(properties.getClientRecord("admin-key"));
+        assertArrayEquals("rotated-secret".getBytes(), properties.getClientRecord("rotated-key").getSecretKey());
+    }
+
+    private static ApiKeyProperties.ApiClient client(String name, String apiKey, String secretKey, String... roles) {
+        ApiKeyProperties.ApiClient client = new ApiKeyProperties.ApiClient();
+        client.setName(name);
+        client.setApiKey(apiKey);
+        client.setSecretKey(secretKey);
+        client.setRoles(Arrays.asList(roles));
+        return client;
+    }
+}
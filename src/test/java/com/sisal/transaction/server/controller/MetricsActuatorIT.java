@@ -0,0 +1,49 @@
+package com.sisal.transaction.server.controller;
+
+import com.sisal.transaction.test.config.TestConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test Suite for the meters of this server published by the metrics actuator.
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>The server meters are enabled while the other meters stay disabled ({@code management.metrics.enable.*})</li>
+ * </ul>
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@AutoConfigureMockMvc(addFilters = false)
+class MetricsActuatorIT {
+
+    private static final String PATH = "/actuator/metrics/";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void whenServerMeterRequested_thenPublishedWhileOtherMetersStayDisabled() throws Exception {
+
+        mockMvc.perform(get(PATH + "cache.gets").param("tag", "cache:accounts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("cache.gets"))
+                .andExpect(jsonPath("$.availableTags[?(@.tag == 'result')]").exists());
+
+        mockMvc.perform(get(PATH + "transaction.optimistic.attempts"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(PATH + "jvm.memory.used"))
+                .andExpect(status().isNotFound());
+    }
+}
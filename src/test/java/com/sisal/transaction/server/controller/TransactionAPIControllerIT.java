@@ -3,10 +3,17 @@ package com.sisal.transaction.server.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sisal.transaction.server.model.db.AccountEntity;
 import com.sisal.transaction.server.model.rest.ErrorResponse;
+import com.sisal.transaction.server.model.rest.TransactionBatchItemResult;
+import com.sisal.transaction.server.model.rest.TransactionBatchRequest;
+import com.sisal.transaction.server.model.rest.TransactionBatchResponse;
 import com.sisal.transaction.server.model.rest.TransactionRequest;
 import com.sisal.transaction.server.model.rest.TransactionResponse;
+import com.sisal.transaction.server.repository.AccountRepository;
 import com.sisal.transaction.server.service.AccountApiService;
+import com.sisal.transaction.server.util.AuthUtil;
 import com.sisal.transaction.server.util.ErrorCode;
+import com.sisal.transaction.server.util.HmacEngine;
+import com.sisal.transaction.server.util.StreamSignatureVerifier;
 import com.sisal.transaction.test.config.TestConfig;
 import org.junit.Ignore;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,8 +28,15 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -78,6 +92,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 public class TransactionAPIControllerIT {
 
     private static final String PATH = "/api/transactions";
+    private static final String BATCH_PATH = "/api/transactions/batch";
+    private static final String STREAM_PATH = "/api/transactions/stream";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     @Autowired
     private MockMvc mockMvc;
@@ -87,6 +104,9 @@ public class TransactionAPIControllerIT {
 
     @Autowired
     private AccountApiService accountAPIService;
+
+    @Autowired
+    private AccountRepository accountRepository;
     private AccountEntity randomAccount;
 
     @BeforeEach
@@ -141,6 +161,144 @@ public class TransactionAPIControllerIT {
                 .andExpect(jsonPath("$.transactionId").exists());
     }
 
+    @Test
+    void whenRepeatedWithIdempotencyKey_thenReplayFirstResponse() throws Exception {
+
+        TransactionRequest request = new TransactionRequest()
+                .accountNumber(randomAccount.getAccountNumber())
+                .transactionType(TransactionRequest.TransactionTypeEnum.DEPOSIT)
+                .amount(500.0);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        MvcResult first = mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn();
+
+        MvcResult replay = mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn();
+
+        TransactionResponse firstResponse = objectMapper.readValue(first.getResponse().getContentAsString(), TransactionResponse.class);
+        TransactionResponse replayResponse = objectMapper.readValue(replay.getResponse().getContentAsString(), TransactionResponse.class);
+        assertEquals(firstResponse.getTransactionId(), replayResponse.getTransactionId());
+        assertEquals(600_00L, accountRepository.findByAccountNumber(randomAccount.getAccountNumber()).get().getBalanceMinor());
+    }
+
+    @Test
+    void whenIdempotencyKeyReusedForDifferentRequest_thenThrowValidErrorResponse() throws Exception {
+
+        TransactionRequest request = new TransactionRequest()
+                .accountNumber(randomAccount.getAccountNumber())
+                .transactionType(TransactionRequest.TransactionTypeEnum.DEPOSIT)
+                .amount(500.0);
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                        .content(objectMapper.writeValueAsString(request.amount(700.0))))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorCode").value(ErrorCode.IDEMPOTENCY_KEY_REUSED.getCode()));
+    }
+
+    @Test
+    void whenBatchHasMixedOutcomes_thenReturnPerItemStatusInRequestOrder() throws Exception {
+
+        AccountEntity otherAccount = createTestAccount(100.0);
+        TransactionBatchRequest request = new TransactionBatchRequest()
+                .addTransactionsItem(transaction(randomAccount, TransactionRequest.TransactionTypeEnum.DEPOSIT, 50.0))
+                .addTransactionsItem(transaction(otherAccount, TransactionRequest.TransactionTypeEnum.WITHDRAWAL, 500.0))
+                .addTransactionsItem(new TransactionRequest()
+                        .accountNumber("89123949871234879234897")
+                        .transactionType(TransactionRequest.TransactionTypeEnum.DEPOSIT)
+                        .amount(10.0))
+                .addTransactionsItem(transaction(randomAccount, TransactionRequest.TransactionTypeEnum.WITHDRAWAL, 120.0))
+                .addTransactionsItem(transaction(otherAccount, TransactionRequest.TransactionTypeEnum.DEPOSIT, 25.0));
+
+        MvcResult result = mockMvc.perform(post(BATCH_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        TransactionBatchResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), TransactionBatchResponse.class);
+
+        assertAll(
+                () -> assertEquals(3, response.getCompleted()),
+                () -> assertEquals(2, response.getFailed()),
+                () -> assertEquals(TransactionBatchItemResult.StatusEnum.COMPLETED, response.getResults().get(0).getStatus()),
+                () -> assertEquals(randomAccount.getAccountNumber(), response.getResults().get(0).getTransaction().getAccountNumber()),
+                () -> assertEquals(ErrorCode.INSUFFICIENT_BALANCE.getCode(), response.getResults().get(1).getError().getErrorCode()),
+                () -> assertEquals(HttpStatus.NOT_FOUND.toString(), response.getResults().get(2).getError().getHttpErrorCode()),
+                () -> assertEquals(ErrorCode.ACCOUNT_NOT_FOUND.getCode(), response.getResults().get(2).getError().getErrorCode()),
+                () -> assertEquals(TransactionBatchItemResult.StatusEnum.COMPLETED, response.getResults().get(3).getStatus()),
+                () -> assertEquals(4, response.getResults().get(4).getIndex()),
+                () -> assertEquals(30_00L, accountRepository.findByAccountNumber(randomAccount.getAccountNumber()).get().getBalanceMinor()),
+                () -> assertEquals(125_00L, accountRepository.findByAccountNumber(otherAccount.getAccountNumber()).get().getBalanceMinor())
+        );
+    }
+
+    @Test
+    void whenStreamHasMixedLines_thenReturnOneResultLinePerTransaction() throws Exception {
+
+        List<String> transactionLines = Arrays.asList(
+                objectMapper.writeValueAsString(transaction(randomAccount, TransactionRequest.TransactionTypeEnum.DEPOSIT, 50.0)),
+                "{\"accountNumber\": \"broken\"",
+                objectMapper.writeValueAsString(transaction(randomAccount, TransactionRequest.TransactionTypeEnum.DEPOSIT, 11000.0)),
+                objectMapper.writeValueAsString(transaction(randomAccount, TransactionRequest.TransactionTypeEnum.WITHDRAWAL, 500.0)),
+                objectMapper.writeValueAsString(transaction(randomAccount, TransactionRequest.TransactionTypeEnum.WITHDRAWAL, 120.0)));
+
+        //Filters are disabled, the verifier the authentication filter would attach is set directly
+        HmacEngine hmacEngine = new HmacEngine("stream-secret");
+        byte[] requestSignature = new byte[32];
+        String streamSignature = AuthUtil.calculateStreamSignature(
+                Base64.getEncoder().encodeToString(requestSignature), transactionLines, hmacEngine);
+
+        String ndjsonRequest = transactionLines.get(0) + "\r\n"
+                + "\n"
+                + String.join("\n", transactionLines.subList(1, transactionLines.size())) + "\n"
+                + "{\"signature\":\"" + streamSignature + "\"}";
+
+        MvcResult result = mockMvc.perform(post(STREAM_PATH)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .requestAttr(StreamSignatureVerifier.REQUEST_ATTRIBUTE, new StreamSignatureVerifier(hmacEngine, requestSignature))
+                        .content(ndjsonRequest))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_NDJSON_VALUE))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        List<TransactionBatchItemResult> results = new ArrayList<>();
+        for (String line : lines) {
+            results.add(objectMapper.readValue(line, TransactionBatchItemResult.class));
+        }
+
+        assertAll(
+                () -> assertEquals(5, results.size()),
+                () -> assertEquals(TransactionBatchItemResult.StatusEnum.COMPLETED, results.get(0).getStatus()),
+                () -> assertEquals(ErrorCode.MALFORMED_JSON.getCode(), results.get(1).getError().getErrorCode()),
+                () -> assertEquals(ErrorCode.INVALID_REQUEST.getCode(), results.get(2).getError().getErrorCode()),
+                () -> assertEquals(ErrorCode.INSUFFICIENT_BALANCE.getCode(), results.get(3).getError().getErrorCode()),
+                () -> assertEquals(TransactionBatchItemResult.StatusEnum.COMPLETED, results.get(4).getStatus()),
+                () -> assertEquals(4, results.get(4).getIndex()),
+                () -> assertEquals(30_00L, accountRepository.findByAccountNumber(randomAccount.getAccountNumber()).get().getBalanceMinor())
+        );
+    }
+
     /**
      * ******************
      * Negative Scenarios
@@ -174,6 +332,53 @@ public class TransactionAPIControllerIT {
         );
     }
 
+    @Test
+    void whenAmountHasFractionOfCent_thenThrowValidErrorResponse() throws Exception {
+
+        TransactionRequest request = new TransactionRequest()
+                .accountNumber(randomAccount.getAccountNumber())
+                .transactionType(TransactionRequest.TransactionTypeEnum.DEPOSIT)
+                .amount(10.005);
+
+        MvcResult result = mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        ErrorResponse errorResponse = objectMapper.readValue(
+                result.getResponse().getContentAsString(),
+                ErrorResponse.class
+        );
+
+        assertAll(
+                () -> assertEquals(ErrorCode.INVALID_TRANSACTION.getCode(), errorResponse.getErrorCode()),
+                () -> assertEquals(100_00L, accountRepository.findByAccountNumber(randomAccount.getAccountNumber()).get().getBalanceMinor())
+        );
+    }
+
+    @Test
+    void whenBatchIsEmptyOrHasInvalidItem_thenThrowValidErrorResponse() throws Exception {
+
+        mockMvc.perform(post(BATCH_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new TransactionBatchRequest())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value(ErrorCode.INVALID_REQUEST.getCode()));
+
+        TransactionBatchRequest request = new TransactionBatchRequest()
+                .addTransactionsItem(transaction(randomAccount, TransactionRequest.TransactionTypeEnum.DEPOSIT, 50.0))
+                .addTransactionsItem(transaction(randomAccount, TransactionRequest.TransactionTypeEnum.DEPOSIT, 11000.0));// Exceeds maximum
+
+        mockMvc.perform(post(BATCH_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value(ErrorCode.INVALID_REQUEST.getCode()));
+
+        assertEquals(100_00L, accountRepository.findByAccountNumber(randomAccount.getAccountNumber()).get().getBalanceMinor());
+    }
+
     @Test
     void whenAccountNotFound_thenThrowValidErrorResponse() throws Exception {
 
@@ -289,6 +494,13 @@ public class TransactionAPIControllerIT {
         );
     }
 
+    private static TransactionRequest transaction(AccountEntity account, TransactionRequest.TransactionTypeEnum type, double amount) {
+        return new TransactionRequest()
+                .accountNumber(account.getAccountNumber())
+                .transactionType(type)
+                .amount(amount);
+    }
+
     /**
      * Helper method to create a random test account.
      *
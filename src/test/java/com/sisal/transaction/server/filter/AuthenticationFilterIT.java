@@ -4,10 +4,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sisal.transaction.server.model.api.TransactionAPIRequest;
 import com.sisal.transaction.server.model.api.TransactionAPIResponse;
 import com.sisal.transaction.server.model.rest.ErrorResponse;
+import com.sisal.transaction.server.model.rest.TransactionBatchItemResult;
 import com.sisal.transaction.server.model.rest.TransactionRequest;
 import com.sisal.transaction.server.service.TransactionApiService;
 import com.sisal.transaction.server.util.AuthUtil;
 import com.sisal.transaction.server.util.ErrorCode;
+import com.sisal.transaction.server.util.HmacEngine;
 import com.sisal.transaction.test.config.TestConfig;
 import org.junit.Ignore;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +27,11 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -103,6 +110,7 @@ public class AuthenticationFilterIT {
     private static final String API_KEY_HEADER = "X-API-KEY";
     private static final String TIMESTAMP_HEADER = "X-TIMESTAMP";
     private static final String PATH = "/api/transactions";
+    private static final String STREAM_PATH = "/api/transactions/stream";
 
     @Value("${api.security.clients[0].api-key}")
     private String ADMIN_API_KEY_VALUE;
@@ -110,6 +118,9 @@ public class AuthenticationFilterIT {
     @Value("${api.security.clients[0].secret-key}")
     private String ADMIN_SECRET_VALUE;
 
+    @Value("#{requestBodyProperties.maxSize.toBytes()}")
+    private Long maxBodySize;
+
     private String TIMESTAMP_VALUE;
     private String HMAC_SIGNATURE_VALUE;
 
@@ -136,6 +147,179 @@ public class AuthenticationFilterIT {
                 ADMIN_SECRET_VALUE);
     }
 
+    @Test
+    public void whenBodyContainsNewlines_thenSignatureCoversRawBody() throws Exception {
+
+        // Mock the service call
+        when(transactionApiService.createTransaction(any(TransactionAPIRequest.class)))
+                .thenReturn(new TransactionAPIResponse());
+
+        String jsonRequest = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(new TransactionRequest()
+                .accountNumber("MockAccount")
+                .transactionType(TransactionRequest.TransactionTypeEnum.DEPOSIT)
+                .amount(1000.0));
+        assertTrue(jsonRequest.contains("\n"));
+
+        //Sign the body exactly as sent, including line breaks
+        HMAC_SIGNATURE_VALUE = AuthUtil.calculateHmac(HttpMethod.POST.name(),
+                PATH,
+                null,
+                jsonRequest,
+                TIMESTAMP_VALUE,
+                ADMIN_SECRET_VALUE);
+
+        mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(API_KEY_HEADER, ADMIN_API_KEY_VALUE)
+                        .header(HMAC_HEADER, HMAC_SIGNATURE_VALUE)
+                        .header(TIMESTAMP_HEADER, TIMESTAMP_VALUE)
+                        .content(jsonRequest))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    public void whenBodyExceedsMaxSize_thenRejectBeforeAuthentication() throws Exception {
+
+        char[] padding = new char[maxBodySize.intValue() + 1];
+        Arrays.fill(padding, 'x');
+        String jsonRequest = "{\"accountNumber\":\"" + new String(padding) + "\"}";
+
+        MvcResult result = mockMvc.perform(post(PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(API_KEY_HEADER, ADMIN_API_KEY_VALUE)
+                        .header(HMAC_HEADER, HMAC_SIGNATURE_VALUE)
+                        .header(TIMESTAMP_HEADER, TIMESTAMP_VALUE)
+                        .content(jsonRequest))
+                .andExpect(status().isPayloadTooLarge())
+                .andReturn();
+
+        ErrorResponse errorResponse = objectMapper.readValue(
+                result.getResponse().getContentAsString(),
+                ErrorResponse.class
+        );
+
+        assertAll(
+                () -> assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.toString(), errorResponse.getHttpErrorCode()),
+                () -> assertEquals(ErrorCode.PAYLOAD_TOO_LARGE.getCode(), errorResponse.getErrorCode())
+        );
+    }
+
+    @Test
+    public void whenStreamedBodyExceedsMaxSize_thenPassUnbufferedWithSignatureOverEmptyBody() throws Exception {
+
+        String line = objectMapper.writeValueAsString(new TransactionRequest()
+                .accountNumber("MockAccount")
+                .transactionType(TransactionRequest.TransactionTypeEnum.DEPOSIT)
+                .amount(1000.0));
+        List<String> lines = new ArrayList<>();
+        while ((long) lines.size() * (line.length() + 1) <= maxBodySize) {
+            lines.add(line);
+        }
+
+        //Signed with an empty body, the lines are closed by a signature line
+        HMAC_SIGNATURE_VALUE = AuthUtil.calculateHmac(HttpMethod.POST.name(),
+                STREAM_PATH,
+                null,
+                "",
+                TIMESTAMP_VALUE,
+                ADMIN_SECRET_VALUE);
+
+        MvcResult result = mockMvc.perform(post(STREAM_PATH)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header(API_KEY_HEADER, ADMIN_API_KEY_VALUE)
+                        .header(HMAC_HEADER, HMAC_SIGNATURE_VALUE)
+                        .header(TIMESTAMP_HEADER, TIMESTAMP_VALUE)
+                        .content(signedStream(lines, HMAC_SIGNATURE_VALUE)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        List<TransactionBatchItemResult> results = readResults(result);
+        assertAll(
+                () -> assertEquals(lines.size(), results.size()),
+                () -> assertTrue(results.stream().noneMatch(itemResult -> itemResult.getError() != null
+                        && ErrorCode.AUTH_BAD_CREDENTIALS.getCode().equals(itemResult.getError().getErrorCode())))
+        );
+    }
+
+    @Test
+    public void whenStreamReplayedWithOtherLines_thenNoLineApplied() throws Exception {
+
+        HMAC_SIGNATURE_VALUE = AuthUtil.calculateHmac(HttpMethod.POST.name(),
+                STREAM_PATH,
+                null,
+                "",
+                TIMESTAMP_VALUE,
+                ADMIN_SECRET_VALUE);
+        String signed = objectMapper.writeValueAsString(new TransactionRequest()
+                .accountNumber("MockAccount")
+                .transactionType(TransactionRequest.TransactionTypeEnum.DEPOSIT)
+                .amount(10.0));
+        String captured = signedStream(Collections.singletonList(signed), HMAC_SIGNATURE_VALUE);
+
+        //Captured request headers and signature line, the transaction line replaced
+        String replayed = captured.replace("10.0", "9999.0");
+
+        MvcResult result = mockMvc.perform(post(STREAM_PATH)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header(API_KEY_HEADER, ADMIN_API_KEY_VALUE)
+                        .header(HMAC_HEADER, HMAC_SIGNATURE_VALUE)
+                        .header(TIMESTAMP_HEADER, TIMESTAMP_VALUE)
+                        .content(replayed + replayed))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        List<TransactionBatchItemResult> results = readResults(result);
+        assertAll(
+                () -> assertEquals(1, results.size()),
+                () -> assertEquals(TransactionBatchItemResult.StatusEnum.FAILED, results.get(0).getStatus()),
+                () -> assertEquals(ErrorCode.AUTH_BAD_CREDENTIALS.getCode(), results.get(0).getError().getErrorCode())
+        );
+    }
+
+    @Test
+    public void whenStreamLinesNotClosedBySignature_thenNoLineApplied() throws Exception {
+
+        HMAC_SIGNATURE_VALUE = AuthUtil.calculateHmac(HttpMethod.POST.name(),
+                STREAM_PATH,
+                null,
+                "",
+                TIMESTAMP_VALUE,
+                ADMIN_SECRET_VALUE);
+        String line = objectMapper.writeValueAsString(new TransactionRequest()
+                .accountNumber("MockAccount")
+                .transactionType(TransactionRequest.TransactionTypeEnum.DEPOSIT)
+                .amount(10.0));
+
+        MvcResult result = mockMvc.perform(post(STREAM_PATH)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header(API_KEY_HEADER, ADMIN_API_KEY_VALUE)
+                        .header(HMAC_HEADER, HMAC_SIGNATURE_VALUE)
+                        .header(TIMESTAMP_HEADER, TIMESTAMP_VALUE)
+                        .content(line + "\n" + line + "\n"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        List<TransactionBatchItemResult> results = readResults(result);
+        assertAll(
+                () -> assertEquals(2, results.size()),
+                () -> assertEquals(ErrorCode.AUTH_BAD_CREDENTIALS.getCode(), results.get(0).getError().getErrorCode()),
+                () -> assertEquals(ErrorCode.AUTH_BAD_CREDENTIALS.getCode(), results.get(1).getError().getErrorCode())
+        );
+    }
+
+    private String signedStream(List<String> lines, String requestSignature) {
+        String signature = AuthUtil.calculateStreamSignature(requestSignature, lines, new HmacEngine(ADMIN_SECRET_VALUE));
+        return String.join("\n", lines) + "\n{\"signature\":\"" + signature + "\"}\n";
+    }
+
+    private List<TransactionBatchItemResult> readResults(MvcResult result) throws Exception {
+        List<TransactionBatchItemResult> results = new ArrayList<>();
+        for (String resultLine : result.getResponse().getContentAsString().split("\n")) {
+            results.add(objectMapper.readValue(resultLine, TransactionBatchItemResult.class));
+        }
+        return results;
+    }
+
     @Test
     public void whenValidAuthHeader_thenDontReturnErrorResponse() throws Exception {
 
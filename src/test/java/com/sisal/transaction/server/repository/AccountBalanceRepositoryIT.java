@@ -0,0 +1,146 @@
+package com.sisal.transaction.server.repository;
+
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.service.AccountApiService;
+import com.sisal.transaction.server.service.BalanceRules;
+import com.sisal.transaction.server.service.TransactionApiService;
+import com.sisal.transaction.test.config.TestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test Suite for the conditional balance update of {@link AccountRepository}.
+ *
+ * <p>Verifies that the balance rules enforced by the UPDATE statement on the H2 in-memory database
+ * match the ones of the entity based path:</p>
+ * <ul>
+ *   <li>Deposits are always applied</li>
+ *   <li>Withdrawals cannot exceed the balance</li>
+ *   <li>Existing accounts keep the $100 minimum balance, new accounts are exempt</li>
+ * </ul>
+ *
+ * @see AccountBalanceRepository
+ * @see TransactionApiService#createTransactionWithConditionalUpdate
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class AccountBalanceRepositoryIT {
+
+    @Autowired
+    private TransactionApiService transactionApiService;
+
+    @Autowired
+    private AccountApiService accountApiService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private AccountEntity newAccount;
+    private AccountEntity oldAccount;
+
+    @BeforeEach
+    void setUp() {
+        newAccount = accountApiService.createAccount(null, "Bob", "Builder", "CUN" + Math.random(), 150.0);
+        oldAccount = accountApiService.createAccount(null, "Bob", "Builder", "CUO" + Math.random(), 150.0);
+        jdbcTemplate.update("UPDATE transaction_system.accounts SET created_at = ? WHERE account_id = ?",
+                Timestamp.from(OffsetDateTime.now().minusDays(20).toInstant()), oldAccount.getAccountId());
+    }
+
+    @Test
+    void whenDepositApplied_thenBalanceAndVersionAreUpdated() {
+        // When
+        TransactionEntity transaction = transactionApiService.createTransactionWithConditionalUpdate(
+                oldAccount.getAccountNumber(), 25_50L, TransactionEntity.TransactionType.DEPOSIT);
+
+        // Then
+        AccountEntity updatedAccount = reload(oldAccount);
+        assertAll(
+                () -> assertEquals(175_50L, updatedAccount.getBalanceMinor()),
+                () -> assertEquals(oldAccount.getVersion() + 1, updatedAccount.getVersion()),
+                () -> assertEquals(oldAccount.getAccountId(), transaction.getAccountId()),
+                () -> assertEquals(TransactionEntity.TransactionStatus.COMPLETED, transaction.getStatus()),
+                () -> assertNotNull(transaction.getTransactionId())
+        );
+    }
+
+    @Test
+    void whenWithdrawalKeepsMinimumBalance_thenReturnsNewBalance() {
+        // When
+        AccountBalanceRepository.BalanceUpdate update = withdraw(oldAccount, 50_00L);
+
+        // Then
+        assertEquals(100_00L, update.getBalance());
+        assertEquals(oldAccount.getAccountId(), update.getAccountId());
+    }
+
+    @Test
+    void whenExistingAccountDropsBelowMinimum_thenUpdateIsRejected() {
+        // When/Then
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class, () ->
+                transactionApiService.createTransactionWithConditionalUpdate(
+                        oldAccount.getAccountNumber(), 60_00L, TransactionEntity.TransactionType.WITHDRAWAL));
+
+        assertEquals("Balance cannot drop below $100 for existing accounts", exception.getMessage());
+        assertEquals(150_00L, reload(oldAccount).getBalanceMinor());
+    }
+
+    @Test
+    void whenNewAccountDropsBelowMinimum_thenUpdateIsApplied() {
+        // When
+        transactionApiService.createTransactionWithConditionalUpdate(
+                newAccount.getAccountNumber(), 140_00L, TransactionEntity.TransactionType.WITHDRAWAL);
+
+        // Then
+        assertEquals(10_00L, reload(newAccount).getBalanceMinor());
+    }
+
+    @Test
+    void whenWithdrawalExceedsBalance_thenUpdateIsRejected() {
+        // When/Then
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class, () ->
+                transactionApiService.createTransactionWithConditionalUpdate(
+                        newAccount.getAccountNumber(), 150_01L, TransactionEntity.TransactionType.WITHDRAWAL));
+
+        assertEquals("Insufficient funds", exception.getMessage());
+        assertEquals(150_00L, reload(newAccount).getBalanceMinor());
+    }
+
+    @Test
+    void whenAccountDoesNotExist_thenAccountNotFoundIsThrown() {
+        // When/Then
+        assertThrows(AccountNotFoundException.class, () ->
+                transactionApiService.createTransactionWithConditionalUpdate(
+                        "NONEXISTENT", 10_00L, TransactionEntity.TransactionType.DEPOSIT));
+    }
+
+    private AccountBalanceRepository.BalanceUpdate withdraw(AccountEntity account, long amount) {
+        return transactionTemplate.execute(status -> accountRepository
+                .applyWithdrawal(account.getAccountNumber(), amount, BalanceRules.MINIMUM_BALANCE, OffsetDateTime.now().minusDays(11))
+                .orElseThrow(IllegalStateException::new));
+    }
+
+    private AccountEntity reload(AccountEntity account) {
+        return accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow(IllegalStateException::new);
+    }
+}
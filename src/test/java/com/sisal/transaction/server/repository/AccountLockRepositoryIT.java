@@ -0,0 +1,175 @@
+package com.sisal.transaction.server.repository;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.service.AccountApiService;
+import com.sisal.transaction.server.service.TransactionApiService;
+import com.sisal.transaction.test.config.TestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test Suite for the PESSIMISTIC balance update against the H2 in-memory database.
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Concurrent transactions on one account queue on the row lock and are all applied</li>
+ *   <li>A writer waiting longer than the lock timeout fails instead of waiting indefinitely</li>
+ *   <li>The lock timeout does not stay set on the pooled connection</li>
+ * </ul>
+ *
+ * @see AccountLockRepository
+ * @see TransactionApiService#createTransactionWithAccountLock
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class AccountLockRepositoryIT {
+
+    @Autowired
+    private TransactionApiService transactionApiService;
+
+    @Autowired
+    private AccountApiService accountApiService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionEngineProperties engineProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private AccountEntity account;
+
+    @BeforeEach
+    void setUp() {
+        account = accountApiService.createAccount(null, "Bob", "Builder", "PLK" + Math.random(), 100.0);
+    }
+
+    @Test
+    void whenConcurrentTransactionsOnOneAccount_thenAllAppliedInTurn() throws Exception {
+        // Given
+        int writers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TransactionEntity>> results = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return transactionApiService.createTransactionWithAccountLock(
+                            account.getAccountNumber(), 10_00L, TransactionEntity.TransactionType.DEPOSIT);
+                }));
+            }
+            start.countDown();
+            for (Future<TransactionEntity> result : results) {
+                assertEquals(TransactionEntity.TransactionStatus.COMPLETED, result.get(10, TimeUnit.SECONDS).getStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        AccountEntity stored = reload();
+        assertAll(
+                () -> assertEquals(140_00L, stored.getBalanceMinor()),
+                () -> assertEquals(account.getVersion() + writers, stored.getVersion())
+        );
+    }
+
+    @Test
+    void whenLockHeldLongerThanTimeout_thenWaitingWriterFails() throws Exception {
+        // Given
+        Duration lockTimeout = engineProperties.getPessimistic().getLockTimeout();
+        engineProperties.getPessimistic().setLockTimeout(Duration.ofSeconds(1));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            Future<?> holder = executor.submit(() -> transactionTemplate.execute(status -> {
+                accountRepository.findByAccountNumberForUpdate(account.getAccountNumber(), Duration.ofSeconds(1));
+                locked.countDown();
+                await(release);
+                return null;
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            // When
+            long started = System.nanoTime();
+            RuntimeException failure = assertThrows(RuntimeException.class, () -> transactionApiService.createTransactionWithAccountLock(
+                    account.getAccountNumber(), 10_00L, TransactionEntity.TransactionType.DEPOSIT));
+
+            // Then, H2 reports a lock timeout as SQLTimeoutException: the pool discards the connection and the rollback fails
+            Throwable lockFailure = failure instanceof TransactionSystemException
+                    ? ((TransactionSystemException) failure).getApplicationException()
+                    : failure;
+            assertInstanceOf(PessimisticLockingFailureException.class, lockFailure);
+            assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            engineProperties.getPessimistic().setLockTimeout(lockTimeout);
+        }
+        assertEquals(100_00L, reload().getBalanceMinor());
+    }
+
+    @Test
+    void whenAccountLocked_thenSessionLockTimeoutRestored() {
+        // When
+        int[] sessionTimeouts = transactionTemplate.execute(status -> {
+            int before = sessionLockTimeout();
+            accountRepository.findByAccountNumberForUpdate(account.getAccountNumber(), Duration.ofMillis(1234));
+            return new int[]{before, sessionLockTimeout()};
+        });
+
+        // Then
+        assertNotEquals(1234, sessionTimeouts[0]);
+        assertEquals(sessionTimeouts[0], sessionTimeouts[1]);
+    }
+
+    private int sessionLockTimeout() {
+        return jdbcTemplate.queryForObject("CALL LOCK_TIMEOUT()", Integer.class);
+    }
+
+    private AccountEntity reload() {
+        return accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow(IllegalStateException::new);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
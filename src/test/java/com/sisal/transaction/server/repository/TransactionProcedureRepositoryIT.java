@@ -0,0 +1,215 @@
+package com.sisal.transaction.server.repository;
+
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.service.AccountApiService;
+import com.sisal.transaction.server.service.BalanceRules;
+import com.sisal.transaction.server.service.TransactionApiService;
+import com.sisal.transaction.server.service.TransactionBatchWriter;
+import com.sisal.transaction.server.util.TimeOrderedUuidGenerator;
+import com.sisal.transaction.test.config.TestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test Suite for the STORED_PROCEDURE balance update against the H2 in-memory database,
+ * where the procedure is the Java function {@link H2TransactionProcedure}.
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>The transaction record and the balance update are written by one call</li>
+ *   <li>The stored transaction is found by the id returned to the caller</li>
+ *   <li>Concurrent calls on one account are all applied</li>
+ *   <li>Balance rules and unknown accounts are rejected without writing anything</li>
+ *   <li>The rate limit counts the transactions of the last minute</li>
+ * </ul>
+ *
+ * @see TransactionProcedureRepository
+ * @see TransactionApiService#createTransactionWithStoredProcedure
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class TransactionProcedureRepositoryIT {
+
+    @Autowired
+    private TransactionApiService transactionApiService;
+
+    @Autowired
+    private AccountApiService accountApiService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private AccountEntity account;
+
+    @BeforeEach
+    void setUp() {
+        account = accountApiService.createAccount(null, "Bob", "Builder", "PRC" + Math.random(), 100.0);
+    }
+
+    @Test
+    void whenDeposit_thenTransactionAndBalanceWrittenTogether() {
+        // When
+        TransactionEntity transaction = transactionApiService.createTransactionWithStoredProcedure(
+                account.getAccountNumber(), 25_00L, TransactionEntity.TransactionType.DEPOSIT);
+
+        // Then
+        AccountEntity stored = reload();
+        Map<String, Object> storedTransaction = jdbcTemplate.queryForMap(
+                "SELECT amount_minor, transaction_type, status FROM transaction_system.transactions WHERE account_id = ?",
+                account.getAccountId());
+        assertAll(
+                () -> assertEquals(TransactionEntity.TransactionStatus.COMPLETED, transaction.getStatus()),
+                () -> assertEquals(account.getAccountId(), transaction.getAccountId()),
+                () -> assertEquals(25_00L, ((Number) storedTransaction.get("amount_minor")).longValue()),
+                () -> assertEquals("DEPOSIT", storedTransaction.get("transaction_type")),
+                () -> assertEquals("COMPLETED", storedTransaction.get("status")),
+                () -> assertEquals(125_00L, stored.getBalanceMinor()),
+                () -> assertEquals(account.getVersion() + 1, stored.getVersion())
+        );
+    }
+
+    @Test
+    void whenDeposit_thenStoredUnderReturnedId() {
+        // When
+        TransactionEntity transaction = transactionApiService.createTransactionWithStoredProcedure(
+                account.getAccountNumber(), 25_00L, TransactionEntity.TransactionType.DEPOSIT);
+
+        // Then
+        // The H2 schema pads the binary id column, the first 16 bytes are the id
+        byte[] storedId = jdbcTemplate.queryForObject(
+                "SELECT transaction_id FROM transaction_system.transactions WHERE account_id = ?",
+                byte[].class, account.getAccountId());
+        List<UUID> readBack = transactionRepository.findAll().stream()
+                .filter(stored -> account.getAccountId().equals(stored.getAccountId()))
+                .map(TransactionEntity::getTransactionId)
+                .collect(Collectors.toList());
+        assertAll(
+                () -> assertArrayEquals(TransactionBatchWriter.toBytes(transaction.getTransactionId()),
+                        Arrays.copyOf(storedId, 16)),
+                () -> assertEquals(Collections.singletonList(transaction.getTransactionId()), readBack)
+        );
+    }
+
+    @Test
+    void whenConcurrentCallsOnOneAccount_thenAllApplied() throws Exception {
+        // Given
+        int writers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TransactionEntity>> results = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return transactionApiService.createTransactionWithStoredProcedure(
+                            account.getAccountNumber(), 10_00L, TransactionEntity.TransactionType.DEPOSIT);
+                }));
+            }
+            start.countDown();
+            for (Future<TransactionEntity> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertAll(
+                () -> assertEquals(140_00L, reload().getBalanceMinor()),
+                () -> assertEquals(writers, countTransactions())
+        );
+    }
+
+    @Test
+    void whenWithdrawalBreaksMinimumBalanceOfExistingAccount_thenRejectedWithoutWrites() {
+        // Given
+        jdbcTemplate.update("UPDATE transaction_system.accounts SET created_at = ? WHERE account_id = ?",
+                Timestamp.from(OffsetDateTime.now().minusDays(30).toInstant()), account.getAccountId());
+
+        // When
+        InsufficientBalanceException rejected = assertThrows(InsufficientBalanceException.class, () ->
+                transactionApiService.createTransactionWithStoredProcedure(
+                        account.getAccountNumber(), 50_00L, TransactionEntity.TransactionType.WITHDRAWAL));
+
+        // Then
+        assertAll(
+                () -> assertEquals("Balance cannot drop below $100 for existing accounts", rejected.getMessage()),
+                () -> assertEquals(100_00L, reload().getBalanceMinor()),
+                () -> assertEquals(0, countTransactions())
+        );
+    }
+
+    @Test
+    void whenAccountUnknown_thenNotFound() {
+        assertThrows(AccountNotFoundException.class, () -> transactionApiService.createTransactionWithStoredProcedure(
+                "UNKNOWN" + Math.random(), 10_00L, TransactionEntity.TransactionType.DEPOSIT));
+    }
+
+    @Test
+    void whenRateLimitReached_thenRateLimited() {
+        // Given
+        OffsetDateTime now = OffsetDateTime.now();
+        assertEquals(TransactionProcedureRepository.Outcome.COMPLETED, call(now, 2).getOutcome());
+        assertEquals(TransactionProcedureRepository.Outcome.COMPLETED, call(now, 2).getOutcome());
+
+        // When
+        TransactionProcedureRepository.ProcedureResult result = call(now, 2);
+
+        // Then
+        assertAll(
+                () -> assertEquals(TransactionProcedureRepository.Outcome.RATE_LIMITED, result.getOutcome()),
+                () -> assertEquals(account.getAccountId(), result.getAccountId()),
+                () -> assertEquals(2, countTransactions()),
+                () -> assertEquals(TransactionProcedureRepository.Outcome.COMPLETED, call(now.plusMinutes(2), 2).getOutcome())
+        );
+    }
+
+    private TransactionProcedureRepository.ProcedureResult call(OffsetDateTime now, int maxPerMinute) {
+        return transactionRepository.createTransactionByProcedure(TimeOrderedUuidGenerator.next(),
+                account.getAccountNumber(), 1_00L, TransactionEntity.TransactionType.DEPOSIT, now, maxPerMinute,
+                BalanceRules.MINIMUM_BALANCE, BalanceRules.newAccountCutoff(now));
+    }
+
+    private int countTransactions() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_system.transactions WHERE account_id = ?",
+                Integer.class, account.getAccountId());
+    }
+
+    private AccountEntity reload() {
+        return accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow(IllegalStateException::new);
+    }
+}
@@ -0,0 +1,146 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for AccountLaneExecutor
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Tasks of the same account never overlap</li>
+ *   <li>Tasks of accounts on different lanes run in parallel</li>
+ *   <li>Business exceptions reach the caller untouched</li>
+ * </ul>
+ *
+ * @see AccountLaneExecutor
+ */
+class AccountLaneExecutorTest {
+
+    private static final String ACCOUNT_NUMBER = "TEST1K60161331926819";
+
+    private AccountLaneExecutor laneExecutor;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        TransactionEngineProperties engineProperties = new TransactionEngineProperties();
+        engineProperties.setExecution(TransactionEngineProperties.ExecutionMode.ACCOUNT_LANES);
+        engineProperties.setLanes(4);
+
+        laneExecutor = new AccountLaneExecutor(engineProperties);
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        laneExecutor.shutdown();
+    }
+
+    @Test
+    void whenSameAccountIsHitConcurrently_thenTasksAreSerialized() throws Exception {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            results.add(callers.submit(() -> laneExecutor.execute(ACCOUNT_NUMBER, () -> {
+                int current = running.incrementAndGet();
+                maxRunning.accumulateAndGet(current, Math::max);
+                sleep(1);
+                running.decrementAndGet();
+                return current;
+            })));
+        }
+        for (Future<Integer> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+
+        // Then
+        assertEquals(1, maxRunning.get(), "Only one task per account should run at a time");
+    }
+
+    @Test
+    void whenAccountsMapToDifferentLanes_thenTasksRunInParallel() throws Exception {
+        // Given two accounts owned by different lanes
+        String firstAccount = ACCOUNT_NUMBER;
+        String secondAccount = findAccountOnOtherLane(firstAccount);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        // When each task waits for the other one to start
+        Future<Boolean> first = callers.submit(() -> laneExecutor.execute(firstAccount, () -> await(bothStarted)));
+        Future<Boolean> second = callers.submit(() -> laneExecutor.execute(secondAccount, () -> await(bothStarted)));
+
+        // Then
+        assertAll(
+                () -> assertTrue(first.get(10, TimeUnit.SECONDS)),
+                () -> assertTrue(second.get(10, TimeUnit.SECONDS))
+        );
+    }
+
+    @Test
+    void whenTaskThrowsBusinessException_thenCallerReceivesSameException() {
+
+        InsufficientBalanceException thrown = assertThrows(InsufficientBalanceException.class, () ->
+                laneExecutor.execute(ACCOUNT_NUMBER, () -> {
+                    throw new InsufficientBalanceException("Insufficient funds");
+                })
+        );
+
+        assertEquals("Insufficient funds", thrown.getMessage());
+    }
+
+    @Test
+    void whenTaskIsNestedOnSameLane_thenItRunsInline() {
+
+        String result = laneExecutor.execute(ACCOUNT_NUMBER,
+                () -> laneExecutor.execute(ACCOUNT_NUMBER, () -> Thread.currentThread().getName()));
+
+        assertTrue(result.startsWith("account-lane-"));
+    }
+
+    private String findAccountOnOtherLane(String accountNumber) {
+        int lane = laneExecutor.laneIndex(accountNumber, 4);
+        for (int i = 0; ; i++) {
+            String candidate = "GB29NWBK" + i;
+            if (laneExecutor.laneIndex(candidate, 4) != lane) {
+                return candidate;
+            }
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
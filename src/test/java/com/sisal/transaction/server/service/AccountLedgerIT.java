@@ -0,0 +1,146 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.AccountSnapshotEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.repository.AccountRepository;
+import com.sisal.transaction.server.repository.AccountSnapshotRepository;
+import com.sisal.transaction.test.config.TestConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test Suite for the EVENT_SOURCED balance update mode against the H2 in-memory database.
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Balance rebuilt from the latest snapshot and the events after it</li>
+ *   <li>Balance rules enforced against the rebuilt balance, rejected transactions append nothing</li>
+ *   <li>Concurrent appends on one account get distinct, gapless sequences</li>
+ * </ul>
+ *
+ * @see AccountLedger
+ * @see TestConfig
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class AccountLedgerIT {
+
+    private static final int SNAPSHOT_INTERVAL = 3;
+
+    @Autowired
+    private TransactionEngineProperties engineProperties;
+
+    @Autowired
+    private AccountLedger accountLedger;
+
+    @Autowired
+    private AccountApiService accountApiService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountSnapshotRepository snapshotRepository;
+
+    private AccountEntity account;
+
+    @BeforeEach
+    void setUp() {
+        engineProperties.getLedger().setSnapshotInterval(SNAPSHOT_INTERVAL);
+        engineProperties.getLedger().setAppendAttempts(5);
+        account = accountApiService.createAccount(null, "Bob", "Builder", "LDG" + Math.random(), 100.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engineProperties.getLedger().setSnapshotInterval(100);
+        engineProperties.getLedger().setAppendAttempts(3);
+    }
+
+    @Test
+    void whenEventsAppended_thenBalanceRebuiltFromSnapshotAndTail() {
+        // When
+        for (int i = 0; i < 4; i++) {
+            accountLedger.append(account.getAccountNumber(), 10_00L, TransactionEntity.TransactionType.DEPOSIT);
+        }
+
+        // Then
+        AccountSnapshotEntity snapshot = snapshotRepository
+                .findFirstByAccountIdOrderByAccountSequenceDesc(account.getAccountId())
+                .orElseThrow(IllegalStateException::new);
+        assertAll(
+                () -> assertEquals(140_00L, accountLedger.getBalance(account.getAccountNumber())),
+                () -> assertEquals(SNAPSHOT_INTERVAL, snapshot.getAccountSequence()),
+                () -> assertEquals(130_00L, snapshot.getBalanceMinor()),
+                // Opening balance, the ledger only appends
+                () -> assertEquals(100_00L, reloadBalanceColumn())
+        );
+    }
+
+    @Test
+    void whenWithdrawalExceedsRebuiltBalance_thenRejectedWithoutEvent() {
+        // Given
+        TransactionEntity deposit = accountLedger.append(account.getAccountNumber(), 20_00L, TransactionEntity.TransactionType.DEPOSIT);
+
+        // When
+        assertThrows(InsufficientBalanceException.class, () ->
+                accountLedger.append(account.getAccountNumber(), 120_01L, TransactionEntity.TransactionType.WITHDRAWAL));
+        TransactionEntity withdrawal = accountLedger.append(account.getAccountNumber(), 120_00L, TransactionEntity.TransactionType.WITHDRAWAL);
+
+        // Then
+        assertEquals(1L, deposit.getAccountSequence());
+        assertEquals(2L, withdrawal.getAccountSequence());
+        assertEquals(0L, accountLedger.getBalance(account.getAccountNumber()));
+    }
+
+    @Test
+    void whenConcurrentAppends_thenSequencesAreDistinct() throws Exception {
+        // Given
+        int writers = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Callable<TransactionEntity>> appends = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            appends.add(() -> accountLedger.append(account.getAccountNumber(), 1_00L, TransactionEntity.TransactionType.DEPOSIT));
+        }
+
+        // When
+        List<Long> sequences = new ArrayList<>();
+        try {
+            for (Future<TransactionEntity> append : executor.invokeAll(appends)) {
+                sequences.add(append.get().getAccountSequence());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(writers, sequences.stream().distinct().count());
+        assertEquals(writers, sequences.stream().max(Long::compare).orElse(0L));
+        assertEquals(105_00L, accountLedger.getBalance(account.getAccountNumber()));
+        assertEquals(1, snapshotRepository.findAll().stream()
+                .filter(snapshot -> snapshot.getAccountId().equals(account.getAccountId()))
+                .count());
+    }
+
+    private long reloadBalanceColumn() {
+        return accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow(IllegalStateException::new).getBalanceMinor();
+    }
+}
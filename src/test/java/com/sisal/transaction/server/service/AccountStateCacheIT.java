@@ -0,0 +1,137 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.repository.AccountRepository;
+import com.sisal.transaction.test.config.TestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test Suite for the cached OPTIMISTIC balance update against the H2 in-memory database.
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Committed balances are written through to the cache</li>
+ *   <li>A change by another writer fails the versioned update, which is retried on the reloaded account</li>
+ *   <li>A rejection based on a stale cached balance is re-checked against the database</li>
+ * </ul>
+ *
+ * @see AccountStateCache
+ * @see TransactionApiService#createTransactionWithCachedAccount
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class AccountStateCacheIT {
+
+    @Autowired
+    private TransactionApiService transactionApiService;
+
+    @Autowired
+    private AccountApiService accountApiService;
+
+    @Autowired
+    private AccountStateCache accountStateCache;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionEngineProperties engineProperties;
+
+    private AccountEntity account;
+
+    @BeforeEach
+    void setUp() {
+        account = accountApiService.createAccount(null, "Bob", "Builder", "CAC" + Math.random(), 100.0);
+    }
+
+    @Test
+    void whenTransactionCommitted_thenCachedStateWrittenThrough() {
+        // When
+        deposit(25_00L);
+
+        // Then
+        AccountStateCache.AccountState cached = accountStateCache.get(account.getAccountNumber());
+        AccountEntity stored = reload();
+        assertAll(
+                () -> assertEquals(125_00L, cached.getBalance()),
+                () -> assertEquals(stored.getBalanceMinor(), cached.getBalance()),
+                () -> assertEquals(stored.getVersion().longValue(), cached.getVersion())
+        );
+    }
+
+    @Test
+    void whenAccountChangedByAnotherWriter_thenConflictRetriedOnReloadedAccount() {
+        // Given
+        deposit(10_00L);
+        jdbcTemplate.update("UPDATE transaction_system.accounts SET balance_minor = balance_minor + 500, version = version + 1 " +
+                "WHERE account_id = ?", account.getAccountId());
+
+        // When
+        deposit(1_00L);
+
+        // Then
+        AccountEntity stored = reload();
+        assertAll(
+                () -> assertEquals(116_00L, stored.getBalanceMinor()),
+                () -> assertEquals(stored.getVersion().longValue(), accountStateCache.get(account.getAccountNumber()).getVersion())
+        );
+    }
+
+    @Test
+    void whenConflictRetriesExhausted_thenConflictIsRethrown() {
+        // Given
+        deposit(10_00L);
+        int maxAttempts = engineProperties.getOptimisticRetry().getMaxAttempts();
+        engineProperties.getOptimisticRetry().setMaxAttempts(1);
+        jdbcTemplate.update("UPDATE transaction_system.accounts SET version = version + 1 WHERE account_id = ?", account.getAccountId());
+
+        // When
+        try {
+            assertThrows(ObjectOptimisticLockingFailureException.class, () -> deposit(1_00L));
+        } finally {
+            engineProperties.getOptimisticRetry().setMaxAttempts(maxAttempts);
+        }
+
+        // Then only the committed deposit was applied
+        assertEquals(110_00L, reload().getBalanceMinor());
+    }
+
+    @Test
+    void whenCachedBalanceIsBehind_thenRejectionIsRecheckedAgainstDatabase() {
+        // Given
+        deposit(10_00L);
+        jdbcTemplate.update("UPDATE transaction_system.accounts SET balance_minor = balance_minor + 10000, version = version + 1 " +
+                "WHERE account_id = ?", account.getAccountId());
+
+        // When
+        TransactionEntity withdrawal = transactionApiService.createTransactionWithCachedAccount(
+                account.getAccountNumber(), 150_00L, TransactionEntity.TransactionType.WITHDRAWAL);
+
+        // Then
+        assertEquals(TransactionEntity.TransactionStatus.COMPLETED, withdrawal.getStatus());
+        assertEquals(60_00L, reload().getBalanceMinor());
+    }
+
+    private void deposit(long amount) {
+        transactionApiService.createTransactionWithCachedAccount(account.getAccountNumber(), amount, TransactionEntity.TransactionType.DEPOSIT);
+    }
+
+    private AccountEntity reload() {
+        return accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow(IllegalStateException::new);
+    }
+}
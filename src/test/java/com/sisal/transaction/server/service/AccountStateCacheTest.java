@@ -0,0 +1,133 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.AccountCacheProperties;
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for AccountStateCache
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Accounts are read from the database once, until they expire or get invalidated</li>
+ *   <li>Write-through never replaces a newer version</li>
+ *   <li>The least recently used accounts are evicted first once the size bound is exceeded</li>
+ *   <li>Expired and invalidated accounts are removed</li>
+ * </ul>
+ *
+ * @see AccountStateCache
+ */
+class AccountStateCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<String, AccountEntity> accounts = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private AccountCacheProperties cacheProperties;
+    private AccountStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cacheProperties = new AccountCacheProperties();
+        cacheProperties.setMaxSize(2);
+        cacheProperties.setTtl(Duration.ofSeconds(10));
+        cache = new AccountStateCache(cacheProperties, accountNumber -> {
+            loads.incrementAndGet();
+            return Optional.ofNullable(accounts.get(accountNumber));
+        }, clock::get);
+
+        for (long id = 1; id <= 3; id++) {
+            accounts.put("ACC" + id, AccountEntity.builder()
+                    .accountId(id)
+                    .accountNumber("ACC" + id)
+                    .balanceMinor(100_00L)
+                    .createdAt(OffsetDateTime.now())
+                    .version(0L)
+                    .build());
+        }
+    }
+
+    @Test
+    void whenAccountCached_thenReadOnceUntilExpiredOrInvalidated() {
+        // Given
+        cache.get("ACC1");
+        cache.get("ACC1");
+        assertEquals(1, loads.get());
+
+        // When expired
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        cache.get("ACC1");
+
+        // Then
+        assertEquals(2, loads.get());
+
+        // When invalidated
+        cache.invalidate("ACC1");
+        cache.get("ACC1");
+
+        // Then
+        assertEquals(3, loads.get());
+        assertThrows(AccountNotFoundException.class, () -> cache.get("UNKNOWN"));
+    }
+
+    @Test
+    void whenCommittedStateWrittenThrough_thenNewerVersionIsKept() {
+        // Given
+        AccountStateCache.AccountState loaded = cache.get("ACC1");
+        AccountStateCache.AccountState first = loaded.withBalance(150_00L);
+        AccountStateCache.AccountState second = first.withBalance(120_00L);
+
+        // When
+        cache.put(second);
+        cache.put(first);
+
+        // Then
+        AccountStateCache.AccountState cached = cache.get("ACC1");
+        assertEquals(120_00L, cached.getBalance());
+        assertEquals(2, cached.getVersion());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void whenSizeBoundExceeded_thenLeastRecentlyUsedAccountIsEvicted() {
+        // Given ACC1 cached first but used last
+        cache.get("ACC1");
+        cache.get("ACC2");
+        cache.get("ACC1");
+
+        // When
+        cache.get("ACC3");
+        cache.get("ACC1");
+        cache.get("ACC2");
+
+        // Then ACC2 was evicted by ACC3 and read again, ACC1 stayed cached
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void whenAccountExpiredOrInvalidated_thenItIsRemoved() {
+        // Given
+        cache.get("ACC1");
+        cache.get("ACC2");
+
+        // When
+        cache.invalidate("ACC1");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        cache.get("ACC3");
+
+        // Then ACC1 was removed when invalidated, the expired ACC2 when ACC3 was added
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,150 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit Tests for GroupCommitProcessor
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Concurrent requests are written together in one batch</li>
+ *   <li>Every caller receives its own result or business error</li>
+ *   <li>A failed batch commit fails all of its callers</li>
+ *   <li>An {@link Error} fails its batch and the committer keeps serving later requests</li>
+ *   <li>Requests gathered when the committer is stopped are failed, not left waiting</li>
+ * </ul>
+ *
+ * @see GroupCommitProcessor
+ * @see TransactionBatchWriter
+ */
+@ExtendWith(MockitoExtension.class)
+class GroupCommitProcessorTest {
+
+    private static final String ACCOUNT_NUMBER = "TEST1K60161331926819";
+
+    @Mock
+    private TransactionBatchWriter batchWriter;
+
+    private GroupCommitProcessor groupCommitProcessor;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        TransactionEngineProperties engineProperties = new TransactionEngineProperties();
+        engineProperties.setExecution(TransactionEngineProperties.ExecutionMode.GROUP_COMMIT);
+        engineProperties.getGroupCommit().setWindow(Duration.ofMillis(200));
+        engineProperties.getGroupCommit().setMaxBatchSize(4);
+
+        groupCommitProcessor = new GroupCommitProcessor(engineProperties, batchWriter);
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        groupCommitProcessor.shutdown();
+    }
+
+    @Test
+    void whenRequestsArriveWithinWindow_thenTheyShareOneCommit() throws Exception {
+        // Given the writer accepts deposits and rejects withdrawals
+        when(batchWriter.write(anyList())).thenAnswer(invocation -> {
+            List<TransactionBatchWriter.Item> items = invocation.getArgument(0);
+            List<TransactionBatchWriter.Result> results = new ArrayList<>();
+            for (TransactionBatchWriter.Item item : items) {
+                if (item.getType() == TransactionEntity.TransactionType.DEPOSIT) {
+                    TransactionEntity transaction = new TransactionEntity();
+                    transaction.setAmountMinor(item.getAmount());
+                    results.add(TransactionBatchWriter.Result.success(transaction));
+                } else {
+                    results.add(TransactionBatchWriter.Result.failure(new InsufficientBalanceException("Insufficient funds")));
+                }
+            }
+            return results;
+        });
+
+        // When
+        List<Future<TransactionEntity>> deposits = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            long amount = i * 100L;
+            deposits.add(callers.submit(() ->
+                    groupCommitProcessor.submit(ACCOUNT_NUMBER, amount, TransactionEntity.TransactionType.DEPOSIT)));
+        }
+        Future<TransactionEntity> withdrawal = callers.submit(() ->
+                groupCommitProcessor.submit(ACCOUNT_NUMBER, 500_00L, TransactionEntity.TransactionType.WITHDRAWAL));
+
+        // Then
+        assertEquals(1_00L, deposits.get(0).get(5, TimeUnit.SECONDS).getAmountMinor());
+        assertEquals(2_00L, deposits.get(1).get(5, TimeUnit.SECONDS).getAmountMinor());
+        assertEquals(3_00L, deposits.get(2).get(5, TimeUnit.SECONDS).getAmountMinor());
+
+        Exception failure = assertThrows(Exception.class, () -> withdrawal.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InsufficientBalanceException.class, failure.getCause());
+
+        verify(batchWriter, times(1)).write(anyList());
+    }
+
+    @Test
+    void whenBatchCommitFails_thenEveryCallerFails() {
+        // Given
+        when(batchWriter.write(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("DB Error"));
+
+        // When/Then
+        assertThrows(DataAccessResourceFailureException.class, () ->
+                groupCommitProcessor.submit(ACCOUNT_NUMBER, 10_00L, TransactionEntity.TransactionType.DEPOSIT));
+    }
+
+    @Test
+    void whenBatchWriterThrowsError_thenCallerFailsAndCommitterSurvives() {
+        // Given
+        TransactionEntity transaction = new TransactionEntity();
+        when(batchWriter.write(anyList()))
+                .thenThrow(new AssertionError("Writer bug"))
+                .thenReturn(Collections.singletonList(TransactionBatchWriter.Result.success(transaction)));
+
+        // When/Then
+        assertThrows(AssertionError.class, () ->
+                groupCommitProcessor.submit(ACCOUNT_NUMBER, 10_00L, TransactionEntity.TransactionType.DEPOSIT));
+        assertSame(transaction, groupCommitProcessor.submit(ACCOUNT_NUMBER, 10_00L, TransactionEntity.TransactionType.DEPOSIT));
+    }
+
+    @Test
+    void whenCommitterStoppedWhileGathering_thenGatheredCallersFail() throws Exception {
+        // Given a caller waiting within the gathering window
+        Future<TransactionEntity> waiting = callers.submit(() ->
+                groupCommitProcessor.submit(ACCOUNT_NUMBER, 10_00L, TransactionEntity.TransactionType.DEPOSIT));
+        TimeUnit.MILLISECONDS.sleep(50);
+
+        // When
+        groupCommitProcessor.shutdown();
+
+        // Then
+        Exception failure = assertThrows(Exception.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        verify(batchWriter, never()).write(anyList());
+    }
+}
@@ -0,0 +1,223 @@
+package com.sisal.transaction.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sisal.transaction.server.config.IdempotencyProperties;
+import com.sisal.transaction.server.exception.IdempotencyKeyInProgressException;
+import com.sisal.transaction.server.exception.IdempotencyKeyReusedException;
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import com.sisal.transaction.server.model.api.TransactionAPIRequest;
+import com.sisal.transaction.server.model.api.TransactionAPIResponse;
+import com.sisal.transaction.server.model.db.IdempotencyKeyEntity;
+import com.sisal.transaction.server.repository.IdempotencyKeyRepository;
+import com.sisal.transaction.test.config.TestConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test Suite for IdempotencyService against the H2 in-memory database.
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Repeated keys are answered with the first response without executing again</li>
+ *   <li>Concurrent duplicates wait on the in-flight request</li>
+ *   <li>Stored responses survive a restart (new service instance)</li>
+ *   <li>Failed requests release their key, a key reused for another request is rejected</li>
+ *   <li>A reservation never completed is taken over once the reservation timeout passed</li>
+ *   <li>The cache bound does not evict a key reused after a failed request</li>
+ * </ul>
+ *
+ * @see IdempotencyService
+ * @see TestConfig
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class IdempotencyServiceIT {
+
+    private static final String CLIENT = "client";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyProperties idempotencyProperties;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void whenKeyRepeated_thenFirstResponseReplayed() {
+        String key = UUID.randomUUID().toString();
+
+        IdempotencyService.Result first = idempotencyService.execute(CLIENT, key, request(100.0), this::execute);
+        IdempotencyService.Result second = idempotencyService.execute(CLIENT, key, request(100.0), this::execute);
+
+        assertFalse(first.isReplayed());
+        assertTrue(second.isReplayed());
+        assertEquals(first.getResponse().getTransactionId(), second.getResponse().getTransactionId());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void whenConcurrentDuplicates_thenExecutedOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch release = new CountDownLatch(1);
+        int duplicates = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        try {
+            List<Future<IdempotencyService.Result>> results = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                results.add(executor.submit(() -> idempotencyService.execute(CLIENT, key, request(100.0), () -> {
+                    await(release);
+                    return execute();
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            UUID transactionId = null;
+            int replayed = 0;
+            for (Future<IdempotencyService.Result> result : results) {
+                IdempotencyService.Result outcome = result.get(10, TimeUnit.SECONDS);
+                transactionId = transactionId == null ? outcome.getResponse().getTransactionId() : transactionId;
+                assertEquals(transactionId, outcome.getResponse().getTransactionId());
+                replayed += outcome.isReplayed() ? 1 : 0;
+            }
+            assertEquals(duplicates - 1, replayed);
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenRestarted_thenStoredResponseReplayed() {
+        String key = UUID.randomUUID().toString();
+        TransactionAPIResponse first = idempotencyService.execute(CLIENT, key, request(100.0), this::execute).getResponse();
+
+        IdempotencyService restarted = new IdempotencyService(idempotencyProperties, idempotencyKeyRepository, objectMapper);
+        IdempotencyService.Result replay = restarted.execute(CLIENT, key, request(100.0), this::execute);
+
+        assertTrue(replay.isReplayed());
+        assertEquals(first, replay.getResponse());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void whenFirstRequestFails_thenRetryExecutes() {
+        String key = UUID.randomUUID().toString();
+
+        assertThrows(InsufficientBalanceException.class, () -> idempotencyService.execute(CLIENT, key, request(100.0), () -> {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }));
+        IdempotencyService.Result retry = idempotencyService.execute(CLIENT, key, request(100.0), this::execute);
+
+        assertFalse(retry.isReplayed());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void whenReservationNeverCompleted_thenTakenOverAfterTimeout() {
+        String abandoned = UUID.randomUUID().toString();
+        String running = UUID.randomUUID().toString();
+        reserve(abandoned, OffsetDateTime.now().minus(idempotencyProperties.getReservationTimeout()).minusMinutes(1));
+        reserve(running, OffsetDateTime.now());
+
+        IdempotencyService.Result takenOver = idempotencyService.execute(CLIENT, abandoned, request(100.0), this::execute);
+
+        assertFalse(takenOver.isReplayed());
+        assertEquals(1, executions.get());
+        assertEquals(IdempotencyKeyEntity.IdempotencyStatus.COMPLETED,
+                idempotencyKeyRepository.findById(CLIENT + ':' + abandoned).map(IdempotencyKeyEntity::getStatus).orElse(null));
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> idempotencyService.execute(CLIENT, running, request(100.0), this::execute));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void whenKeyReusedAfterFailure_thenItsResponseIsNotEvictedEarly() {
+        IdempotencyProperties bounded = new IdempotencyProperties();
+        bounded.setCacheSize(2);
+        IdempotencyService service = new IdempotencyService(bounded, idempotencyKeyRepository, objectMapper);
+        String key = UUID.randomUUID().toString();
+
+        assertThrows(InsufficientBalanceException.class, () -> service.execute(CLIENT, key, request(100.0), () -> {
+            throw new InsufficientBalanceException("Insufficient balance");
+        }));
+        service.execute(CLIENT, key, request(100.0), this::execute);
+        service.execute(CLIENT, UUID.randomUUID().toString(), request(100.0), this::execute);
+
+        // The stale entry of the failed request is dropped, both completed keys stay cached
+        assertEquals(2, service.cachedKeys());
+    }
+
+    @Test
+    void whenKeyReusedForDifferentRequest_thenRejected() {
+        String key = UUID.randomUUID().toString();
+        idempotencyService.execute(CLIENT, key, request(100.0), this::execute);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyService.execute(CLIENT, key, request(200.0), this::execute));
+
+        // Keys are scoped per client
+        assertFalse(idempotencyService.execute("other-client", key, request(200.0), this::execute).isReplayed());
+    }
+
+    private TransactionAPIResponse execute() {
+        executions.incrementAndGet();
+        return new TransactionAPIResponse()
+                .transactionId(UUID.randomUUID())
+                .accountNumber("GB29NWBK60161331926819")
+                .transactionType(TransactionAPIResponse.TransactionTypeEnum.DEPOSIT)
+                .amount(100.0)
+                .timestamp(OffsetDateTime.now(ZoneOffset.ofHours(2)))
+                .status(TransactionAPIResponse.StatusEnum.COMPLETED);
+    }
+
+    private void reserve(String key, OffsetDateTime createdAt) {
+        idempotencyKeyRepository.saveAndFlush(IdempotencyKeyEntity.builder()
+                .idempotencyKey(CLIENT + ':' + key)
+                .requestHash(IdempotencyService.requestHash(request(100.0)))
+                .status(IdempotencyKeyEntity.IdempotencyStatus.IN_PROGRESS)
+                .createdAt(createdAt)
+                .build());
+    }
+
+    private static TransactionAPIRequest request(double amount) {
+        return new TransactionAPIRequest()
+                .accountNumber("GB29NWBK60161331926819")
+                .transactionType(TransactionAPIRequest.TransactionTypeEnum.DEPOSIT)
+                .amount(amount);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
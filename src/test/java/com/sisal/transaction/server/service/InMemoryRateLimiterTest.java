@@ -0,0 +1,151 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for InMemoryRateLimiter
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Permits are limited per account within the sliding window</li>
+ *   <li>Permits become available again once they slide out of the window</li>
+ *   <li>Released permits are available again</li>
+ *   <li>Idle accounts are evicted</li>
+ *   <li>Concurrent requests never exceed the limit</li>
+ * </ul>
+ *
+ * @see InMemoryRateLimiter
+ */
+class InMemoryRateLimiterTest {
+
+    private static final long START_MILLIS = 1_700_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(START_MILLIS);
+    private RateLimitProperties rateLimitProperties;
+    private InMemoryRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setMaxPerMinute(5);
+        rateLimiter = new InMemoryRateLimiter(rateLimitProperties, clock::get);
+    }
+
+    @Test
+    void whenLimitReached_thenFurtherPermitsAreRejectedPerAccount() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            assertTrue(rateLimiter.tryAcquire(1L, 0));
+        }
+
+        // When/Then
+        assertFalse(rateLimiter.tryAcquire(1L, 0));
+        assertFalse(rateLimiter.tryAcquire(1L, 0));
+        assertTrue(rateLimiter.tryAcquire(2L, 0));
+    }
+
+    @Test
+    void whenPermitsSlideOutOfWindow_thenNewPermitsAreGranted() {
+        // Given 3 permits at t=0s and 2 permits at t=30s
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire(1L, 0));
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(30));
+        assertTrue(rateLimiter.tryAcquire(1L, 0));
+        assertTrue(rateLimiter.tryAcquire(1L, 0));
+        assertFalse(rateLimiter.tryAcquire(1L, 0));
+
+        // When the first 3 permits slide out
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(30));
+
+        // Then
+        assertTrue(rateLimiter.tryAcquire(1L, 0));
+        assertTrue(rateLimiter.tryAcquire(1L, 0));
+        assertTrue(rateLimiter.tryAcquire(1L, 0));
+        assertFalse(rateLimiter.tryAcquire(1L, 0));
+    }
+
+    @Test
+    void whenPermitReleased_thenItIsAvailableAgain() {
+        // Given 4 permits at t=0s and 1 permit at t=10s
+        for (int i = 0; i < 4; i++) {
+            assertTrue(rateLimiter.tryAcquire(1L, 0));
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(10));
+        assertTrue(rateLimiter.tryAcquire(1L, 0));
+        assertFalse(rateLimiter.tryAcquire(1L, 0));
+
+        // When the last permit is released, and a permit of an account without any
+        rateLimiter.release(1L);
+        rateLimiter.release(2L);
+
+        // Then
+        assertTrue(rateLimiter.tryAcquire(1L, 0));
+        assertFalse(rateLimiter.tryAcquire(1L, 0));
+        assertEquals(1, rateLimiter.trackedAccounts());
+    }
+
+    @Test
+    void whenAccountIsIdleForWholeWindow_thenItIsEvicted() {
+        // Given
+        rateLimiter.tryAcquire(1L, 0);
+        rateLimiter.tryAcquire(2L, 0);
+        assertEquals(2, rateLimiter.trackedAccounts());
+
+        // When
+        clock.addAndGet(TimeUnit.MINUTES.toMillis(2));
+        rateLimiter.tryAcquire(3L, 0);
+
+        // Then
+        assertEquals(1, rateLimiter.trackedAccounts());
+    }
+
+    @Test
+    void whenRequestsAreConcurrent_thenLimitIsNeverExceeded() throws Exception {
+        // Given
+        rateLimitProperties.setMaxPerMinute(100);
+        int threads = 8;
+        int attemptsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Future<Integer>> granted = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            granted.add(executor.submit((Callable<Integer>) () -> {
+                start.await();
+                int permits = 0;
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (rateLimiter.tryAcquire(1L, 0)) {
+                        permits++;
+                    }
+                }
+                return permits;
+            }));
+        }
+        start.countDown();
+
+        int total = 0;
+        for (Future<Integer> future : granted) {
+            total += future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(100, total);
+    }
+}
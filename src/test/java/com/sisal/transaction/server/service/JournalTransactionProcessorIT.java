@@ -0,0 +1,221 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import com.sisal.transaction.server.model.api.TransactionAPIRequest;
+import com.sisal.transaction.server.model.api.TransactionAPIResponse;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.repository.AccountRepository;
+import com.sisal.transaction.server.repository.TransactionRepository;
+import com.sisal.transaction.server.util.TimeOrderedUuidGenerator;
+import com.sisal.transaction.server.util.journal.JournalEntry;
+import com.sisal.transaction.server.util.journal.TransactionJournal;
+import com.sisal.transaction.test.config.TestConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test Suite for the JOURNAL execution mode against the H2 in-memory database.
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Transactions are answered from the journal and projected into the tables afterwards</li>
+ *   <li>Balance rules are enforced against the journaled balance</li>
+ *   <li>Recovery replays the unprojected entries once, projected entries are skipped</li>
+ *   <li>Entries of a deleted account are quarantined, the following entries are still projected</li>
+ *   <li>Loaded accounts above the limit are evicted once their entries are projected</li>
+ * </ul>
+ *
+ * @see JournalTransactionProcessor
+ * @see JournalProjector
+ * @see TestConfig
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class JournalTransactionProcessorIT {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @Autowired
+    private TransactionEngineProperties engineProperties;
+
+    @Autowired
+    private JournalTransactionProcessor journalProcessor;
+
+    @Autowired
+    private JournalProjector projector;
+
+    @Autowired
+    private TransactionApiService transactionApiService;
+
+    @Autowired
+    private AccountApiService accountApiService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path journalDirectory;
+
+    private AccountEntity account;
+
+    @BeforeEach
+    void setUp() {
+        engineProperties.setExecution(TransactionEngineProperties.ExecutionMode.JOURNAL);
+        engineProperties.getJournal().setDirectory(journalDirectory.toString());
+        engineProperties.getJournal().setSegmentSize(DataSize.ofBytes(SEGMENT_SIZE));
+        journalProcessor.start();
+
+        account = accountApiService.createAccount(null, "Bob", "Builder", "JRN" + Math.random(), 100.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journalProcessor.shutdown();
+        engineProperties.setExecution(TransactionEngineProperties.ExecutionMode.DIRECT);
+        engineProperties.getJournal().setMaxAccounts(new TransactionEngineProperties.Journal().getMaxAccounts());
+    }
+
+    @Test
+    void whenTransactionsJournaled_thenProjectedIntoTables() throws InterruptedException {
+        // When
+        TransactionAPIResponse deposit = transactionApiService.createTransaction(
+                request(50.0, TransactionAPIRequest.TransactionTypeEnum.DEPOSIT));
+        InsufficientBalanceException rejected = assertThrows(InsufficientBalanceException.class, () ->
+                transactionApiService.createTransaction(request(500.0, TransactionAPIRequest.TransactionTypeEnum.WITHDRAWAL)));
+
+        // Then
+        assertEquals(TransactionAPIResponse.StatusEnum.COMPLETED, deposit.getStatus());
+        assertEquals("Insufficient funds", rejected.getMessage());
+        awaitBalance(150_00L);
+        assertEquals(1, recentTransactions());
+    }
+
+    @Test
+    void whenJournalReplayedOnStartup_thenUnprojectedEntriesAppliedOnce() throws Exception {
+        // Given: a journal left behind with one projected and one unprojected entry
+        journalProcessor.shutdown();
+        List<JournalEntry> journaled = new ArrayList<>();
+        try (TransactionJournal journal = TransactionJournal.open(journalDirectory, SEGMENT_SIZE,
+                projector.getLastProjectedSequence() + 1)) {
+            journal.append(entry(30_00L));
+            journal.awaitDurable(journal.append(entry(20_00L)));
+            journal.read(journal.getFirstPosition(), 2, journaled);
+        }
+        projector.project(journaled.subList(0, 1));
+
+        // When
+        journalProcessor.start();
+
+        // Then
+        assertEquals(150_00L, balance());
+        assertEquals(2, recentTransactions());
+        assertEquals(journaled.get(1).getSequence(), projector.getLastProjectedSequence());
+        assertEquals(0, journalProcessor.getUnprojectedBytes());
+    }
+
+    @Test
+    void whenAccountOfEntryNoLongerExists_thenEntryQuarantinedAndProjectionContinues() {
+        // Given: an entry of a deleted account between two entries of an existing account
+        long deletedAccountId = -account.getAccountId();
+        long sequence = projector.getLastProjectedSequence();
+        List<JournalEntry> entries = new ArrayList<>();
+        entries.add(entry(sequence + 1, account.getAccountId(), 10_00L));
+        entries.add(entry(sequence + 2, deletedAccountId, 5_00L));
+        entries.add(entry(sequence + 3, account.getAccountId(), 20_00L));
+
+        // When
+        int projected = projector.project(entries);
+
+        // Then
+        assertEquals(2, projected);
+        assertEquals(130_00L, balance());
+        assertEquals(entries.get(2).getSequence(), projector.getLastProjectedSequence());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transaction_system.journal_quarantine " +
+                "WHERE account_id = ? AND journal_sequence = ?", Integer.class, deletedAccountId, entries.get(1).getSequence()));
+    }
+
+    @Test
+    void whenMoreAccountsLoadedThanAllowed_thenProjectedAccountsEvicted() throws InterruptedException {
+        // Given
+        engineProperties.getJournal().setMaxAccounts(1);
+        AccountEntity other = accountApiService.createAccount(null, "Wendy", "Builder", "JRN" + Math.random(), 100.0);
+
+        // When
+        transactionApiService.createTransaction(request(50.0, TransactionAPIRequest.TransactionTypeEnum.DEPOSIT));
+        TransactionAPIRequest otherRequest = request(10.0, TransactionAPIRequest.TransactionTypeEnum.DEPOSIT);
+        otherRequest.setaccountNumber(other.getAccountNumber());
+        transactionApiService.createTransaction(otherRequest);
+
+        // Then: the evicted account is reloaded with its projected balance
+        awaitBalance(150_00L);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (journalProcessor.loadedAccounts() > 1 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertEquals(1, journalProcessor.loadedAccounts());
+
+        transactionApiService.createTransaction(request(25.0, TransactionAPIRequest.TransactionTypeEnum.DEPOSIT));
+        otherRequest.setAmount(5.0);
+        transactionApiService.createTransaction(otherRequest);
+        awaitBalance(175_00L);
+    }
+
+    private static JournalEntry entry(long sequence, long accountId, long amount) {
+        return new JournalEntry(sequence, TimeOrderedUuidGenerator.next(), accountId,
+                TransactionEntity.TransactionType.DEPOSIT, amount, System.currentTimeMillis());
+    }
+
+    private TransactionAPIRequest request(double amount, TransactionAPIRequest.TransactionTypeEnum type) {
+        TransactionAPIRequest request = new TransactionAPIRequest();
+        request.setaccountNumber(account.getAccountNumber());
+        request.setAmount(amount);
+        request.setTransactionType(type);
+        return request;
+    }
+
+    private JournalEntry entry(long amount) {
+        return new JournalEntry(0, TimeOrderedUuidGenerator.next(), account.getAccountId(),
+                TransactionEntity.TransactionType.DEPOSIT, amount, System.currentTimeMillis());
+    }
+
+    private long balance() {
+        return accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow(IllegalStateException::new).getBalanceMinor();
+    }
+
+    private long recentTransactions() {
+        return transactionRepository.countRecentTransactions(account.getAccountId(), OffsetDateTime.now().minusMinutes(1));
+    }
+
+    private void awaitBalance(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (balance() != expected && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertEquals(expected, balance());
+    }
+}
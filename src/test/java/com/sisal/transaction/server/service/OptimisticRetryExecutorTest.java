@@ -0,0 +1,102 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for OptimisticRetryExecutor
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Version conflicts are retried until the mutation succeeds</li>
+ *   <li>The conflict is rethrown once the attempts are spent</li>
+ *   <li>Backoffs are jittered below the capped exponential bound</li>
+ *   <li>Attempts, conflicts and retries per transaction are recorded</li>
+ * </ul>
+ *
+ * @see OptimisticRetryExecutor
+ */
+class OptimisticRetryExecutorTest {
+
+    private final List<Long> backoffs = new ArrayList<>();
+    private TransactionEngineProperties engineProperties;
+    private MeterRegistry meterRegistry;
+    private OptimisticRetryExecutor retryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        engineProperties = new TransactionEngineProperties();
+        engineProperties.getOptimisticRetry().setMaxAttempts(4);
+        engineProperties.getOptimisticRetry().setInitialBackoff(Duration.ofMillis(2));
+        engineProperties.getOptimisticRetry().setMaxBackoff(Duration.ofMillis(5));
+        meterRegistry = new SimpleMeterRegistry();
+        retryExecutor = new OptimisticRetryExecutor(engineProperties, meterRegistry, backoffs::add);
+    }
+
+    @Test
+    void whenMutationConflicts_thenRetriedUntilItSucceeds() {
+        // When
+        String result = retryExecutor.execute(1L, attempt -> {
+            if (attempt < 2) {
+                throw new ObjectOptimisticLockingFailureException(AccountEntity.class, 1L);
+            }
+            return "applied on attempt " + attempt;
+        });
+
+        // Then
+        assertAll(
+                () -> assertEquals("applied on attempt 2", result),
+                () -> assertEquals(2, backoffs.size()),
+                () -> assertEquals(3, meterRegistry.get("transaction.optimistic.attempts").counter().count()),
+                () -> assertEquals(2, conflicts("retried")),
+                () -> assertEquals(0, conflicts("exhausted")),
+                () -> assertEquals(2, meterRegistry.get("transaction.optimistic.retries").summary().totalAmount())
+        );
+    }
+
+    @Test
+    void whenAttemptsSpent_thenConflictRethrown() {
+        // When
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retryExecutor.execute(1L, attempt -> {
+            throw new ObjectOptimisticLockingFailureException(AccountEntity.class, 1L);
+        }));
+
+        // Then backoffs stay within 2ms, 4ms, then the 5ms cap
+        assertAll(
+                () -> assertEquals(3, backoffs.size()),
+                () -> assertTrue(backoffs.get(0) <= TimeUnit.MILLISECONDS.toNanos(2)),
+                () -> assertTrue(backoffs.get(1) <= TimeUnit.MILLISECONDS.toNanos(4)),
+                () -> assertTrue(backoffs.get(2) <= TimeUnit.MILLISECONDS.toNanos(5)),
+                () -> assertEquals(3, conflicts("retried")),
+                () -> assertEquals(1, conflicts("exhausted"))
+        );
+    }
+
+    @Test
+    void whenMutationFailsOtherwise_thenNotRetried() {
+        // When
+        assertThrows(IllegalStateException.class, () -> retryExecutor.execute(1L, attempt -> {
+            throw new IllegalStateException("Not a version conflict");
+        }));
+
+        // Then
+        assertTrue(backoffs.isEmpty());
+        assertEquals(1, meterRegistry.get("transaction.optimistic.attempts").counter().count());
+    }
+
+    private double conflicts(String outcome) {
+        return meterRegistry.get("transaction.optimistic.conflicts").tag("outcome", outcome).counter().count();
+    }
+}
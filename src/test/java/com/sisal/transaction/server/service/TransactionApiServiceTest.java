@@ -1,24 +1,30 @@
 package com.sisal.transaction.server.service;
 
 import com.sisal.transaction.server.config.RateLimitProperties;
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import com.sisal.transaction.server.model.api.TransactionAPIRequest;
 import com.sisal.transaction.server.model.db.AccountEntity;
 import com.sisal.transaction.server.model.db.TransactionEntity;
 import com.sisal.transaction.server.repository.AccountRepository;
 import com.sisal.transaction.server.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.persistence.PersistenceException;
 import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,13 +36,16 @@ import static org.mockito.Mockito.*;
  * <p>Tests transaction creation scenarios including:</p>
  * <ul>
  *   <li>Successful transaction creation and account update</li>
- *   <li>Account save failure with transaction status update</li>
+ *   <li>Account save failure recorded in the failure log</li>
  *   <li>Initial transaction creation failure</li>
+ *   <li>Account version conflict retried on the re-read account</li>
+ *   <li>Business rule rejection not recorded as a failure</li>
+ *   <li>Business rule rejection not counted against the rate limit</li>
  * </ul>
  *
  * <p>Key test verifications:</p>
  * <ul>
- *   <li>Transaction status transitions (COMPLETED → FAILED)</li>
+ *   <li>Transaction record and account update within one database transaction</li>
  *   <li>Account balance updates</li>
  *   <li>Transaction rollback scenarios</li>
  *   <li>Repository call sequences</li>
@@ -58,13 +67,35 @@ class TransactionApiServiceTest {
     @Mock
     private RateLimitProperties rateLimitProperties;
 
+    @Mock
+    private UnknownAccountFilter unknownAccountFilter;
+
+    @Mock
+    private AccountStateCache accountStateCache;
+
+    @Mock
+    private TransactionFailureRecorder failureRecorder;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private TransactionEngineProperties engineProperties = new TransactionEngineProperties();
+
+    @Spy
+    private OptimisticRetryExecutor optimisticRetry =
+            new OptimisticRetryExecutor(new TransactionEngineProperties(), new SimpleMeterRegistry(), backoff -> {
+            });
+
+    @Spy
+    private TransactionRateLimiter rateLimiter = new InMemoryRateLimiter(rateLimits(1));
+
     @InjectMocks
     private TransactionApiService transactionApiService;
 
     private AccountEntity testAccount;
 
     private static final String ACCOUNT_NUMBER = "TEST1K60161331926819";
-    private static final UUID TRANSACTION_ID = UUID.fromString("DDF17BFD-5472-8946-8647-665A80F0F9BE");
 
     /**
      * Creating a test account.
@@ -74,8 +105,12 @@ class TransactionApiServiceTest {
         testAccount = new AccountEntity();
         testAccount.setAccountId(1L);
         testAccount.setAccountNumber(ACCOUNT_NUMBER);
-        testAccount.setBalance(200.0);
+        testAccount.setBalanceMinor(200_00L);
         testAccount.setCreatedAt(OffsetDateTime.now());
+
+        // Runs the callback in place of a database transaction
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
@@ -96,105 +131,51 @@ class TransactionApiServiceTest {
         // When
         TransactionEntity result = transactionApiService.createTransaction(
                 ACCOUNT_NUMBER,
-                50.0,
+                50_00L,
                 TransactionEntity.TransactionType.DEPOSIT
         );
 
         // Then
         assertAll(
-                () -> assertEquals(250.0, testAccount.getBalance()), // 200 + 50
+                () -> assertEquals(250_00L, testAccount.getBalanceMinor()), // 200 + 50
                 () -> assertEquals(TransactionEntity.TransactionStatus.COMPLETED, result.getStatus()),
                 () -> verify(accountRepository).save(testAccount),
-                () -> verify(transactionRepository).save(any(TransactionEntity.class))
+                () -> verify(transactionRepository).save(any(TransactionEntity.class)),
+                () -> verify(transactionTemplate).execute(any()) // One commit for both
         );
     }
 
     @Test
-    void whenAccountSaveFails_thenTransactionIsSavedWithFailedStatus() {
+    void whenAccountSaveFails_thenFailureIsRecordedAndNoStatusUpdateIssued() {
 
         when(rateLimitProperties.isEnabled())
                 .thenReturn(false);
 
         // Given
-        ArgumentCaptor<TransactionEntity> transactionCaptor =
-                ArgumentCaptor.forClass(TransactionEntity.class);
-        AtomicReference<TransactionEntity> savedTransaction = new AtomicReference<>();
+        DataAccessException failure = new DataAccessResourceFailureException("DB Error");
 
-        // Mock account existence
-        when(accountRepository.findByAccountNumber(anyString()))
+        when(accountRepository.findByAccountNumber(ACCOUNT_NUMBER))
                 .thenReturn(Optional.of(testAccount));
 
-        // Mock the transaction save call in the main transaction create
         when(transactionRepository.save(any(TransactionEntity.class)))
-                .thenAnswer(invocation -> {
-                    TransactionEntity transaction = invocation.getArgument(0);
-                    if (transaction.getTransactionId() == null) {
-                        transaction.setTransactionId(TRANSACTION_ID);
-                        savedTransaction.set(transaction); // Store for later find
-                    }
-                    return transaction;
-                });
+                .thenAnswer(invocation -> invocation.getArgument(0));
 
-        // Mock account save failure
+        // Mock account save failure, rolling back the transaction insert with it
         when(accountRepository.save(any(AccountEntity.class)))
-                .thenThrow(new RuntimeException("DB Error"));
-
-        // Mock findByTransactionId in updateStatusFailed()
-        when(transactionRepository.findByTransactionId(TRANSACTION_ID))
-                .thenAnswer(invocation -> {
-                    // Return the saved transaction from the main transaction create
-                    TransactionEntity found = savedTransaction.get();
-                    // Create a new instance to simulate DB fetch
-                    TransactionEntity detached = new TransactionEntity();
-                    detached.setTransactionId(found.getTransactionId());
-                    detached.setStatus(found.getStatus());
-                    detached.setAmount(found.getAmount());
-                    detached.setTransactionType(found.getTransactionType());
-                    detached.setAccountId(found.getAccountId());
-                    return Optional.of(detached);
-                });
+                .thenThrow(failure);
 
         // When
-        assertThrows(PersistenceException.class, () ->
-                transactionApiService.createTransaction(
-                        testAccount.getAccountNumber(),
-                        50.0,
-                        TransactionEntity.TransactionType.DEPOSIT
-                )
-        );
+        DataAccessException thrown = assertThrows(DataAccessException.class, () ->
+                transactionApiService.createTransaction(request(TransactionAPIRequest.TransactionTypeEnum.DEPOSIT, 50.0)));
 
         // Then
-        InOrder inOrder = inOrder(transactionRepository);
-
-        // Verify save in the main transaction create
-        inOrder.verify(transactionRepository).save(transactionCaptor.capture());
-        TransactionEntity initialSave = transactionCaptor.getValue();
-        assertAll(
-                "Verify initial transaction create",
-                () -> assertEquals(TRANSACTION_ID, initialSave.getTransactionId()),
-                () -> assertEquals(TransactionEntity.TransactionStatus.COMPLETED,
-                        initialSave.getStatus()),
-                () -> assertEquals(50.0, initialSave.getAmount())
-        );
-
-        // Verify operations in new transaction (will commit)
-        inOrder.verify(transactionRepository).findByTransactionId(TRANSACTION_ID);
-        inOrder.verify(transactionRepository).save(transactionCaptor.capture());
-
-        TransactionEntity updatedTransaction = transactionCaptor.getValue();
         assertAll(
-                "Verify updated transaction (in new transaction)",
-                () -> assertEquals(TRANSACTION_ID, updatedTransaction.getTransactionId()),
-                () -> assertEquals(TransactionEntity.TransactionStatus.FAILED,
-                        updatedTransaction.getStatus()),
-                () -> assertEquals(50.0, updatedTransaction.getAmount()),
-                () -> assertNotSame(initialSave, updatedTransaction,
-                        "Should be different instances due to new transaction")
+                () -> assertSame(failure, thrown),
+                () -> verify(failureRecorder).record(ACCOUNT_NUMBER, 50_00L, TransactionEntity.TransactionType.DEPOSIT, failure),
+                () -> verify(transactionTemplate, times(1)).execute(any()), // No separate commit for a failed status
+                () -> verify(transactionRepository, times(1)).save(any(TransactionEntity.class)),
+                () -> verify(transactionRepository, never()).findByTransactionId(any())
         );
-
-        // Verify the exact number of calls
-        verify(transactionRepository, times(2)).save(any(TransactionEntity.class)); //2 saves
-        verify(transactionRepository, times(1)).findByTransactionId(any(UUID.class));//1 query
     }
 
     @Test
@@ -207,15 +188,15 @@ class TransactionApiServiceTest {
         when(accountRepository.findByAccountNumber(ACCOUNT_NUMBER))
                 .thenReturn(Optional.of(testAccount));
 
-        // Mock the transaction create to fail in REQUIRES_NEW transaction
+        // Mock the transaction create to fail
         when(transactionRepository.save(any(TransactionEntity.class)))
-                .thenThrow(new RuntimeException("Transaction save failed"));
+                .thenThrow(new DataAccessResourceFailureException("Transaction save failed"));
 
         // When/Then
-        assertThrows(PersistenceException.class, () ->
+        assertThrows(DataAccessException.class, () ->
                 transactionApiService.createTransaction(
                         ACCOUNT_NUMBER,
-                        50.0,
+                        50_00L,
                         TransactionEntity.TransactionType.DEPOSIT
                 )
         );
@@ -223,11 +204,116 @@ class TransactionApiServiceTest {
         assertAll(
                 "Verify account was not modified",
                 () -> verify(accountRepository, never()).save(any()), // Account was never saved
-                () -> verify(transactionRepository, never())
-                        .findByTransactionId(any()), // Transaction update should never be called
                 () -> verify(transactionRepository, times(1))
-                        .save(any()) // Only the initial Transaction-create failure
+                        .save(any()) // Only the failed Transaction-create
+        );
+    }
+
+    @Test
+    void whenAccountUpdateConflicts_thenAttemptRolledBackAndRetriedOnReReadAccount() {
+
+        when(rateLimitProperties.isEnabled())
+                .thenReturn(false);
+
+        // Given
+        AccountEntity reReadAccount = new AccountEntity();
+        reReadAccount.setAccountId(1L);
+        reReadAccount.setAccountNumber(ACCOUNT_NUMBER);
+        reReadAccount.setBalanceMinor(300_00L); // Deposit of the conflict winner
+        reReadAccount.setCreatedAt(testAccount.getCreatedAt());
+
+        when(accountRepository.findByAccountNumber(ACCOUNT_NUMBER))
+                .thenReturn(Optional.of(testAccount), Optional.of(reReadAccount));
+
+        when(transactionRepository.save(any(TransactionEntity.class)))
+                .thenAnswer(invocation -> {
+                    TransactionEntity transaction = invocation.getArgument(0);
+                    transaction.setTransactionId(UUID.randomUUID());
+                    return transaction;
+                });
+
+        when(accountRepository.save(testAccount))
+                .thenThrow(new ObjectOptimisticLockingFailureException(AccountEntity.class, 1L));
+        when(accountRepository.save(reReadAccount))
+                .thenReturn(reReadAccount);
+
+        // When
+        TransactionEntity result = transactionApiService.createTransaction(
+                ACCOUNT_NUMBER,
+                50_00L,
+                TransactionEntity.TransactionType.DEPOSIT
+        );
+
+        // Then
+        assertAll(
+                () -> assertEquals(TransactionEntity.TransactionStatus.COMPLETED, result.getStatus()),
+                () -> assertEquals(350_00L, reReadAccount.getBalanceMinor()), // 300 + 50
+                () -> verify(transactionTemplate, times(2)).execute(any()), // One rolled back attempt, one commit
+                () -> verify(transactionRepository, times(2)).save(any(TransactionEntity.class)),
+                () -> verify(transactionRepository, never()).findByTransactionId(any()),
+                () -> verify(accountRepository, times(2)).findByAccountNumber(ACCOUNT_NUMBER)
         );
     }
 
-}
\ No newline at end of file
+    @Test
+    void whenBalanceRulesRejectTransaction_thenFailureNotRecorded() {
+
+        when(rateLimitProperties.isEnabled())
+                .thenReturn(false);
+
+        // Given
+        when(accountRepository.findByAccountNumber(ACCOUNT_NUMBER))
+                .thenReturn(Optional.of(testAccount));
+
+        // When
+        assertThrows(InsufficientBalanceException.class, () ->
+                transactionApiService.createTransaction(request(TransactionAPIRequest.TransactionTypeEnum.WITHDRAWAL, 500.0)));
+
+        // Then
+        assertAll(
+                () -> verify(failureRecorder, never()).record(any(), anyLong(), any(), any()),
+                () -> verify(transactionRepository, never()).save(any()),
+                () -> verify(accountRepository, never()).save(any())
+        );
+    }
+
+    @Test
+    void whenBalanceRulesRejectTransaction_thenRateLimitPermitIsHandedBack() {
+
+        when(rateLimitProperties.isEnabled())
+                .thenReturn(true);
+
+        // Given a limit of 1 transaction per minute
+        when(accountRepository.findByAccountNumber(ACCOUNT_NUMBER))
+                .thenReturn(Optional.of(testAccount));
+        when(transactionRepository.save(any(TransactionEntity.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When the first transaction is rejected
+        assertThrows(InsufficientBalanceException.class, () -> transactionApiService.createTransaction(
+                ACCOUNT_NUMBER, 500_00L, TransactionEntity.TransactionType.WITHDRAWAL));
+
+        // Then the next one still gets the permit
+        TransactionEntity result = transactionApiService.createTransaction(
+                ACCOUNT_NUMBER, 50_00L, TransactionEntity.TransactionType.DEPOSIT);
+        assertAll(
+                () -> assertEquals(250_00L, testAccount.getBalanceMinor()),
+                () -> assertEquals(TransactionEntity.TransactionStatus.COMPLETED, result.getStatus()),
+                () -> verify(rateLimiter).release(1L),
+                () -> assertFalse(rateLimiter.tryAcquire(1L, 0))
+        );
+    }
+
+    private static RateLimitProperties rateLimits(int maxPerMinute) {
+        RateLimitProperties rateLimits = new RateLimitProperties();
+        rateLimits.setMaxPerMinute(maxPerMinute);
+        return rateLimits;
+    }
+
+    private static TransactionAPIRequest request(TransactionAPIRequest.TransactionTypeEnum type, double amount) {
+        return new TransactionAPIRequest()
+                .accountNumber(ACCOUNT_NUMBER)
+                .transactionType(type)
+                .amount(amount);
+    }
+}
@@ -0,0 +1,58 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.model.api.TransactionAPIRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for the chunking of TransactionBatchService
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Items of one account stay in the same chunk, in request order</li>
+ *   <li>Chunks are filled up to the chunk size</li>
+ *   <li>An account with more items than the chunk size gets a chunk of its own</li>
+ * </ul>
+ *
+ * @see TransactionBatchService
+ */
+class TransactionBatchServiceTest {
+
+    @Test
+    void whenAccountsInterleaved_thenGroupedInRequestOrder() {
+        List<TransactionAPIRequest> requests = requests("A", "B", "A", "C", "B", "A");
+
+        List<List<Integer>> chunks = TransactionBatchService.chunkByAccount(requests, 10);
+
+        assertEquals(Collections.singletonList(Arrays.asList(0, 2, 5, 1, 4, 3)), chunks);
+    }
+
+    @Test
+    void whenGroupsExceedChunkSize_thenAccountsAreNeverSplit() {
+        List<TransactionAPIRequest> requests = requests("A", "B", "A", "C", "C", "C", "C", "D");
+
+        List<List<Integer>> chunks = TransactionBatchService.chunkByAccount(requests, 3);
+
+        assertEquals(Arrays.asList(
+                Arrays.asList(0, 2, 1),
+                Arrays.asList(3, 4, 5, 6),
+                Collections.singletonList(7)), chunks);
+    }
+
+    private static List<TransactionAPIRequest> requests(String... accountNumbers) {
+        List<TransactionAPIRequest> requests = new ArrayList<>();
+        for (String accountNumber : accountNumbers) {
+            requests.add(new TransactionAPIRequest()
+                    .accountNumber(accountNumber)
+                    .transactionType(TransactionAPIRequest.TransactionTypeEnum.DEPOSIT)
+                    .amount(10.0));
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,81 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.exception.InsufficientBalanceException;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.repository.AccountRepository;
+import com.sisal.transaction.server.repository.TransactionRepository;
+import com.sisal.transaction.test.config.TestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test Suite for TransactionBatchWriter against the H2 in-memory database.
+ *
+ * <p>Verifies that a batch is applied in order with per-item outcomes and that the accepted
+ * transactions and balance updates are persisted.</p>
+ *
+ * @see TransactionBatchWriter
+ * @see TestConfig
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class TransactionBatchWriterIT {
+
+    @Autowired
+    private TransactionBatchWriter batchWriter;
+
+    @Autowired
+    private AccountApiService accountApiService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private AccountEntity account;
+
+    @BeforeEach
+    void setUp() {
+        account = accountApiService.createAccount(null, "Bob", "Builder", "GCE" + Math.random(), 100.0);
+    }
+
+    @Test
+    void whenBatchHasMixedOutcomes_thenAcceptedItemsArePersistedInOrder() {
+        // Given
+        List<TransactionBatchWriter.Item> items = Arrays.asList(
+                new TransactionBatchWriter.Item(account.getAccountNumber(), 50_00L, TransactionEntity.TransactionType.DEPOSIT),
+                new TransactionBatchWriter.Item(account.getAccountNumber(), 500_00L, TransactionEntity.TransactionType.WITHDRAWAL),
+                new TransactionBatchWriter.Item("NONEXISTENT", 10_00L, TransactionEntity.TransactionType.DEPOSIT),
+                new TransactionBatchWriter.Item(account.getAccountNumber(), 120_00L, TransactionEntity.TransactionType.WITHDRAWAL)
+        );
+
+        // When
+        List<TransactionBatchWriter.Result> results = batchWriter.write(items);
+
+        // Then
+        AccountEntity updatedAccount = accountRepository.findByAccountNumber(account.getAccountNumber()).orElseThrow(IllegalStateException::new);
+        assertAll(
+                () -> assertTrue(results.get(0).isSuccess()),
+                () -> assertInstanceOf(InsufficientBalanceException.class, results.get(1).getError()),
+                () -> assertInstanceOf(AccountNotFoundException.class, results.get(2).getError()),
+                () -> assertTrue(results.get(3).isSuccess()),
+                () -> assertEquals(30_00L, updatedAccount.getBalanceMinor()), // 100 + 50 - 120
+                () -> assertEquals(account.getVersion() + 1, updatedAccount.getVersion()),
+                () -> assertEquals(2, transactionRepository.countRecentTransactions(account.getAccountId(), OffsetDateTime.now().minusMinutes(1)))
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.model.api.TransactionAPIRequest;
+import com.sisal.transaction.server.model.db.AccountEntity;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.model.db.TransactionFailureEntity;
+import com.sisal.transaction.server.repository.AccountRepository;
+import com.sisal.transaction.server.repository.TransactionFailureRepository;
+import com.sisal.transaction.test.config.TestConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test Suite for the failure log against the H2 in-memory database.
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>A transaction failing to persist leaves neither a transaction record nor a balance change</li>
+ *   <li>The failure is written to the failure table by the background writer</li>
+ * </ul>
+ *
+ * @see TransactionFailureRecorder
+ * @see TestConfig
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class TransactionFailureRecorderIT {
+
+    @Autowired
+    private TransactionApiService transactionApiService;
+
+    @Autowired
+    private AccountApiService accountApiService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionFailureRepository failureRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void whenTransactionFailsToPersist_thenRolledBackAndFailureRecorded() throws InterruptedException {
+        // Given
+        AccountEntity account = accountApiService.createAccount(null, "Bob", "Builder", "FLR" + Math.random(), 100.0);
+
+        // When the transaction record violates the maximum amount constraint on insert
+        assertThrows(RuntimeException.class, () -> transactionApiService.createTransaction(new TransactionAPIRequest()
+                .accountNumber(account.getAccountNumber())
+                .transactionType(TransactionAPIRequest.TransactionTypeEnum.DEPOSIT)
+                .amount(11000.0)));
+
+        // Then
+        List<TransactionFailureEntity> failures = awaitFailures(account.getAccountNumber());
+        assertAll(
+                () -> assertEquals(1, failures.size()),
+                () -> assertEquals(11000_00L, failures.get(0).getAmountMinor()),
+                () -> assertEquals(TransactionEntity.TransactionType.DEPOSIT, failures.get(0).getTransactionType()),
+                () -> assertFalse(failures.get(0).getReason().isEmpty()),
+                () -> assertEquals(100_00L, accountRepository.findByAccountNumber(account.getAccountNumber())
+                        .orElseThrow(IllegalStateException::new).getBalanceMinor()),
+                () -> assertEquals(0, jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM transaction_system.transactions WHERE account_id = ?",
+                        Integer.class, account.getAccountId()))
+        );
+    }
+
+    private List<TransactionFailureEntity> awaitFailures(String accountNumber) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<TransactionFailureEntity> failures = failureRepository.findByAccountNumber(accountNumber);
+        while (failures.isEmpty() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+            failures = failureRepository.findByAccountNumber(accountNumber);
+        }
+        return failures;
+    }
+}
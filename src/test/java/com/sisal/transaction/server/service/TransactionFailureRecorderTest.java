@@ -0,0 +1,125 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.TransactionEngineProperties;
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import com.sisal.transaction.server.model.db.TransactionFailureEntity;
+import com.sisal.transaction.server.repository.TransactionFailureRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit Tests for TransactionFailureRecorder
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Recorded failures are written by the background thread, with a bounded reason</li>
+ *   <li>Failures are dropped and counted while the queue is full, the caller never waits</li>
+ * </ul>
+ *
+ * @see TransactionFailureRecorder
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionFailureRecorderTest {
+
+    private static final String ACCOUNT_NUMBER = "TEST1K60161331926819";
+
+    @Mock
+    private TransactionFailureRepository failureRepository;
+
+    private final List<TransactionFailureEntity> written = new CopyOnWriteArrayList<>();
+    private TransactionEngineProperties engineProperties;
+    private MeterRegistry meterRegistry;
+    private TransactionFailureRecorder failureRecorder;
+
+    @BeforeEach
+    void setUp() {
+        engineProperties = new TransactionEngineProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        failureRecorder.shutdown();
+    }
+
+    @Test
+    void whenFailureRecorded_thenWrittenOffTheCallingThread() throws Exception {
+        // Given
+        CountDownLatch writes = new CountDownLatch(2);
+        List<String> writerThreads = new CopyOnWriteArrayList<>();
+        when(failureRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<TransactionFailureEntity> batch = invocation.getArgument(0);
+            written.addAll(batch);
+            writerThreads.add(Thread.currentThread().getName());
+            batch.forEach(failure -> writes.countDown());
+            return batch;
+        });
+        failureRecorder = new TransactionFailureRecorder(engineProperties, failureRepository, meterRegistry);
+        StringBuilder longMessage = new StringBuilder();
+        for (int i = 0; i < TransactionFailureEntity.REASON_LENGTH; i++) {
+            longMessage.append('x');
+        }
+
+        // When
+        failureRecorder.record(ACCOUNT_NUMBER, 50_00L, TransactionEntity.TransactionType.DEPOSIT,
+                new DataAccessResourceFailureException("DB Error"));
+        failureRecorder.record(ACCOUNT_NUMBER, 20_00L, TransactionEntity.TransactionType.WITHDRAWAL,
+                new IllegalStateException(longMessage.toString()));
+
+        // Then
+        assertTrue(writes.await(5, TimeUnit.SECONDS));
+        TransactionFailureEntity first = written.get(0);
+        assertAll(
+                () -> assertEquals(ACCOUNT_NUMBER, first.getAccountNumber()),
+                () -> assertEquals(50_00L, first.getAmountMinor()),
+                () -> assertEquals(TransactionEntity.TransactionType.DEPOSIT, first.getTransactionType()),
+                () -> assertEquals("DataAccessResourceFailureException: DB Error", first.getReason()),
+                () -> assertNotNull(first.getFailedAt()),
+                () -> assertEquals(TransactionFailureEntity.REASON_LENGTH, written.get(1).getReason().length()),
+                () -> assertTrue(writerThreads.stream().allMatch("transaction-failures"::equals))
+        );
+    }
+
+    @Test
+    void whenQueueIsFull_thenFailureDroppedAndCounted() throws Exception {
+        // Given a writer blocked on its first batch and room for one more failure
+        engineProperties.getFailureLog().setQueueCapacity(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(failureRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        failureRecorder = new TransactionFailureRecorder(engineProperties, failureRepository, meterRegistry);
+        failureRecorder.record(ACCOUNT_NUMBER, 10_00L, TransactionEntity.TransactionType.DEPOSIT, new IllegalStateException());
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // When
+        failureRecorder.record(ACCOUNT_NUMBER, 10_00L, TransactionEntity.TransactionType.DEPOSIT, new IllegalStateException());
+        failureRecorder.record(ACCOUNT_NUMBER, 10_00L, TransactionEntity.TransactionType.DEPOSIT, new IllegalStateException());
+
+        // Then
+        assertAll(
+                () -> assertEquals(1, meterRegistry.get("transaction.failures.dropped").functionCounter().count()),
+                () -> assertEquals(1, meterRegistry.get("transaction.failures.pending").gauge().value())
+        );
+        release.countDown();
+    }
+}
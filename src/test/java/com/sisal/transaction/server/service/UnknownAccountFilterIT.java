@@ -0,0 +1,125 @@
+package com.sisal.transaction.server.service;
+
+import com.sisal.transaction.server.config.UnknownAccountProperties;
+import com.sisal.transaction.server.exception.AccountNotFoundException;
+import com.sisal.transaction.server.model.api.TransactionAPIRequest;
+import com.sisal.transaction.test.config.TestConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration Test Suite for the rejection of unknown account numbers against the H2 in-memory database.
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>The filter is loaded in the background, nothing is rejected by it until then</li>
+ *   <li>Unknown account numbers are rejected without a stack trace</li>
+ *   <li>Accounts created through the service are accepted right away</li>
+ *   <li>Accounts inserted by another writer are accepted once the filter was refreshed</li>
+ * </ul>
+ *
+ * @see UnknownAccountFilter
+ * @see TestConfig
+ */
+@SpringBootTest
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+class UnknownAccountFilterIT {
+
+    @Autowired
+    private UnknownAccountFilter unknownAccountFilter;
+
+    @Autowired
+    private UnknownAccountProperties unknownAccountProperties;
+
+    @Autowired
+    private TransactionApiService transactionApiService;
+
+    @Autowired
+    private AccountApiService accountApiService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void awaitFilterLoaded() throws InterruptedException {
+        awaitLoaded(unknownAccountFilter);
+    }
+
+    @Test
+    void whenFilterNotLoadedYet_thenCheckSkippedUntilBackgroundLoadDone() throws InterruptedException {
+        // Given
+        UnknownAccountFilter filter = new UnknownAccountFilter(unknownAccountProperties, jdbcTemplate, new SimpleMeterRegistry());
+        String accountNumber = "UNKNOWN" + Math.random();
+
+        // When/Then
+        assertDoesNotThrow(() -> filter.checkKnown(accountNumber));
+        filter.loadInBackground();
+        awaitLoaded(filter);
+        assertThrows(AccountNotFoundException.class, () -> filter.checkKnown(accountNumber));
+    }
+
+    @Test
+    void whenAccountUnknown_thenRejectedByFilterWithoutStackTrace() {
+        // When
+        AccountNotFoundException notFound = assertThrows(AccountNotFoundException.class, () ->
+                transactionApiService.createTransaction(request("UNKNOWN" + Math.random())));
+
+        // Then
+        assertEquals(0, notFound.getStackTrace().length);
+    }
+
+    @Test
+    void whenAccountCreated_thenAcceptedRightAway() {
+        // Given
+        assertThrows(AccountNotFoundException.class, () -> unknownAccountFilter.checkKnown("WARMUP"));
+
+        // When
+        String accountNumber = accountApiService.createAccount(null, "Bob", "Builder", "UNK" + Math.random(), 150.0).getAccountNumber();
+
+        // Then
+        assertDoesNotThrow(() -> unknownAccountFilter.checkKnown(accountNumber));
+    }
+
+    @Test
+    void whenAccountInsertedByAnotherWriter_thenAcceptedAfterRefresh() throws InterruptedException {
+        // Given
+        assertThrows(AccountNotFoundException.class, () -> unknownAccountFilter.checkKnown("WARMUP"));
+        String accountNumber = "EXT" + Math.random();
+        jdbcTemplate.update("INSERT INTO transaction_system.accounts (account_number, first_name, last_name, balance_minor, created_at, version) " +
+                "VALUES (?, 'John', 'Doe', 10000, ?, 0)", accountNumber, Timestamp.from(Instant.now()));
+
+        // When the refresh scheduled before the insert is due
+        TimeUnit.MILLISECONDS.sleep(unknownAccountProperties.getRefreshInterval().toMillis() + 100);
+
+        // Then
+        assertDoesNotThrow(() -> unknownAccountFilter.checkKnown(accountNumber));
+    }
+
+    private static void awaitLoaded(UnknownAccountFilter filter) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!filter.isLoaded() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertTrue(filter.isLoaded());
+    }
+
+    private static TransactionAPIRequest request(String accountNumber) {
+        return new TransactionAPIRequest()
+                .accountNumber(accountNumber)
+                .transactionType(TransactionAPIRequest.TransactionTypeEnum.DEPOSIT)
+                .amount(10.0);
+    }
+}
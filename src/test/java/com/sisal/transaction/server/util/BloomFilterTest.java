@@ -0,0 +1,56 @@
+package com.sisal.transaction.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for BloomFilter
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Added strings are always reported as possibly contained</li>
+ *   <li>The false positive rate stays close to the configured one at the expected number of strings</li>
+ * </ul>
+ *
+ * @see BloomFilter
+ */
+class BloomFilterTest {
+
+    @Test
+    void whenStringsAdded_thenNeverReportedAbsent() {
+        // Given
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("GB29NWBK" + i);
+        }
+
+        // Then
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("GB29NWBK" + i));
+        }
+    }
+
+    @Test
+    void whenExpectedStringsAdded_thenFalsePositiveRateIsNearConfigured() {
+        // Given
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add("GB29NWBK" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("XX00UNKN" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    }
+}
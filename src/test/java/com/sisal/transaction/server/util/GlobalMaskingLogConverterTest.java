@@ -0,0 +1,116 @@
+package com.sisal.transaction.server.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StringUtils;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for GlobalMaskingLogConverter
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Lines without sensitive data are returned untouched</li>
+ *   <li>Each sensitive key is masked</li>
+ *   <li>The single pass scanner masks exactly like the previous chain of regular expressions</li>
+ * </ul>
+ *
+ * @see GlobalMaskingLogConverter
+ */
+class GlobalMaskingLogConverterTest {
+
+    private static final String[] SAMPLES = {
+            "{\"accountNumber\":\"GB29NWBK60161331926819\",\"amount\":200.0}",
+            "{\"AccountNumber\" : \"GB29NWBK60161331926819\", \"transactionId\":\"3f1c2b7e-1a2b-4c3d-8e9f-0a1b2c3d4e5f\"}",
+            "{\"accountNumber\": \"\", \"transactionId\": \"ab\", \"other\": \"abcdef\"}",
+            "{\"accountNumber\":\"abcdef\"} {\"accountNumber\":\"unterminated",
+            "{\"accountNumber\":\n\"GB29NWBK60161331926819\"}",
+            "API-Key: 8x7HHSG2J5ns9LzN3k4m6P5Q | X-API-Key: 8x7HHSG2J5ns9LzN3k4m6P5Q, x-hmac-signature: c2lnbmF0dXJl",
+            "X-HMAC-Signature:\nc2lnbmF0dXJlLXZhbHVl\nnext line",
+            "X-API-Key:   ",
+            "Account not found: accountNumber=GB29NWBK60161331926819 requested",
+            "accountNumber=SHORT1 accountNumber=ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789XYZ accountnumber=GB29NWBK60161331926819",
+            "Transaction Server Request Log: TraceID: 42 | Method: POST | URI: /api/transactions | Content-Type: application/json",
+            ""
+    };
+
+    @Test
+    void whenNothingSensitive_thenReturnSameInstance() {
+        String line = "Transaction Server Request Log: TraceID: 42 | Method: POST | URI: /api/transactions | Request-Body: {\"amount\":200.0}";
+        assertSame(line, GlobalMaskingLogConverter.mask(line));
+    }
+
+    @Test
+    void whenSensitiveKeys_thenValuesMasked() {
+        assertEquals("{\"accountNumber\":\"GB29**************6819\"}",
+                GlobalMaskingLogConverter.mask("{\"accountNumber\":\"GB29NWBK60161331926819\"}"));
+        assertEquals("Account not found: accountNumber=GB29**************6819",
+                GlobalMaskingLogConverter.mask("Account not found: accountNumber=GB29NWBK60161331926819"));
+        assertEquals("X-API-Key: 8x7H****************6P5Q, next",
+                GlobalMaskingLogConverter.mask("X-API-Key: 8x7HHSG2J5ns9LzN3k4m6P5Q, next"));
+    }
+
+    @Test
+    void whenComparedToRegexMasking_thenSameOutput() {
+        for (String sample : SAMPLES) {
+            assertEquals(RegexMasking.mask(sample), GlobalMaskingLogConverter.mask(sample), sample);
+        }
+    }
+
+    /**
+     * Previous implementation, one regular expression pass per sensitive key.
+     */
+    private static final class RegexMasking {
+
+        private static final Pattern[] PATTERNS = {
+                Pattern.compile("(?i)(\"accountNumber\"\\s*:\\s*\")([^\"]*)(\")"),
+                Pattern.compile("(?i)(\"transactionId\"\\s*:\\s*\")([^\"]*)(\")"),
+                Pattern.compile("(?i)(X-API-Key:?\\s*)([^,\\n]*)"),
+                Pattern.compile("(?i)(X-HMAC-Signature:?\\s*)([^,\\n]*)"),
+                Pattern.compile("(accountNumber=)([A-Z0-9]{10,34})")
+        };
+
+        static String mask(String message) {
+            for (Pattern pattern : PATTERNS) {
+                Matcher matcher = pattern.matcher(message);
+                StringBuffer sb = new StringBuffer();
+                while (matcher.find()) {
+                    String maskedValue = maskValue(matcher.group(2));
+                    String replacement = matcher.groupCount() == 3
+                            ? matcher.group(1) + maskedValue + matcher.group(3)
+                            : matcher.group(1) + maskedValue;
+                    matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+                }
+                matcher.appendTail(sb);
+                message = sb.toString();
+            }
+            return message;
+        }
+
+        private static String maskValue(String value) {
+            if (!StringUtils.hasText(value)) {
+                return value;
+            }
+            int length = value.length();
+            if (length < 3) {
+                return stars(length);
+            }
+            if (length <= 8) {
+                int showChars = length / 2;
+                return value.substring(0, showChars) + stars(length - showChars);
+            }
+            return value.substring(0, 4) + stars(length - 8) + value.substring(length - 4);
+        }
+
+        private static String stars(int count) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                sb.append('*');
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.sisal.transaction.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for HmacEngine
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Released engines are reused by any thread, not bound to the thread that created them</li>
+ *   <li>An engine released in the middle of a signature is reset</li>
+ *   <li>Concurrent borrowers get distinct engines</li>
+ * </ul>
+ *
+ * @see HmacEngine
+ */
+class HmacEngineTest {
+
+    private static final byte[] DATA = "GET:/api/accounts".getBytes(StandardCharsets.UTF_8);
+
+    private final HmacEngine engine = new HmacEngine("secret");
+
+    @Test
+    void whenEngineReleased_thenReusedByAnotherThread() throws Exception {
+        // Given
+        Mac released = engine.borrow();
+        engine.release(released);
+
+        // When
+        Mac reused = CompletableFuture.supplyAsync(engine::borrow).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertSame(released, reused);
+    }
+
+    @Test
+    void whenEngineReleasedMidSignature_thenResetForNextBorrower() {
+        // Given
+        byte[] expected = engine.newMac().doFinal(DATA);
+        Mac interrupted = engine.borrow();
+        interrupted.update("partial".getBytes(StandardCharsets.UTF_8));
+
+        // When
+        engine.release(interrupted);
+        Mac next = engine.borrow();
+
+        // Then
+        assertArrayEquals(expected, next.doFinal(DATA));
+    }
+
+    @Test
+    void whenBorrowedConcurrently_thenDistinctEngines() {
+        // When
+        Mac first = engine.borrow();
+        Mac second = engine.borrow();
+
+        // Then
+        assertNotSame(first, second);
+    }
+}
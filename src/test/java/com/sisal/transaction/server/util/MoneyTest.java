@@ -0,0 +1,55 @@
+package com.sisal.transaction.server.util;
+
+import com.sisal.transaction.server.exception.InvalidAmountException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for Money
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Decimal amounts are converted to the exact number of minor units</li>
+ *   <li>Amounts with more fraction digits than the currency are rejected</li>
+ *   <li>Repeated minor unit arithmetic does not drift like the equivalent floating point sum</li>
+ * </ul>
+ *
+ * @see Money
+ */
+class MoneyTest {
+
+    @Test
+    void whenDecimalAmountConverted_thenExactMinorUnits() {
+        assertAll(
+                () -> assertEquals(20000L, Money.toMinorUnits(200.0)),
+                () -> assertEquals(1L, Money.toMinorUnits(0.01)),
+                () -> assertEquals(29L, Money.toMinorUnits(0.29)), // 0.29 * 100 == 28.999999999999996
+                () -> assertEquals(1000000L, Money.toMinorUnits(10000.00)),
+                () -> assertEquals(-1050L, Money.toMinorUnits(-10.5)),
+                () -> assertEquals(0.29, Money.toDecimal(29L)),
+                () -> assertEquals(175.5, Money.toDecimal(Money.toMinorUnits(175.5)))
+        );
+    }
+
+    @Test
+    void whenAmountHasTooManyFractionDigits_thenInvalidAmountIsThrown() {
+        assertThrows(InvalidAmountException.class, () -> Money.toMinorUnits(10.001));
+        assertThrows(InvalidAmountException.class, () -> Money.toMinorUnits(Double.NaN));
+        assertThrows(InvalidAmountException.class, () -> Money.toMinorUnits(1e300));
+    }
+
+    @Test
+    void whenAmountsAccumulated_thenNoRoundingDrift() {
+        double decimalBalance = 0;
+        long minorBalance = 0;
+        for (int i = 0; i < 1000; i++) {
+            decimalBalance += 0.1;
+            minorBalance += Money.toMinorUnits(0.1);
+        }
+
+        assertNotEquals(100.0, decimalBalance);
+        assertEquals(Money.ofUnits(100), minorBalance);
+        assertEquals(100.0, Money.toDecimal(minorBalance));
+    }
+}
@@ -0,0 +1,67 @@
+package com.sisal.transaction.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for NdjsonLineReader
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>LF and CRLF terminators, last line without terminator</li>
+ *   <li>Oversized lines are skipped without affecting the next ones</li>
+ *   <li>Lines spanning several reads of the underlying stream</li>
+ * </ul>
+ *
+ * @see NdjsonLineReader
+ */
+class NdjsonLineReaderTest {
+
+    @Test
+    void whenMixedTerminators_thenLinesWithoutTerminator() throws IOException {
+        assertEquals(Arrays.asList("{\"a\":1}", "", "{\"b\":2}", "{\"c\":3}"),
+                readAll(stream("{\"a\":1}\n\r\n{\"b\":2}\r\n{\"c\":3}"), 16));
+    }
+
+    @Test
+    void whenLineTooLong_thenSkippedUpToItsEnd() throws IOException {
+        assertEquals(Arrays.asList("short", "<too long>", "next", "<too long>"),
+                readAll(stream("short\nthis line is too long\nnext\nlast line too long"), 8));
+    }
+
+    @Test
+    void whenStreamReturnsSingleBytes_thenLinesAreJoined() throws IOException {
+        InputStream trickle = new ByteArrayInputStream("first\nsecond\n".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+        assertEquals(Arrays.asList("first", "second"), readAll(trickle, 16));
+    }
+
+    private static List<String> readAll(InputStream inputStream, int maxLineLength) throws IOException {
+        NdjsonLineReader reader = new NdjsonLineReader(inputStream, maxLineLength);
+        List<String> lines = new ArrayList<>();
+        int length;
+        while ((length = reader.next()) != NdjsonLineReader.END_OF_STREAM) {
+            lines.add(length == NdjsonLineReader.TOO_LONG
+                    ? "<too long>"
+                    : new String(reader.line(), 0, length, StandardCharsets.UTF_8));
+        }
+        return lines;
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package com.sisal.transaction.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for StreamSignatureVerifier
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Chained segment signatures computed by {@link AuthUtil#calculateStreamSignature} verify</li>
+ *   <li>An altered line, a reordered segment or a broken segment fails verification</li>
+ *   <li>No segment verifies after a mismatch</li>
+ * </ul>
+ *
+ * @see StreamSignatureVerifier
+ */
+class StreamSignatureVerifierTest {
+
+    private static final HmacEngine ENGINE = new HmacEngine("secret");
+    private static final byte[] REQUEST_SIGNATURE = "request-signature-bytes".getBytes(StandardCharsets.UTF_8);
+    private static final String REQUEST_SIGNATURE_BASE64 = Base64.getEncoder().encodeToString(REQUEST_SIGNATURE);
+
+    @Test
+    void whenSegmentsSignedInOrder_thenAllVerify() {
+
+        String first = AuthUtil.calculateStreamSignature(REQUEST_SIGNATURE_BASE64, Arrays.asList("a", "b"), ENGINE);
+        String second = AuthUtil.calculateStreamSignature(first, Collections.singletonList("c"), ENGINE);
+
+        StreamSignatureVerifier verifier = new StreamSignatureVerifier(ENGINE, REQUEST_SIGNATURE);
+        update(verifier, "a");
+        update(verifier, "b");
+        assertTrue(verifier.verify(Base64.getDecoder().decode(first)));
+        update(verifier, "c");
+        assertTrue(verifier.verify(Base64.getDecoder().decode(second)));
+    }
+
+    @Test
+    void whenLineAltered_thenMismatchAndNoFurtherSegmentVerifies() {
+
+        String first = AuthUtil.calculateStreamSignature(REQUEST_SIGNATURE_BASE64, Collections.singletonList("a"), ENGINE);
+        String second = AuthUtil.calculateStreamSignature(first, Collections.singletonList("b"), ENGINE);
+
+        StreamSignatureVerifier verifier = new StreamSignatureVerifier(ENGINE, REQUEST_SIGNATURE);
+        update(verifier, "x");
+        assertFalse(verifier.verify(Base64.getDecoder().decode(first)));
+        update(verifier, "b");
+        assertFalse(verifier.verify(Base64.getDecoder().decode(second)));
+    }
+
+    @Test
+    void whenSegmentReplayedUnderOtherRequest_thenMismatch() {
+
+        String signed = AuthUtil.calculateStreamSignature(REQUEST_SIGNATURE_BASE64, Collections.singletonList("a"), ENGINE);
+
+        StreamSignatureVerifier verifier = new StreamSignatureVerifier(ENGINE, "other-request".getBytes(StandardCharsets.UTF_8));
+        update(verifier, "a");
+        assertFalse(verifier.verify(Base64.getDecoder().decode(signed)));
+    }
+
+    @Test
+    void whenSegmentBroken_thenMismatch() {
+
+        String signed = AuthUtil.calculateStreamSignature(REQUEST_SIGNATURE_BASE64, Collections.singletonList("a"), ENGINE);
+
+        StreamSignatureVerifier verifier = new StreamSignatureVerifier(ENGINE, REQUEST_SIGNATURE);
+        update(verifier, "a");
+        verifier.breakSegment();
+        assertFalse(verifier.verify(Base64.getDecoder().decode(signed)));
+    }
+
+    private static void update(StreamSignatureVerifier verifier, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        verifier.update(bytes, bytes.length);
+    }
+}
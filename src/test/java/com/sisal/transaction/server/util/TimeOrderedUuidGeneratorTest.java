@@ -0,0 +1,122 @@
+package com.sisal.transaction.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for TimeOrderedUuidGenerator
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Ids are increasing in the sort order of the database the layout targets</li>
+ *   <li>Version and variant bits of both layouts</li>
+ *   <li>Ids generated concurrently are unique and increasing per thread</li>
+ * </ul>
+ *
+ * @see TimeOrderedUuidGenerator
+ */
+class TimeOrderedUuidGeneratorTest {
+
+    private static final int IDS = 20_000;
+
+    /**
+     * SQL Server compares UNIQUEIDENTIFIER bytes 10-15, then 8-9, 6-7, 4-5 and 0-3.
+     */
+    private static final int[] SQL_SERVER_BYTE_ORDER = {10, 11, 12, 13, 14, 15, 8, 9, 6, 7, 4, 5, 0, 1, 2, 3};
+
+    private static final Comparator<UUID> SQL_SERVER_ORDER = (left, right) -> {
+        byte[] leftBytes = toBytes(left);
+        byte[] rightBytes = toBytes(right);
+        for (int index : SQL_SERVER_BYTE_ORDER) {
+            int compared = Integer.compare(leftBytes[index] & 0xFF, rightBytes[index] & 0xFF);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return 0;
+    };
+
+    private static final Comparator<UUID> BYTE_ORDER = (left, right) -> {
+        int compared = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+        return compared != 0 ? compared : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+    };
+
+    @Test
+    void whenSqlServerLayout_thenIncreasingInSqlServerOrder() {
+        TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(TimeOrderedUuidGenerator.Layout.SQL_SERVER);
+
+        UUID previous = generator.generate();
+        for (int i = 0; i < IDS; i++) {
+            UUID next = generator.generate();
+            assertTrue(SQL_SERVER_ORDER.compare(previous, next) < 0, previous + " >= " + next);
+            assertEquals(8, next.version());
+            assertEquals(2, next.variant());
+            previous = next;
+        }
+    }
+
+    @Test
+    void whenV7Layout_thenIncreasingInByteOrderWithEmbeddedTimestamp() {
+        TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(TimeOrderedUuidGenerator.Layout.UUID_V7);
+
+        long before = System.currentTimeMillis();
+        UUID previous = generator.generate();
+        assertTrue((previous.getMostSignificantBits() >>> 16) >= before);
+        for (int i = 0; i < IDS; i++) {
+            UUID next = generator.generate();
+            assertTrue(BYTE_ORDER.compare(previous, next) < 0, previous + " >= " + next);
+            assertEquals(7, next.version());
+            assertEquals(2, next.variant());
+            previous = next;
+        }
+    }
+
+    @Test
+    void whenGeneratedConcurrently_thenUniqueAndIncreasingPerThread() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<UUID>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    List<UUID> ids = new ArrayList<>(IDS);
+                    for (int i = 0; i < IDS; i++) {
+                        ids.add(TimeOrderedUuidGenerator.next());
+                    }
+                    return ids;
+                }));
+            }
+
+            Set<UUID> unique = new HashSet<>();
+            for (Future<List<UUID>> future : futures) {
+                List<UUID> ids = future.get();
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(SQL_SERVER_ORDER.compare(ids.get(i - 1), ids.get(i)) < 0);
+                }
+                unique.addAll(ids);
+            }
+            assertEquals(threads * IDS, unique.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] toBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
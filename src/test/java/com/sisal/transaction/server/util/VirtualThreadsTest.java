@@ -0,0 +1,71 @@
+package com.sisal.transaction.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit Tests for VirtualThreads
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Support is detected from the runtime version</li>
+ *   <li>On Java 21 or later, tasks run on named virtual threads</li>
+ *   <li>On older runtimes, creating the executor fails fast</li>
+ * </ul>
+ *
+ * @see VirtualThreads
+ */
+class VirtualThreadsTest {
+
+    private static final boolean JAVA_21 = featureVersion() >= 21;
+
+    @Test
+    void supportMatchesRuntimeVersion() {
+        assertEquals(JAVA_21, VirtualThreads.isSupported());
+    }
+
+    @Test
+    void whenSupported_thenTasksRunOnNamedVirtualThreads() throws Exception {
+        assumeTrue(JAVA_21, "Virtual threads need Java 21");
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-virtual-");
+        try {
+            Future<Thread> first = executor.submit(Thread::currentThread);
+            Future<Thread> second = executor.submit(Thread::currentThread);
+            Thread firstThread = first.get(5, TimeUnit.SECONDS);
+            Thread secondThread = second.get(5, TimeUnit.SECONDS);
+
+            assertAll(
+                    () -> assertTrue(firstThread.getName().startsWith("test-virtual-")),
+                    () -> assertNotSame(firstThread, secondThread),
+                    () -> assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(firstThread))
+            );
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void whenNotSupported_thenExecutorCreationFails() {
+        assumeFalse(JAVA_21, "Virtual threads are available");
+
+        IllegalStateException unsupported = assertThrows(IllegalStateException.class,
+                () -> VirtualThreads.newThreadPerTaskExecutor("test-virtual-"));
+        assertTrue(unsupported.getMessage().contains("Java 21"));
+    }
+
+    /**
+     * {@code 1.8} on Java 8, {@code 17} from Java 9 on.
+     */
+    private static int featureVersion() {
+        String version = System.getProperty("java.specification.version");
+        return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+    }
+}
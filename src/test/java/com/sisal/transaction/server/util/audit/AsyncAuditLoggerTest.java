@@ -0,0 +1,133 @@
+package com.sisal.transaction.server.util.audit;
+
+import com.sisal.transaction.server.config.AuditLogProperties;
+import com.sisal.transaction.server.util.filter.CustomRequestWrapper;
+import com.sisal.transaction.server.util.filter.CustomResponseWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for AsyncAuditLogger
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Entries are written in order, in the same layout as the synchronous logger</li>
+ *   <li>Entries are dropped and counted when the buffer is full with the DROP policy</li>
+ *   <li>Request threads wait for a free slot with the BLOCK policy</li>
+ * </ul>
+ *
+ * @see AsyncAuditLogger
+ */
+class AsyncAuditLoggerTest {
+
+    private final List<String> written = new CopyOnWriteArrayList<>();
+    private final CountDownLatch writerReleased = new CountDownLatch(1);
+    private AsyncAuditLogger auditLogger;
+
+    @AfterEach
+    void tearDown() {
+        writerReleased.countDown();
+        auditLogger.shutdown();
+    }
+
+    @Test
+    void whenRequestAndResponseLogged_thenWrittenInOrder() throws Exception {
+
+        auditLogger = new AsyncAuditLogger(16, AuditLogProperties.OverflowPolicy.DROP, written::add);
+
+        CustomResponseWrapper responseWrapper = new CustomResponseWrapper(new MockHttpServletResponse());
+        responseWrapper.setStatus(201);
+        responseWrapper.getOutputStream().write("{\n\"status\":\"COMPLETED\"}\n".getBytes(StandardCharsets.UTF_8));
+
+        auditLogger.logRequest(request("{\n\"amount\":200.0}"), "trace-1");
+        auditLogger.logResponse(responseWrapper, "trace-1");
+        auditLogger.shutdown();
+
+        assertEquals(2, written.size());
+        assertTrue(written.get(0).startsWith("Transaction Server Request Log: TraceID: trace-1 | "));
+        assertTrue(written.get(0).endsWith("Method: POST | URI: /api/transactions | API-Key: key | HMAC-Signature: null"
+                + " | Timestamp-Header: null | Content-Type: application/json | Request-Body: { \"amount\":200.0}"));
+        assertTrue(written.get(1).startsWith("Transaction Server Response Log: TraceID: trace-1 | "));
+        assertTrue(written.get(1).endsWith("Status: 201 | Content-Type: null | Request-Body: { \"status\":\"COMPLETED\"}"));
+        assertEquals(0, auditLogger.getDroppedEvents());
+    }
+
+    @Test
+    void whenBufferFullWithDropPolicy_thenEntriesDroppedAndCounted() {
+
+        auditLogger = new AsyncAuditLogger(2, AuditLogProperties.OverflowPolicy.DROP, blockingWriter());
+
+        // First entry is held by the blocked writer, the next two fill the buffer
+        for (int i = 0; i < 5; i++) {
+            auditLogger.logRequest(request("{}"), "trace-" + i);
+        }
+
+        assertEquals(3, auditLogger.getDroppedEvents());
+
+        writerReleased.countDown();
+        auditLogger.shutdown();
+        assertEquals(2, written.size());
+    }
+
+    @Test
+    void whenBufferFullWithBlockPolicy_thenRequestWaitsForFreeSlot() throws Exception {
+
+        auditLogger = new AsyncAuditLogger(2, AuditLogProperties.OverflowPolicy.BLOCK, blockingWriter());
+        auditLogger.logRequest(request("{}"), "trace-0");
+        auditLogger.logRequest(request("{}"), "trace-1");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> blocked = executor.submit(() -> auditLogger.logRequest(request("{}"), "trace-2"));
+            Thread.sleep(100);
+            assertFalse(blocked.isDone());
+
+            writerReleased.countDown();
+            blocked.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        auditLogger.shutdown();
+        assertEquals(3, written.size());
+        assertEquals(0, auditLogger.getDroppedEvents());
+        assertTrue(written.get(2).contains("TraceID: trace-2"));
+    }
+
+    /**
+     * Writer stuck on the first entry until released, so the following entries stay in the buffer.
+     */
+    private Consumer<String> blockingWriter() {
+        return message -> {
+            try {
+                writerReleased.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            written.add(message);
+        };
+    }
+
+    private static CustomRequestWrapper request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transactions");
+        request.setContentType("application/json");
+        request.addHeader("X-API-Key", "key");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return new CustomRequestWrapper(request);
+    }
+}
@@ -0,0 +1,102 @@
+package com.sisal.transaction.server.util.filter;
+
+import com.sisal.transaction.server.exception.RequestBodyTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for the request / response stream wrappers
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Bulk and single byte reads return the buffered body and report when it is finished</li>
+ *   <li>A body of unknown length is buffered completely, or rejected once it exceeds the maximum size</li>
+ *   <li>Bulk and single byte writes reach the response and its copy</li>
+ *   <li>The copy is empty once released</li>
+ * </ul>
+ *
+ * @see CustomRequestWrapper
+ * @see CustomResponseWrapper
+ */
+class StreamWrappersTest {
+
+    @Test
+    void whenBodyReadInChunks_thenStreamIsFinishedAtTheEnd() throws IOException {
+
+        byte[] body = payload(10_000);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transactions");
+        request.setContent(body);
+
+        ServletInputStream inputStream = new CustomRequestWrapper(request).getInputStream();
+        assertFalse(inputStream.isFinished());
+
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        read.write(inputStream.read());
+        byte[] chunk = new byte[4096];
+        int count;
+        while ((count = inputStream.read(chunk, 0, chunk.length)) != -1) {
+            read.write(chunk, 0, count);
+        }
+
+        assertTrue(inputStream.isFinished());
+        assertEquals(-1, inputStream.read());
+        assertArrayEquals(body, read.toByteArray());
+    }
+
+    @Test
+    void whenContentLengthUnknown_thenBodyBufferedUpToMaximumSize() throws IOException {
+
+        byte[] body = payload(20_000);
+
+        assertArrayEquals(body, new CustomRequestWrapper(chunkedRequest(body), body.length).getBody());
+        assertThrows(RequestBodyTooLargeException.class, () -> new CustomRequestWrapper(chunkedRequest(body), body.length - 1));
+    }
+
+    @Test
+    void whenResponseWritten_thenCopyMatchesResponse() throws IOException {
+
+        byte[] body = payload(100_000);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CustomResponseWrapper responseWrapper = new CustomResponseWrapper(response);
+
+        ServletOutputStream outputStream = responseWrapper.getOutputStream();
+        outputStream.write(body[0]);
+        outputStream.write(body, 1, body.length - 1);
+        outputStream.flush();
+
+        assertArrayEquals(body, response.getContentAsByteArray());
+        assertArrayEquals(body, responseWrapper.getContentAsByteArray());
+        assertEquals(new String(body, StandardCharsets.UTF_8), responseWrapper.getContentAsString(StandardCharsets.UTF_8));
+
+        responseWrapper.release();
+        assertEquals(0, responseWrapper.getContentAsByteArray().length);
+    }
+
+    private static MockHttpServletRequest chunkedRequest(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transactions") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContent(body);
+        return request;
+    }
+
+    private static byte[] payload(int size) {
+        byte[] payload = new byte[size];
+        for (int i = 0; i < size; i++) {
+            payload[i] = (byte) ('a' + i % 26);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,175 @@
+package com.sisal.transaction.server.util.journal;
+
+import com.sisal.transaction.server.model.db.TransactionEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit Tests for TransactionJournal
+ *
+ * <p>Key test verifications:</p>
+ * <ul>
+ *   <li>Entries are read back in append order across segment files</li>
+ *   <li>Released segments are unmapped and deleted, the remaining segments stay usable</li>
+ *   <li>Reopening recovers the entries and truncates a torn record</li>
+ *   <li>Concurrent appenders are all made durable</li>
+ * </ul>
+ *
+ * @see TransactionJournal
+ */
+class TransactionJournalTest {
+
+    /**
+     * Three records per segment.
+     */
+    private static final int SEGMENT_SIZE = 3 * TransactionJournal.RECORD_SIZE + 10;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void whenEntriesSpanSegments_thenReadInOrderAndReleased() throws IOException {
+        try (TransactionJournal journal = TransactionJournal.open(directory, SEGMENT_SIZE, 1)) {
+            // Given
+            long position = 0;
+            for (int i = 1; i <= 7; i++) {
+                position = journal.append(entry(i));
+            }
+            journal.awaitDurable(position);
+
+            // When
+            List<JournalEntry> entries = new ArrayList<>();
+            long next = journal.read(journal.getFirstPosition(), 100, entries);
+
+            // Then
+            assertEquals(7, entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                assertEquals(i + 1, entries.get(i).getSequence());
+                assertEquals(i + 1, entries.get(i).getAmount());
+            }
+            assertEquals(position, next);
+            assertEquals(3, segmentFiles());
+
+            journal.release(next);
+            assertEquals(1, segmentFiles());
+        }
+    }
+
+    @Test
+    void whenSegmentsReleased_thenRemainingSegmentsStayUsable() throws IOException {
+        try (TransactionJournal journal = TransactionJournal.open(directory, SEGMENT_SIZE, 1)) {
+            // Given
+            long position = 0;
+            for (int i = 1; i <= 4; i++) {
+                position = journal.append(entry(i));
+            }
+            journal.awaitDurable(position);
+            List<JournalEntry> projected = new ArrayList<>();
+            long next = journal.read(journal.getFirstPosition(), 4, projected);
+
+            // When the first segment is released
+            journal.release(next);
+            journal.awaitDurable(journal.append(entry(5)));
+
+            // Then
+            List<JournalEntry> entries = new ArrayList<>();
+            journal.read(journal.getFirstPosition(), 100, entries);
+            assertEquals(1, segmentFiles());
+            assertEquals(2, entries.size());
+            assertEquals(4, entries.get(0).getSequence());
+            assertEquals(5, entries.get(1).getAmount());
+            assertThrows(IllegalStateException.class, () -> journal.read(0, 1, new ArrayList<>()));
+        }
+    }
+
+    @Test
+    void whenReopenedAfterTornWrite_thenValidEntriesRecovered() throws IOException {
+        // Given
+        try (TransactionJournal journal = TransactionJournal.open(directory, SEGMENT_SIZE, 1)) {
+            journal.awaitDurable(journal.append(entry(1)));
+            journal.awaitDurable(journal.append(entry(2)));
+            journal.awaitDurable(journal.append(entry(3)));
+        }
+        // Last record only partially written
+        try (RandomAccessFile segment = new RandomAccessFile(firstSegment().toFile(), "rw")) {
+            segment.seek(2L * TransactionJournal.RECORD_SIZE + TransactionJournal.HEADER_SIZE + 20);
+            segment.writeLong(0L);
+        }
+
+        // When
+        try (TransactionJournal journal = TransactionJournal.open(directory, SEGMENT_SIZE, 1)) {
+            List<JournalEntry> recovered = new ArrayList<>();
+            journal.read(journal.getFirstPosition(), 100, recovered);
+
+            journal.awaitDurable(journal.append(entry(4)));
+            List<JournalEntry> afterAppend = new ArrayList<>();
+            journal.read(journal.getFirstPosition(), 100, afterAppend);
+
+            // Then
+            assertEquals(2, recovered.size());
+            assertEquals(3, afterAppend.size());
+            assertEquals(3, afterAppend.get(2).getSequence());
+            assertEquals(4, afterAppend.get(2).getAmount());
+        }
+    }
+
+    @Test
+    void whenAppendedConcurrently_thenAllEntriesDurable() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(directory, 64 * 1024, 1)) {
+            // Given
+            ExecutorService appenders = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+
+            // When
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(appenders.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        journal.awaitDurable(journal.append(entry(i)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            appenders.shutdown();
+
+            // Then
+            List<JournalEntry> entries = new ArrayList<>();
+            journal.read(journal.getFirstPosition(), Integer.MAX_VALUE, entries);
+            assertEquals(4000, entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                assertEquals(i + 1, entries.get(i).getSequence());
+            }
+        }
+    }
+
+    private static JournalEntry entry(long amount) {
+        return new JournalEntry(0, UUID.randomUUID(), 42L, TransactionEntity.TransactionType.DEPOSIT, amount, System.currentTimeMillis());
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private Path firstSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().findFirst().orElseThrow(IllegalStateException::new);
+        }
+    }
+}
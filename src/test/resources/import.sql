@@ -0,0 +1,3 @@
+-- H2 keeps NULLs distinct in a unique index, the filter of the SQL Server index (DBSetup.md) is not needed
+CREATE UNIQUE INDEX IF NOT EXISTS TRANSACTION_SYSTEM.UX_TRANSACTION_ACCOUNT_SEQUENCE ON TRANSACTION_SYSTEM.TRANSACTIONS(ACCOUNT_ID, ACCOUNT_SEQUENCE);
+CREATE ALIAS IF NOT EXISTS TRANSACTION_SYSTEM.CREATE_TRANSACTION FOR 'com.sisal.transaction.server.repository.H2TransactionProcedure.createTransaction';